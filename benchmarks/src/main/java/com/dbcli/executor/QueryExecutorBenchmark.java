@@ -0,0 +1,99 @@
+package com.dbcli.executor;
+
+import com.dbcli.database.DatabaseManager;
+import com.dbcli.model.DatabaseConfig;
+import com.dbcli.model.DatabaseNode;
+import com.dbcli.model.MetricConfig;
+import com.dbcli.model.MetricResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueryExecutor 取数基准（H2 内存库）
+ * 覆盖单值取值与多值结果集逐行提取到列式存储的完整路径，连接来自已预热的连接池
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryExecutorBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private DatabaseManager databaseManager;
+    private QueryExecutor queryExecutor;
+    private DatabaseNode node;
+    private MetricConfig singleMetric;
+    private MetricConfig multiMetric;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        node = new DatabaseNode();
+        node.setHost("127.0.0.1");
+        node.setPort(1);
+        node.setSvcName("query_executor_benchmark");
+        node.setRole("master");
+
+        DatabaseConfig config = new DatabaseConfig();
+        config.setEnable(true);
+        config.setType("h2");
+        config.setPort(1);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaxPoolSize(2);
+        config.setNodes(Collections.singletonList(node));
+
+        Map<String, DatabaseConfig> configs = new HashMap<>();
+        configs.put("bench", config);
+        databaseManager = new DatabaseManager();
+        databaseManager.initialize(configs);
+        queryExecutor = new QueryExecutor(databaseManager, 1);
+
+        singleMetric = metric("single", "SINGLE", "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 10)");
+        multiMetric = metric("multi", "MULTI",
+                "SELECT X AS ID, 'USER_' || MOD(X, 50) AS NAME, X * 1.5 AS SIZE_MB, CURRENT_TIMESTAMP AS TS "
+                        + "FROM SYSTEM_RANGE(1, " + rows + ")");
+        MetricConfig.ExecutionStrategy strategy = new MetricConfig.ExecutionStrategy();
+        strategy.setMaxRows(0);
+        multiMetric.setExecutionStrategy(strategy);
+
+        // 预热连接池，避免首个迭代包含建池开销
+        queryExecutor.executeMetricAsyncForNode("h2", "bench", singleMetric, node).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        queryExecutor.shutdown();
+        databaseManager.shutdown();
+    }
+
+    @Benchmark
+    public MetricResult singleValue() {
+        return queryExecutor.executeMetricAsyncForNode("h2", "bench", singleMetric, node).join();
+    }
+
+    @Benchmark
+    public MetricResult multiValueRows() {
+        MetricResult result = queryExecutor.executeMetricAsyncForNode("h2", "bench", multiMetric, node).join();
+        if (!result.isSuccess() || result.getMultiValues().size() != rows) {
+            throw new IllegalStateException("多值查询结果异常: " + result.getErrorMessage());
+        }
+        return result;
+    }
+
+    private static MetricConfig metric(String name, String type, String sql) {
+        MetricConfig config = new MetricConfig();
+        config.setName(name);
+        config.setType(type);
+        config.setSql(sql);
+        config.setDescription(name);
+        return config;
+    }
+}
@@ -0,0 +1,65 @@
+package com.dbcli.service;
+
+import com.dbcli.model.MetricResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报告基准的合成数据：nodes 个节点，每节点 singles 个单值指标与一个 multiRows 行的多值指标
+ */
+final class ReportData {
+
+    private ReportData() {
+    }
+
+    static List<MetricResult> build(int nodes, int singles, int multiRows) {
+        List<MetricResult> results = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int n = 0; n < nodes; n++) {
+            String ip = "10.0." + (n / 250) + "." + (n % 250 + 1);
+            for (int m = 0; m < singles; m++) {
+                MetricResult r = base(ip, now);
+                r.setMetricName("metric_" + m);
+                r.setMetricDescription("单值指标" + m);
+                r.setMetricType("SINGLE");
+                r.setValue(n * 31 + m);
+                results.add(r);
+            }
+
+            MetricResult multi = base(ip, now);
+            multi.setMetricName("sessions");
+            multi.setMetricDescription("会话列表");
+            multi.setMetricType("MULTI");
+            multi.setColumns(Arrays.asList("SID", "USERNAME", "STATUS", "SECONDS"));
+            List<Map<String, Object>> rows = new ArrayList<>(multiRows);
+            for (int i = 0; i < multiRows; i++) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("SID", i);
+                row.put("USERNAME", "USER_" + (i % 20));
+                row.put("STATUS", i % 3 == 0 ? "ACTIVE" : "INACTIVE");
+                row.put("SECONDS", i * 7L);
+                rows.add(row);
+            }
+            multi.setMultiValues(rows);
+            results.add(multi);
+        }
+        return results;
+    }
+
+    private static MetricResult base(String ip, LocalDateTime now) {
+        MetricResult r = new MetricResult();
+        r.setSystemName("bench_system");
+        r.setDatabaseName("benchdb");
+        r.setNodeIp(ip);
+        r.setNodeRole("master");
+        r.setDbType("oracle");
+        r.setExecuteTime(now);
+        r.setSuccess(true);
+        return r;
+    }
+}
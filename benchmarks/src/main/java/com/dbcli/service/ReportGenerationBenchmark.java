@@ -0,0 +1,68 @@
+package com.dbcli.service;
+
+import com.dbcli.model.MetricResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 报告生成基准：ExcelReportGenerator（XSSF）与 StreamingExcelReportGenerator（SXSSF）对比，
+ * 以及 HTML 标签页报告（与实际报告相同的 generate 路径，写入临时目录）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportGenerationBenchmark {
+
+    @Param({"50", "500"})
+    public int nodes;
+
+    @Param({"200"})
+    public int multiRows;
+
+    private List<MetricResult> results;
+    private Path outputDir;
+    private Path metricsDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        results = ReportData.build(nodes, 20, multiRows);
+        outputDir = Files.createTempDirectory("dbcli-bench-report");
+        // 空指标目录：不加载阈值，只测渲染与写出
+        metricsDir = Files.createTempDirectory("dbcli-bench-metrics");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path dir : new Path[]{outputDir, metricsDir}) {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public void excelXssf() throws IOException {
+        new ExcelReportGenerator().generate(results, outputDir.toString(), metricsDir.toString());
+    }
+
+    @Benchmark
+    public void excelStreaming() throws Exception {
+        new StreamingExcelReportGenerator().generateReport(results, metricsDir.toString(),
+                outputDir.resolve("streaming.xlsx").toString());
+    }
+
+    @Benchmark
+    public void htmlTabbed() throws IOException {
+        new HtmlReportGenerator().generate(results, outputDir.toString(), metricsDir.toString());
+    }
+}
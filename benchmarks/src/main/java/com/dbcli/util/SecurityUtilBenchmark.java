@@ -0,0 +1,40 @@
+package com.dbcli.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 脱敏与确定性加密基准：预检查与黑名单匹配时每个节点都会调用
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityUtilBenchmark {
+
+    @Param({
+            "jdbc:oracle:thin:@//192.168.10.21:1521/ORCLPDB1",
+            "jdbc:mysql://10.1.2.3:3306/app?useSSL=false&user=admin&password=secret"
+    })
+    public String jdbcUrl;
+
+    private String connectionId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionId = "oracle|" + jdbcUrl;
+    }
+
+    @Benchmark
+    public String maskJdbcUrl() {
+        return DataMaskUtil.maskJdbcUrl(jdbcUrl);
+    }
+
+    @Benchmark
+    public String encryptDeterministic() {
+        return EncryptionUtil.encryptDeterministic(connectionId);
+    }
+}
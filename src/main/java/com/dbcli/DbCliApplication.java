@@ -2,6 +2,7 @@ package com.dbcli;
 
 import com.dbcli.cli.CommandLineProcessor;
 import com.dbcli.config.AppConfig;
+import com.dbcli.core.DaemonRunner;
 import com.dbcli.core.DbCliRunner;
 import com.dbcli.service.TemplateService;
 import com.dbcli.util.LogConfigManager;
@@ -64,9 +65,13 @@ public class DbCliApplication {
             // 创建日志目录
             LogConfigManager.createLogDirectories("logs");
             
-            // 运行主程序
-            DbCliRunner runner = new DbCliRunner(config);
-            success = runner.run();
+            // 运行主程序（长驻模式循环采集，直到进程收到终止信号）
+            if (config.isDaemon() && !config.isTestConnection() && !config.isEncryptConfig()) {
+                success = new DaemonRunner(config).run();
+            } else {
+                DbCliRunner runner = new DbCliRunner(config);
+                success = runner.run();
+            }
             
             if (success) {
                 logger.info("dbcli 执行成功完成");
@@ -1,6 +1,7 @@
 package com.dbcli.cli;
 
 import com.dbcli.config.AppConfig;
+import com.dbcli.config.ConfigLoader;
 import org.apache.commons.cli.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +54,152 @@ public class CommandLineProcessor {
                 config.setDryRun(true);
             }
             
+            if (cmd.hasOption("node-session")) {
+                config.setNodeSession(true);
+            }
+            
+            if (cmd.hasOption("stream-report")) {
+                config.setStreamingReport(true);
+            }
+            
+            if (cmd.hasOption("precheck-cache")) {
+                config.setPrecheckCache(true);
+            }
+            
+            if (cmd.hasOption("warm-pool")) {
+                config.setWarmPool(true);
+            }
+            
+            if (cmd.hasOption("hedge")) {
+                config.setHedgeRequests(true);
+            }
+            
+            if (cmd.hasOption("no-cache")) {
+                config.setNoCache(true);
+            }
+            
+            if (cmd.hasOption("batch-single")) {
+                config.setBatchSingle(true);
+            }
+            
+            if (cmd.hasOption("catalog-snapshot")) {
+                config.setCatalogSnapshot(true);
+            }
+            
+            if (cmd.hasOption("daemon")) {
+                config.setDaemon(true);
+            }
+            
+            if (cmd.hasOption("interval")) {
+                Integer interval = ConfigLoader.parseDurationSeconds(cmd.getOptionValue("interval"));
+                if (interval == null || interval <= 0) {
+                    System.err.println("错误: 采集间隔必须是大于0的秒数或 30s/10m/6h/1d 格式");
+                    return null;
+                }
+                config.setDaemonIntervalSeconds(interval);
+            }
+            
+            if (cmd.hasOption("lpt-schedule")) {
+                config.setCostAwareSchedule(true);
+            }
+            
+            if (cmd.hasOption("report-threads")) {
+                try {
+                    int reportThreads = Integer.parseInt(cmd.getOptionValue("report-threads", "0"));
+                    if (reportThreads < 0) {
+                        System.err.println("错误: 报告线程数不能为负数");
+                        return null;
+                    }
+                    config.setReportThreads(reportThreads);
+                } catch (NumberFormatException e) {
+                    System.err.println("错误: 报告线程数必须是有效的数字");
+                    return null;
+                }
+            }
+            
+            if (cmd.hasOption("native-excel")) {
+                config.setNativeExcel(true);
+            }
+            
+            if (cmd.hasOption("max-per-host")) {
+                try {
+                    int maxPerHost = Integer.parseInt(cmd.getOptionValue("max-per-host", "0"));
+                    if (maxPerHost < 0) {
+                        System.err.println("错误: 每主机并发上限不能为负数");
+                        return null;
+                    }
+                    config.setMaxPerHost(maxPerHost);
+                } catch (NumberFormatException e) {
+                    System.err.println("错误: 每主机并发上限必须是有效的数字");
+                    return null;
+                }
+            }
+            
+            if (cmd.hasOption("max-per-system")) {
+                try {
+                    int maxPerSystem = Integer.parseInt(cmd.getOptionValue("max-per-system", "0"));
+                    if (maxPerSystem < 0) {
+                        System.err.println("错误: 每系统并发上限不能为负数");
+                        return null;
+                    }
+                    config.setMaxPerSystem(maxPerSystem);
+                } catch (NumberFormatException e) {
+                    System.err.println("错误: 每系统并发上限必须是有效的数字");
+                    return null;
+                }
+            }
+            
+            if (cmd.hasOption("deadline")) {
+                try {
+                    int deadline = Integer.parseInt(cmd.getOptionValue("deadline", "0"));
+                    if (deadline <= 0) {
+                        System.err.println("错误: 执行截止时间必须大于0秒");
+                        return null;
+                    }
+                    config.setDeadlineSeconds(deadline);
+                } catch (NumberFormatException e) {
+                    System.err.println("错误: 执行截止时间必须是有效的数字");
+                    return null;
+                }
+            }
+            
+            if (cmd.hasOption("max-connections")) {
+                try {
+                    int maxConnections = Integer.parseInt(cmd.getOptionValue("max-connections", "0"));
+                    if (maxConnections < 0) {
+                        System.err.println("错误: 全局连接预算不能为负数");
+                        return null;
+                    }
+                    config.setMaxConnections(maxConnections);
+                } catch (NumberFormatException e) {
+                    System.err.println("错误: 全局连接预算必须是有效的数字");
+                    return null;
+                }
+            }
+            
+            if (cmd.hasOption("precheck-ttl")) {
+                try {
+                    int ttl = Integer.parseInt(cmd.getOptionValue("precheck-ttl", "90"));
+                    if (ttl <= 0) {
+                        System.err.println("错误: 预检查缓存有效期必须大于0分钟");
+                        return null;
+                    }
+                    config.setPrecheckTtlMinutes(ttl);
+                } catch (NumberFormatException e) {
+                    System.err.println("错误: 预检查缓存有效期必须是有效的数字");
+                    return null;
+                }
+            }
+            
+            if (cmd.hasOption("executor")) {
+                String backend = cmd.getOptionValue("executor", "auto").toLowerCase();
+                if (!"auto".equals(backend) && !"platform".equals(backend) && !"virtual".equals(backend)) {
+                    System.err.println("错误: 执行器后端只支持 auto、platform 或 virtual");
+                    return null;
+                }
+                config.setExecutorBackend(backend);
+            }
+            
             if (cmd.hasOption("web") || cmd.hasOption("web-management")) {
                 config.setWebManagement(true);
             }
@@ -130,9 +277,69 @@ public class CommandLineProcessor {
         options.addOption("t", "test", false, "测试数据库连接");
         options.addOption(null, "clean", false, "清理历史失败清单与黑名单后再测试");
         options.addOption(null, "dry-run", false, "仅验证配置，不执行实际操作");
+        options.addOption(null, "node-session", false, "节点会话模式：同一节点的指标共用一个连接顺序执行");
+        options.addOption(null, "stream-report", false, "流式报告：指标完成即写入报告，降低大规模巡检的内存占用");
+        options.addOption(null, "precheck-cache", false, "预检查缓存：跳过近期连通的节点，持续失败的节点按退避周期跳过");
+        options.addOption(null, "warm-pool", false, "连接预热：预检查经由连接池完成，指标执行复用已登录的连接");
+        options.addOption(null, "lpt-schedule", false, "按历史耗时调度：耗时最长的指标任务优先派发，缩短整轮巡检时间");
+        options.addOption(null, "hedge", false, "对冲请求：first 模式的只读指标在所选节点超过其 p90 耗时未返回时发往备选节点");
+        options.addOption(null, "no-cache", false, "忽略结果缓存：配置了 cache_ttl 的指标也全部重新采集");
+        options.addOption(null, "batch-single", false, "合并单值指标：同一节点上的 SINGLE 指标合并为一条语句，一次往返取回");
+        options.addOption(null, "catalog-snapshot", false, "目录快照：SHOW GLOBAL STATUS LIKE / v$sysstat 单项查询改为每节点每轮读取一次整表后本地取值");
+        options.addOption(null, "native-excel", false, "原生OOXML写出：跳过POI对象模型，直接流式写出xlsx部件，适合超大报告");
+        options.addOption(null, "daemon", false, "长驻模式：按 --interval 循环采集，复用连接池与已解析配置，配置文件变化自动重载");
         options.addOption("w", "web", false, "启动Web管理界面");
         options.addOption(null, "web-management", false, "启动Web管理界面（完整参数名）");
         
+        options.addOption(Option.builder()
+                .longOpt("max-per-host")
+                .hasArg()
+                .argName("数量")
+                .desc("每台数据库主机同时执行的指标任务上限，各主机轮询公平派发（默认：0 不限制）")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("report-threads")
+                .hasArg()
+                .argName("数量")
+                .desc("并行生成Excel工作表的线程数，各工作表同时写入后合并为一个文件（默认：0 逐表生成）")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("max-per-system")
+                .hasArg()
+                .argName("数量")
+                .desc("每个系统同时执行的指标任务上限（默认：0 不限制）")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("interval")
+                .hasArg()
+                .argName("时长")
+                .desc("长驻模式采集间隔，秒数或 30s/10m/6h/1d（默认：300 秒，附加随机抖动）")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("deadline")
+                .hasArg()
+                .argName("秒")
+                .desc("本轮指标执行截止时间，到期取消仍在执行的查询并释放连接")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("max-connections")
+                .hasArg()
+                .argName("数量")
+                .desc("全局连接预算：所有连接池同时借出的连接总数上限，节点任务完成后关闭其连接池（默认：0 不限制）")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("precheck-ttl")
+                .hasArg()
+                .argName("分钟")
+                .desc("预检查缓存中成功结果的有效期（默认：90）")
+                .build());
+        
         options.addOption(Option.builder()
                 .longOpt("web-port")
                 .hasArg()
@@ -140,6 +347,13 @@ public class CommandLineProcessor {
                 .desc("指定Web管理界面端口（默认：8080）")
                 .build());
         
+        options.addOption(Option.builder()
+                .longOpt("executor")
+                .hasArg()
+                .argName("后端")
+                .desc("执行器后端：auto|platform|virtual（默认：auto，JDK 21+ 使用虚拟线程）")
+                .build());
+        
         options.addOption(Option.builder("c")
                 .longOpt("config")
                 .hasArg()
@@ -32,6 +32,41 @@ public class AppConfig {
     private boolean dryRun = false;
     private boolean webManagement = false;
     private int webPort = 8080;
+    // 节点会话模式：同一节点的指标共用一个连接顺序执行
+    private boolean nodeSession = false;
+    // 执行器后端：auto|platform|virtual（virtual 需 JDK 21+，否则回退 platform）
+    private String executorBackend = "auto";
+    // 流式报告：结果完成即推送给报告写入器，不在内存中汇总全部结果
+    private boolean streamingReport = false;
+    // 预检查缓存：近期验证成功的节点跳过探测，持续失败的节点按指数退避跳过
+    private boolean precheckCache = false;
+    private int precheckTtlMinutes = 90;
+    // 连接预热：预检查经由执行阶段的连接池完成，成功节点保留已登录的连接
+    private boolean warmPool = false;
+    // 全局连接预算：所有连接池同时借出的连接总数上限，0 表示不限制
+    private int maxConnections = 0;
+    // 按历史耗时调度：记录各系统指标执行耗时，按预计耗时从长到短派发
+    private boolean costAwareSchedule = false;
+    // 每台主机/每个系统同时执行的指标任务上限，0 表示不限制；生效时各主机轮询公平派发
+    private int maxPerHost = 0;
+    private int maxPerSystem = 0;
+    // 本轮指标执行截止时间（秒），到期取消在途语句；0 表示使用执行器默认值
+    private int deadlineSeconds = 0;
+    // 对冲请求：first 模式只读指标在所选节点响应过慢时同时发往备选节点，先返回者胜出
+    private boolean hedgeRequests = false;
+    // 忽略指标结果缓存（cache_ttl），全部指标重新采集
+    private boolean noCache = false;
+    // 合并同一节点上的单值指标，一次网络往返取回多个值
+    private boolean batchSingle = false;
+    // 单项状态/参数查询改为从每节点每轮一次的目录快照取值
+    private boolean catalogSnapshot = false;
+    // 并行生成Excel工作表的线程数，0 表示逐表生成
+    private int reportThreads = 0;
+    // Excel报告跳过POI对象模型，直接写出OOXML部件
+    private boolean nativeExcel = false;
+    // 长驻模式：进程常驻按间隔循环采集，复用连接池与已解析配置
+    private boolean daemon = false;
+    private int daemonIntervalSeconds = 300;
     private List<DatabaseConfig> databases = new ArrayList<>();
 
     // Getters and Setters
@@ -221,6 +256,158 @@ public class AppConfig {
         this.webPort = webPort;
     }
     
+    public boolean isNodeSession() {
+        return nodeSession;
+    }
+
+    public void setNodeSession(boolean nodeSession) {
+        this.nodeSession = nodeSession;
+    }
+
+    public String getExecutorBackend() {
+        return executorBackend;
+    }
+
+    public void setExecutorBackend(String executorBackend) {
+        this.executorBackend = executorBackend;
+    }
+
+    public boolean isStreamingReport() {
+        return streamingReport;
+    }
+
+    public void setStreamingReport(boolean streamingReport) {
+        this.streamingReport = streamingReport;
+    }
+
+    public boolean isPrecheckCache() {
+        return precheckCache;
+    }
+
+    public void setPrecheckCache(boolean precheckCache) {
+        this.precheckCache = precheckCache;
+    }
+
+    public int getPrecheckTtlMinutes() {
+        return precheckTtlMinutes;
+    }
+
+    public void setPrecheckTtlMinutes(int precheckTtlMinutes) {
+        this.precheckTtlMinutes = precheckTtlMinutes;
+    }
+
+    public boolean isWarmPool() {
+        return warmPool;
+    }
+
+    public void setWarmPool(boolean warmPool) {
+        this.warmPool = warmPool;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public boolean isCostAwareSchedule() {
+        return costAwareSchedule;
+    }
+
+    public void setCostAwareSchedule(boolean costAwareSchedule) {
+        this.costAwareSchedule = costAwareSchedule;
+    }
+
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    public void setMaxPerHost(int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+
+    public int getMaxPerSystem() {
+        return maxPerSystem;
+    }
+
+    public void setMaxPerSystem(int maxPerSystem) {
+        this.maxPerSystem = maxPerSystem;
+    }
+
+    public int getDeadlineSeconds() {
+        return deadlineSeconds;
+    }
+
+    public void setDeadlineSeconds(int deadlineSeconds) {
+        this.deadlineSeconds = deadlineSeconds;
+    }
+
+    public boolean isHedgeRequests() {
+        return hedgeRequests;
+    }
+
+    public void setHedgeRequests(boolean hedgeRequests) {
+        this.hedgeRequests = hedgeRequests;
+    }
+
+    public boolean isNoCache() {
+        return noCache;
+    }
+
+    public void setNoCache(boolean noCache) {
+        this.noCache = noCache;
+    }
+
+    public boolean isBatchSingle() {
+        return batchSingle;
+    }
+
+    public void setBatchSingle(boolean batchSingle) {
+        this.batchSingle = batchSingle;
+    }
+
+    public boolean isCatalogSnapshot() {
+        return catalogSnapshot;
+    }
+
+    public void setCatalogSnapshot(boolean catalogSnapshot) {
+        this.catalogSnapshot = catalogSnapshot;
+    }
+
+    public int getReportThreads() {
+        return reportThreads;
+    }
+
+    public void setReportThreads(int reportThreads) {
+        this.reportThreads = reportThreads;
+    }
+
+    public boolean isNativeExcel() {
+        return nativeExcel;
+    }
+
+    public void setNativeExcel(boolean nativeExcel) {
+        this.nativeExcel = nativeExcel;
+    }
+
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    public void setDaemon(boolean daemon) {
+        this.daemon = daemon;
+    }
+
+    public int getDaemonIntervalSeconds() {
+        return daemonIntervalSeconds;
+    }
+
+    public void setDaemonIntervalSeconds(int daemonIntervalSeconds) {
+        this.daemonIntervalSeconds = daemonIntervalSeconds;
+    }
+
     public List<DatabaseConfig> getDatabases() {
         return databases;
     }
@@ -294,6 +294,37 @@ public class ConfigLoader {
         }
     }
     
+    /**
+     * 解析阈值配置（level/operator/value/column 与 rules 两种写法）
+     */
+    public static MetricConfig.Threshold parseThreshold(Map<?, ?> thresholdMap) {
+        MetricConfig.Threshold threshold = new MetricConfig.Threshold();
+        threshold.setLevel(asString(thresholdMap.get("level")));
+        threshold.setOperator(asString(thresholdMap.get("operator")));
+        threshold.setValue(thresholdMap.get("value"));
+        threshold.setColumn(asString(thresholdMap.get("column")));
+        Object rulesObj = thresholdMap.get("rules");
+        if (rulesObj instanceof List) {
+            for (Object ruleObj : (List<?>) rulesObj) {
+                if (!(ruleObj instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> ruleMap = (Map<?, ?>) ruleObj;
+                MetricConfig.Threshold.Rule rule = new MetricConfig.Threshold.Rule();
+                rule.setLevel(asString(ruleMap.get("level")));
+                rule.setOperator(asString(ruleMap.get("operator")));
+                rule.setValue(ruleMap.get("value"));
+                rule.setColumn(asString(ruleMap.get("column")));
+                threshold.getRules().add(rule);
+            }
+        }
+        return threshold;
+    }
+
+    private static String asString(Object o) {
+        return o == null ? null : String.valueOf(o);
+    }
+
     /**
      * 解析单个指标配置
      */
@@ -352,22 +383,83 @@ public class ConfigLoader {
                 strategy.setRetryPolicy(retryPolicy);
             }
 
+            // 结果集抓取控制：fetch_size / max_rows / streaming
+            Object fetchSizeObj = strategyMap.get("fetch_size");
+            if (fetchSizeObj instanceof Number) {
+                strategy.setFetchSize(((Number) fetchSizeObj).intValue());
+            }
+            Object maxRowsObj = strategyMap.get("max_rows");
+            if (maxRowsObj instanceof Number) {
+                strategy.setMaxRows(((Number) maxRowsObj).intValue());
+            }
+            Object streamingObj = strategyMap.get("streaming");
+            if (streamingObj instanceof Boolean) {
+                strategy.setStreaming((Boolean) streamingObj);
+            }
+
             config.setExecutionStrategy(strategy);
         }
         
         // 解析threshold
         Object thresholdObj = metricMap.get("threshold");
         if (thresholdObj instanceof Map) {
-            Map<String, Object> thresholdMap = (Map<String, Object>) thresholdObj;
-            MetricConfig.Threshold threshold = new MetricConfig.Threshold();
-            threshold.setLevel((String) thresholdMap.get("level"));
-            threshold.setOperator((String) thresholdMap.get("operator"));
-            threshold.setValue(thresholdMap.get("value"));
-            config.setThreshold(threshold);
+            config.setThreshold(parseThreshold((Map<?, ?>) thresholdObj));
+        }
+
+        // 目录快照查找：lookup.source + lookup.key
+        Object lookupObj = metricMap.get("lookup");
+        if (lookupObj instanceof Map) {
+            Map<String, Object> lookupMap = (Map<String, Object>) lookupObj;
+            Object source = lookupMap.get("source");
+            Object key = lookupMap.get("key");
+            if (source != null && key != null) {
+                config.setLookup(new MetricConfig.Lookup(String.valueOf(source), String.valueOf(key)));
+            } else {
+                logger.warn("指标 {} 的 lookup 缺少 source 或 key，已忽略", config.getName());
+            }
+        }
+
+        // 结果缓存：cache_ttl（别名 refresh_interval），支持秒数或 30s/10m/6h/1d
+        Object cacheTtlObj = metricMap.containsKey("cache_ttl") ? metricMap.get("cache_ttl") : metricMap.get("refresh_interval");
+        if (cacheTtlObj != null) {
+            Integer ttl = parseDurationSeconds(cacheTtlObj);
+            if (ttl != null) {
+                config.setCacheTtl(ttl);
+            } else {
+                logger.warn("指标 {} 的 cache_ttl 无效: {}，将不缓存结果", config.getName(), cacheTtlObj);
+            }
         }
         
         return config;
     }
+
+    /**
+     * 解析时长（秒）：数值按秒处理，字符串支持 s/m/h/d 后缀；无法解析时返回 null
+     */
+    public static Integer parseDurationSeconds(Object value) {
+        if (value instanceof Number) {
+            return Math.max(0, ((Number) value).intValue());
+        }
+        String text = String.valueOf(value).trim().toLowerCase();
+        if (text.isEmpty()) {
+            return null;
+        }
+        int unit = 1;
+        char suffix = text.charAt(text.length() - 1);
+        switch (suffix) {
+            case 's': unit = 1; break;
+            case 'm': unit = 60; break;
+            case 'h': unit = 3600; break;
+            case 'd': unit = 86400; break;
+            default: suffix = 0;
+        }
+        String digits = suffix != 0 ? text.substring(0, text.length() - 1).trim() : text;
+        try {
+            return Math.max(0, Math.multiplyExact(Integer.parseInt(digits), unit));
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
     
     /**
      * 验证配置的有效性
@@ -245,7 +245,7 @@ public class ConfigurationValidator {
             isValid = false;
         }
         
-        if (isEmpty(metric.getSql())) {
+        if (isEmpty(metric.getSql()) && metric.getLookup() == null) {
             logger.error("指标SQL不能为空");
             isValid = false;
         }
@@ -21,6 +21,7 @@ public class HotReloadConfigManager {
     private final WatchService watchService;
     private final ScheduledExecutorService executor;
     private final ConcurrentHashMap<Path, Consumer<Path>> watchedFiles;
+    private final ConcurrentHashMap<Path, Consumer<Path>> watchedDirectories = new ConcurrentHashMap<>();
     private volatile boolean running = false;
     
     public HotReloadConfigManager() throws IOException {
@@ -79,6 +80,23 @@ public class HotReloadConfigManager {
         }
     }
     
+    /**
+     * 添加要监控的配置目录：目录下任一文件新增、修改或删除都会触发回调（参数为变化的文件）
+     */
+    public void watchDirectory(Path dirPath, Consumer<Path> reloadCallback) {
+        try {
+            Path dir = dirPath.toAbsolutePath().normalize();
+            dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE);
+            watchedDirectories.put(dir, reloadCallback);
+            logger.info("开始监控配置目录: {}", dir);
+        } catch (IOException e) {
+            logger.error("注册目录监控失败: {}", dirPath, e);
+        }
+    }
+    
     /**
      * 监控循环
      */
@@ -105,13 +123,17 @@ public class HotReloadConfigManager {
                     
                     // 检查是否是我们监控的文件
                     Consumer<Path> callback = watchedFiles.get(fullPath);
+                    if (callback == null) {
+                        callback = watchedDirectories.get(dir.toAbsolutePath().normalize());
+                    }
                     if (callback != null) {
                         logger.info("检测到配置文件变化: {}", fullPath);
+                        Consumer<Path> reload = callback;
                         
                         // 延迟执行重载，避免文件写入过程中的冲突
                         executor.schedule(() -> {
                             try {
-                                callback.accept(fullPath);
+                                reload.accept(fullPath);
                                 logger.info("配置文件重载完成: {}", fullPath);
                             } catch (Exception e) {
                                 logger.error("重载配置文件失败: {}", fullPath, e);
@@ -0,0 +1,157 @@
+package com.dbcli.core;
+
+import com.dbcli.config.AppConfig;
+import com.dbcli.config.HotReloadConfigManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 长驻采集模式
+ * - 进程常驻，按固定间隔（附加随机抖动，避免多实例同时压向数据库）循环执行采集
+ * - 同一个 DbCliRunner 贯穿各轮：驱动只加载一次，连接池、执行器线程池、节点熔断与耗时历史在各轮之间保持
+ * - 各指标的采集周期由其 refresh_interval（cache_ttl）决定，未到期的指标直接复用上次结果
+ * - 配置目录与指标目录变化时，下一轮开始前重新解析对应配置
+ */
+public class DaemonRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DaemonRunner.class);
+
+    /** 抖动上限占间隔的比例 */
+    static final double JITTER_RATIO = 0.1;
+
+    private final AppConfig config;
+    private final DbCliRunner runner;
+    private final CountDownLatch stopSignal = new CountDownLatch(1);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final AtomicBoolean databaseConfigChanged = new AtomicBoolean();
+    private final AtomicBoolean metricsChanged = new AtomicBoolean();
+
+    public DaemonRunner(AppConfig config) {
+        this(config, new DbCliRunner(config));
+    }
+
+    DaemonRunner(AppConfig config, DbCliRunner runner) {
+        this.config = config;
+        this.runner = runner;
+    }
+
+    /**
+     * 循环采集直到 stop 被调用（或进程收到终止信号），返回最后一轮是否成功
+     */
+    public boolean run() {
+        long intervalMillis = config.getDaemonIntervalSeconds() * 1000L;
+        logger.info("长驻模式启动，采集间隔: {} 秒（抖动不超过 {}%）", config.getDaemonIntervalSeconds(),
+                (int) (JITTER_RATIO * 100));
+
+        HotReloadConfigManager hotReload = startWatching();
+        // 收到终止信号时等待当前轮结束并释放连接，避免中途断开
+        Thread shutdownHook = new Thread(() -> {
+            stop();
+            try {
+                stopped.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "dbcli-daemon-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        boolean lastSuccess = false;
+        int cycle = 0;
+        try {
+            do {
+                cycle++;
+                applyPendingReload();
+                long start = System.currentTimeMillis();
+                lastSuccess = runner.runCycle();
+                logger.info("第 {} 轮采集{}，耗时: {}ms", cycle, lastSuccess ? "完成" : "失败",
+                        System.currentTimeMillis() - start);
+            } while (!awaitNextCycle(nextDelayMillis(intervalMillis)));
+        } finally {
+            if (hotReload != null) {
+                hotReload.stopWatching();
+            }
+            runner.close();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignore) {
+                // 已在关闭流程中
+            }
+            logger.info("长驻模式已停止，共执行 {} 轮", cycle);
+            stopped.countDown();
+        }
+        return lastSuccess;
+    }
+
+    /**
+     * 请求停止：当前轮结束后退出循环
+     */
+    public void stop() {
+        stopSignal.countDown();
+    }
+
+    /**
+     * 下一轮等待时间：间隔加上 [0, 间隔 * JITTER_RATIO] 的随机抖动
+     */
+    static long nextDelayMillis(long intervalMillis) {
+        long jitterBound = (long) (intervalMillis * JITTER_RATIO);
+        return intervalMillis + (jitterBound > 0 ? ThreadLocalRandom.current().nextLong(jitterBound + 1) : 0L);
+    }
+
+    /**
+     * 等待到下一轮，期间收到停止请求返回 true
+     */
+    private boolean awaitNextCycle(long delayMillis) {
+        logger.info("下一轮采集将在 {} 秒后开始", delayMillis / 1000);
+        try {
+            return stopSignal.await(delayMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
+    private void applyPendingReload() {
+        boolean databaseConfigs = databaseConfigChanged.getAndSet(false);
+        boolean metrics = metricsChanged.getAndSet(false);
+        if (!databaseConfigs && !metrics) {
+            return;
+        }
+        logger.info("配置已变化，本轮重新加载:{}{}", databaseConfigs ? " 数据库配置" : "", metrics ? " 指标配置" : "");
+        runner.reloadConfigurations(databaseConfigs, metrics);
+    }
+
+    /**
+     * 监控配置目录与指标目录；回调只做标记，重载在两轮之间进行，避免与执行中的采集冲突
+     */
+    private HotReloadConfigManager startWatching() {
+        try {
+            HotReloadConfigManager hotReload = new HotReloadConfigManager();
+            if (config.getConfigPath() != null && Files.isDirectory(Paths.get(config.getConfigPath()))) {
+                hotReload.watchDirectory(Paths.get(config.getConfigPath()), p -> databaseConfigChanged.set(true));
+            }
+            if (config.getMetricsPath() != null && Files.isDirectory(Paths.get(config.getMetricsPath()))) {
+                hotReload.watchDirectory(Paths.get(config.getMetricsPath()), p -> metricsChanged.set(true));
+            }
+            hotReload.startWatching();
+            return hotReload;
+        } catch (Exception e) {
+            logger.warn("配置热重载不可用，配置变化需重启生效: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    void markChanged(boolean databaseConfigs, boolean metrics) {
+        if (databaseConfigs) {
+            databaseConfigChanged.set(true);
+        }
+        if (metrics) {
+            metricsChanged.set(true);
+        }
+    }
+}
@@ -2,8 +2,12 @@ package com.dbcli.core;
 
 import com.dbcli.config.AppConfig;
 import com.dbcli.config.ConfigLoader;
+import com.dbcli.database.ConnectionBudget;
 import com.dbcli.database.DatabaseManager;
 import com.dbcli.executor.ConcurrentMetricsExecutor;
+import com.dbcli.executor.ExecutorBackends;
+import com.dbcli.executor.MetricResultSink;
+import com.dbcli.executor.ResultStatistics;
 import com.dbcli.model.DatabaseConfig;
 import com.dbcli.model.MetricConfig;
 import com.dbcli.model.MetricResult;
@@ -33,16 +37,38 @@ public class DbCliRunner {
     private final DatabaseManager databaseManager;
     private final ConcurrentMetricsExecutor metricsExecutor;
     private final ReportGeneratorFactory reportGeneratorFactory;
+    private final boolean ownsDatabaseManager;
+    // 长驻模式缓存已解析的配置，配置文件变化后置空重新加载
+    private volatile Map<String, DatabaseConfig> cachedDatabaseConfigs;
+    private volatile List<MetricConfig> cachedMetricConfigs;
 
     public DbCliRunner(AppConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * 使用外部共享的数据库管理器：长驻进程（Web 管理端）多次运行之间复用连接池，
+     * 空闲数据源由其回收策略关闭，运行结束时不关闭共享管理器
+     */
+    public DbCliRunner(AppConfig config, DatabaseManager sharedDatabaseManager) {
         this.config = config;
         this.templateService = new TemplateService();
         this.encryptionService = new EncryptionService();
-        this.databaseManager = new DatabaseManager();
+        this.ownsDatabaseManager = sharedDatabaseManager == null;
+        this.databaseManager = ownsDatabaseManager ? new DatabaseManager() : sharedDatabaseManager;
+        if (ownsDatabaseManager && config.getMaxConnections() > 0) {
+            this.databaseManager.getConnectionFactory().setConnectionBudget(new ConnectionBudget(config.getMaxConnections()));
+        }
         this.connectionTestService = new FastConnectionTestService(this.databaseManager.getConnectionFactory(), this.config.getConcurrency());
+        this.connectionTestService.configureProbeCache(config.getPrecheckTtlMinutes() * 60_000L,
+                FastConnectionTestService.DEFAULT_FAILURE_TTL_MS);
+        this.connectionTestService.setWarmUpPool(config.isWarmPool());
         this.configLoader = new ConfigLoader(new EncryptionService()); // 传入EncryptionService参数
-        this.metricsExecutor = new ConcurrentMetricsExecutor(config.getConcurrency(), 30000L); // 30秒超时
+        // 与连接测试共用数据库管理器，预热模式下执行阶段直接复用预检查建立的连接池
+        this.metricsExecutor = ConcurrentMetricsExecutor.fromConfig(config, this.databaseManager);
         this.reportGeneratorFactory = new ReportGeneratorFactory();
+        this.reportGeneratorFactory.setExcelSheetThreads(config.getReportThreads());
+        this.reportGeneratorFactory.setExcelNativeWriter(config.isNativeExcel());
     }
     
     /**
@@ -57,6 +83,19 @@ public class DbCliRunner {
             logger.info("输出路径: {}", config.getOutputPath());
             logger.info("输出格式: {}", config.getOutputFormat());
             logger.info("并发数: {}", config.getConcurrency());
+            logger.info("执行器后端: {} (虚拟线程可用: {})", config.getExecutorBackend(),
+                    ExecutorBackends.isVirtualThreadAvailable());
+            logger.info("节点会话模式: {}", config.isNodeSession() ? "开启" : "关闭");
+            logger.info("流式报告: {}", config.isStreamingReport() ? "开启" : "关闭");
+            if (config.isWarmPool()) {
+                logger.info("连接预热: 开启");
+            }
+            if (config.getMaxConnections() > 0) {
+                logger.info("全局连接预算: {}", config.getMaxConnections());
+            }
+            if (config.isPrecheckCache()) {
+                logger.info("预检查缓存: 开启（成功有效期 {} 分钟）", config.getPrecheckTtlMinutes());
+            }
             logger.info("=".repeat(60));
             
             // 创建必要的目录
@@ -79,6 +118,44 @@ public class DbCliRunner {
         }
     }
     
+    /**
+     * 长驻模式执行一轮采集：不处理特殊命令，结束后保留连接池、执行器与熔断状态供下一轮复用，
+     * 资源在 close 时统一释放
+     */
+    public boolean runCycle() {
+        try {
+            createDirectories();
+            return executeMainWorkflow();
+        } catch (Exception e) {
+            logger.error("本轮采集失败: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 配置文件变化后调用（两轮采集之间）：下一轮重新解析变化的配置；
+     * 数据库配置变化时关闭现有连接池，使新的地址与口令生效
+     */
+    public void reloadConfigurations(boolean databaseConfigs, boolean metrics) {
+        if (databaseConfigs) {
+            cachedDatabaseConfigs = null;
+            if (ownsDatabaseManager) {
+                databaseManager.cleanup();
+            }
+        }
+        if (metrics) {
+            cachedMetricConfigs = null;
+        }
+        metricsExecutor.invalidateConfigurations(databaseConfigs, metrics);
+    }
+
+    /**
+     * 释放长驻模式持有的资源
+     */
+    public void close() {
+        cleanup();
+    }
+    
     /**
      * 处理特殊命令
      */
@@ -140,7 +217,13 @@ public class DbCliRunner {
         // 1. 加载配置文件
         logger.info("步骤 1/5: 加载配置文件");
         LogManager.setOperation("load_config");
-        Map<String, DatabaseConfig> databaseConfigs = loadDatabaseConfigs();
+        Map<String, DatabaseConfig> databaseConfigs = cachedDatabaseConfigs;
+        if (databaseConfigs == null) {
+            databaseConfigs = loadDatabaseConfigs();
+            if (config.isDaemon()) {
+                cachedDatabaseConfigs = databaseConfigs;
+            }
+        }
         if (databaseConfigs.isEmpty()) {
             logger.error("未找到有效的数据库配置");
             return false;
@@ -149,7 +232,13 @@ public class DbCliRunner {
         // 2. 加载指标配置
         logger.info("步骤 2/5: 加载指标配置");
         LogManager.setOperation("load_metric");
-        List<MetricConfig> metricConfigs = loadMetricConfigs();
+        List<MetricConfig> metricConfigs = cachedMetricConfigs;
+        if (metricConfigs == null) {
+            metricConfigs = loadMetricConfigs();
+            if (config.isDaemon()) {
+                cachedMetricConfigs = metricConfigs;
+            }
+        }
         if (metricConfigs.isEmpty()) {
             logger.error("未找到有效的指标配置");
             return false;
@@ -168,7 +257,7 @@ public class DbCliRunner {
             LogManager.setOperation("connection_precheck");
             Map<String, Map<String, DatabaseConfig>> groupedConfigs = convertToTypeSystemMap(databaseConfigs);
             try {
-                connectionTestService.testConnectionsWithNames(groupedConfigs);
+                connectionTestService.testConnectionsWithNames(groupedConfigs, config.isPrecheckCache());
             } catch (Exception e) {
                 logger.debug("预检查连接异常: {}", e.getMessage());
             }
@@ -176,6 +265,10 @@ public class DbCliRunner {
             metricsExecutor.setFailedEncryptedHosts(connectionTestService.getFailedEncryptedHosts());
         }
         
+        if (config.isStreamingReport()) {
+            return executeStreamingWorkflow();
+        }
+
         // 4. 执行指标收集
         logger.info("步骤 4/5: 执行指标收集");
         LogManager.setOperation("execute_metrics");
@@ -191,11 +284,76 @@ public class DbCliRunner {
         boolean reportSuccess = generateReports(results);
         
         // 输出执行摘要
-        printExecutionSummary(results);
+        printExecutionSummary(ResultStatistics.of(results));
         
         return reportSuccess;
     }
     
+    /**
+     * 流式工作流程：步骤4与步骤5合并，指标结果完成即推送给各报告写入器，
+     * 不在内存中汇总全部结果
+     */
+    private boolean executeStreamingWorkflow() {
+        logger.info("步骤 4/5: 执行指标收集（流式写入报告）");
+        LogManager.setOperation("execute_metrics");
+
+        boolean allSuccess = true;
+        List<ReportGenerator> generators = reportGeneratorFactory.createGenerators(config.getOutputFormat());
+        Map<ReportGenerator, MetricResultSink> sinks = new LinkedHashMap<>();
+        for (ReportGenerator generator : generators) {
+            try {
+                LogManager.logReportGenerationStart(generator.getFormat().toUpperCase(), config.getOutputPath());
+                sinks.put(generator, generator.openSink(config.getOutputPath(), config.getMetricsPath()));
+            } catch (Exception e) {
+                LogManager.logReportGenerationFailure(generator.getFormat(), e.getMessage(), 0);
+                logger.error("{} 报告初始化失败: {}", generator.getFormat().toUpperCase(), e.getMessage(), e);
+                allSuccess = false;
+            }
+        }
+
+        // 未成功落盘的接收器（无结果、采集异常或写入失败）在 finally 中统一释放
+        Set<MetricResultSink> unfinished = new HashSet<>(sinks.values());
+        try {
+            LogManager.startTimer("metrics_collection");
+            ResultStatistics stats = metricsExecutor.executeAllMetrics(config.getConfigPath(), config.getMetricsPath(),
+                    MetricResultSink.of(sinks.values().toArray(new MetricResultSink[0])));
+            long collectDuration = LogManager.endTimer("metrics_collection");
+            logger.info("指标收集完成: {} 个结果, 耗时: {}ms", stats.getTotal(), collectDuration);
+            if (stats.isEmpty()) {
+                logger.warn("未收集到任何指标数据");
+                return false;
+            }
+
+            logger.info("步骤 5/5: 完成报告写入");
+            LogManager.setOperation("generate_report");
+            for (Map.Entry<ReportGenerator, MetricResultSink> entry : sinks.entrySet()) {
+                String format = entry.getKey().getFormat().toUpperCase();
+                try {
+                    LogManager.startTimer(format + "_report_generation");
+                    entry.getValue().complete();
+                    unfinished.remove(entry.getValue());
+                    long duration = LogManager.endTimer(format + "_report_generation");
+                    LogManager.logReportGenerationSuccess(format, config.getOutputPath(), (int) stats.getTotal(), duration);
+                } catch (Exception e) {
+                    LogManager.logReportGenerationFailure(entry.getKey().getFormat(), e.getMessage(), 0);
+                    logger.error("{} 报告生成失败: {}", format, e.getMessage(), e);
+                    allSuccess = false;
+                }
+            }
+
+            printExecutionSummary(stats);
+            return allSuccess;
+        } finally {
+            for (MetricResultSink sink : unfinished) {
+                try {
+                    sink.abort();
+                } catch (RuntimeException e) {
+                    logger.warn("释放报告接收器失败: {}", e.getMessage());
+                }
+            }
+        }
+    }
+    
     /**
      * 转换Map<String, DatabaseConfig>为Map<String, List<DatabaseConfig>>
      */
@@ -332,27 +490,26 @@ public class DbCliRunner {
     /**
      * 输出执行摘要
      */
-    private void printExecutionSummary(List<MetricResult> results) {
+    private void printExecutionSummary(ResultStatistics stats) {
         logger.info("=".repeat(60));
         logger.info("执行摘要");
         logger.info("=".repeat(60));
         
-        long successCount = results.stream().mapToLong(r -> r.isSuccess() ? 1 : 0).sum();
-        long failureCount = results.size() - successCount;
-        double successRate = results.size() > 0 ? (double) successCount / results.size() * 100 : 0;
+        long successCount = stats.getSuccessCount();
+        long failureCount = stats.getFailureCount();
+        double successRate = stats.getTotal() > 0 ? (double) successCount / stats.getTotal() * 100 : 0;
         
-        logger.info("总指标数: {}", results.size());
+        logger.info("总指标数: {}", stats.getTotal());
         logger.info("成功收集: {}", successCount);
         logger.info("收集失败: {}", failureCount);
         String successRateStr = String.format("%.2f", successRate);
         logger.info("成功率: {}%", successRateStr);
+        if (stats.getTruncatedCount() > 0) {
+            logger.info("截断结果: {} (超过 max_rows)", stats.getTruncatedCount());
+        }
         
         // 按数据库类型统计
-        Map<String, Long> dbTypeStats = results.stream()
-            .collect(java.util.stream.Collectors.groupingBy(
-                MetricResult::getDbType,
-                java.util.stream.Collectors.counting()
-            ));
+        Map<String, Long> dbTypeStats = stats.getCountByDbType();
         
         logger.info("按数据库类型统计:");
         dbTypeStats.forEach((dbType, count) -> 
@@ -414,8 +571,15 @@ public class DbCliRunner {
      */
     private void cleanup() {
         try {
-            if (databaseManager != null) {
+            if (databaseManager != null && ownsDatabaseManager) {
                 databaseManager.cleanup();
+                ConnectionBudget budget = databaseManager.getConnectionFactory().getConnectionBudget();
+                if (budget != null) {
+                    budget.shutdown();
+                }
+            } else if (databaseManager != null) {
+                // 共享管理器保留连接池，仅清除本次运行标记的失败节点
+                databaseManager.clearFailedConnections();
             }
             if (metricsExecutor != null) {
                 metricsExecutor.shutdown();
@@ -1,9 +1,11 @@
 package com.dbcli.core;
 
+import com.dbcli.config.AppConfig;
 import com.dbcli.config.ConfigLoader;
 import com.dbcli.config.ConfigurationValidator;
+import com.dbcli.database.ConnectionBudget;
 import com.dbcli.database.DatabaseManager;
-import com.dbcli.executor.EnhancedMetricsExecutor;
+import com.dbcli.executor.ConcurrentMetricsExecutor;
 import com.dbcli.executor.MetricsExecutor;
 import com.dbcli.model.DatabaseConfig;
 import com.dbcli.model.MetricConfig;
@@ -25,11 +27,20 @@ import java.util.Map;
 public class EnhancedDbCliRunner {
     private static final Logger logger = LoggerFactory.getLogger(EnhancedDbCliRunner.class);
     
+    private final AppConfig config;
     private final ServiceContainer serviceContainer;
     private final ConfigurationValidator validator;
     private final EnhancedReportGeneratorFactory reportFactory;
     
     public EnhancedDbCliRunner() {
+        this(new AppConfig());
+    }
+    
+    /**
+     * 并发数、截止时间、执行器后端等执行引擎设置取自运行配置
+     */
+    public EnhancedDbCliRunner(AppConfig config) {
+        this.config = config;
         this.serviceContainer = new ServiceContainer();
         this.validator = new ConfigurationValidator();
         this.reportFactory = new EnhancedReportGeneratorFactory();
@@ -83,12 +94,9 @@ public class EnhancedDbCliRunner {
                 return false;
             }
             
-            // 执行指标收集
-            MetricsExecutor executor = serviceContainer.getOrCreate(MetricsExecutor.class, () -> {
-                DatabaseManager dbManager = serviceContainer.getOrCreate(DatabaseManager.class, DatabaseManager::new);
-                return new EnhancedMetricsExecutor(10, dbManager, configLoader);
-            });
-            List<MetricResult> results = executor.executeMetrics(databaseConfigs, metricConfigs, 300);
+            // 执行指标收集（统一执行引擎，按指标文件名分发到对应数据库类型）
+            MetricsExecutor executor = getMetricsExecutor();
+            List<MetricResult> results = executor.executeAllMetrics(configPath, metricsPath);
             
             if (results.isEmpty()) {
                 logger.warn("没有收集到任何指标数据");
@@ -235,12 +243,12 @@ public class EnhancedDbCliRunner {
         // 输出性能统计
         try {
             MetricsExecutor executor = serviceContainer.getOrCreate(MetricsExecutor.class, () -> null);
-            if (executor instanceof EnhancedMetricsExecutor) {
-                EnhancedMetricsExecutor enhancedExecutor = (EnhancedMetricsExecutor) executor;
+            if (executor instanceof ConcurrentMetricsExecutor) {
+                ConcurrentMetricsExecutor engine = (ConcurrentMetricsExecutor) executor;
                 
                 logger.info("=== 性能统计 ===");
-                logger.info("线程池状态: {}", enhancedExecutor.getThreadPoolStats());
-                logger.info("熔断器状态: {}", enhancedExecutor.getCircuitBreakerStates());
+                logger.info("线程池状态: {}", engine.getThreadPoolStats());
+                logger.info("熔断器状态: {}", engine.getCircuitBreakerStates());
             }
         } catch (Exception e) {
             logger.debug("无法获取性能统计信息", e);
@@ -285,6 +293,22 @@ public class EnhancedDbCliRunner {
         }
     }
     
+    /**
+     * 获取指标执行器，首次使用时按运行配置创建（与主运行器相同）
+     */
+    MetricsExecutor getMetricsExecutor() {
+        return serviceContainer.getOrCreate(MetricsExecutor.class, () -> {
+            DatabaseManager dbManager = serviceContainer.getOrCreate(DatabaseManager.class, () -> {
+                DatabaseManager manager = new DatabaseManager();
+                if (config.getMaxConnections() > 0) {
+                    manager.getConnectionFactory().setConnectionBudget(new ConnectionBudget(config.getMaxConnections()));
+                }
+                return manager;
+            });
+            return ConcurrentMetricsExecutor.fromConfig(config, dbManager);
+        });
+    }
+    
     /**
      * 获取服务容器（用于测试）
      */
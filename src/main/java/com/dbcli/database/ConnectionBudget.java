@@ -0,0 +1,105 @@
+package com.dbcli.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 全局连接预算
+ * - 所有连接池共享一组公平许可，同时借出的连接总数不超过预算，等待方按到达顺序获得许可
+ * - 每个池的最大连接数为预算按池数均分的份额（至少 1），池增减时重新分配
+ * - 受预算管理的池不预建空闲连接，空闲连接 10 秒后回收，且共用一个维护线程
+ */
+public class ConnectionBudget {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionBudget.class);
+
+    // HikariCP 允许的最小空闲超时
+    static final long IDLE_TIMEOUT_MS = 10000L;
+    // HikariCP 未配置时的默认池大小
+    static final int DEFAULT_POOL_SIZE = 10;
+
+    private final int maxConnections;
+    private final Semaphore permits;
+    private final ScheduledThreadPoolExecutor housekeeper;
+
+    public ConnectionBudget(int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("连接预算必须大于0: " + maxConnections);
+        }
+        this.maxConnections = maxConnections;
+        this.permits = new Semaphore(maxConnections, true);
+
+        AtomicInteger seq = new AtomicInteger();
+        this.housekeeper = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "dbcli-pool-housekeeper-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.housekeeper.setRemoveOnCancelPolicy(true);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * 当前借出的连接数
+     */
+    public int getLeasedConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    /**
+     * pools 个池均分预算时每个池的份额
+     */
+    public int shareFor(int pools) {
+        return Math.max(1, maxConnections / Math.max(1, pools));
+    }
+
+    /**
+     * 以预算约束创建池配置：不预建空闲连接、缩短空闲回收、共用维护线程
+     */
+    void configure(HikariConfig hikariConfig, int share) {
+        int configured = hikariConfig.getMaximumPoolSize() > 0 ? hikariConfig.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+        hikariConfig.setMaximumPoolSize(Math.min(configured, share));
+        hikariConfig.setMinimumIdle(0);
+        hikariConfig.setIdleTimeout(IDLE_TIMEOUT_MS);
+        hikariConfig.setScheduledExecutor(housekeeper);
+    }
+
+    /**
+     * 在预算内借出连接，关闭连接时归还许可；超时未获得许可抛出 SQLTransientConnectionException
+     */
+    Connection acquire(DataSource dataSource, long timeoutMs) throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        String.format("全局连接预算已耗尽（%d），等待 %dms 超时", maxConnections, timeoutMs));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("等待连接预算时被中断", e);
+        }
+
+        try {
+            return new ConnectionWrapper(dataSource.getConnection(), permits::release);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        housekeeper.shutdownNow();
+        logger.debug("连接预算维护线程已关闭");
+    }
+}
@@ -11,9 +11,15 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * 数据库连接工厂
@@ -21,7 +27,26 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ConnectionFactory {
     private static final Logger logger = LoggerFactory.getLogger(ConnectionFactory.class);
 
-    private final Map<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+    // 预热探测的建连超时，与直连测试的 3 秒登录超时一致
+    private static final long PROBE_CONNECTION_TIMEOUT_MS = 3000L;
+    // HikariCP 默认获取连接超时
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MS = 30000L;
+
+    private final DataSourceRegistry dataSources = new DataSourceRegistry();
+    private final ConnectionPoolMonitor poolMonitor = new ConnectionPoolMonitor();
+
+    // 数据源回收策略（长驻进程使用）：空闲超时与数量上限，0 表示不启用
+    private volatile long idleTtlMs = 0L;
+    private volatile int maxDataSources = 0;
+    private ScheduledExecutorService evictionScheduler;
+
+    // 全局连接预算（未设置时各池按自身配置独立运行）
+    private volatile ConnectionBudget budget;
+    // 预算模式下各池配置的最大连接数，重新均分时作为上限
+    private final Map<String, Integer> configuredPoolSizes = new ConcurrentHashMap<>();
+    // 预算模式下各池尚未完成的任务数，归零后整池关闭
+    private final Map<String, Integer> poolLeases = new HashMap<>();
+    private int evictionHolds = 0;
 
     static {
         // 静态初始化时加载所有驱动
@@ -35,20 +60,77 @@ public class ConnectionFactory {
             throws SQLException {
         String key = buildConnectionKey(systemName, node);
 
-        HikariDataSource dataSource = dataSources.computeIfAbsent(key, k -> {
+        Supplier<HikariDataSource> creator = () -> {
             try {
                 return createDataSource(systemName, node, config, dbType);
             } catch (Exception e) {
                 logger.error("创建数据源失败: {}", key, e);
                 return null;
             }
-        });
+        };
+        return borrowConnection(key, creator, false);
+    }
+
+    /**
+     * 从数据源借出连接。回收线程可能在取得数据源之后、借出连接之前关闭该池，
+     * 此时丢弃已关闭的数据源并重新创建一次后再借出
+     */
+    private Connection borrowConnection(String key, Supplier<HikariDataSource> creator, boolean bypassBudget)
+            throws SQLException {
+        for (int attempt = 0; ; attempt++) {
+            HikariDataSource dataSource = obtainDataSource(key, creator);
+            if (dataSource == null) {
+                throw new SQLException("无法创建数据源: " + key);
+            }
+            boolean retryable = attempt == 0;
+            if (dataSource.isClosed() && retryable) {
+                discardClosed(key, dataSource);
+                continue;
+            }
+            try {
+                ConnectionBudget currentBudget = budget;
+                if (currentBudget != null && !bypassBudget) {
+                    return currentBudget.acquire(dataSource, dataSource.getConnectionTimeout());
+                }
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                if (retryable && dataSource.isClosed()) {
+                    discardClosed(key, dataSource);
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
 
-        if (dataSource == null) {
-            throw new SQLException("无法创建数据源: " + key);
+    private void discardClosed(String key, HikariDataSource dataSource) {
+        if (dataSources.remove(key, dataSource)) {
+            configuredPoolSizes.remove(key);
         }
+        logger.debug("数据源已被回收关闭，重新创建: {}", key);
+    }
 
-        return dataSource.getConnection();
+    /**
+     * 获取或创建数据源并刷新最近使用时间；新建后检查数量上限，预算模式下按池数重新均分预算
+     */
+    private HikariDataSource obtainDataSource(String key, Supplier<HikariDataSource> creator) {
+        HikariDataSource existing = dataSources.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        boolean[] created = new boolean[1];
+        HikariDataSource dataSource = dataSources.computeIfAbsent(key, () -> {
+            HikariDataSource ds = creator.get();
+            created[0] = ds != null;
+            return ds;
+        });
+        if (created[0]) {
+            enforceMaxDataSources(key);
+            if (budget != null) {
+                rebalancePools();
+            }
+        }
+        return dataSource;
     }
 
     /**
@@ -56,6 +138,11 @@ public class ConnectionFactory {
      */
     private HikariDataSource createDataSource(String systemName, DatabaseNode node,
                                               DatabaseConfig config, String dbType) {
+        return new HikariDataSource(buildHikariConfig(systemName, node, config, dbType));
+    }
+
+    private HikariConfig buildHikariConfig(String systemName, DatabaseNode node,
+                                           DatabaseConfig config, String dbType) {
         HikariConfig hikariConfig = new HikariConfig();
 
         // 设置JDBC URL
@@ -118,6 +205,14 @@ public class ConnectionFactory {
         }
         hikariConfig.setLeakDetectionThreshold(60000); // 1分钟泄漏检测
 
+        ConnectionBudget currentBudget = budget;
+        if (currentBudget != null) {
+            String key = buildConnectionKey(systemName, node);
+            configuredPoolSizes.put(key, hikariConfig.getMaximumPoolSize() > 0
+                    ? hikariConfig.getMaximumPoolSize() : ConnectionBudget.DEFAULT_POOL_SIZE);
+            currentBudget.configure(hikariConfig, currentBudget.shareFor(dataSources.size() + 1));
+        }
+
         String maskedHost = node.getHost() != null ? com.dbcli.util.DataMaskUtil.maskIpAddress(node.getHost()) : "unknown";
         Integer nodePort = node.getPort();
         Integer configPort = config.getPort();
@@ -132,7 +227,7 @@ public class ConnectionFactory {
                 node.getSidName(),
                 node.getRole());
 
-        return new HikariDataSource(hikariConfig);
+        return hikariConfig;
     }
 
     /**
@@ -261,19 +356,245 @@ public class ConnectionFactory {
         }
     }
 
+    /**
+     * 预热测试：通过执行阶段将要使用的连接池完成探测
+     * - 池不存在时以 3 秒建连超时创建（初始化即完成首个连接的登录校验），成功后恢复配置的获取超时
+     * - 探测成功后连接归还池中，后续指标执行直接复用，避免同一节点重复握手与认证
+     * - 探测失败不保留数据源，执行阶段仍按原逻辑创建
+     */
+    public boolean warmUpConnection(String systemName, DatabaseNode node, DatabaseConfig config, String dbType) {
+        String key = buildConnectionKey(systemName, node);
+        try {
+            Supplier<HikariDataSource> creator = () -> {
+                HikariConfig hikariConfig = buildHikariConfig(systemName, node, config, dbType);
+                hikariConfig.setConnectionTimeout(PROBE_CONNECTION_TIMEOUT_MS);
+                HikariDataSource created = new HikariDataSource(hikariConfig);
+                created.getHikariConfigMXBean().setConnectionTimeout(
+                        config.getConnectionTimeout() != null ? config.getConnectionTimeout() : DEFAULT_CONNECTION_TIMEOUT_MS);
+                return created;
+            };
+            try (Connection conn = borrowConnection(key, creator, true)) {
+                return conn.isValid(3);
+            }
+        } catch (Exception e) {
+            logger.debug("连接预热失败: {}-{} - {}", systemName, node != null ? node.getHost() : "unknown", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 设置全局连接预算，需在创建任何数据源之前调用
+     */
+    public void setConnectionBudget(ConnectionBudget budget) {
+        this.budget = budget;
+    }
+
+    public ConnectionBudget getConnectionBudget() {
+        return budget;
+    }
+
+    /**
+     * 按当前池数重新均分预算，每个池不超过自身配置的最大连接数
+     */
+    private void rebalancePools() {
+        ConnectionBudget currentBudget = budget;
+        if (currentBudget == null) {
+            return;
+        }
+        int share = currentBudget.shareFor(dataSources.size());
+        for (Map.Entry<String, HikariDataSource> entry : dataSources.asMap().entrySet()) {
+            int target = Math.min(configuredPoolSizes.getOrDefault(entry.getKey(), ConnectionBudget.DEFAULT_POOL_SIZE), share);
+            HikariDataSource ds = entry.getValue();
+            if (ds.getMaximumPoolSize() != target) {
+                ds.getHikariConfigMXBean().setMaximumPoolSize(target);
+            }
+        }
+    }
+
+    /**
+     * 登记节点上一个待执行任务（预算模式有效），任务结束后调用 releasePool
+     */
+    public void retainPool(String systemName, DatabaseNode node) {
+        if (budget == null || node == null) {
+            return;
+        }
+        synchronized (poolLeases) {
+            poolLeases.merge(buildConnectionKey(systemName, node), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 节点任务结束；该节点无剩余任务且未处于派发阶段时关闭其连接池
+     */
+    public void releasePool(String systemName, DatabaseNode node) {
+        if (budget == null || node == null) {
+            return;
+        }
+        String key = buildConnectionKey(systemName, node);
+        synchronized (poolLeases) {
+            Integer left = poolLeases.computeIfPresent(key, (k, v) -> v > 1 ? v - 1 : null);
+            if (left == null && evictionHolds == 0) {
+                evictDataSource(key, "节点任务完成");
+            }
+        }
+    }
+
+    /**
+     * 派发期间暂停整池回收，避免节点的前一批任务完成时后续任务尚未登记导致池被反复创建
+     */
+    public void holdEviction() {
+        synchronized (poolLeases) {
+            evictionHolds++;
+        }
+    }
+
+    /**
+     * 结束派发，关闭已无待执行任务的连接池
+     */
+    public void resumeEviction() {
+        synchronized (poolLeases) {
+            evictionHolds = Math.max(0, evictionHolds - 1);
+            if (evictionHolds > 0 || budget == null) {
+                return;
+            }
+            for (String key : new ArrayList<>(dataSources.keys())) {
+                if (!poolLeases.containsKey(key)) {
+                    evictDataSource(key, "节点任务完成");
+                }
+            }
+        }
+    }
+
+    private void evictDataSource(String key, String reason) {
+        HikariDataSource ds = dataSources.remove(key);
+        configuredPoolSizes.remove(key);
+        if (ds == null) {
+            return;
+        }
+        try {
+            ds.close();
+            poolMonitor.recordEviction(key, reason);
+            logger.debug("{}，关闭数据源: {}", reason, key);
+        } catch (Exception e) {
+            logger.warn("关闭数据源失败: {} - {}", key, e.getMessage());
+        }
+        rebalancePools();
+    }
+
+    /**
+     * 配置数据源回收（长驻进程使用）：
+     * - idleTtlMs > 0 时后台定期关闭空闲超时且无借出连接的数据源
+     * - maxDataSources > 0 时新建数据源超出上限即按 LRU 关闭最久未使用的数据源
+     */
+    public synchronized void configureEviction(long idleTtlMs, int maxDataSources) {
+        this.idleTtlMs = Math.max(0L, idleTtlMs);
+        this.maxDataSources = Math.max(0, maxDataSources);
+        if (evictionScheduler != null) {
+            evictionScheduler.shutdownNow();
+            evictionScheduler = null;
+        }
+        if (this.idleTtlMs > 0) {
+            long period = Math.max(1000L, Math.min(this.idleTtlMs / 2, 60000L));
+            evictionScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dbcli-datasource-evictor");
+                t.setDaemon(true);
+                return t;
+            });
+            evictionScheduler.scheduleWithFixedDelay(this::evictIdleDataSources, period, period, TimeUnit.MILLISECONDS);
+            logger.info("启用数据源空闲回收: 空闲 {} 秒后关闭，数量上限 {}", this.idleTtlMs / 1000,
+                    this.maxDataSources > 0 ? String.valueOf(this.maxDataSources) : "不限");
+        }
+    }
+
+    /**
+     * 关闭空闲超时的数据源，返回关闭数量；未配置空闲超时时不做处理
+     */
+    public int evictIdleDataSources() {
+        long ttl = idleTtlMs;
+        if (ttl <= 0) {
+            return 0;
+        }
+        int evicted = 0;
+        synchronized (poolLeases) {
+            for (String key : dataSources.idleKeys(System.currentTimeMillis(), ttl, poolLeases::containsKey)) {
+                evictDataSource(key, "空闲超时");
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.info("已回收 {} 个空闲数据源，当前数据源数量: {}", evicted, dataSources.size());
+        }
+        return evicted;
+    }
+
+    /**
+     * 数据源数量超出上限时按 LRU 关闭，刚创建的数据源不参与
+     */
+    private void enforceMaxDataSources(String createdKey) {
+        int limit = maxDataSources;
+        if (limit <= 0) {
+            return;
+        }
+        synchronized (poolLeases) {
+            while (dataSources.size() > limit) {
+                String victim = dataSources.leastRecentlyUsed(k -> k.equals(createdKey) || poolLeases.containsKey(k));
+                if (victim == null) {
+                    break;
+                }
+                evictDataSource(victim, "超出数量上限");
+            }
+        }
+    }
+
+    /**
+     * 数据源登记表（最近使用时间、当前数据源快照）
+     */
+    public DataSourceRegistry getDataSourceRegistry() {
+        return dataSources;
+    }
+
+    /**
+     * 连接池监控器（含回收统计）
+     */
+    public ConnectionPoolMonitor getPoolMonitor() {
+        return poolMonitor;
+    }
+
+    /**
+     * 当前数据源数量
+     */
+    public int getDataSourceCount() {
+        return dataSources.size();
+    }
+
     /**
      * 关闭所有数据源
      */
     public void closeAll() {
-        for (Map.Entry<String, HikariDataSource> entry : dataSources.entrySet()) {
+        for (String key : new ArrayList<>(dataSources.keys())) {
+            HikariDataSource ds = dataSources.remove(key);
+            if (ds == null) {
+                continue;
+            }
             try {
-                entry.getValue().close();
-                logger.info("关闭数据源: {}", entry.getKey());
+                ds.close();
+                logger.info("关闭数据源: {}", key);
             } catch (Exception e) {
-                logger.error("关闭数据源失败: {}", entry.getKey(), e);
+                logger.error("关闭数据源失败: {}", key, e);
             }
         }
-        dataSources.clear();
+        configuredPoolSizes.clear();
+    }
+
+    /**
+     * 停止回收线程并关闭所有数据源
+     */
+    public synchronized void shutdown() {
+        if (evictionScheduler != null) {
+            evictionScheduler.shutdownNow();
+            evictionScheduler = null;
+        }
+        closeAll();
     }
 
     /**
@@ -281,7 +602,12 @@ public class ConnectionFactory {
      */
     public void printDataSourceStats() {
         logger.info("当前活跃数据源数量: {}", dataSources.size());
-        for (Map.Entry<String, HikariDataSource> entry : dataSources.entrySet()) {
+        ConnectionBudget currentBudget = budget;
+        if (currentBudget != null) {
+            logger.info("全局连接预算: 已借出 {}/{}，每池份额 {}", currentBudget.getLeasedConnections(),
+                    currentBudget.getMaxConnections(), currentBudget.shareFor(dataSources.size()));
+        }
+        for (Map.Entry<String, HikariDataSource> entry : dataSources.asMap().entrySet()) {
             HikariDataSource ds = entry.getValue();
             logger.info("数据源 {}: 活跃连接={}, 空闲连接={}, 总连接={}",
                     entry.getKey(),
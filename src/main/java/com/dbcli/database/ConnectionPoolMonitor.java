@@ -16,6 +16,7 @@ public class ConnectionPoolMonitor {
     private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolMonitor.class);
     
     private final Map<String, PoolStats> poolStats = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> evictionsByReason = new ConcurrentHashMap<>();
     
     /**
      * 记录连接获取
@@ -31,6 +32,53 @@ public class ConnectionPoolMonitor {
         poolStats.computeIfAbsent(poolKey, k -> new PoolStats()).releaseCount.incrementAndGet();
     }
     
+    /**
+     * 记录数据源回收
+     */
+    public void recordEviction(String poolKey, String reason) {
+        evictionsByReason.computeIfAbsent(reason, k -> new AtomicLong()).incrementAndGet();
+        poolStats.remove(poolKey);
+    }
+    
+    /**
+     * 累计回收的数据源数量
+     */
+    public long getEvictionCount() {
+        return evictionsByReason.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+    
+    /**
+     * 按原因统计的回收数量
+     */
+    public Map<String, Long> getEvictionsByReason() {
+        Map<String, Long> result = new java.util.TreeMap<>();
+        evictionsByReason.forEach((k, v) -> result.put(k, v.get()));
+        return result;
+    }
+    
+    /**
+     * 数据源登记表摘要：数量、回收统计与各数据源空闲时长
+     */
+    public String getRegistrySummary(DataSourceRegistry registry) {
+        long now = System.currentTimeMillis();
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("数据源登记表: %d 个数据源，累计回收 %d 个 %s\n",
+            registry.size(), getEvictionCount(), getEvictionsByReason()));
+        
+        registry.asMap().forEach((poolKey, dataSource) -> {
+            try {
+                int active = dataSource.getHikariPoolMXBean().getActiveConnections();
+                int total = dataSource.getHikariPoolMXBean().getTotalConnections();
+                summary.append(String.format("  %s: 空闲 %d 秒, %d/%d 活跃连接\n",
+                    poolKey, (now - registry.getLastUsed(poolKey)) / 1000, active, total));
+            } catch (Exception e) {
+                summary.append(String.format("  %s: 状态获取失败 - %s\n", poolKey, e.getMessage()));
+            }
+        });
+        
+        return summary.toString();
+    }
+    
     /**
      * 检查连接池健康状态
      */
@@ -127,6 +175,7 @@ public class ConnectionPoolMonitor {
      */
     public void resetStats() {
         poolStats.clear();
+        evictionsByReason.clear();
         logger.info("连接池统计信息已重置");
     }
     
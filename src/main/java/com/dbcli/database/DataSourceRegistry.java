@@ -0,0 +1,149 @@
+package com.dbcli.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 数据源登记表
+ * - 数据源在首次获取连接时按需创建，并记录最近一次使用时间
+ * - 提供按空闲时长与 LRU 选择可回收数据源的能力，回收动作由 ConnectionFactory 执行
+ * - 仍有借出连接的数据源不会被选为回收对象
+ */
+public class DataSourceRegistry {
+
+    /** 长驻进程默认空闲回收时长：10 分钟 */
+    public static final long DEFAULT_IDLE_TTL_MS = 10L * 60 * 1000;
+    /** 长驻进程默认数据源数量上限 */
+    public static final int DEFAULT_MAX_DATA_SOURCES = 64;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 获取数据源并刷新最近使用时间，不存在时返回 null
+     */
+    public HikariDataSource get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastUsed = System.currentTimeMillis();
+        return entry.dataSource;
+    }
+
+    /**
+     * 获取或创建数据源；creator 返回 null 时不登记
+     */
+    public HikariDataSource computeIfAbsent(String key, Supplier<HikariDataSource> creator) {
+        Entry entry = entries.computeIfAbsent(key, k -> {
+            HikariDataSource ds = creator.get();
+            return ds != null ? new Entry(ds) : null;
+        });
+        if (entry == null) {
+            return null;
+        }
+        entry.lastUsed = System.currentTimeMillis();
+        return entry.dataSource;
+    }
+
+    public HikariDataSource remove(String key) {
+        Entry entry = entries.remove(key);
+        return entry != null ? entry.dataSource : null;
+    }
+
+    /**
+     * 仅当登记的仍是指定数据源时移除（用于丢弃已关闭的数据源，不误删并发重建的新数据源）
+     */
+    public boolean remove(String key, HikariDataSource dataSource) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(key, (k, v) -> {
+            if (v.dataSource == dataSource) {
+                removed[0] = true;
+                return null;
+            }
+            return v;
+        });
+        return removed[0];
+    }
+
+    public boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * 最近使用时间（毫秒时间戳），不存在时返回 0
+     */
+    public long getLastUsed(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.lastUsed : 0L;
+    }
+
+    /**
+     * 当前数据源快照（供 ConnectionPoolMonitor 巡检使用）
+     */
+    public Map<String, HikariDataSource> asMap() {
+        Map<String, HikariDataSource> snapshot = new LinkedHashMap<>();
+        entries.forEach((k, v) -> snapshot.put(k, v.dataSource));
+        return snapshot;
+    }
+
+    /**
+     * 空闲超过 idleTtlMs 且无借出连接的数据源
+     */
+    public List<String> idleKeys(long now, long idleTtlMs, Predicate<String> pinned) {
+        List<String> keys = new ArrayList<>();
+        entries.forEach((k, v) -> {
+            if (now - v.lastUsed >= idleTtlMs && !pinned.test(k) && !v.hasActiveConnections()) {
+                keys.add(k);
+            }
+        });
+        return keys;
+    }
+
+    /**
+     * 最久未使用且无借出连接的数据源，无可回收对象时返回 null
+     */
+    public String leastRecentlyUsed(Predicate<String> pinned) {
+        String oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry v = e.getValue();
+            if (v.lastUsed < oldest && !pinned.test(e.getKey()) && !v.hasActiveConnections()) {
+                oldest = v.lastUsed;
+                oldestKey = e.getKey();
+            }
+        }
+        return oldestKey;
+    }
+
+    private static final class Entry {
+        final HikariDataSource dataSource;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Entry(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        boolean hasActiveConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool != null && pool.getActiveConnections() > 0;
+        }
+    }
+}
@@ -253,6 +253,13 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * 按角色解析目标节点（与 getConnection 的选点规则一致），未找到返回 null
+     */
+    public DatabaseNode selectNode(String dbType, String systemName, String nodeRole) {
+        return selectNode(getNodes(dbType, systemName), nodeRole);
+    }
+
     /**
      * 根据角色选择节点
      */
@@ -420,7 +427,7 @@ public class DatabaseManager {
      */
     public void shutdown() {
         logger.info("关闭数据库连接管理器...");
-        connectionFactory.closeAll();
+        connectionFactory.shutdown();
         databaseSystems.clear();
         failedConnections.clear();
         logger.info("数据库连接管理器已关闭");
@@ -9,21 +9,40 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 自适应线程池管理器
- * 为不同数据库类型提供独立的线程池，并支持动态调整
+ * 为不同数据库类型提供独立的线程池，并支持动态调整；
+ * 虚拟线程后端下每个数据库类型使用独立信号量限制并发（见 {@link ExecutorBackends}）
+ * 每个数据库类型的并发上限由 {@link AimdConcurrencyController} 按查询耗时与超时情况自动调节，
+ * 调用方通过 {@link #recordQuery} 上报每次查询的耗时
+ * 平台线程池使用无界队列：执行引擎一次派发整轮任务，排队任务不能回落到派发线程执行
  */
 public class AdaptiveThreadPoolManager {
     private static final Logger logger = LoggerFactory.getLogger(AdaptiveThreadPoolManager.class);
     
     private final int corePoolSize;
     private final int maximumPoolSize;
-    private final Map<String, ThreadPoolExecutor> dbTypeExecutors;
+    private final String executorBackend;
+    private final Map<String, ExecutorService> dbTypeExecutors;
+    private final Map<String, AimdConcurrencyController> controllers;
     private final ScheduledExecutorService monitor;
     
     public AdaptiveThreadPoolManager(int baseConcurrency) {
-        this.corePoolSize = Math.max(2, baseConcurrency / 4);
-        this.maximumPoolSize = baseConcurrency;
+        this(baseConcurrency, ExecutorBackends.AUTO);
+    }
+
+    /**
+     * @param executorBackend 执行器后端（auto/platform/virtual）
+     */
+    public AdaptiveThreadPoolManager(int baseConcurrency, String executorBackend) {
+        this.executorBackend = executorBackend;
+        this.corePoolSize = Math.max(1, baseConcurrency);
+        this.maximumPoolSize = this.corePoolSize;
         this.dbTypeExecutors = new ConcurrentHashMap<>();
-        this.monitor = Executors.newScheduledThreadPool(1);
+        this.controllers = new ConcurrentHashMap<>();
+        this.monitor = Executors.newScheduledThreadPool(1, r -> {
+            Thread t = new Thread(r, "dbcli-pool-monitor");
+            t.setDaemon(true);
+            return t;
+        });
         
         // 启动监控任务
         startMonitoring();
@@ -32,29 +51,81 @@ public class AdaptiveThreadPoolManager {
     /**
      * 获取指定数据库类型的线程池
      */
-    public ThreadPoolExecutor getExecutor(String dbType) {
+    public ExecutorService getExecutor(String dbType) {
         return dbTypeExecutors.computeIfAbsent(dbType, this::createExecutor);
     }
+
+    /**
+     * 上报一次查询的耗时与是否超时，驱动该数据库类型的并发上限调整
+     */
+    public void recordQuery(String dbType, long latencyMs, boolean timedOut) {
+        AimdConcurrencyController controller = getController(dbType);
+        if (controller != null) {
+            controller.record(latencyMs, timedOut);
+        }
+    }
+
+    /**
+     * 当前并发上限（尚未创建执行器时返回 0）
+     */
+    public int getConcurrencyLimit(String dbType) {
+        AimdConcurrencyController controller = getController(dbType);
+        return controller != null ? controller.getLimit() : 0;
+    }
+
+    private AimdConcurrencyController getController(String dbType) {
+        if (dbType == null) {
+            return null;
+        }
+        getExecutor(dbType);
+        return controllers.get(dbType);
+    }
     
     /**
      * 创建线程池
      */
-    private ThreadPoolExecutor createExecutor(String dbType) {
+    private ExecutorService createExecutor(String dbType) {
+        if (ExecutorBackends.useVirtualThreads(executorBackend)) {
+            logger.info("为数据库类型 {} 创建虚拟线程执行器: 并发上限={}", dbType, maximumPoolSize);
+            SemaphoreBoundedExecutor executor = new SemaphoreBoundedExecutor("dbcli-" + dbType,
+                    ExecutorBackends.newVirtualThreadPerTaskExecutor(), maximumPoolSize);
+            controllers.put(dbType, new AimdConcurrencyController(dbType, maximumPoolSize, 1, maximumPoolSize * 2,
+                    executor::setMaxConcurrency));
+            return executor;
+        }
+
         ThreadPoolExecutor executor = new ThreadPoolExecutor(
             corePoolSize,
             maximumPoolSize,
             60L, TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(100),
-            new DbCliThreadFactory(dbType),
-            new ThreadPoolExecutor.CallerRunsPolicy()
+            new LinkedBlockingQueue<>(),
+            new DbCliThreadFactory(dbType)
         );
         
-        logger.info("为数据库类型 {} 创建线程池: core={}, max={}, queue=100", 
+        logger.info("为数据库类型 {} 创建线程池: core={}, max={}", 
             dbType, corePoolSize, maximumPoolSize);
         
+        // 无界队列下实际并发为核心线程数，以其作为初始上限
+        controllers.put(dbType, new AimdConcurrencyController(dbType, corePoolSize, 1, maximumPoolSize * 2,
+                limit -> applyLimit(executor, limit)));
         return executor;
     }
     
+    /**
+     * 核心与最大线程数同时设为上限；调整顺序保证任意时刻 core <= max
+     */
+    private static void applyLimit(ThreadPoolExecutor executor, int limit) {
+        synchronized (executor) {
+            if (limit >= executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(limit);
+                executor.setCorePoolSize(limit);
+            } else {
+                executor.setCorePoolSize(limit);
+                executor.setMaximumPoolSize(limit);
+            }
+        }
+    }
+
     /**
      * 启动监控任务
      */
@@ -72,7 +143,12 @@ public class AdaptiveThreadPoolManager {
      * 监控线程池状态
      */
     private void monitorThreadPools() {
-        dbTypeExecutors.forEach((dbType, executor) -> {
+        controllers.values().forEach(AimdConcurrencyController::tick);
+        dbTypeExecutors.forEach((dbType, service) -> {
+            if (!(service instanceof ThreadPoolExecutor)) {
+                return;
+            }
+            ThreadPoolExecutor executor = (ThreadPoolExecutor) service;
             int active = executor.getActiveCount();
             int queue = executor.getQueue().size();
             int poolSize = executor.getPoolSize();
@@ -84,22 +160,10 @@ public class AdaptiveThreadPoolManager {
                     dbType, active, queue, poolSize, maxPoolSize);
             }
             
-            // 队列积压告警
-            if (queue > 50) {
-                logger.warn("线程池 {} 队列积压严重: {} 个任务等待执行", dbType, queue);
-                
-                // 动态扩展线程池
-                if (poolSize < maximumPoolSize * 2) {
-                    int newMax = Math.min(maximumPoolSize * 2, poolSize + 2);
-                    executor.setMaximumPoolSize(newMax);
-                    logger.info("动态扩展线程池 {} 最大线程数至: {}", dbType, newMax);
-                }
-            }
-            
-            // 线程池使用率告警
-            double utilizationRate = (double) active / maxPoolSize;
-            if (utilizationRate > 0.8) {
-                logger.warn("线程池 {} 使用率过高: {:.1f}%", dbType, utilizationRate * 100);
+            // 整轮任务一次入队，积压属正常现象；线程数由并发控制按数据库响应调整，这里不按积压扩容
+            if (queue > 50 && logger.isDebugEnabled()) {
+                logger.debug("线程池 {} 排队任务: {}，当前并发上限 {}",
+                    dbType, queue, getConcurrencyLimit(dbType));
             }
         });
     }
@@ -110,15 +174,34 @@ public class AdaptiveThreadPoolManager {
     public Map<String, ThreadPoolStats> getThreadPoolStats() {
         Map<String, ThreadPoolStats> stats = new ConcurrentHashMap<>();
         
-        dbTypeExecutors.forEach((dbType, executor) -> {
+        dbTypeExecutors.forEach((dbType, service) -> {
             ThreadPoolStats poolStats = new ThreadPoolStats();
             poolStats.setDbType(dbType);
-            poolStats.setActiveCount(executor.getActiveCount());
-            poolStats.setQueueSize(executor.getQueue().size());
-            poolStats.setPoolSize(executor.getPoolSize());
-            poolStats.setMaxPoolSize(executor.getMaximumPoolSize());
-            poolStats.setCompletedTaskCount(executor.getCompletedTaskCount());
-            poolStats.setTaskCount(executor.getTaskCount());
+            if (service instanceof ThreadPoolExecutor) {
+                ThreadPoolExecutor executor = (ThreadPoolExecutor) service;
+                poolStats.setActiveCount(executor.getActiveCount());
+                poolStats.setQueueSize(executor.getQueue().size());
+                poolStats.setPoolSize(executor.getPoolSize());
+                poolStats.setMaxPoolSize(executor.getMaximumPoolSize());
+                poolStats.setCompletedTaskCount(executor.getCompletedTaskCount());
+                poolStats.setTaskCount(executor.getTaskCount());
+            } else if (service instanceof SemaphoreBoundedExecutor) {
+                SemaphoreBoundedExecutor executor = (SemaphoreBoundedExecutor) service;
+                poolStats.setActiveCount(executor.getActiveCount());
+                poolStats.setQueueSize(executor.getWaitingCount());
+                poolStats.setPoolSize(executor.getActiveCount());
+                poolStats.setMaxPoolSize(executor.getMaxConcurrency());
+                poolStats.setCompletedTaskCount(executor.getCompletedTaskCount());
+                poolStats.setTaskCount(executor.getTaskCount());
+            }
+            
+            AimdConcurrencyController controller = controllers.get(dbType);
+            if (controller != null) {
+                poolStats.setConcurrencyLimit(controller.getLimit());
+                poolStats.setLatencyP95Ms(controller.getLastP95());
+                poolStats.setBaselineP95Ms(controller.getBaselineP95());
+                poolStats.setTimeoutCount(controller.getTotalTimeouts());
+            }
             
             stats.put(dbType, poolStats);
         });
@@ -169,6 +252,13 @@ public class AdaptiveThreadPoolManager {
     public int getCorePoolSize() {
         return corePoolSize;
     }
+
+    /**
+     * 执行器后端（auto/platform/virtual）
+     */
+    public String getExecutorBackend() {
+        return executorBackend;
+    }
     
     /**
      * 自定义线程工厂
@@ -201,6 +291,10 @@ public class AdaptiveThreadPoolManager {
         private int maxPoolSize;
         private long completedTaskCount;
         private long taskCount;
+        private int concurrencyLimit;
+        private long latencyP95Ms;
+        private long baselineP95Ms;
+        private long timeoutCount;
         
         // Getters and Setters
         public String getDbType() { return dbType; }
@@ -224,6 +318,20 @@ public class AdaptiveThreadPoolManager {
         public long getTaskCount() { return taskCount; }
         public void setTaskCount(long taskCount) { this.taskCount = taskCount; }
         
+        /** 自适应并发控制的当前上限 */
+        public int getConcurrencyLimit() { return concurrencyLimit; }
+        public void setConcurrencyLimit(int concurrencyLimit) { this.concurrencyLimit = concurrencyLimit; }
+        
+        /** 最近一个窗口的查询耗时 p95 */
+        public long getLatencyP95Ms() { return latencyP95Ms; }
+        public void setLatencyP95Ms(long latencyP95Ms) { this.latencyP95Ms = latencyP95Ms; }
+        
+        public long getBaselineP95Ms() { return baselineP95Ms; }
+        public void setBaselineP95Ms(long baselineP95Ms) { this.baselineP95Ms = baselineP95Ms; }
+        
+        public long getTimeoutCount() { return timeoutCount; }
+        public void setTimeoutCount(long timeoutCount) { this.timeoutCount = timeoutCount; }
+        
         public double getUtilizationRate() {
             return maxPoolSize > 0 ? (double) activeCount / maxPoolSize : 0.0;
         }
@@ -0,0 +1,136 @@
+package com.dbcli.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 加性增、乘性减（AIMD）并发控制
+ * - 按窗口统计查询耗时 p95，与基线比较：耗时平稳则上限 +1，明显升高或出现查询超时则上限乘以 {@link #DECREASE_FACTOR}
+ * - 基线取历史较低的 p95，平稳窗口内缓慢跟随，避免查询本身变慢后持续误判为过载
+ * - 上限变化时回调 onLimitChange，由执行器调整实际并发
+ */
+public class AimdConcurrencyController {
+    private static final Logger logger = LoggerFactory.getLogger(AimdConcurrencyController.class);
+
+    /** 每个调整窗口的样本数 */
+    public static final int WINDOW_SIZE = 20;
+    /** 监控周期触发调整所需的最少样本数 */
+    static final int MIN_SAMPLES = 5;
+    /** p95 超过基线该倍数视为过载 */
+    static final double LATENCY_TOLERANCE = 2.0;
+    static final double DECREASE_FACTOR = 0.7;
+    // 平稳窗口内基线向当前 p95 靠拢的比例
+    private static final double BASELINE_DRIFT = 0.1;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final IntConsumer onLimitChange;
+
+    private final long[] window = new long[WINDOW_SIZE];
+    private int samples;
+    private int timeouts;
+    private int limit;
+    private double baselineP95;
+    private long lastP95;
+    private long totalTimeouts;
+
+    public AimdConcurrencyController(String name, int initialLimit, int minLimit, int maxLimit,
+                                     IntConsumer onLimitChange) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.onLimitChange = onLimitChange;
+    }
+
+    /**
+     * 记录一次查询耗时；窗口满时调整（每个窗口最多下调一次，避免一批超时把上限连续压到底）
+     */
+    public synchronized void record(long latencyMs, boolean timedOut) {
+        window[samples++] = Math.max(0, latencyMs);
+        if (timedOut) {
+            timeouts++;
+            totalTimeouts++;
+        }
+        if (samples >= WINDOW_SIZE) {
+            adjust();
+        }
+    }
+
+    /**
+     * 监控周期调用：样本不足一个窗口时也按已有样本调整，低流量下上限仍能收敛
+     */
+    public synchronized void tick() {
+        if (samples >= MIN_SAMPLES || timeouts > 0) {
+            adjust();
+        }
+    }
+
+    /**
+     * 结束当前窗口并计算新上限；在锁内回调，保证执行器按调整顺序收到上限
+     */
+    private void adjust() {
+        long p95 = percentile95(window, samples);
+        int previous = limit;
+        boolean overloaded = timeouts > 0 || (baselineP95 > 0 && p95 > baselineP95 * LATENCY_TOLERANCE);
+
+        if (overloaded) {
+            limit = Math.max(minLimit, (int) Math.floor(limit * DECREASE_FACTOR));
+            logger.info("并发控制 {}: p95={}ms（基线 {}ms），超时 {} 次，上限 {} -> {}",
+                    name, p95, Math.round(baselineP95), timeouts, previous, limit);
+        } else {
+            limit = Math.min(maxLimit, limit + 1);
+            baselineP95 = baselineP95 <= 0 || p95 < baselineP95
+                    ? p95
+                    : baselineP95 + (p95 - baselineP95) * BASELINE_DRIFT;
+            if (limit != previous && logger.isDebugEnabled()) {
+                logger.debug("并发控制 {}: p95={}ms 平稳，上限 {} -> {}", name, p95, previous, limit);
+            }
+        }
+
+        lastP95 = p95;
+        samples = 0;
+        timeouts = 0;
+        if (limit != previous && onLimitChange != null) {
+            onLimitChange.accept(limit);
+        }
+    }
+
+    static long percentile95(long[] values, int count) {
+        if (count <= 0) {
+            return 0L;
+        }
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(count * 0.95) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized long getLastP95() {
+        return lastP95;
+    }
+
+    public synchronized long getBaselineP95() {
+        return Math.round(baselineP95);
+    }
+
+    public synchronized long getTotalTimeouts() {
+        return totalTimeouts;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+}
@@ -0,0 +1,176 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.MetricConfig;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 目录快照（状态/参数视图）
+ * - 每个节点每轮只读取一次整张状态或参数视图（如 SHOW GLOBAL STATUS、v$sysstat），缓存为 名称 -> 值
+ * - 声明了 lookup 的单值指标直接在快照中查值，不再各自查询数据库
+ * - 同一节点的并发任务共用一次读取；读取失败在本轮内同样共享，避免反复冲击节点
+ * - 执行引擎在每轮开始时清空快照
+ */
+public class CatalogSnapshots {
+
+    /** 内置快照来源，其他取值按两列（名称, 值）的 SQL 处理 */
+    static final Map<String, String> SOURCES;
+
+    static {
+        Map<String, String> sources = new HashMap<>();
+        sources.put("mysql_status", "SHOW GLOBAL STATUS");
+        sources.put("mysql_variables", "SHOW GLOBAL VARIABLES");
+        sources.put("mysql_session_status", "SHOW STATUS");
+        sources.put("mysql_session_variables", "SHOW VARIABLES");
+        sources.put("oracle_sysstat", "SELECT name, value FROM v$sysstat");
+        sources.put("oracle_parameter", "SELECT name, value FROM v$parameter");
+        sources.put("pg_settings", "SELECT name, setting FROM pg_settings");
+        sources.put("dm_sysstat", "SELECT name, stat_val FROM v$sysstat");
+        sources.put("dm_parameter", "SELECT para_name, para_value FROM v$dm_ini");
+        SOURCES = Collections.unmodifiableMap(sources);
+    }
+
+    private static final Pattern MYSQL_SHOW = Pattern.compile(
+            "^SHOW\\s+(GLOBAL\\s+|SESSION\\s+)?(STATUS|VARIABLES)\\s+LIKE\\s+'([^'%]+)'\\s*;?$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORACLE_VIEW = Pattern.compile(
+            "^SELECT\\s+VALUE\\s+FROM\\s+V\\$(SYSSTAT|PARAMETER)\\s+WHERE\\s+NAME\\s*=\\s*'([^']+)'\\s*;?$",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 读取快照：执行来源 SQL，返回第一列（名称）到第二列（值）的映射
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Map<String, Object> load(String sql) throws SQLException;
+    }
+
+    private final Map<String, CompletableFuture<Map<String, Object>>> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong fetchCount = new AtomicLong();
+    private final AtomicLong lookupCount = new AtomicLong();
+    private volatile boolean deriveFromSql = false;
+
+    /**
+     * 开启后，未声明 lookup 但 SQL 为单项状态/参数查询的指标（如 SHOW [GLOBAL] STATUS LIKE 'x'）也从快照取值
+     */
+    public void setDeriveFromSql(boolean deriveFromSql) {
+        this.deriveFromSql = deriveFromSql;
+    }
+
+    public boolean isDeriveFromSql() {
+        return deriveFromSql;
+    }
+
+    /**
+     * 清空快照（每轮开始时调用）
+     */
+    public void clear() {
+        snapshots.clear();
+    }
+
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    public long getLookupCount() {
+        return lookupCount.get();
+    }
+
+    /**
+     * 指标对应的快照查找：优先使用声明的 lookup，其次（开启推导时）从 SQL 推导；不适用时返回 null
+     */
+    public MetricConfig.Lookup lookupOf(MetricConfig metric, String dbType) {
+        if (metric == null || !"SINGLE".equals(metric.getType())) {
+            return null;
+        }
+        if (metric.getLookup() != null) {
+            return metric.getLookup();
+        }
+        if (!deriveFromSql || metric.getSql() == null
+                || (metric.getColumns() != null && !metric.getColumns().isEmpty())) {
+            return null;
+        }
+        return deriveLookup(metric.getSql(), dbType);
+    }
+
+    static MetricConfig.Lookup deriveLookup(String sql, String dbType) {
+        String type = dbType != null ? dbType.toLowerCase(Locale.ROOT) : "";
+        String trimmed = sql.trim();
+        Matcher m;
+        if (type.contains("mysql") && (m = MYSQL_SHOW.matcher(trimmed)).matches()) {
+            // 未指定作用域时 SHOW 读取会话级值
+            String scope = m.group(1) != null && m.group(1).trim().equalsIgnoreCase("GLOBAL") ? "mysql_" : "mysql_session_";
+            String source = scope + ("STATUS".equalsIgnoreCase(m.group(2)) ? "status" : "variables");
+            return new MetricConfig.Lookup(source, m.group(3));
+        }
+        if (type.contains("oracle") && (m = ORACLE_VIEW.matcher(trimmed)).matches()) {
+            String source = "SYSSTAT".equalsIgnoreCase(m.group(1)) ? "oracle_sysstat" : "oracle_parameter";
+            return new MetricConfig.Lookup(source, m.group(2));
+        }
+        return null;
+    }
+
+    /**
+     * 来源对应的 SQL：内置名称或原样 SQL
+     */
+    static String resolveSource(String source) {
+        String sql = SOURCES.get(source.trim().toLowerCase(Locale.ROOT));
+        return sql != null ? sql : source.trim();
+    }
+
+    /**
+     * 在节点快照中查值（名称不区分大小写）；快照不存在时由当前任务读取，其他任务等待其结果。
+     * 名称不在快照中时返回 null
+     */
+    public Object lookup(String nodeId, MetricConfig.Lookup lookup, long timeoutMillis, Loader loader)
+            throws SQLException {
+        String sql = resolveSource(lookup.getSource());
+        CompletableFuture<Map<String, Object>> created = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> snapshot = snapshots.putIfAbsent(nodeId + "|" + sql, created);
+        if (snapshot == null) {
+            snapshot = created;
+            fetchCount.incrementAndGet();
+            try {
+                created.complete(normalize(loader.load(sql)));
+            } catch (SQLException | RuntimeException e) {
+                created.completeExceptionally(e);
+            }
+        }
+        Map<String, Object> values;
+        try {
+            values = snapshot.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof SQLException ? (SQLException) cause
+                    : new SQLException("读取目录快照失败: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new SQLException("等待目录快照超时: " + lookup.getSource());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待目录快照被中断");
+        }
+        lookupCount.incrementAndGet();
+        return values.get(lookup.getKey().trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static Map<String, Object> normalize(Map<String, Object> raw) {
+        Map<String, Object> values = new HashMap<>(raw.size() * 2);
+        raw.forEach((k, v) -> {
+            if (k != null) {
+                values.putIfAbsent(k.trim().toLowerCase(Locale.ROOT), v);
+            }
+        });
+        return values;
+    }
+}
@@ -40,30 +40,40 @@ public class CircuitBreaker {
      * 执行受熔断器保护的操作
      */
     public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> operation) {
-        if (state == State.OPEN) {
-            if (System.currentTimeMillis() - lastFailureTime > retryTimeoutMs) {
-                state = State.HALF_OPEN;
-                logger.info("熔断器 {} 进入半开状态", name);
-            } else {
-                return CompletableFuture.failedFuture(
-                    new CircuitBreakerOpenException("熔断器 " + name + " 处于开启状态"));
-            }
+        if (!allowRequest()) {
+            return CompletableFuture.failedFuture(
+                new CircuitBreakerOpenException("熔断器 " + name + " 处于开启状态"));
         }
         
         return operation.get()
             .whenComplete((result, throwable) -> {
                 if (throwable == null) {
-                    onSuccess();
+                    recordSuccess();
                 } else {
-                    onFailure();
+                    recordFailure();
                 }
             });
     }
     
+    /**
+     * 是否放行请求：开启状态超过重试等待时间后进入半开状态放行
+     */
+    public boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - lastFailureTime > retryTimeoutMs) {
+                state = State.HALF_OPEN;
+                logger.info("熔断器 {} 进入半开状态", name);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     /**
      * 成功回调
      */
-    private void onSuccess() {
+    public void recordSuccess() {
         failureCount.set(0);
         if (state == State.HALF_OPEN) {
             state = State.CLOSED;
@@ -74,11 +84,11 @@ public class CircuitBreaker {
     /**
      * 失败回调
      */
-    private void onFailure() {
+    public void recordFailure() {
         int failures = failureCount.incrementAndGet();
         lastFailureTime = System.currentTimeMillis();
         
-        if (failures >= failureThreshold) {
+        if (failures >= failureThreshold && state != State.OPEN) {
             state = State.OPEN;
             logger.warn("熔断器 {} 开启，连续失败次数: {}", name, failures);
         }
@@ -1,6 +1,9 @@
 package com.dbcli.executor;
 
+import com.dbcli.config.AppConfig;
 import com.dbcli.config.ConfigLoader;
+import com.dbcli.database.ConnectionBudget;
+import com.dbcli.database.ConnectionFactory;
 import com.dbcli.database.DatabaseManager;
 import com.dbcli.model.DatabaseConfig;
 import com.dbcli.model.DatabaseNode;
@@ -16,9 +19,13 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,12 +34,24 @@ import java.util.regex.Pattern;
  * - 按指标文件名匹配数据库类型，仅为对应类型执行（oracle/mysql/pg/dm -> manager键 oracle/mysql/postgresql/dm）
  * - 执行前读取 logs/db_conn.err 失败清单，若某系统所有节点均命中失败清单则跳过该系统
  * - 支持自定义指标目录（默认 metrics）
+ * - 统一执行引擎：各数据库类型的线程池由 {@link AdaptiveThreadPoolManager} 统一创建并按查询耗时调节并发，
+ *   每个节点一个 {@link CircuitBreaker}，连续连接失败或超时的节点在熔断期内直接返回失败，不再占用线程与连接
  */
-public class ConcurrentMetricsExecutor {
+public class ConcurrentMetricsExecutor implements MetricsExecutor {
     private static final Logger logger = LoggerFactory.getLogger(ConcurrentMetricsExecutor.class);
 
+    // 节点连续失败（连接失败或查询超时）次数达到该值即熔断
+    static final int BREAKER_FAILURE_THRESHOLD = 5;
+    // 熔断后等待该时间再放行试探请求
+    static final long BREAKER_RETRY_MS = 60_000L;
+    // 未设置 --deadline 时的执行超时（秒）
+    static final long DEFAULT_EXECUTION_TIMEOUT_SECONDS = 30000L;
+
     private final DatabaseManager databaseManager;
     private final Map<String, QueryExecutor> queryExecutors = new ConcurrentHashMap<>();
+    private final AdaptiveThreadPoolManager threadPoolManager;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final ExecutionStats executionStats = new ExecutionStats();
     private final ConfigLoader configLoader;
 
     private final int threadCount;
@@ -40,19 +59,97 @@ public class ConcurrentMetricsExecutor {
 
     private String metricsDirPath = "metrics";
     private Set<String> failedEncryptedHosts = Collections.emptySet();
+    private boolean nodeSessionMode = false;
+    private boolean costAwareScheduling = false;
+    // 合并同一节点上的单值指标为一次往返
+    private boolean singleBatching = false;
+    // 节点状态/参数视图快照，各类型执行器共享，每轮清空
+    private final CatalogSnapshots catalogSnapshots = new CatalogSnapshots();
+    // 每台主机/每个系统同时执行的任务上限，0 表示不限制
+    private int maxPerHost = 0;
+    private int maxPerSystem = 0;
+    private Path latencyHistoryFile = Paths.get(MetricLatencyHistory.DEFAULT_FILE);
+    // 仅在启用按耗时调度时加载与记录
+    private MetricLatencyHistory latencyHistory;
+    // 本轮执行截止时间，派发时创建并下发给各类型执行器
+    private volatile ExecutionDeadline deadline = ExecutionDeadline.NONE;
+    // first 模式对冲请求，未启用时为 null
+    private HedgingPolicy hedgingPolicy;
+    // 指标结果缓存（cache_ttl），首次需要时加载；关闭读取时仍以新结果刷新缓存
+    private Path resultCacheFile = Paths.get(MetricResultCache.DEFAULT_FILE);
+    private MetricResultCache resultCache;
+    private boolean resultCacheEnabled = true;
+    // 长驻模式复用已解析的数据库配置与指标，配置文件变化时由调用方标记失效
+    private boolean configCaching = false;
+    private volatile boolean databaseConfigsLoaded = false;
+    private volatile Map<String, List<MetricConfig>> cachedMetricsByType;
+    // 外部传入的数据库管理器由调用方负责关闭
+    private final boolean ownsDatabaseManager;
 
     public ConcurrentMetricsExecutor(int threadCount, long executionTimeoutSeconds) {
+        this(threadCount, executionTimeoutSeconds, new DatabaseManager(), true);
+    }
+
+    /**
+     * 使用外部数据库管理器（与连接预检查共用连接池）
+     */
+    public ConcurrentMetricsExecutor(int threadCount, long executionTimeoutSeconds, DatabaseManager databaseManager) {
+        this(threadCount, executionTimeoutSeconds, databaseManager, ExecutorBackends.AUTO);
+    }
+
+    /**
+     * 使用外部数据库管理器并指定执行器后端（auto/platform/virtual）
+     */
+    public ConcurrentMetricsExecutor(int threadCount, long executionTimeoutSeconds, DatabaseManager databaseManager,
+                                     String executorBackend) {
+        this(threadCount, executionTimeoutSeconds, databaseManager, false, executorBackend);
+    }
+
+    /**
+     * 按运行配置创建执行器：并发数、截止时间、执行器后端及各项执行引擎开关均取自配置。
+     * databaseManager 为空时自行创建（并按 --max-connections 设置连接预算），关闭执行器时一并关闭
+     */
+    public static ConcurrentMetricsExecutor fromConfig(AppConfig config, DatabaseManager databaseManager) {
+        boolean owns = databaseManager == null;
+        DatabaseManager manager = owns ? new DatabaseManager() : databaseManager;
+        if (owns && config.getMaxConnections() > 0) {
+            manager.getConnectionFactory().setConnectionBudget(new ConnectionBudget(config.getMaxConnections()));
+        }
+        long timeoutSeconds = config.getDeadlineSeconds() > 0 ? config.getDeadlineSeconds() : DEFAULT_EXECUTION_TIMEOUT_SECONDS;
+        ConcurrentMetricsExecutor executor = new ConcurrentMetricsExecutor(config.getConcurrency(), timeoutSeconds,
+                manager, owns, config.getExecutorBackend());
+        executor.setNodeSessionMode(config.isNodeSession());
+        executor.setCostAwareScheduling(config.isCostAwareSchedule());
+        executor.setHostConcurrencyLimits(config.getMaxPerHost(), config.getMaxPerSystem());
+        executor.setHedgingEnabled(config.isHedgeRequests());
+        executor.setResultCacheEnabled(!config.isNoCache());
+        executor.setConfigCaching(config.isDaemon());
+        executor.setSingleBatching(config.isBatchSingle());
+        executor.setCatalogSnapshotDerivation(config.isCatalogSnapshot());
+        return executor;
+    }
+
+    private ConcurrentMetricsExecutor(int threadCount, long executionTimeoutSeconds, DatabaseManager databaseManager,
+                                      boolean ownsDatabaseManager) {
+        this(threadCount, executionTimeoutSeconds, databaseManager, ownsDatabaseManager, ExecutorBackends.AUTO);
+    }
+
+    private ConcurrentMetricsExecutor(int threadCount, long executionTimeoutSeconds, DatabaseManager databaseManager,
+                                      boolean ownsDatabaseManager, String executorBackend) {
+        this.ownsDatabaseManager = ownsDatabaseManager;
         this.threadCount = threadCount;
         this.executionTimeoutSeconds = executionTimeoutSeconds;
 
-        this.databaseManager = new DatabaseManager();
+        this.databaseManager = databaseManager;
         this.configLoader = new ConfigLoader(new EncryptionService());
+        this.threadPoolManager = new AdaptiveThreadPoolManager(threadCount, executorBackend);
     }
 
     /**
      * 兼容运行器调用（内存模式）：
      * 内存指标缺少文件来源，无法可靠分发到类型，为避免跨类型执行，这里仅初始化环境并返回空。
      */
+    @Override
     public List<MetricResult> executeMetrics(Map<String, DatabaseConfig> databaseConfigs,
                                              List<MetricConfig> metricConfigs, int timeoutSeconds) {
         logger.info("开始执行指标收集（内存模式），数据库配置数: {}, 指标数(忽略类型分发): {}",
@@ -71,38 +168,26 @@ public class ConcurrentMetricsExecutor {
     /**
      * 从目录加载配置与指标，并并发执行
      */
+    @Override
     public List<MetricResult> executeAllMetrics(String configPath, String metricsPath) {
         logger.info("开始并发执行指标收集，线程数: {}", threadCount);
+        long start = System.currentTimeMillis();
 
         try {
-            // 1. 加载数据库配置
-            databaseManager.loadConfigurations(configPath);
-
-            // 2. （兼容旧逻辑）连接测试入口保留（若使用 FastConnectionTestService 执行过，将产生失败清单）
-            databaseManager.testAllConnections();
-
-            // 3. 覆盖指标目录
-            if (metricsPath != null && !metricsPath.trim().isEmpty()) {
-                this.metricsDirPath = metricsPath.trim();
-            }
-
-            // 4. 加载连接失败灰名单（加密标识），用于自动跳过后续指标执行
-            Set<String> encBlacklist = loadEncryptedBlacklist("logs/db_conn_blacklist.txt");
-            setFailedEncryptedHosts(encBlacklist);
-            logger.info("已加载失败主机清单(加密)条目数: {}", failedEncryptedHosts.size());
-
-            // 5. 加载并按类型分组指标（按文件名）
-            Map<String, List<MetricConfig>> metricsByType = loadAndGroupMetricsByFile(this.metricsDirPath);
+            Map<String, List<MetricConfig>> metricsByType = prepareMetrics(configPath, metricsPath);
             if (metricsByType.isEmpty()) {
-                logger.warn("未找到任何可执行的指标文件，目录: {}", this.metricsDirPath);
                 return Collections.emptyList();
             }
 
             // 6. 并发执行
             List<MetricResult> results = executeConcurrently(metricsByType);
+            recordLatencies(results);
+            saveResultCache();
 
             // 7. 打印摘要
-            printStats(results);
+            ResultStatistics stats = ResultStatistics.of(results);
+            updateExecutionStats(stats, System.currentTimeMillis() - start);
+            printStats(stats);
 
             return results;
         } catch (Exception e) {
@@ -111,6 +196,82 @@ public class ConcurrentMetricsExecutor {
         }
     }
 
+    /**
+     * 从目录加载配置与指标，并发执行并将每个完成的结果立即推送给接收器（流式模式）
+     * 执行器不汇总结果列表，只返回计数统计；接收器的 complete 由调用方负责
+     */
+    public ResultStatistics executeAllMetrics(String configPath, String metricsPath, MetricResultSink sink) {
+        logger.info("开始并发执行指标收集（流式投递），线程数: {}", threadCount);
+        long start = System.currentTimeMillis();
+
+        MetricLatencyHistory history = costAwareScheduling ? getLatencyHistory() : null;
+        StreamingDelivery delivery = new StreamingDelivery(history != null ? MetricResultSink.of(sink, history) : sink);
+        try {
+            Map<String, List<MetricConfig>> metricsByType = prepareMetrics(configPath, metricsPath);
+            if (metricsByType.isEmpty()) {
+                return delivery.getStatistics();
+            }
+
+            ExecutionDeadline runDeadline = startDeadline();
+            try {
+                if (dispatchAll(metricsByType, delivery::track) > 0) {
+                    delivery.await(executionTimeoutSeconds);
+                }
+            } finally {
+                runDeadline.close();
+            }
+            if (history != null) {
+                history.save();
+            }
+            saveResultCache();
+
+            updateExecutionStats(delivery.getStatistics(), System.currentTimeMillis() - start);
+            printStats(delivery.getStatistics());
+        } catch (Exception e) {
+            logger.error("指标收集执行失败", e);
+            delivery.close();
+        }
+        return delivery.getStatistics();
+    }
+
+    /**
+     * 加载数据库配置、失败清单与指标文件，返回按类型分组的指标（无可执行指标时为空）
+     */
+    private Map<String, List<MetricConfig>> prepareMetrics(String configPath, String metricsPath) throws Exception {
+        // 1. 加载数据库配置（长驻模式下仅在首次或配置变化后重新解析）
+        if (!configCaching || !databaseConfigsLoaded) {
+            databaseManager.loadConfigurations(configPath);
+            databaseConfigsLoaded = configCaching;
+        }
+
+        // 2. （兼容旧逻辑）连接测试入口保留（若使用 FastConnectionTestService 执行过，将产生失败清单）
+        databaseManager.testAllConnections();
+
+        // 3. 覆盖指标目录
+        if (metricsPath != null && !metricsPath.trim().isEmpty() && !metricsPath.trim().equals(this.metricsDirPath)) {
+            this.metricsDirPath = metricsPath.trim();
+            this.cachedMetricsByType = null;
+        }
+
+        // 4. 加载连接失败灰名单（加密标识），用于自动跳过后续指标执行
+        Set<String> encBlacklist = loadEncryptedBlacklist("logs/db_conn_blacklist.txt");
+        setFailedEncryptedHosts(encBlacklist);
+        logger.info("已加载失败主机清单(加密)条目数: {}", failedEncryptedHosts.size());
+
+        // 5. 加载并按类型分组指标（按文件名）
+        Map<String, List<MetricConfig>> metricsByType = configCaching ? cachedMetricsByType : null;
+        if (metricsByType == null) {
+            metricsByType = loadAndGroupMetricsByFile(this.metricsDirPath);
+            if (configCaching) {
+                cachedMetricsByType = metricsByType;
+            }
+        }
+        if (metricsByType.isEmpty()) {
+            logger.warn("未找到任何可执行的指标文件，目录: {}", this.metricsDirPath);
+        }
+        return metricsByType;
+    }
+
     /**
      * 读取失败连接清单（按脱敏IP）
      * 匹配形如 ***.***.x.y 的主机标识
@@ -148,9 +309,13 @@ public class ConcurrentMetricsExecutor {
     private QueryExecutor getOrCreateQueryExecutor(String dbType) {
         return queryExecutors.computeIfAbsent(dbType, key -> {
             logger.info("Creating dedicated query executor for database type: {}", key);
-            // Each type gets its own pool with the configured concurrency.
-            // This provides isolation, preventing a slow DB type from blocking others.
-            return new QueryExecutor(databaseManager, this.threadCount);
+            // Each type gets its own pool from the shared pool manager, isolating a slow DB type from the others;
+            // its concurrency is tuned from observed query latency.
+            QueryExecutor executor = new QueryExecutor(databaseManager, threadPoolManager.getExecutor(key));
+            executor.setDeadline(deadline);
+            executor.setSingleBatching(singleBatching);
+            executor.setCatalogSnapshots(catalogSnapshots);
+            return executor;
         });
     }
 
@@ -203,13 +368,57 @@ public class ConcurrentMetricsExecutor {
      * 若系统所有节点均在失败清单中，则跳过该系统
      */
     private List<MetricResult> executeConcurrently(Map<String, List<MetricConfig>> metricsByType) {
+        List<CompletableFuture<MetricResult>> allFutures = new ArrayList<>();
+        ExecutionDeadline runDeadline = startDeadline();
+        try {
+            if (dispatchAll(metricsByType, allFutures::add) == 0) {
+                return Collections.emptyList();
+            }
+
+            // 使用任意一个执行器来等待所有结果，因为等待逻辑与执行器实例无关
+            return queryExecutors.values().iterator().next().waitForResults(allFutures, executionTimeoutSeconds);
+        } finally {
+            // 等待结束（含超时）后取消仍在执行的语句，排队中的任务开始时直接失败
+            runDeadline.close();
+        }
+    }
+
+    /**
+     * 创建本轮截止时间并下发给已有执行器（新建的执行器在创建时获取）
+     */
+    private ExecutionDeadline startDeadline() {
+        ExecutionDeadline runDeadline = ExecutionDeadline.after(executionTimeoutSeconds, TimeUnit.SECONDS);
+        this.deadline = runDeadline;
+        queryExecutors.values().forEach(qe -> qe.setDeadline(runDeadline));
+        // 快照只在一轮内有效
+        catalogSnapshots.clear();
+        return runDeadline;
+    }
+
+    /**
+     * 按类型/系统/模式派发全部指标任务，每个任务的 Future 交给 collector，返回派发的任务数
+     * 派发期间暂停整池回收，派发结束后关闭已无待执行任务的连接池（仅全局连接预算模式）
+     */
+    private int dispatchAll(Map<String, List<MetricConfig>> metricsByType,
+                            Consumer<CompletableFuture<MetricResult>> collector) {
+        ConnectionFactory factory = databaseManager.getConnectionFactory();
+        factory.holdEviction();
+        try {
+            return dispatchTasks(metricsByType, collector);
+        } finally {
+            factory.resumeEviction();
+        }
+    }
+
+    private int dispatchTasks(Map<String, List<MetricConfig>> metricsByType,
+                              Consumer<CompletableFuture<MetricResult>> collector) {
         Map<String, List<String>> available = databaseManager.getAvailableSystems();
         if (available.isEmpty()) {
             logger.warn("未发现任何已加载的数据库系统配置");
-            return Collections.emptyList();
+            return 0;
         }
 
-        List<CompletableFuture<MetricResult>> allFutures = new ArrayList<>();
+        List<PlannedTask> plan = new ArrayList<>();
 
         for (Map.Entry<String, List<MetricConfig>> entry : metricsByType.entrySet()) {
             String managerKey = entry.getKey(); // 目标键（标准化后）
@@ -238,11 +447,30 @@ public class ConcurrentMetricsExecutor {
                 }
 
                 logger.info("为数据库类型 {} 分发指标，系统: {}，指标数: {}", actualKey, systemName, metrics.size());
+                String systemKey = actualKey + "|" + systemName;
+
+                if (nodeSessionMode) {
+                    planNodeSessions(specificQueryExecutor, actualKey, systemName, metrics, plan);
+                    continue;
+                }
+
+                // 可合并的单值指标按节点归并为会话任务（会话内合并为一次往返），其余指标逐条派发
+                List<MetricConfig> perMetric = metrics;
+                if (singleBatching) {
+                    List<MetricConfig> batchable = new ArrayList<>();
+                    perMetric = new ArrayList<>();
+                    for (MetricConfig metric : metrics) {
+                        (QueryExecutor.isBatchableSingle(metric) ? batchable : perMetric).add(metric);
+                    }
+                    if (batchable.size() > 1) {
+                        planNodeSessions(specificQueryExecutor, actualKey, systemName, batchable, plan);
+                    } else {
+                        perMetric = metrics;
+                    }
+                }
 
-                for (MetricConfig metric : metrics) {
-                    String mode = (metric != null && metric.getExecutionStrategy() != null && metric.getExecutionStrategy().getMode() != null)
-                            ? metric.getExecutionStrategy().getMode().toLowerCase(Locale.ROOT)
-                            : "all";
+                for (MetricConfig metric : perMetric) {
+                    String mode = resolveMode(metric);
 
                     switch (mode) {
                         case "all": {
@@ -256,9 +484,12 @@ public class ConcurrentMetricsExecutor {
                                     logger.info("⏭️  跳过节点（连接失败）：{} - {} - {}", actualKey, systemName, node.getHost());
                                     continue;
                                 }
-                                CompletableFuture<MetricResult> f =
-                                        specificQueryExecutor.executeMetricAsyncForNode(actualKey, systemName, metric, node);
-                                allFutures.add(f);
+                                if (planCached(plan, actualKey, systemName, node, metric)) {
+                                    continue;
+                                }
+                                plan.add(PlannedTask.single(expectedCost(actualKey, systemName, metric), systemKey, node, leasePool(systemName, node,
+                                        guard(actualKey, systemName, node, metric,
+                                                () -> specificQueryExecutor.executeMetricAsyncForNode(actualKey, systemName, metric, node)))));
                             }
                             break;
                         }
@@ -273,9 +504,12 @@ public class ConcurrentMetricsExecutor {
                                     logger.info("⏭️  跳过节点（连接失败）：{} - {} - {}", actualKey, systemName, node.getHost());
                                     continue;
                                 }
-                                CompletableFuture<MetricResult> f =
-                                        specificQueryExecutor.executeMetricAsyncForNode(actualKey, systemName, metric, node);
-                                allFutures.add(f);
+                                if (planCached(plan, actualKey, systemName, node, metric)) {
+                                    continue;
+                                }
+                                plan.add(PlannedTask.single(expectedCost(actualKey, systemName, metric), systemKey, node, leasePool(systemName, node,
+                                        guard(actualKey, systemName, node, metric,
+                                                () -> specificQueryExecutor.executeMetricAsyncForNode(actualKey, systemName, metric, node)))));
                             }
                             break;
                         }
@@ -290,18 +524,42 @@ public class ConcurrentMetricsExecutor {
                                     logger.info("⏭️  跳过节点（连接失败）：{} - {} - {}", actualKey, systemName, node.getHost());
                                     continue;
                                 }
-                                CompletableFuture<MetricResult> f =
-                                        specificQueryExecutor.executeMetricAsyncForNode(actualKey, systemName, metric, node);
-                                allFutures.add(f);
+                                if (planCached(plan, actualKey, systemName, node, metric)) {
+                                    continue;
+                                }
+                                plan.add(PlannedTask.single(expectedCost(actualKey, systemName, metric), systemKey, node, leasePool(systemName, node,
+                                        guard(actualKey, systemName, node, metric,
+                                                () -> specificQueryExecutor.executeMetricAsyncForNode(actualKey, systemName, metric, node)))));
                             }
                             break;
                         }
                         case "first":
                         default: {
                             String role = determineNodeRole(metric);
-                            CompletableFuture<MetricResult> f =
-                                    specificQueryExecutor.executeMetricAsync(actualKey, systemName, metric, role);
-                            allFutures.add(f);
+                            DatabaseNode selected = databaseManager.selectNode(actualKey, systemName, role);
+                            DatabaseNode target = avoidOpenCircuit(actualKey, systemName, selected);
+                            // 缓存按实际执行的节点查找与写入
+                            if (target != null && planCached(plan, actualKey, systemName, target, metric)) {
+                                break;
+                            }
+                            DatabaseNode backup = hedgingPolicy != null && HedgingPolicy.isReadOnly(metric)
+                                    ? selectHedgeNode(actualKey, systemName, target) : null;
+                            if (backup != null) {
+                                // 对冲结果记在实际返回结果的节点下
+                                plan.add(PlannedTask.single(expectedCost(actualKey, systemName, metric), systemKey, target,
+                                        leasePool(systemName, backup, leasePool(systemName, target,
+                                                circuitGuard(actualKey, systemName, target, metric,
+                                                        () -> specificQueryExecutor.executeMetricHedgedAsync(actualKey, systemName,
+                                                                metric, target, backup, hedgingPolicy,
+                                                                (node, result) -> cacheResult(actualKey, systemName, node, metric, result)))))));
+                                break;
+                            }
+                            // 默认节点熔断时改用同系统其他节点
+                            Supplier<CompletableFuture<MetricResult>> task = target != selected
+                                    ? () -> specificQueryExecutor.executeMetricAsyncForNode(actualKey, systemName, metric, target)
+                                    : () -> specificQueryExecutor.executeMetricAsync(actualKey, systemName, metric, role);
+                            plan.add(PlannedTask.single(expectedCost(actualKey, systemName, metric), systemKey, target,
+                                    leasePool(systemName, target, guard(actualKey, systemName, target, metric, task))));
                             break;
                         }
                     }
@@ -309,13 +567,345 @@ public class ConcurrentMetricsExecutor {
             }
         }
 
-        if (allFutures.isEmpty()) {
+        if (costAwareScheduling && !plan.isEmpty()) {
+            orderByExpectedCost(plan);
+            long total = plan.stream().mapToLong(t -> t.expectedCostMs).sum();
+            logger.info("按历史耗时排序派发（最长优先）：任务数 {}，最长任务预计 {} ms，预计总耗时 {} ms，线程数 {}",
+                    plan.size(), plan.get(0).expectedCostMs, total, threadCount);
+        }
+
+        int dispatched = (maxPerHost > 0 || maxPerSystem > 0)
+                ? new HostFairDispatcher(maxPerHost, maxPerSystem).dispatch(plan, collector)
+                : submitAll(plan, collector);
+        if (dispatched == 0) {
             logger.warn("未生成任何指标执行任务");
-            return Collections.emptyList();
         }
-        
-        // 使用任意一个执行器来等待所有结果，因为等待逻辑与执行器实例无关
-        return queryExecutors.values().iterator().next().waitForResults(allFutures, executionTimeoutSeconds);
+        return dispatched;
+    }
+
+    private int submitAll(List<PlannedTask> plan, Consumer<CompletableFuture<MetricResult>> collector) {
+        int dispatched = 0;
+        for (PlannedTask task : plan) {
+            for (CompletableFuture<MetricResult> f : task.submit.get()) {
+                collector.accept(f);
+                dispatched++;
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * 对冲备选节点：同系统内除所选节点外第一个未被跳过的节点；单节点系统返回 null
+     */
+    private DatabaseNode selectHedgeNode(String dbType, String systemName, DatabaseNode primary) {
+        if (primary == null) {
+            return null;
+        }
+        List<DatabaseNode> nodes = databaseManager.getNodes(dbType, systemName);
+        if (nodes == null || nodes.size() < 2 || shouldSkipNode(dbType, systemName, primary)) {
+            return null;
+        }
+        for (DatabaseNode node : nodes) {
+            if (node != primary && !shouldSkipNode(dbType, systemName, node)
+                    && !getCircuitBreaker(dbType, systemName, node).isOpen()) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 所选节点处于熔断期时改选同系统内未熔断、未被跳过的节点；均不可用时仍返回原节点（由熔断保护直接返回失败）
+     */
+    private DatabaseNode avoidOpenCircuit(String dbType, String systemName, DatabaseNode selected) {
+        if (selected == null || getCircuitBreaker(dbType, systemName, selected).allowRequest()) {
+            return selected;
+        }
+        List<DatabaseNode> nodes = databaseManager.getNodes(dbType, systemName);
+        if (nodes != null) {
+            for (DatabaseNode node : nodes) {
+                if (node != selected && !shouldSkipNode(dbType, systemName, node)
+                        && getCircuitBreaker(dbType, systemName, node).allowRequest()) {
+                    logger.info("节点熔断中，改用同系统其他节点: {} - {} - {} -> {}", dbType, systemName,
+                            DataMaskUtil.maskIpAddress(selected.getHost()), DataMaskUtil.maskIpAddress(node.getHost()));
+                    return node;
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 熔断保护：节点熔断期内直接返回失败结果，不占用线程与连接；任务完成后更新节点熔断器，
+     * 并将查询耗时上报给该类型线程池的并发控制
+     */
+    private Supplier<CompletableFuture<MetricResult>> guard(String dbType, String systemName, DatabaseNode node,
+                                                            MetricConfig metric,
+                                                            Supplier<CompletableFuture<MetricResult>> task) {
+        return circuitGuard(dbType, systemName, node, metric,
+                () -> cacheResult(dbType, systemName, node, metric, task.get()));
+    }
+
+    /**
+     * 仅做熔断保护与耗时上报，不写结果缓存（由任务自行按实际执行节点写入）
+     */
+    private Supplier<CompletableFuture<MetricResult>> circuitGuard(String dbType, String systemName, DatabaseNode node,
+                                                                   MetricConfig metric,
+                                                                   Supplier<CompletableFuture<MetricResult>> task) {
+        CircuitBreaker breaker = node != null ? getCircuitBreaker(dbType, systemName, node) : null;
+        return () -> {
+            if (breaker != null && !breaker.allowRequest()) {
+                return CompletableFuture.completedFuture(createCircuitOpenResult(dbType, systemName, node, metric));
+            }
+            return observe(dbType, breaker, task.get());
+        };
+    }
+
+    /**
+     * 有效期内的缓存结果直接作为已完成任务加入计划（不占用线程与连接），命中返回 true
+     */
+    private boolean planCached(List<PlannedTask> plan, String dbType, String systemName,
+                               DatabaseNode node, MetricConfig metric) {
+        if (!resultCacheEnabled || !isCacheable(metric)) {
+            return false;
+        }
+        MetricResult hit = getResultCache().get(dbType, systemName, node, metric);
+        if (hit == null) {
+            return false;
+        }
+        logger.debug("复用缓存结果: {} - {} - {} - {}", dbType, systemName,
+                DataMaskUtil.maskIpAddress(node.getHost()), metric.getName());
+        plan.add(PlannedTask.single(0L, dbType + "|" + systemName, node, () -> CompletableFuture.completedFuture(hit)));
+        return true;
+    }
+
+    private CompletableFuture<MetricResult> cacheResult(String dbType, String systemName, DatabaseNode node,
+                                                        MetricConfig metric, CompletableFuture<MetricResult> future) {
+        if (node != null && isCacheable(metric)) {
+            future.thenAccept(result -> cacheResult(dbType, systemName, node, metric, result));
+        }
+        return future;
+    }
+
+    private void cacheResult(String dbType, String systemName, DatabaseNode node, MetricConfig metric,
+                             MetricResult result) {
+        if (node != null && isCacheable(metric)) {
+            getResultCache().put(dbType, systemName, node, metric, result);
+        }
+    }
+
+    private static boolean isCacheable(MetricConfig metric) {
+        return metric.getCacheTtl() != null && metric.getCacheTtl() > 0;
+    }
+
+    private synchronized MetricResultCache getResultCache() {
+        if (resultCache == null) {
+            resultCache = new MetricResultCache(resultCacheFile);
+            resultCache.load();
+            logger.info("已加载指标结果缓存: {} 条", resultCache.size());
+        }
+        return resultCache;
+    }
+
+    private synchronized void saveResultCache() {
+        if (resultCache != null) {
+            resultCache.save();
+        }
+    }
+
+    private CompletableFuture<MetricResult> observe(String dbType, CircuitBreaker breaker,
+                                                    CompletableFuture<MetricResult> future) {
+        future.whenComplete((result, error) -> {
+            // 本轮截止时间到达后的失败不反映数据库负载与节点状态
+            if (result == null || deadline.isExpired()) {
+                return;
+            }
+            Long elapsed = result.getExecutionTime();
+            threadPoolManager.recordQuery(dbType, elapsed != null ? elapsed : 0L, result.isTimedOut());
+            if (breaker == null) {
+                return;
+            }
+            if (result.isSuccess()) {
+                breaker.recordSuccess();
+            } else if (result.isConnectionError() || result.isTimedOut()) {
+                breaker.recordFailure();
+            }
+        });
+        return future;
+    }
+
+    private CircuitBreaker getCircuitBreaker(String dbType, String systemName, DatabaseNode node) {
+        String key = dbType + "|" + systemName + "|" + node.getHost() + ":" + node.getPort() + "/" + node.getSvcName();
+        return circuitBreakers.computeIfAbsent(key, k -> new CircuitBreaker(
+                dbType + "|" + systemName + "|" + DataMaskUtil.maskIpAddress(node.getHost()),
+                BREAKER_FAILURE_THRESHOLD, 0L, BREAKER_RETRY_MS));
+    }
+
+    private MetricResult createCircuitOpenResult(String dbType, String systemName, DatabaseNode node, MetricConfig metric) {
+        MetricResult result = new MetricResult(systemName, dbType, DataMaskUtil.maskIpAddress(node.getHost()),
+                metric.getName(), metric.getDescription(), metric.getType(), dbType);
+        result.setNodeRole(node.getRole());
+        result.setSuccess(false);
+        result.setConnectionError(true);
+        result.setErrorMessage("节点连续连接失败或超时，已熔断，跳过执行");
+        result.setCollectTime(java.time.LocalDateTime.now());
+        return result;
+    }
+
+    /**
+     * 最长预计耗时优先（LPT）：长任务先占用线程，短任务在其后填充空闲线程，缩短整轮完成时间。
+     * 稳定排序，预计耗时相同的任务保持原派发顺序
+     */
+    static void orderByExpectedCost(List<PlannedTask> plan) {
+        plan.sort(Comparator.comparingLong((PlannedTask t) -> t.expectedCostMs).reversed());
+    }
+
+    /**
+     * 指标在该系统上的预计耗时；未启用按耗时调度时为 0（保持原派发顺序）
+     */
+    private long expectedCost(String dbType, String systemName, MetricConfig metric) {
+        if (!costAwareScheduling) {
+            return 0L;
+        }
+        return getLatencyHistory().estimate(dbType, systemName, metric.getName());
+    }
+
+    private synchronized MetricLatencyHistory getLatencyHistory() {
+        if (latencyHistory == null) {
+            latencyHistory = new MetricLatencyHistory(latencyHistoryFile);
+            latencyHistory.load();
+            logger.info("已加载指标耗时历史: {} 条", latencyHistory.size());
+        }
+        return latencyHistory;
+    }
+
+    private void recordLatencies(List<MetricResult> results) {
+        if (!costAwareScheduling || results.isEmpty()) {
+            return;
+        }
+        MetricLatencyHistory history = getLatencyHistory();
+        results.forEach(history::accept);
+        history.save();
+    }
+
+    /**
+     * 节点会话模式分发：按目标节点归并指标，每个节点一个会话任务（一个连接顺序执行）。
+     * 节点选择规则与逐指标模式一致：all/master/standby 展开到节点并跳过失败节点，first 使用默认选点，
+     * 默认节点熔断时改用同系统其他节点。会话任务不做对冲请求（一个会话对应一个连接）。
+     */
+    private void planNodeSessions(QueryExecutor executor, String dbType, String systemName,
+                                  List<MetricConfig> metrics, List<PlannedTask> plan) {
+        Map<DatabaseNode, List<MetricConfig>> metricsByNode = new LinkedHashMap<>();
+
+        for (MetricConfig metric : metrics) {
+            String mode = resolveMode(metric);
+            if ("all".equals(mode) || "master".equals(mode) || "standby".equals(mode)) {
+                List<DatabaseNode> nodes = "all".equals(mode)
+                        ? databaseManager.getNodes(dbType, systemName)
+                        : databaseManager.getNodesByRole(dbType, systemName, mode);
+                if (nodes == null || nodes.isEmpty()) {
+                    logger.warn("系统 {} 指标 {} 未找到可执行节点（模式={}），跳过", systemName, metric.getName(), mode);
+                    continue;
+                }
+                for (DatabaseNode node : nodes) {
+                    if (shouldSkipNode(dbType, systemName, node)) {
+                        logger.info("⏭️  跳过节点（连接失败）：{} - {} - {}", dbType, systemName, node.getHost());
+                        continue;
+                    }
+                    metricsByNode.computeIfAbsent(node, k -> new ArrayList<>()).add(metric);
+                }
+            } else {
+                String role = determineNodeRole(metric);
+                DatabaseNode node = avoidOpenCircuit(dbType, systemName, databaseManager.selectNode(dbType, systemName, role));
+                if (node == null) {
+                    // 无可选节点时沿用逐指标路径，以便生成统一的失败结果
+                    plan.add(PlannedTask.single(expectedCost(dbType, systemName, metric), dbType + "|" + systemName, null,
+                            leasePool(systemName, null, guard(dbType, systemName, null, metric,
+                                    () -> executor.executeMetricAsync(dbType, systemName, metric, role)))));
+                    continue;
+                }
+                metricsByNode.computeIfAbsent(node, k -> new ArrayList<>()).add(metric);
+            }
+        }
+
+        for (Map.Entry<DatabaseNode, List<MetricConfig>> e : metricsByNode.entrySet()) {
+            logger.debug("节点会话: {} - {} - {}，指标数: {}", dbType, systemName,
+                    DataMaskUtil.maskIpAddress(e.getKey().getHost()), e.getValue().size());
+            DatabaseNode node = e.getKey();
+            List<MetricConfig> sessionMetrics = new ArrayList<>();
+            for (MetricConfig metric : e.getValue()) {
+                if (!planCached(plan, dbType, systemName, node, metric)) {
+                    sessionMetrics.add(metric);
+                }
+            }
+            if (sessionMetrics.isEmpty()) {
+                continue;
+            }
+            // 会话内指标顺序执行，会话预计耗时为各指标之和
+            long cost = 0L;
+            for (MetricConfig metric : sessionMetrics) {
+                cost += expectedCost(dbType, systemName, metric);
+            }
+            ConnectionFactory factory = databaseManager.getConnectionFactory();
+            factory.retainPool(systemName, node);
+            CircuitBreaker breaker = getCircuitBreaker(dbType, systemName, node);
+            plan.add(new PlannedTask(cost, dbType + "|" + systemName, node.getHost(), sessionMetrics.size(), () -> {
+                List<CompletableFuture<MetricResult>> sessionFutures = new ArrayList<>();
+                if (!breaker.allowRequest()) {
+                    factory.releasePool(systemName, node);
+                    for (MetricConfig metric : sessionMetrics) {
+                        sessionFutures.add(CompletableFuture.completedFuture(
+                                createCircuitOpenResult(dbType, systemName, node, metric)));
+                    }
+                    return sessionFutures;
+                }
+                try {
+                    List<CompletableFuture<MetricResult>> futures
+                            = executor.executeMetricsAsyncForNodeSession(dbType, systemName, sessionMetrics, node);
+                    for (int i = 0; i < futures.size(); i++) {
+                        sessionFutures.add(cacheResult(dbType, systemName, node, sessionMetrics.get(i),
+                                observe(dbType, breaker, futures.get(i))));
+                    }
+                } catch (RuntimeException ex) {
+                    factory.releasePool(systemName, node);
+                    throw ex;
+                }
+                CompletableFuture.allOf(sessionFutures.toArray(new CompletableFuture<?>[0]))
+                        .whenComplete((r, ex) -> factory.releasePool(systemName, node));
+                return sessionFutures;
+            }));
+        }
+        logger.info("系统 {} 已按节点会话分发，会话数: {}", systemName, metricsByNode.size());
+    }
+
+    /**
+     * 规划时即登记节点任务，返回的提交动作在任务完成后释放；
+     * 全局连接预算模式下节点任务全部完成即关闭其连接池，延后提交的任务也不会提前触发回收
+     */
+    private Supplier<CompletableFuture<MetricResult>> leasePool(String systemName, DatabaseNode node,
+                                                                Supplier<CompletableFuture<MetricResult>> task) {
+        ConnectionFactory factory = databaseManager.getConnectionFactory();
+        factory.retainPool(systemName, node);
+        return () -> {
+            CompletableFuture<MetricResult> future;
+            try {
+                future = task.get();
+            } catch (RuntimeException e) {
+                factory.releasePool(systemName, node);
+                throw e;
+            }
+            future.whenComplete((r, e) -> factory.releasePool(systemName, node));
+            return future;
+        };
+    }
+
+    /**
+     * 解析指标执行模式（未配置时按 all 处理）
+     */
+    private String resolveMode(MetricConfig metric) {
+        return (metric != null && metric.getExecutionStrategy() != null && metric.getExecutionStrategy().getMode() != null)
+                ? metric.getExecutionStrategy().getMode().toLowerCase(Locale.ROOT)
+                : "all";
     }
 
     /**
@@ -455,33 +1045,183 @@ public class ConcurrentMetricsExecutor {
         return null;
     }
 
+    @Override
     public void setFailedEncryptedHosts(Set<String> hosts) {
         this.failedEncryptedHosts = (hosts != null) ? new HashSet<>(hosts) : Collections.emptySet();
     }
 
-    private void printStats(List<MetricResult> results) {
-        if (results == null || results.isEmpty()) {
-            logger.warn("未收集到任何指标结果");
-            return;
+    /**
+     * 启用节点会话模式：同一节点的指标共用一个连接顺序执行，减少连接池借还与登录次数
+     */
+    public void setNodeSessionMode(boolean nodeSessionMode) {
+        this.nodeSessionMode = nodeSessionMode;
+    }
+
+    public boolean isNodeSessionMode() {
+        return nodeSessionMode;
+    }
+
+    /**
+     * 启用单值指标合并：同一节点上可合并的 SINGLE 指标组成一条语句，一次网络往返取回全部值
+     */
+    public void setSingleBatching(boolean singleBatching) {
+        this.singleBatching = singleBatching;
+        queryExecutors.values().forEach(qe -> qe.setSingleBatching(singleBatching));
+    }
+
+    public boolean isSingleBatching() {
+        return singleBatching;
+    }
+
+    /**
+     * 启用目录快照推导：未声明 lookup 的单项状态/参数查询（SHOW GLOBAL STATUS LIKE 'x'、
+     * SELECT value FROM v$sysstat WHERE name = 'x'）也改为在每节点每轮读取一次的快照中取值
+     */
+    public void setCatalogSnapshotDerivation(boolean enabled) {
+        catalogSnapshots.setDeriveFromSql(enabled);
+    }
+
+    public boolean isCatalogSnapshotDerivation() {
+        return catalogSnapshots.isDeriveFromSql();
+    }
+
+    /**
+     * 启用按历史耗时调度：记录每个 (系统, 指标) 的执行耗时，下一轮按预计耗时从长到短派发
+     */
+    public void setCostAwareScheduling(boolean costAwareScheduling) {
+        this.costAwareScheduling = costAwareScheduling;
+    }
+
+    public boolean isCostAwareScheduling() {
+        return costAwareScheduling;
+    }
+
+    /**
+     * 设置每台主机与每个系统的并发上限（0 表示不限制）；任一上限生效时各主机按轮询公平派发
+     */
+    public void setHostConcurrencyLimits(int maxPerHost, int maxPerSystem) {
+        this.maxPerHost = Math.max(0, maxPerHost);
+        this.maxPerSystem = Math.max(0, maxPerSystem);
+    }
+
+    /**
+     * 启用对冲请求：first 模式的只读指标在所选节点超过其 p90 耗时仍未返回时发往同系统的另一节点
+     */
+    public void setHedgingEnabled(boolean enabled) {
+        if (!enabled) {
+            this.hedgingPolicy = null;
+        } else if (this.hedgingPolicy == null) {
+            this.hedgingPolicy = new HedgingPolicy();
         }
+    }
 
-        long success = results.stream().filter(MetricResult::isSuccess).count();
-        long failed = results.size() - success;
+    /**
+     * 长驻模式：多轮执行之间复用已解析的数据库配置与指标文件
+     */
+    public void setConfigCaching(boolean configCaching) {
+        this.configCaching = configCaching;
+    }
 
-        Map<String, Long> byDb = new HashMap<>();
-        for (MetricResult r : results) {
-            String key = r.getDbType() != null ? r.getDbType() : "unknown";
-            byDb.put(key, byDb.getOrDefault(key, 0L) + 1);
+    /**
+     * 配置文件变化后调用，下一轮重新解析对应配置
+     */
+    public void invalidateConfigurations(boolean databaseConfigs, boolean metrics) {
+        if (databaseConfigs) {
+            databaseConfigsLoaded = false;
+        }
+        if (metrics) {
+            cachedMetricsByType = null;
+        }
+    }
+
+    /**
+     * 是否复用结果缓存：关闭时全部指标重新采集（新结果仍写入缓存）
+     */
+    public void setResultCacheEnabled(boolean enabled) {
+        this.resultCacheEnabled = enabled;
+    }
+
+    public boolean isResultCacheEnabled() {
+        return resultCacheEnabled;
+    }
+
+    void setResultCacheFile(Path resultCacheFile) {
+        this.resultCacheFile = resultCacheFile;
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public long getExecutionTimeoutSeconds() {
+        return executionTimeoutSeconds;
+    }
+
+    public String getExecutorBackend() {
+        return threadPoolManager.getExecutorBackend();
+    }
+
+    @Override
+    public ExecutionStats getExecutionStats() {
+        return executionStats;
+    }
+
+    /**
+     * 各数据库类型线程池状态（含并发上限与耗时 p95）
+     */
+    public Map<String, AdaptiveThreadPoolManager.ThreadPoolStats> getThreadPoolStats() {
+        return threadPoolManager.getThreadPoolStats();
+    }
+
+    /**
+     * 各节点熔断器状态（键为脱敏后的节点标识）
+     */
+    public Map<String, CircuitBreaker.State> getCircuitBreakerStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        for (CircuitBreaker breaker : circuitBreakers.values()) {
+            states.put(breaker.getName(), breaker.getState());
+        }
+        return states;
+    }
+
+    private void updateExecutionStats(ResultStatistics stats, long elapsedMillis) {
+        int total = (int) stats.getTotal();
+        executionStats.setTotalTasks(total);
+        executionStats.setCompletedTasks((int) stats.getSuccessCount());
+        executionStats.setFailedTasks((int) stats.getFailureCount());
+        executionStats.setTotalExecutionTime(elapsedMillis);
+        executionStats.setAverageExecutionTime(total > 0 ? elapsedMillis / total : 0);
+    }
+
+    void setLatencyHistoryFile(Path latencyHistoryFile) {
+        this.latencyHistoryFile = latencyHistoryFile;
+    }
+
+    private void printStats(ResultStatistics stats) {
+        if (stats == null || stats.isEmpty()) {
+            logger.warn("未收集到任何指标结果");
+            return;
         }
 
         logger.info("=== 指标执行统计 ===");
-        logger.info("总结果数: {}，成功: {}，失败: {}", results.size(), success, failed);
-        logger.info("按数据库类型统计: {}", byDb);
+        logger.info("总结果数: {}，成功: {}，失败: {}", stats.getTotal(), stats.getSuccessCount(), stats.getFailureCount());
+        logger.info("按数据库类型统计: {}", stats.getCountByDbType());
+        if (stats.getTruncatedCount() > 0) {
+            logger.warn("有 {} 个多值指标结果因 max_rows 限制被截断", stats.getTruncatedCount());
+        }
+        if (stats.getCachedCount() > 0) {
+            logger.info("复用缓存结果: {} 个（未重新查询）", stats.getCachedCount());
+        }
     }
 
     /**
      * 关闭执行器及底层资源
      */
+    @Override
     public void shutdown() {
         logger.info("关闭并发指标执行器...");
         for (QueryExecutor qe : queryExecutors.values()) {
@@ -491,10 +1231,122 @@ public class ConcurrentMetricsExecutor {
             }
         }
         queryExecutors.clear();
-        try {
-            databaseManager.shutdown();
-        } catch (Exception ignore) {
+        threadPoolManager.shutdown();
+        if (ownsDatabaseManager) {
+            try {
+                databaseManager.shutdown();
+            } catch (Exception ignore) {
+            }
         }
         logger.info("并发指标执行器已关闭");
     }
-}
\ No newline at end of file
+
+    /**
+     * 待派发任务：预计耗时与提交动作（节点会话一次提交返回多个 Future）
+     */
+    static final class PlannedTask {
+        final long expectedCostMs;
+        final String systemKey;
+        final String host;
+        final int futureCount;
+        final Supplier<List<CompletableFuture<MetricResult>>> submit;
+
+        PlannedTask(long expectedCostMs, String systemKey, String host, int futureCount,
+                    Supplier<List<CompletableFuture<MetricResult>>> submit) {
+            this.expectedCostMs = expectedCostMs;
+            this.systemKey = systemKey;
+            this.host = host;
+            this.futureCount = futureCount;
+            this.submit = submit;
+        }
+
+        static PlannedTask single(long expectedCostMs, String systemKey, DatabaseNode node,
+                                  Supplier<CompletableFuture<MetricResult>> submit) {
+            return new PlannedTask(expectedCostMs, systemKey, node != null ? node.getHost() : null, 1,
+                    () -> Collections.singletonList(submit.get()));
+        }
+    }
+
+    /**
+     * 流式结果投递：任务完成即在完成线程上串行推送给接收器，不保留 Future 与结果引用。
+     * 接收器处理较慢时完成线程会在此阻塞，从而对执行端形成天然背压。
+     */
+    private static final class StreamingDelivery {
+        private final MetricResultSink sink;
+        private final ResultStatistics statistics = new ResultStatistics();
+        private final Object lock = new Object();
+        private int dispatched;
+        private int pending;
+        private boolean closed;
+
+        StreamingDelivery(MetricResultSink sink) {
+            this.sink = sink;
+        }
+
+        void track(CompletableFuture<MetricResult> future) {
+            synchronized (lock) {
+                dispatched++;
+                pending++;
+            }
+            future.whenComplete(this::deliver);
+        }
+
+        private void deliver(MetricResult result, Throwable error) {
+            synchronized (lock) {
+                try {
+                    if (closed) {
+                        logger.debug("执行已结束，丢弃迟到结果: {}", result != null ? result.getMetricName() : "unknown");
+                        return;
+                    }
+                    if (result == null) {
+                        logger.error("获取查询结果失败", error);
+                        return;
+                    }
+                    statistics.accept(result);
+                    try {
+                        sink.accept(result);
+                    } catch (RuntimeException e) {
+                        logger.error("结果接收器处理失败: {}", e.getMessage(), e);
+                    }
+                } finally {
+                    pending--;
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * 等待全部任务投递完成；超时后关闭投递，迟到的结果将被丢弃
+         */
+        void await(long timeoutSeconds) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            synchronized (lock) {
+                try {
+                    while (pending > 0) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            logger.warn("查询执行超时，已完成的查询: {}/{}", dispatched - pending, dispatched);
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    logger.error("等待查询结果失败", e);
+                    Thread.currentThread().interrupt();
+                } finally {
+                    closed = true;
+                }
+            }
+        }
+
+        void close() {
+            synchronized (lock) {
+                closed = true;
+            }
+        }
+
+        ResultStatistics getStatistics() {
+            return statistics;
+        }
+    }
+}
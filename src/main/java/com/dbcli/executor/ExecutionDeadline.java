@@ -0,0 +1,208 @@
+package com.dbcli.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 运行级截止时间
+ * - 一轮指标收集共用一个截止时间，每条语句的查询超时不超过剩余时间
+ * - 截止时间到达（或调用方提前结束等待）时对在途语句执行 Statement.cancel()，
+ *   宽限期后仍未结束的语句直接 Connection.abort() 断开，立即释放连接与执行线程
+ * - 尚未开始的任务在开始前检查截止时间，直接返回失败结果
+ */
+public final class ExecutionDeadline {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionDeadline.class);
+
+    /** 不限时 */
+    public static final ExecutionDeadline NONE = new ExecutionDeadline(Long.MAX_VALUE);
+
+    /** cancel 后等待语句自行结束的宽限期，超过则中止连接 */
+    static final long ABORT_GRACE_MS = 2000L;
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(1, r -> {
+        Thread t = new Thread(r, "dbcli-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+    // cancel/abort 需要与数据库往返，节点无响应时可能阻塞，使用独立线程避免相互拖累
+    private static final ExecutorService CANCELLER = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "dbcli-cancel");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final long deadlineMillis;
+    private final Set<Registration> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean expired;
+    private ScheduledFuture<?> timer;
+
+    private ExecutionDeadline(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * 从现在起 timeout 后到期，到期时自动取消在途语句
+     */
+    public static ExecutionDeadline after(long timeout, TimeUnit unit) {
+        long millis = unit.toMillis(timeout);
+        ExecutionDeadline deadline = new ExecutionDeadline(System.currentTimeMillis() + millis);
+        deadline.timer = SCHEDULER.schedule(deadline::expire, millis, TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    /**
+     * 不按时间到期、仅在调用 expire 时取消的令牌，用于取消单个任务（如对冲请求中落败的一方）
+     */
+    public static ExecutionDeadline manual() {
+        return new ExecutionDeadline(Long.MAX_VALUE);
+    }
+
+    public boolean isExpired() {
+        return expired || System.currentTimeMillis() >= deadlineMillis;
+    }
+
+    public long remainingMillis() {
+        if (this == NONE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0L, deadlineMillis - System.currentTimeMillis());
+    }
+
+    /**
+     * 语句查询超时（秒）：不超过配置值与剩余时间，至少 1 秒
+     */
+    public int queryTimeoutSeconds(int configuredSeconds) {
+        if (this == NONE) {
+            return configuredSeconds;
+        }
+        long remainingSeconds = (remainingMillis() + 999) / 1000;
+        return (int) Math.max(1L, Math.min(configuredSeconds, remainingSeconds));
+    }
+
+    /**
+     * 登记在途语句；已到期时直接抛出查询超时
+     */
+    public Registration register(Statement statement, Connection connection) throws SQLException {
+        checkNotExpired();
+        if (this == NONE) {
+            return Registration.NOOP;
+        }
+        Registration registration = new Registration(this, statement, connection);
+        inFlight.add(registration);
+        // 登记与到期并发时，确保不会漏掉取消
+        if (expired) {
+            registration.cancel();
+        }
+        return registration;
+    }
+
+    public void checkNotExpired() throws SQLTimeoutException {
+        if (isExpired()) {
+            throw new SQLTimeoutException("已超过本轮执行截止时间");
+        }
+    }
+
+    /**
+     * 立即到期：取消全部在途语句
+     */
+    public void expire() {
+        if (this == NONE) {
+            return;
+        }
+        expired = true;
+        if (!inFlight.isEmpty()) {
+            if (deadlineMillis == Long.MAX_VALUE) {
+                logger.debug("取消任务在途语句: {} 条", inFlight.size());
+            } else {
+                logger.warn("已到执行截止时间，取消在途语句: {} 条", inFlight.size());
+            }
+            for (Registration registration : inFlight) {
+                registration.cancel();
+            }
+        }
+    }
+
+    /**
+     * 结束本轮：取消仍在执行的语句并停止计时
+     */
+    public void close() {
+        expire();
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 在途语句登记，语句结束时关闭以注销
+     */
+    public static final class Registration implements AutoCloseable {
+        static final Registration NOOP = new Registration(null, null, null);
+
+        private final ExecutionDeadline owner;
+        private final Statement statement;
+        private final Connection connection;
+        private volatile boolean cancelled;
+
+        private Registration(ExecutionDeadline owner, Statement statement, Connection connection) {
+            this.owner = owner;
+            this.statement = statement;
+            this.connection = connection;
+        }
+
+        private void cancel() {
+            if (owner == null || cancelled) {
+                return;
+            }
+            cancelled = true;
+            CANCELLER.execute(() -> {
+                try {
+                    statement.cancel();
+                } catch (SQLException | RuntimeException e) {
+                    logger.debug("取消语句失败，将中止连接: {}", e.getMessage());
+                    abort();
+                    return;
+                }
+                SCHEDULER.schedule(() -> {
+                    if (owner.inFlight.contains(this)) {
+                        CANCELLER.execute(this::abort);
+                    }
+                }, ABORT_GRACE_MS, TimeUnit.MILLISECONDS);
+            });
+        }
+
+        private void abort() {
+            if (connection == null) {
+                return;
+            }
+            try {
+                connection.abort(CANCELLER);
+                logger.warn("语句未能及时取消，已中止连接");
+            } catch (SQLException | RuntimeException e) {
+                logger.debug("中止连接失败: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (owner != null) {
+                owner.inFlight.remove(this);
+            }
+        }
+    }
+}
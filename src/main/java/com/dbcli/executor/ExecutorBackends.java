@@ -0,0 +1,106 @@
+package com.dbcli.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 执行器后端选择
+ * - platform：固定大小的平台线程池（原有行为）
+ * - virtual：每个任务一个虚拟线程，并发上限由信号量控制（需 JDK 21+）
+ * - auto：JDK 21+ 使用 virtual，否则回退 platform
+ *
+ * 项目以 JDK 17 编译，虚拟线程通过反射创建，低版本 JVM 上自动回退。
+ * 后端由调用方逐个执行器显式传入，不设全局状态，同一 JVM 内的多个运行器互不影响。
+ */
+public final class ExecutorBackends {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorBackends.class);
+
+    public static final String PLATFORM = "platform";
+    public static final String VIRTUAL = "virtual";
+    public static final String AUTO = "auto";
+
+    private static final Method NEW_VIRTUAL_EXECUTOR = lookupVirtualExecutorFactory();
+
+    private ExecutorBackends() {
+    }
+
+    /**
+     * 当前 JVM 是否支持虚拟线程
+     */
+    public static boolean isVirtualThreadAvailable() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * 指定后端（auto/platform/virtual，非法值按 auto 处理）是否使用虚拟线程
+     */
+    public static boolean useVirtualThreads(String mode) {
+        String m = normalize(mode);
+        if (PLATFORM.equals(m)) {
+            return false;
+        }
+        if (VIRTUAL.equals(m) && !isVirtualThreadAvailable()) {
+            logger.warn("当前JVM不支持虚拟线程 (Java {})，回退为平台线程池", Runtime.version().feature());
+            return false;
+        }
+        return isVirtualThreadAvailable();
+    }
+
+    /**
+     * 按 auto 后端创建执行器
+     */
+    public static ExecutorService newExecutor(String name, int concurrency) {
+        return newExecutor(name, concurrency, AUTO);
+    }
+
+    /**
+     * 按指定后端创建执行器：虚拟线程模式下以 concurrency 作为信号量许可数，否则为固定大小线程池
+     */
+    public static ExecutorService newExecutor(String name, int concurrency, String mode) {
+        int limit = Math.max(1, concurrency);
+        if (useVirtualThreads(mode)) {
+            logger.debug("创建虚拟线程执行器: {}，并发上限: {}", name, limit);
+            return new SemaphoreBoundedExecutor(name, newVirtualThreadPerTaskExecutor(), limit);
+        }
+        return Executors.newFixedThreadPool(limit);
+    }
+
+    /**
+     * 创建每任务一个虚拟线程的执行器（调用前需确认 isVirtualThreadAvailable）
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+        } catch (Exception e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", e);
+        }
+    }
+
+    private static String normalize(String mode) {
+        if (mode == null) {
+            return AUTO;
+        }
+        String m = mode.trim().toLowerCase(Locale.ROOT);
+        if (PLATFORM.equals(m) || VIRTUAL.equals(m) || AUTO.equals(m)) {
+            return m;
+        }
+        logger.warn("不支持的执行器后端: {}，按 auto 处理", mode);
+        return AUTO;
+    }
+
+    private static Method lookupVirtualExecutorFactory() {
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.DatabaseNode;
+import com.dbcli.model.MetricConfig;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求策略（first 模式）
+ * - 按 (节点, 指标) 记录最近的成功耗时，对冲延迟取其 p90：所选节点超过该时间仍未返回时向备选节点发出同一查询
+ * - 样本不足时使用默认延迟；延迟限制在 [MIN_DELAY_MS, MAX_DELAY_MS]
+ * - 仅对只读查询（SELECT/WITH/SHOW）对冲
+ */
+public class HedgingPolicy {
+
+    static final int SAMPLE_SIZE = 50;
+    static final int MIN_SAMPLES = 10;
+    static final long DEFAULT_DELAY_MS = 1000L;
+    static final long MIN_DELAY_MS = 20L;
+    static final long MAX_DELAY_MS = 30_000L;
+
+    static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(1, r -> {
+        Thread t = new Thread(r, "dbcli-hedge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+    private final AtomicLong hedgedCount = new AtomicLong();
+    private final AtomicLong backupWins = new AtomicLong();
+
+    /**
+     * 所选节点在该时间内未返回则发出对冲请求
+     */
+    public long hedgeDelayMs(DatabaseNode node, MetricConfig metric) {
+        Samples s = samples.get(key(node, metric));
+        long p90 = s != null ? s.percentile(0.90, MIN_SAMPLES) : -1L;
+        long delay = p90 >= 0 ? p90 : DEFAULT_DELAY_MS;
+        return Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS, delay));
+    }
+
+    public void recordSuccess(DatabaseNode node, MetricConfig metric, long latencyMs) {
+        samples.computeIfAbsent(key(node, metric), k -> new Samples()).add(latencyMs);
+    }
+
+    void recordHedged(boolean backupWon) {
+        hedgedCount.incrementAndGet();
+        if (backupWon) {
+            backupWins.incrementAndGet();
+        }
+    }
+
+    public long getHedgedCount() {
+        return hedgedCount.get();
+    }
+
+    public long getBackupWins() {
+        return backupWins.get();
+    }
+
+    /**
+     * 只读查询才允许在多个节点上重复执行
+     */
+    public static boolean isReadOnly(MetricConfig metric) {
+        if (metric == null || metric.getSql() == null) {
+            return false;
+        }
+        String sql = metric.getSql().trim().toUpperCase(Locale.ROOT);
+        return sql.startsWith("SELECT") || sql.startsWith("WITH") || sql.startsWith("SHOW");
+    }
+
+    private static String key(DatabaseNode node, MetricConfig metric) {
+        return node.getHost() + ":" + node.getPort() + "/" + node.getSvcName() + "|" + metric.getName();
+    }
+
+    /**
+     * 固定容量的最近样本环形缓冲
+     */
+    private static final class Samples {
+        private final long[] values = new long[SAMPLE_SIZE];
+        private int count;
+        private int next;
+
+        synchronized void add(long value) {
+            values[next] = Math.max(0L, value);
+            next = (next + 1) % SAMPLE_SIZE;
+            count = Math.min(SAMPLE_SIZE, count + 1);
+        }
+
+        synchronized long percentile(double p, int minSamples) {
+            if (count < minSamples) {
+                return -1L;
+            }
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(count * p) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.MetricResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 按主机公平派发
+ * - 每台主机（可选：每个系统）同时在执行的任务数不超过上限，避免单个数据库被同一批指标压满
+ * - 各主机的待派发队列轮询提交，一个任务完成后再从有空闲额度的主机中轮询补位
+ * - 派发时即为每个任务生成占位 Future 交给调用方，任务真正提交后由实际结果完成占位
+ * - 同一主机内保持计划顺序（如按历史耗时最长优先）
+ * - 补位为循环而非递归：已完成的任务（缓存命中、熔断结果）在提交线程上立即回调，
+ *   回调只让正在进行的派发循环继续，不嵌套新的派发，任务再多也不会耗尽调用栈
+ */
+final class HostFairDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(HostFairDispatcher.class);
+
+    private final int maxPerHost;
+    private final int maxPerSystem;
+
+    private final Object lock = new Object();
+    // 主机 -> 待派发队列；插入顺序即轮询顺序
+    private final Map<String, ArrayDeque<Pending>> queues = new LinkedHashMap<>();
+    private final Map<String, Integer> runningByHost = new HashMap<>();
+    private final Map<String, Integer> runningBySystem = new HashMap<>();
+    private final List<String> hostOrder = new ArrayList<>();
+    private int cursor;
+    // 是否有线程正在执行派发循环
+    private boolean pumping;
+
+    /**
+     * @param maxPerHost   每台主机的并发上限，0 表示不限制
+     * @param maxPerSystem 每个系统的并发上限，0 表示不限制
+     */
+    HostFairDispatcher(int maxPerHost, int maxPerSystem) {
+        this.maxPerHost = Math.max(0, maxPerHost);
+        this.maxPerSystem = Math.max(0, maxPerSystem);
+    }
+
+    /**
+     * 登记全部计划任务，占位 Future 按计划顺序交给 collector，随后开始派发；返回占位 Future 总数
+     */
+    int dispatch(List<ConcurrentMetricsExecutor.PlannedTask> plan,
+                 Consumer<CompletableFuture<MetricResult>> collector) {
+        List<CompletableFuture<MetricResult>> all = new ArrayList<>();
+        synchronized (lock) {
+            for (ConcurrentMetricsExecutor.PlannedTask task : plan) {
+                List<CompletableFuture<MetricResult>> placeholders = new ArrayList<>(task.futureCount);
+                for (int i = 0; i < task.futureCount; i++) {
+                    placeholders.add(new CompletableFuture<>());
+                }
+                String host = hostKey(task);
+                queues.computeIfAbsent(host, k -> {
+                    hostOrder.add(k);
+                    return new ArrayDeque<>();
+                }).add(new Pending(task, host, placeholders));
+                all.addAll(placeholders);
+            }
+        }
+        logger.info("按主机公平派发：主机数 {}，任务数 {}，每主机上限 {}，每系统上限 {}",
+                hostOrder.size(), plan.size(), limitText(maxPerHost), limitText(maxPerSystem));
+
+        all.forEach(collector);
+        pump();
+        return all.size();
+    }
+
+    /**
+     * 派发循环：反复提交当前额度允许的任务，直到没有可提交的任务；
+     * 其他线程（或同一线程内的完成回调）在循环进行中调用时直接返回，由当前循环接着取任务
+     */
+    private void pump() {
+        synchronized (lock) {
+            if (pumping) {
+                return;
+            }
+            pumping = true;
+        }
+        boolean finished = false;
+        try {
+            while (true) {
+                List<Pending> ready;
+                synchronized (lock) {
+                    ready = takeReady();
+                    if (ready.isEmpty()) {
+                        // 与取任务在同一临界区内结束循环，之后的完成回调会自行开始新的循环
+                        pumping = false;
+                        finished = true;
+                        return;
+                    }
+                }
+                for (Pending pending : ready) {
+                    submit(pending);
+                }
+            }
+        } finally {
+            if (!finished) {
+                synchronized (lock) {
+                    pumping = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * 轮询各主机队列，取出所有当前额度允许的任务并占用额度（调用方持有 lock）
+     */
+    private List<Pending> takeReady() {
+        List<Pending> ready = new ArrayList<>();
+        boolean progressed = true;
+        while (progressed && !hostOrder.isEmpty()) {
+            progressed = false;
+            for (int i = 0; i < hostOrder.size(); i++) {
+                String host = hostOrder.get((cursor + i) % hostOrder.size());
+                ArrayDeque<Pending> queue = queues.get(host);
+                Pending next = queue.peek();
+                if (next == null || !hasCapacity(next)) {
+                    continue;
+                }
+                queue.poll();
+                acquire(next);
+                ready.add(next);
+                progressed = true;
+            }
+            // 下一轮从下一台主机开始，避免排在前面的主机总是先拿到补位额度
+            cursor = hostOrder.isEmpty() ? 0 : (cursor + 1) % hostOrder.size();
+        }
+        return ready;
+    }
+
+    private void submit(Pending pending) {
+        List<CompletableFuture<MetricResult>> actual;
+        try {
+            actual = pending.task.submit.get();
+        } catch (RuntimeException e) {
+            logger.error("提交指标任务失败: {}", e.getMessage(), e);
+            pending.placeholders.forEach(f -> f.completeExceptionally(e));
+            release(pending);
+            pump();
+            return;
+        }
+        Iterator<CompletableFuture<MetricResult>> targets = pending.placeholders.iterator();
+        for (CompletableFuture<MetricResult> f : actual) {
+            CompletableFuture<MetricResult> target = targets.next();
+            f.whenComplete((r, e) -> {
+                if (e != null) {
+                    target.completeExceptionally(e);
+                } else {
+                    target.complete(r);
+                }
+            });
+        }
+        CompletableFuture.allOf(actual.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((r, e) -> {
+                    release(pending);
+                    pump();
+                });
+    }
+
+    private boolean hasCapacity(Pending pending) {
+        if (maxPerHost > 0 && pending.host != null
+                && runningByHost.getOrDefault(pending.host, 0) >= maxPerHost) {
+            return false;
+        }
+        String system = pending.task.systemKey;
+        return maxPerSystem <= 0 || system == null
+                || runningBySystem.getOrDefault(system, 0) < maxPerSystem;
+    }
+
+    private void acquire(Pending pending) {
+        if (pending.host != null) {
+            runningByHost.merge(pending.host, 1, Integer::sum);
+        }
+        if (pending.task.systemKey != null) {
+            runningBySystem.merge(pending.task.systemKey, 1, Integer::sum);
+        }
+    }
+
+    private void release(Pending pending) {
+        synchronized (lock) {
+            if (pending.host != null) {
+                runningByHost.merge(pending.host, -1, Integer::sum);
+            }
+            if (pending.task.systemKey != null) {
+                runningBySystem.merge(pending.task.systemKey, -1, Integer::sum);
+            }
+        }
+    }
+
+    private static String hostKey(ConcurrentMetricsExecutor.PlannedTask task) {
+        return task.host != null ? task.host.trim().toLowerCase() : null;
+    }
+
+    private static String limitText(int limit) {
+        return limit > 0 ? String.valueOf(limit) : "不限";
+    }
+
+    private static final class Pending {
+        final ConcurrentMetricsExecutor.PlannedTask task;
+        final String host;
+        final List<CompletableFuture<MetricResult>> placeholders;
+
+        Pending(ConcurrentMetricsExecutor.PlannedTask task, String host,
+                List<CompletableFuture<MetricResult>> placeholders) {
+            this.task = task;
+            this.host = host;
+            this.placeholders = placeholders;
+        }
+    }
+}
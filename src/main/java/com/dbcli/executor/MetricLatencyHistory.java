@@ -0,0 +1,179 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.MetricResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 指标执行耗时历史
+ * - 按 (数据库类型, 系统, 指标) 记录执行耗时的指数加权平均，跨运行持久化
+ * - 无该系统历史时回退到同类型同指标在其他系统上的平均耗时，仍无则使用默认估计
+ * - 作为接收器挂在结果管道上，按 MetricResult.executionTime 记录
+ * - 值格式：平均耗时ms|样本数|最近记录时间
+ */
+public class MetricLatencyHistory implements MetricResultSink {
+    private static final Logger logger = LoggerFactory.getLogger(MetricLatencyHistory.class);
+
+    public static final String DEFAULT_FILE = "logs/metric_latency.properties";
+    /** 无任何历史时的耗时估计 */
+    public static final long DEFAULT_ESTIMATE_MS = 1000L;
+    // 新样本权重：兼顾对耗时变化的响应与对单次抖动的平滑
+    private static final double ALPHA = 0.3;
+    // 超过该时长未再记录的条目在保存时清理
+    private static final long RETENTION_MS = 30L * 24 * 60 * 60 * 1000;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byMetric = new ConcurrentHashMap<>();
+
+    public MetricLatencyHistory(Path file) {
+        this.file = file;
+    }
+
+    public void load() {
+        entries.clear();
+        byMetric.clear();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        Properties props = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            props.load(is);
+        } catch (IOException e) {
+            logger.warn("加载指标耗时历史失败: {}", e.getMessage());
+            return;
+        }
+        for (String key : props.stringPropertyNames()) {
+            Entry entry = Entry.parse(props.getProperty(key));
+            if (entry != null && key.split("\\|", -1).length == 3) {
+                entries.put(key, entry);
+                byMetric.merge(metricKeyOf(key), entry.copy(), Entry::average);
+            }
+        }
+        logger.debug("加载指标耗时历史: {} 条记录", entries.size());
+    }
+
+    public void save() {
+        if (file == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> now - e.getValue().lastSeen > RETENTION_MS);
+        Properties props = new Properties();
+        entries.forEach((k, v) -> props.setProperty(k, v.format()));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (OutputStream os = Files.newOutputStream(file)) {
+                props.store(os, "Metric Latency History - " + new Date());
+            }
+        } catch (IOException e) {
+            logger.warn("保存指标耗时历史失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void accept(MetricResult result) {
+        if (result == null || result.getExecutionTime() == null) {
+            return;
+        }
+        record(result.getDbType(), result.getSystemName(), result.getMetricName(), result.getExecutionTime());
+    }
+
+    public void record(String dbType, String systemName, String metricName, long elapsedMs) {
+        if (metricName == null || elapsedMs < 0) {
+            return;
+        }
+        String key = key(dbType, systemName, metricName);
+        long now = System.currentTimeMillis();
+        entries.compute(key, (k, v) -> v == null ? new Entry(elapsedMs, 1, now) : v.update(elapsedMs, now));
+        byMetric.compute(metricKeyOf(key), (k, v) -> v == null ? new Entry(elapsedMs, 1, now) : v.update(elapsedMs, now));
+    }
+
+    /**
+     * 预计耗时（毫秒）
+     */
+    public long estimate(String dbType, String systemName, String metricName) {
+        String key = key(dbType, systemName, metricName);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = byMetric.get(metricKeyOf(key));
+        }
+        return entry != null ? Math.round(entry.averageMs) : DEFAULT_ESTIMATE_MS;
+    }
+
+    public boolean hasHistory(String dbType, String systemName, String metricName) {
+        return entries.containsKey(key(dbType, systemName, metricName));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String key(String dbType, String systemName, String metricName) {
+        return String.valueOf(dbType).toLowerCase() + "|" + systemName + "|" + metricName;
+    }
+
+    private static String metricKeyOf(String key) {
+        String[] parts = key.split("\\|", -1);
+        return parts[0] + "|" + parts[parts.length - 1];
+    }
+
+    private static final class Entry {
+        final double averageMs;
+        final long samples;
+        final long lastSeen;
+
+        Entry(double averageMs, long samples, long lastSeen) {
+            this.averageMs = averageMs;
+            this.samples = samples;
+            this.lastSeen = lastSeen;
+        }
+
+        Entry update(long elapsedMs, long now) {
+            return new Entry(averageMs + ALPHA * (elapsedMs - averageMs), samples + 1, now);
+        }
+
+        Entry copy() {
+            return new Entry(averageMs, 1, lastSeen);
+        }
+
+        /**
+         * 合并同指标不同系统的条目（加载时计算跨系统平均）
+         */
+        static Entry average(Entry a, Entry b) {
+            long n = a.samples + b.samples;
+            return new Entry((a.averageMs * a.samples + b.averageMs * b.samples) / n, n, Math.max(a.lastSeen, b.lastSeen));
+        }
+
+        String format() {
+            return Math.round(averageMs) + "|" + samples + "|" + lastSeen;
+        }
+
+        static Entry parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            String[] parts = value.split("\\|");
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new Entry(Double.parseDouble(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
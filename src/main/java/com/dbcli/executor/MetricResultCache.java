@@ -0,0 +1,236 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.DatabaseNode;
+import com.dbcli.model.MetricConfig;
+import com.dbcli.model.MetricResult;
+import com.dbcli.util.EncryptionUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 指标结果缓存（增量采集）
+ * - 指标配置了 cache_ttl 时，按 (数据库类型, 系统, 节点, 指标) 缓存成功结果，有效期内直接复用而不再查询数据库
+ * - 缓存键包含 SQL 摘要，修改指标 SQL 后旧结果自动失效
+ * - 节点在缓存键中以确定性加密标识表示（同黑名单/连接探测缓存），文件中不出现明文地址
+ * - 跨运行持久化为 JSON；复用的结果标记为缓存并保留原采集时间
+ */
+public class MetricResultCache {
+    private static final Logger logger = LoggerFactory.getLogger(MetricResultCache.class);
+
+    public static final String DEFAULT_FILE = "logs/metric_result_cache.json";
+
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // 节点明文标识 -> 加密标识（仅在内存中，避免每次查找重复加密）
+    private final Map<String, String> encryptedNodeIds = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    public MetricResultCache(Path file) {
+        this.file = file;
+    }
+
+    public void load() {
+        entries.clear();
+        dirty = false;
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            Map<String, Entry> loaded = objectMapper.readValue(file.toFile(), new TypeReference<Map<String, Entry>>() {});
+            long now = System.currentTimeMillis();
+            loaded.forEach((k, v) -> {
+                if (v != null && v.expiresAt > now) {
+                    entries.put(k, v);
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("加载指标结果缓存失败: {}", e.getMessage());
+        }
+        logger.debug("加载指标结果缓存: {} 条有效记录", entries.size());
+    }
+
+    /**
+     * 仅在有新写入时保存；先写临时文件再替换，避免中断时留下损坏的缓存文件
+     */
+    public void save() {
+        if (file == null || !dirty) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt <= now);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), new LinkedHashMap<>(entries));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            logger.warn("保存指标结果缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 取有效期内的缓存结果；未配置 cache_ttl、无缓存或已过期时返回 null
+     */
+    public MetricResult get(String dbType, String systemName, DatabaseNode node, MetricConfig metric) {
+        if (ttlMillis(metric) <= 0) {
+            return null;
+        }
+        String key = key(dbType, systemName, node, metric);
+        if (key == null) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.toResult();
+    }
+
+    /**
+     * 记录成功结果；未配置 cache_ttl 或结果失败时忽略
+     */
+    public void put(String dbType, String systemName, DatabaseNode node, MetricConfig metric, MetricResult result) {
+        long ttl = ttlMillis(metric);
+        if (ttl <= 0 || result == null || !result.isSuccess() || result.isCached()) {
+            return;
+        }
+        String key = key(dbType, systemName, node, metric);
+        if (key == null) {
+            return;
+        }
+        entries.put(key, Entry.of(result, System.currentTimeMillis() + ttl));
+        dirty = true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static long ttlMillis(MetricConfig metric) {
+        Integer ttl = metric != null ? metric.getCacheTtl() : null;
+        return ttl != null && ttl > 0 ? ttl * 1000L : 0L;
+    }
+
+    /**
+     * 缓存键；节点标识加密失败时返回 null（不缓存，避免明文地址落盘）
+     */
+    private String key(String dbType, String systemName, DatabaseNode node, MetricConfig metric) {
+        String nodeId = "default";
+        if (node != null) {
+            nodeId = encryptedNodeIds.computeIfAbsent(node.getHost() + ":" + node.getPort() + "/" + node.getSvcName(),
+                    id -> {
+                        String enc = EncryptionUtil.encryptDeterministic(id);
+                        return enc != null ? enc : "";
+                    });
+            if (nodeId.isEmpty()) {
+                return null;
+            }
+        }
+        String sql = metric.getSql() != null ? metric.getSql() : "";
+        if (metric.getLookup() != null) {
+            sql += "|" + metric.getLookup().getSource() + "|" + metric.getLookup().getKey();
+        }
+        return String.valueOf(dbType).toLowerCase() + "|" + systemName + "|" + nodeId + "|" + metric.getName()
+                + "|" + Integer.toHexString(sql.hashCode());
+    }
+
+    /**
+     * 持久化条目：保存报告所需字段，值统一为 JSON 原生类型（数值/字符串/布尔），其余类型按字符串保存
+     */
+    static final class Entry {
+        public long expiresAt;
+        public String systemName;
+        public String databaseName;
+        public String nodeIp;
+        public String nodeRole;
+        public String metricName;
+        public String metricDescription;
+        public String metricType;
+        public String dbType;
+        public String unit;
+        public String thresholdLevel;
+        public boolean truncated;
+        public String executeTime;
+        public String collectTime;
+        public Object value;
+        public List<String> columns;
+        public List<Map<String, Object>> rows;
+
+        static Entry of(MetricResult result, long expiresAt) {
+            Entry e = new Entry();
+            e.expiresAt = expiresAt;
+            e.systemName = result.getSystemName();
+            e.databaseName = result.getDatabaseName();
+            e.nodeIp = result.getNodeIp();
+            e.nodeRole = result.getNodeRole();
+            e.metricName = result.getMetricName();
+            e.metricDescription = result.getMetricDescription();
+            e.metricType = result.getMetricType();
+            e.dbType = result.getDbType();
+            e.unit = result.getUnit();
+            e.thresholdLevel = result.getThresholdLevel();
+            e.truncated = result.isTruncated();
+            e.executeTime = result.getExecuteTime() != null ? result.getExecuteTime().toString() : null;
+            e.collectTime = result.getCollectTime() != null ? result.getCollectTime().toString() : null;
+            e.value = toJsonValue(result.getValue());
+            e.columns = result.getColumns() != null ? new ArrayList<>(result.getColumns()) : null;
+            List<Map<String, Object>> source = result.getMultiValues();
+            if (source != null) {
+                e.rows = new ArrayList<>(source.size());
+                for (Map<String, Object> row : source) {
+                    Map<String, Object> copy = new LinkedHashMap<>();
+                    row.forEach((k, v) -> copy.put(k, toJsonValue(v)));
+                    e.rows.add(copy);
+                }
+            }
+            return e;
+        }
+
+        MetricResult toResult() {
+            MetricResult result = new MetricResult(systemName, databaseName, nodeIp, metricName,
+                    metricDescription, metricType, dbType);
+            result.setNodeRole(nodeRole);
+            result.setUnit(unit);
+            result.setThresholdLevel(thresholdLevel);
+            result.setTruncated(truncated);
+            result.setValue(value);
+            result.setColumns(columns);
+            result.setMultiValues(rows);
+            if (executeTime != null) {
+                result.setExecuteTime(LocalDateTime.parse(executeTime));
+            }
+            result.setCollectTime(collectTime != null ? LocalDateTime.parse(collectTime) : result.getExecuteTime());
+            result.setSuccess(true);
+            result.setCached(true);
+            return result;
+        }
+
+        private static Object toJsonValue(Object value) {
+            if (value == null || value instanceof Number || value instanceof String || value instanceof Boolean) {
+                return value;
+            }
+            return value.toString();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.MetricResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 指标结果接收器（推模式）
+ * - 执行器在每个指标任务完成时立即推送结果，接收方（如报告写入器）处理后即可释放引用，
+ *   堆内存占用取决于在途任务数而非节点/指标总规模
+ * - 执行器保证对同一接收器的 accept 调用串行进行；执行结束（或超时）后不再推送
+ * - complete 由打开接收器的一方调用，用于落盘或汇总；未调用 complete 的接收器须调用 abort 释放资源
+ */
+public interface MetricResultSink {
+
+    /**
+     * 接收一个已完成的指标结果
+     */
+    void accept(MetricResult result);
+
+    /**
+     * 所有结果推送完毕后调用
+     */
+    default void complete() throws Exception {
+    }
+
+    /**
+     * 放弃本次输出：释放接收器持有的资源（工作簿、临时文件等）并删除未完成的输出。
+     * 在 complete 成功后调用不产生影响，可重复调用，不抛出异常
+     */
+    default void abort() {
+    }
+
+    /**
+     * 将结果依次分发给多个接收器；单个接收器异常不影响其他接收器
+     */
+    static MetricResultSink of(MetricResultSink... sinks) {
+        List<MetricResultSink> targets = Arrays.asList(sinks);
+        return new MetricResultSink() {
+            private final Logger logger = LoggerFactory.getLogger(MetricResultSink.class);
+
+            @Override
+            public void accept(MetricResult result) {
+                for (MetricResultSink sink : targets) {
+                    try {
+                        sink.accept(result);
+                    } catch (RuntimeException e) {
+                        logger.error("结果接收器处理失败: {}", e.getMessage(), e);
+                    }
+                }
+            }
+
+            @Override
+            public void complete() throws Exception {
+                for (MetricResultSink sink : targets) {
+                    sink.complete();
+                }
+            }
+
+            @Override
+            public void abort() {
+                for (MetricResultSink sink : targets) {
+                    try {
+                        sink.abort();
+                    } catch (RuntimeException e) {
+                        logger.error("结果接收器释放失败: {}", e.getMessage(), e);
+                    }
+                }
+            }
+        };
+    }
+}
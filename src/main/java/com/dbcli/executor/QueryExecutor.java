@@ -3,7 +3,9 @@ package com.dbcli.executor;
 import com.dbcli.database.DatabaseManager;
 import com.dbcli.model.MetricConfig;
 import com.dbcli.model.MetricResult;
+import com.dbcli.model.ColumnarRows;
 import com.dbcli.model.DatabaseNode;
+import com.dbcli.service.ThresholdEngine;
 import com.dbcli.util.DataMaskUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +15,8 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * SQL查询执行器
@@ -22,14 +26,87 @@ public class QueryExecutor {
     
     private final DatabaseManager databaseManager;
     private final ExecutorService executorService;
+    // 共享线程池由执行引擎统一管理，此处不负责关闭
+    private final boolean ownsExecutor;
     private final int queryTimeout;
+    // 本轮执行截止时间，由上层按轮设置
+    private volatile ExecutionDeadline deadline = ExecutionDeadline.NONE;
+    // 当前任务的取消令牌（对冲请求的每一方各有一个），在任务线程内设置
+    private static final ThreadLocal<ExecutionDeadline> TASK_CANCELLATION =
+            ThreadLocal.withInitial(() -> ExecutionDeadline.NONE);
+    
+    // 默认每次网络往返抓取行数（Oracle/达梦驱动默认仅 10 行，跨广域网时往返次数过多）
+    static final int DEFAULT_FETCH_SIZE = 500;
+    // 多值指标默认最大行数：0 表示不限制（与未引入 max_rows 前的输出一致），需要截断时按指标配置 max_rows
+    static final int DEFAULT_MULTI_MAX_ROWS = 0;
+    // 单值指标合并查询时每条语句包含的指标数上限
+    static final int SINGLE_BATCH_SIZE = 50;
+    
+    // 节点会话内合并单值指标，一次往返取回多个标量
+    private volatile boolean singleBatching = false;
+    // 合并执行失败过的指标（类型|指标名|SQL 摘要），之后单独执行
+    private final Set<String> unbatchable = ConcurrentHashMap.newKeySet();
+    private final AtomicLong batchedMetrics = new AtomicLong();
+    // 节点目录快照，执行引擎按轮共享并清空
+    private volatile CatalogSnapshots catalogSnapshots = new CatalogSnapshots();
+    // 编译后的阈值，按阈值配置对象缓存（配置重载后旧对象随之回收）
+    private final Map<MetricConfig.Threshold, ThresholdEngine.MetricThresholds> compiledThresholds =
+            Collections.synchronizedMap(new WeakHashMap<>());
     
     public QueryExecutor(DatabaseManager databaseManager, int threadCount) {
+        this(databaseManager, ExecutorBackends.newExecutor("query-executor", threadCount), true);
+    }
+
+    /**
+     * 使用外部线程池（执行引擎按数据库类型统一管理的线程池）
+     */
+    public QueryExecutor(DatabaseManager databaseManager, ExecutorService sharedExecutor) {
+        this(databaseManager, sharedExecutor, false);
+    }
+
+    private QueryExecutor(DatabaseManager databaseManager, ExecutorService executorService, boolean ownsExecutor) {
         this.databaseManager = databaseManager;
-        this.executorService = Executors.newFixedThreadPool(threadCount);
+        this.executorService = executorService;
+        this.ownsExecutor = ownsExecutor;
         this.queryTimeout = 30; // 30秒查询超时
     }
     
+    /**
+     * 设置本轮执行截止时间：语句超时不超过剩余时间，到期时在途语句被取消，未开始的任务直接失败
+     */
+    public void setDeadline(ExecutionDeadline deadline) {
+        this.deadline = deadline != null ? deadline : ExecutionDeadline.NONE;
+    }
+
+    public ExecutionDeadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 节点会话内合并单值指标：可合并的 SINGLE 指标组成一条标量子查询语句，一次往返取回全部值
+     */
+    public void setSingleBatching(boolean singleBatching) {
+        this.singleBatching = singleBatching;
+    }
+
+    public boolean isSingleBatching() {
+        return singleBatching;
+    }
+
+    /**
+     * 使用执行引擎共享的目录快照（同一节点的各类型执行器共用一次读取）
+     */
+    public void setCatalogSnapshots(CatalogSnapshots catalogSnapshots) {
+        this.catalogSnapshots = catalogSnapshots != null ? catalogSnapshots : new CatalogSnapshots();
+    }
+
+    /**
+     * 经合并查询取得结果的指标数
+     */
+    public long getBatchedMetricCount() {
+        return batchedMetrics.get();
+    }
+
     /**
      * 执行单个指标查询
      */
@@ -38,8 +115,9 @@ public class QueryExecutor {
         return CompletableFuture.supplyAsync(() -> {
             LogManager.setDbContext(dbType, systemName, metric != null ? metric.getName() : null);
             LogManager.setOperation("execute_metric");
+            long start = System.currentTimeMillis();
             try {
-                return executeMetricWithRetry(dbType, systemName, metric, nodeRole);
+                return withElapsed(executeMetricWithRetry(dbType, systemName, metric, nodeRole), start);
             } finally {
                 LogManager.clearDbContext();
                 LogManager.clearOperation();
@@ -55,8 +133,9 @@ public class QueryExecutor {
         return CompletableFuture.supplyAsync(() -> {
             LogManager.setDbContext(dbType, systemName, metric != null ? metric.getName() : null);
             LogManager.setOperation("execute_metric");
+            long start = System.currentTimeMillis();
             try {
-                return executeMetricWithRetryForNode(dbType, systemName, metric, node);
+                return withElapsed(executeMetricWithRetryForNode(dbType, systemName, metric, node), start);
             } finally {
                 LogManager.clearDbContext();
                 LogManager.clearOperation();
@@ -64,6 +143,153 @@ public class QueryExecutor {
         }, executorService);
     }
 
+    /**
+     * 对冲执行（first 模式）：先在 primary 上执行，超过其 p90 耗时仍未返回（或已失败）时在 backup 上执行同一查询，
+     * 先成功的一方胜出，另一方的语句被取消；两方均失败时返回 primary 的失败结果
+     */
+    public CompletableFuture<MetricResult> executeMetricHedgedAsync(String dbType, String systemName, MetricConfig metric,
+                                                                    DatabaseNode primary, DatabaseNode backup,
+                                                                    HedgingPolicy policy) {
+        return executeMetricHedgedAsync(dbType, systemName, metric, primary, backup, policy, null);
+    }
+
+    /**
+     * 对冲执行，并在结果确定时通知返回该结果的节点（供按节点写入结果缓存）
+     */
+    public CompletableFuture<MetricResult> executeMetricHedgedAsync(String dbType, String systemName, MetricConfig metric,
+                                                                    DatabaseNode primary, DatabaseNode backup,
+                                                                    HedgingPolicy policy,
+                                                                    BiConsumer<DatabaseNode, MetricResult> onResult) {
+        HedgedExecution execution = new HedgedExecution(dbType, systemName, metric, primary, backup, policy, onResult);
+        execution.start();
+        return execution.winner;
+    }
+
+    /**
+     * 一次对冲执行的状态：最多两方（primary/backup），所有状态变更在同一把锁内完成
+     */
+    private final class HedgedExecution {
+        private final String dbType;
+        private final String systemName;
+        private final MetricConfig metric;
+        private final DatabaseNode primary;
+        private final DatabaseNode backup;
+        private final HedgingPolicy policy;
+        private final BiConsumer<DatabaseNode, MetricResult> onResult;
+        private final CompletableFuture<MetricResult> winner = new CompletableFuture<>();
+        private HedgedAttempt primaryAttempt;
+        private HedgedAttempt backupAttempt;
+        private MetricResult primaryFailure;
+        private ScheduledFuture<?> timer;
+
+        HedgedExecution(String dbType, String systemName, MetricConfig metric, DatabaseNode primary,
+                        DatabaseNode backup, HedgingPolicy policy,
+                        BiConsumer<DatabaseNode, MetricResult> onResult) {
+            this.dbType = dbType;
+            this.systemName = systemName;
+            this.metric = metric;
+            this.primary = primary;
+            this.backup = backup;
+            this.policy = policy;
+            this.onResult = onResult;
+        }
+
+        synchronized void start() {
+            primaryAttempt = startAttempt(dbType, systemName, metric, primary, policy);
+            timer = HedgingPolicy.SCHEDULER.schedule(this::launchBackup,
+                    policy.hedgeDelayMs(primary, metric), TimeUnit.MILLISECONDS);
+            primaryAttempt.future.whenComplete((r, e) -> onPrimaryDone(r, e));
+        }
+
+        private synchronized void launchBackup() {
+            if (backupAttempt != null || winner.isDone()) {
+                return;
+            }
+            logger.debug("对冲请求: {} - {} - {} 未在预期内返回，发往 {}", metric.getName(), systemName,
+                    DataMaskUtil.maskIpAddress(primary.getHost()), DataMaskUtil.maskIpAddress(backup.getHost()));
+            backupAttempt = startAttempt(dbType, systemName, metric, backup, policy);
+            backupAttempt.future.whenComplete((r, e) -> onBackupDone(r, e));
+        }
+
+        private synchronized void onPrimaryDone(MetricResult result, Throwable error) {
+            timer.cancel(false);
+            if (winner.isDone()) {
+                return;
+            }
+            if (result != null && result.isSuccess()) {
+                finish(result, false);
+                return;
+            }
+            primaryFailure = result != null ? result
+                    : createErrorResult(dbType, systemName, metric, String.valueOf(error));
+            if (backupAttempt == null) {
+                // primary 失败且尚未对冲：立即转向 backup
+                launchBackup();
+            } else if (backupAttempt.future.isDone()) {
+                finish(primaryFailure, false);
+            }
+        }
+
+        private synchronized void onBackupDone(MetricResult result, Throwable error) {
+            if (winner.isDone()) {
+                return;
+            }
+            if (result != null && result.isSuccess()) {
+                finish(result, true);
+            } else if (primaryFailure != null) {
+                finish(primaryFailure, false);
+            }
+        }
+
+        private void finish(MetricResult result, boolean backupWon) {
+            if (backupAttempt != null) {
+                policy.recordHedged(backupWon);
+                (backupWon ? primaryAttempt : backupAttempt).cancellation.expire();
+            }
+            if (onResult != null) {
+                try {
+                    onResult.accept(backupWon ? backup : primary, result);
+                } catch (RuntimeException e) {
+                    logger.warn("对冲结果回调失败: {} - {}", metric.getName(), e.getMessage());
+                }
+            }
+            winner.complete(result);
+        }
+    }
+
+    private HedgedAttempt startAttempt(String dbType, String systemName, MetricConfig metric,
+                                       DatabaseNode node, HedgingPolicy policy) {
+        ExecutionDeadline cancellation = ExecutionDeadline.manual();
+        CompletableFuture<MetricResult> future = CompletableFuture.supplyAsync(() -> {
+            LogManager.setDbContext(dbType, systemName, metric.getName());
+            LogManager.setOperation("execute_metric");
+            TASK_CANCELLATION.set(cancellation);
+            long start = System.currentTimeMillis();
+            try {
+                MetricResult result = withElapsed(executeMetricWithRetryForNode(dbType, systemName, metric, node), start);
+                if (result != null && result.isSuccess()) {
+                    policy.recordSuccess(node, metric, result.getExecutionTime());
+                }
+                return result;
+            } finally {
+                TASK_CANCELLATION.remove();
+                LogManager.clearDbContext();
+                LogManager.clearOperation();
+            }
+        }, executorService);
+        return new HedgedAttempt(future, cancellation);
+    }
+
+    private static final class HedgedAttempt {
+        final CompletableFuture<MetricResult> future;
+        final ExecutionDeadline cancellation;
+
+        HedgedAttempt(CompletableFuture<MetricResult> future, ExecutionDeadline cancellation) {
+            this.future = future;
+            this.cancellation = cancellation;
+        }
+    }
+
     /**
      * 带重试（指定节点）
      */
@@ -80,6 +306,12 @@ public class QueryExecutor {
         MetricResult lastResult = null;
 
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (isDeadlineReached()) {
+                if (lastResult == null) {
+                    lastResult = createDeadlineResult(dbType, systemName, metric);
+                }
+                break;
+            }
             try {
                 if (attempt > 1 && delayMs > 0) {
                     Thread.sleep(delayMs + (backoffMs * (attempt - 1)));
@@ -101,7 +333,7 @@ public class QueryExecutor {
                         attempt, metric.getName(), systemName, node.getHost(), e.getMessage());
 
                 if (lastResult == null) {
-                    lastResult = createErrorResult(dbType, systemName, metric, e.getMessage());
+                    lastResult = createErrorResult(dbType, systemName, metric, e);
                 }
             }
         }
@@ -126,36 +358,330 @@ public class QueryExecutor {
         }
         
         try (Connection conn = databaseManager.getConnectionForNode(dbType, systemName, node)) {
+            return executeMetricOnConnection(conn, dbType, systemName, metric, node);
+        } catch (SQLException e) {
+            logger.error("执行指标查询失败: {} - {} - {}@{} - {}", metric.getName(), systemName,
+                    node.getRole(), node.getHost(), e.getMessage());
+            return createErrorResult(dbType, systemName, metric, e);
+        }
+    }
 
-            MetricResult result = new MetricResult(
-                    systemName,
-                    dbType,
-                    DataMaskUtil.maskIpAddress(node.getHost()),
-                    metric.getName(),
-                    metric.getDescription(),
-                    metric.getType(),
-                    dbType
-            );
+    /**
+     * 在给定连接上执行单个指标（指定节点），连接由调用方负责关闭
+     */
+    private MetricResult executeMetricOnConnection(Connection conn, String dbType, String systemName,
+                                                   MetricConfig metric, DatabaseNode node) throws SQLException {
+        MetricResult result = newNodeResult(dbType, systemName, metric, node);
 
-            result.setNodeRole(node.getRole());
-            result.setCollectTime(LocalDateTime.now());
+        if ("SINGLE".equals(metric.getType())) {
+            executeSingleValueQuery(conn, metric, result, nodeId(node));
+        } else if ("MULTI".equals(metric.getType())) {
+            executeMultiValueQuery(conn, metric, result);
+        } else {
+            throw new SQLException("不支持的指标类型: " + metric.getType());
+        }
 
-            if ("SINGLE".equals(metric.getType())) {
-                executeSingleValueQuery(conn, metric, result);
-            } else if ("MULTI".equals(metric.getType())) {
-                executeMultiValueQuery(conn, metric, result);
-            } else {
-                throw new SQLException("不支持的指标类型: " + metric.getType());
+        result.setSuccess(true);
+        checkThreshold(metric, result);
+        return result;
+    }
+
+    private MetricResult newNodeResult(String dbType, String systemName, MetricConfig metric, DatabaseNode node) {
+        MetricResult result = new MetricResult(
+                systemName,
+                dbType,
+                DataMaskUtil.maskIpAddress(node.getHost()),
+                metric.getName(),
+                metric.getDescription(),
+                metric.getType(),
+                dbType
+        );
+        result.setNodeRole(node.getRole());
+        result.setCollectTime(LocalDateTime.now());
+        return result;
+    }
+
+    /**
+     * 节点会话模式：同一节点的一组指标共用一个连接，在一个任务内顺序执行。
+     * 每个指标仍对应独立的 Future，上层可按原方式统一等待与超时收集。
+     */
+    public List<CompletableFuture<MetricResult>> executeMetricsAsyncForNodeSession(String dbType, String systemName,
+                                                                               List<MetricConfig> metrics,
+                                                                               DatabaseNode node) {
+        List<CompletableFuture<MetricResult>> futures = new ArrayList<>(metrics.size());
+        for (int i = 0; i < metrics.size(); i++) {
+            futures.add(new CompletableFuture<>());
+        }
+
+        CompletableFuture.runAsync(() -> {
+            LogManager.setOperation("execute_node_session");
+            try {
+                runNodeSession(dbType, systemName, metrics, node, futures);
+            } catch (Throwable t) {
+                logger.error("节点会话执行异常: {} - {} - {}", systemName, node.getHost(), t.getMessage());
+                for (int i = 0; i < metrics.size(); i++) {
+                    futures.get(i).complete(createErrorResult(dbType, systemName, metrics.get(i), t.getMessage()));
+                }
+            } finally {
+                LogManager.clearDbContext();
+                LogManager.clearOperation();
             }
+        }, executorService);
 
-            result.setSuccess(true);
-            checkThreshold(metric, result);
-            return result;
+        return futures;
+    }
+
+    /**
+     * 顺序执行节点会话内的指标；连接失效时丢弃并在下一次尝试时重新获取
+     */
+    private void runNodeSession(String dbType, String systemName, List<MetricConfig> metrics,
+                                DatabaseNode node, List<CompletableFuture<MetricResult>> futures) {
+        String nodeKey = String.format("%s-%s-%s-%s", dbType, systemName, node.getHost(), node.getSvcName());
+        Connection conn = null;
+        boolean[] completed = new boolean[metrics.size()];
+
+        try {
+            // 先合并执行可合并的单值指标；合并失败时对半拆分重试，单独仍失败的指标才标记为不可合并，
+            // 未完成的指标留给下面逐条执行
+            if (singleBatching) {
+                Deque<List<Integer>> pending = new ArrayDeque<>(planSingleBatches(dbType, metrics));
+                while (!pending.isEmpty()) {
+                    if (isDeadlineReached() || databaseManager.isNodeBlacklisted(nodeKey)) {
+                        break;
+                    }
+                    if (conn == null) {
+                        try {
+                            conn = databaseManager.getConnectionForNode(dbType, systemName, node);
+                        } catch (SQLException e) {
+                            // 取连接失败与指标无关，交给逐条执行统一处理重试与错误结果
+                            break;
+                        }
+                    }
+                    List<Integer> batch = pending.poll();
+                    List<MetricConfig> batchMetrics = new ArrayList<>(batch.size());
+                    batch.forEach(i -> batchMetrics.add(metrics.get(i)));
+                    long start = System.currentTimeMillis();
+                    try {
+                        List<MetricResult> results = executeSingleBatch(conn, dbType, systemName, batchMetrics, node);
+                        // 耗时按指标数平均分摊，供耗时历史与并发控制使用
+                        long share = (System.currentTimeMillis() - start) / batch.size();
+                        for (int k = 0; k < batch.size(); k++) {
+                            results.get(k).setExecutionTime(share);
+                            futures.get(batch.get(k)).complete(results.get(k));
+                            completed[batch.get(k)] = true;
+                        }
+                        batchedMetrics.addAndGet(batch.size());
+                    } catch (SQLException e) {
+                        if (!isConnectionUsable(conn)) {
+                            // 连接失效不归咎于指标，剩余指标改为逐条执行
+                            logger.warn("单值指标合并查询时连接失效，改为逐条执行: {} - {} - {}",
+                                    systemName, DataMaskUtil.maskIpAddress(node.getHost()), e.getMessage());
+                            closeQuietly(conn);
+                            conn = null;
+                            break;
+                        }
+                        if (batch.size() > 1) {
+                            int mid = batch.size() / 2;
+                            logger.debug("单值指标合并查询失败，拆分重试: {} - {} 个指标 - {}",
+                                    systemName, batch.size(), e.getMessage());
+                            pending.addFirst(new ArrayList<>(batch.subList(mid, batch.size())));
+                            pending.addFirst(new ArrayList<>(batch.subList(0, mid)));
+                        } else {
+                            MetricConfig metric = batchMetrics.get(0);
+                            logger.warn("单值指标不能合并执行，改为逐条执行: {} - {} - {}",
+                                    systemName, metric.getName(), e.getMessage());
+                            unbatchable.add(batchKey(dbType, metric));
+                        }
+                    }
+                }
+            }
+
+            for (int i = 0; i < metrics.size(); i++) {
+                if (completed[i]) {
+                    continue;
+                }
+                MetricConfig metric = metrics.get(i);
+                LogManager.setDbContext(dbType, systemName, metric.getName());
+                long start = System.currentTimeMillis();
+
+                MetricConfig.ExecutionStrategy strategy = metric.getExecutionStrategy();
+                MetricConfig.RetryPolicy retryPolicy = strategy != null ? strategy.getRetryPolicy() : null;
+                int maxAttempts = (retryPolicy != null && retryPolicy.isEnabled()) ?
+                        retryPolicy.getMaxAttempts() : 1;
+                long delayMs = (retryPolicy != null) ? retryPolicy.getDelayMs() : 0;
+                long backoffMs = (retryPolicy != null) ? retryPolicy.getBackoffMs() : 0;
+
+                MetricResult result = null;
+                for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                    if (isDeadlineReached()) {
+                        if (result == null) {
+                            result = createDeadlineResult(dbType, systemName, metric);
+                        }
+                        break;
+                    }
+                    if (databaseManager.isNodeBlacklisted(nodeKey)) {
+                        result = createErrorResult(dbType, systemName, metric, "节点连接已标记为失败: " + nodeKey);
+                        break;
+                    }
+                    try {
+                        if (attempt > 1 && delayMs > 0) {
+                            Thread.sleep(delayMs + (backoffMs * (attempt - 1)));
+                        }
+                        if (conn == null) {
+                            conn = databaseManager.getConnectionForNode(dbType, systemName, node);
+                        }
+                        result = executeMetricOnConnection(conn, dbType, systemName, metric, node);
+                        if (attempt > 1) {
+                            logger.info("指标执行成功 (第{}次尝试): {} - {} - {}", attempt, metric.getName(), systemName, node.getHost());
+                        }
+                        break;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        result = createErrorResult(dbType, systemName, metric, "执行被中断");
+                        break;
+                    } catch (SQLException e) {
+                        logger.warn("指标执行失败 (第{}次尝试): {} - {} - {} - {}",
+                                attempt, metric.getName(), systemName, node.getHost(), e.getMessage());
+                        result = createErrorResult(dbType, systemName, metric, e);
+                        if (conn != null && !isConnectionUsable(conn)) {
+                            closeQuietly(conn);
+                            conn = null;
+                        }
+                    }
+                }
+
+                if (result != null && !result.isSuccess()) {
+                    logger.error("指标执行最终失败: {} - {} - {}", metric.getName(), systemName, node.getHost());
+                }
+                futures.get(i).complete(withElapsed(result, start));
+            }
+        } finally {
+            closeQuietly(conn);
+        }
+    }
+
+    /**
+     * 可合并的单值指标按 SINGLE_BATCH_SIZE 分组（返回指标下标）；不足两个时不合并
+     */
+    private List<List<Integer>> planSingleBatches(String dbType, List<MetricConfig> metrics) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < metrics.size(); i++) {
+            MetricConfig metric = metrics.get(i);
+            if (isBatchableSingle(metric) && !unbatchable.contains(batchKey(dbType, metric))) {
+                candidates.add(i);
+            }
+        }
+        List<List<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += SINGLE_BATCH_SIZE) {
+            List<Integer> batch = candidates.subList(from, Math.min(candidates.size(), from + SINGLE_BATCH_SIZE));
+            if (batch.size() > 1) {
+                batches.add(new ArrayList<>(batch));
+            }
+        }
+        return batches;
+    }
 
+    /**
+     * 可合并的单值指标：SINGLE 类型、未配置多列、单条 SELECT 语句（SHOW 等命令不能作为子查询）
+     */
+    static boolean isBatchableSingle(MetricConfig metric) {
+        if (metric == null || !"SINGLE".equals(metric.getType()) || metric.getSql() == null) {
+            return false;
+        }
+        if (metric.getLookup() != null || (metric.getColumns() != null && !metric.getColumns().isEmpty())) {
+            return false;
+        }
+        String sql = stripTrailingSemicolon(metric.getSql());
+        return sql.toUpperCase(Locale.ROOT).startsWith("SELECT") && sql.indexOf(';') < 0;
+    }
+
+    /**
+     * 合并语句：每个指标作为一个标量子查询列，SELECT (q1) AS M0, (q2) AS M1 ...；Oracle/达梦补 FROM DUAL
+     */
+    static String buildSingleBatchSql(String dbType, List<MetricConfig> metrics) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < metrics.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            // 右括号另起一行，避免子查询末尾的行注释吞掉后续内容
+            sql.append('(').append(stripTrailingSemicolon(metrics.get(i).getSql())).append("\n) AS M").append(i);
+        }
+        String t = dbType != null ? dbType.toLowerCase(Locale.ROOT) : "";
+        if (t.contains("oracle") || "dm".equals(t) || "dameng".equals(t)) {
+            sql.append(" FROM DUAL");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 执行合并语句并按列拆分回各指标的结果；子查询无结果时该指标值为空（与单独执行一致）
+     */
+    private List<MetricResult> executeSingleBatch(Connection conn, String dbType, String systemName,
+                                                  List<MetricConfig> metrics, DatabaseNode node) throws SQLException {
+        ExecutionDeadline current = deadline;
+        try (PreparedStatement stmt = conn.prepareStatement(buildSingleBatchSql(dbType, metrics));
+             ExecutionDeadline.Registration ignored = current.register(stmt, conn);
+             ExecutionDeadline.Registration cancellable = TASK_CANCELLATION.get().register(stmt, conn)) {
+            stmt.setQueryTimeout(current.queryTimeoutSeconds(queryTimeout));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("合并查询未返回结果行");
+                }
+                List<MetricResult> results = new ArrayList<>(metrics.size());
+                for (int i = 0; i < metrics.size(); i++) {
+                    MetricConfig metric = metrics.get(i);
+                    MetricResult result = newNodeResult(dbType, systemName, metric, node);
+                    // 每个子查询占一列，与单独执行走同一取值逻辑
+                    result.setValue(extractSingleValue(rs, i + 1, 1));
+                    result.setSuccess(true);
+                    checkThreshold(metric, result);
+                    results.add(result);
+                }
+                logger.debug("单值指标合并查询成功: {} - {} 个指标", systemName, metrics.size());
+                return results;
+            }
+        }
+    }
+
+    private static String batchKey(String dbType, MetricConfig metric) {
+        return dbType + "|" + metric.getName() + "|" + Integer.toHexString(metric.getSql().hashCode());
+    }
+
+    private static String stripTrailingSemicolon(String sql) {
+        String s = sql.trim();
+        while (s.endsWith(";")) {
+            s = s.substring(0, s.length() - 1).trim();
+        }
+        return s;
+    }
+
+    /**
+     * 记录指标执行耗时（从任务开始执行计起，含重试，不含排队等待）
+     */
+    private MetricResult withElapsed(MetricResult result, long startMillis) {
+        if (result != null && result.getExecutionTime() == null) {
+            result.setExecutionTime(System.currentTimeMillis() - startMillis);
+        }
+        return result;
+    }
+
+    private boolean isConnectionUsable(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(3);
         } catch (SQLException e) {
-            logger.error("执行指标查询失败: {} - {} - {}@{} - {}", metric.getName(), systemName,
-                    node.getRole(), node.getHost(), e.getMessage());
-            return createErrorResult(dbType, systemName, metric, e.getMessage());
+            return false;
+        }
+    }
+
+    private void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            logger.debug("关闭会话连接失败: {}", e.getMessage());
         }
     }
     
@@ -175,6 +701,12 @@ public class QueryExecutor {
         MetricResult lastResult = null;
         
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (isDeadlineReached()) {
+                if (lastResult == null) {
+                    lastResult = createDeadlineResult(dbType, systemName, metric);
+                }
+                break;
+            }
             try {
                 if (attempt > 1 && delayMs > 0) {
                     Thread.sleep(delayMs + (backoffMs * (attempt - 1)));
@@ -196,7 +728,7 @@ public class QueryExecutor {
                            attempt, metric.getName(), systemName, e.getMessage());
                 
                 if (lastResult == null) {
-                    lastResult = createErrorResult(dbType, systemName, metric, e.getMessage());
+                    lastResult = createErrorResult(dbType, systemName, metric, e);
                 }
             }
         }
@@ -215,6 +747,7 @@ public class QueryExecutor {
             
             // 推断所用节点IP（保留后两段），用于单值指标行合并
             String nodeIpDisplay = "unknown";
+            String snapshotNodeId = dbType + "|" + systemName + "|" + nodeRole;
             java.util.List<DatabaseNode> candidates = databaseManager.getNodes(dbType, systemName);
             if (candidates != null && !candidates.isEmpty()) {
                 DatabaseNode chosen = null;
@@ -231,6 +764,7 @@ public class QueryExecutor {
                 }
                 if (chosen.getHost() != null) {
                     nodeIpDisplay = DataMaskUtil.maskIpAddress(chosen.getHost());
+                    snapshotNodeId = nodeId(chosen);
                 }
             }
 
@@ -247,7 +781,7 @@ public class QueryExecutor {
             result.setCollectTime(LocalDateTime.now());
             
             if ("SINGLE".equals(metric.getType())) {
-                executeSingleValueQuery(conn, metric, result);
+                executeSingleValueQuery(conn, metric, result, snapshotNodeId);
             } else if ("MULTI".equals(metric.getType())) {
                 executeMultiValueQuery(conn, metric, result);
             } else {
@@ -263,18 +797,43 @@ public class QueryExecutor {
             
         } catch (SQLException e) {
             logger.error("执行指标查询失败: {} - {} - {}", metric.getName(), systemName, e.getMessage());
-            return createErrorResult(dbType, systemName, metric, e.getMessage());
+            return createErrorResult(dbType, systemName, metric, e);
         }
     }
     
     /**
      * 执行单值查询
      */
-    private void executeSingleValueQuery(Connection conn, MetricConfig metric, MetricResult result) 
+    private void executeSingleValueQuery(Connection conn, MetricConfig metric, MetricResult result, String nodeId)
             throws SQLException {
         
-        try (PreparedStatement stmt = conn.prepareStatement(metric.getSql())) {
-            stmt.setQueryTimeout(queryTimeout);
+        // 声明了目录快照查找的指标在节点快照中取值；快照不可用且配置了 SQL 时改为直接查询
+        CatalogSnapshots snapshots = catalogSnapshots;
+        MetricConfig.Lookup lookup = snapshots.lookupOf(metric, result.getDbType());
+        if (lookup != null) {
+            try {
+                long timeoutMillis = deadline.queryTimeoutSeconds(queryTimeout) * 1000L;
+                Object value = snapshots.lookup(nodeId, lookup, timeoutMillis, sql -> loadSnapshot(conn, sql));
+                if (value == null) {
+                    logger.warn("目录快照中未找到: {} - {}", metric.getName(), lookup.getKey());
+                }
+                result.setValue(value);
+                return;
+            } catch (SQLException e) {
+                if (metric.getSql() == null || metric.getSql().trim().isEmpty()) {
+                    throw e;
+                }
+                logger.debug("目录快照不可用，改为直接查询: {} - {}", metric.getName(), e.getMessage());
+            }
+        }
+        
+        ExecutionDeadline current = deadline;
+        try (PreparedStatement stmt = conn.prepareStatement(metric.getSql());
+             ExecutionDeadline.Registration ignored = current.register(stmt, conn);
+             ExecutionDeadline.Registration cancellable = TASK_CANCELLATION.get().register(stmt, conn)) {
+            stmt.setQueryTimeout(current.queryTimeoutSeconds(queryTimeout));
+            // 单值指标只读取首行
+            stmt.setMaxRows(1);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -301,7 +860,7 @@ public class QueryExecutor {
                         logger.debug("多列单值指标收集成功: {} - {} 列", metric.getName(), columnCount);
                     } else {
                         // 传统单值指标
-                        Object value = extractSingleValue(rs, metric);
+                        Object value = extractSingleValue(rs, 1, rs.getMetaData().getColumnCount());
                         result.setValue(value);
                         
                         logger.debug("单值指标收集成功: {} = {}", metric.getName(), value);
@@ -315,38 +874,78 @@ public class QueryExecutor {
     }
     
     /**
-     * 从结果集中提取单个值，处理SHOW命令的特殊情况
+     * 读取整张状态/参数视图：第一列为名称，第二列为值
      */
-    private Object extractSingleValue(ResultSet rs, MetricConfig metric) throws SQLException {
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        
+    private Map<String, Object> loadSnapshot(Connection conn, String sql) throws SQLException {
+        ExecutionDeadline current = deadline;
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ExecutionDeadline.Registration ignored = current.register(stmt, conn);
+             ExecutionDeadline.Registration cancellable = TASK_CANCELLATION.get().register(stmt, conn)) {
+            stmt.setQueryTimeout(current.queryTimeoutSeconds(queryTimeout));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.getMetaData().getColumnCount() < 2) {
+                    throw new SQLException("目录快照来源须返回 (名称, 值) 两列: " + sql);
+                }
+                Map<String, Object> values = new HashMap<>();
+                while (rs.next()) {
+                    values.put(rs.getString(1), rs.getObject(2));
+                }
+                logger.debug("读取目录快照: {} 项", values.size());
+                return values;
+            }
+        }
+    }
+
+    private static String nodeId(DatabaseNode node) {
+        return node.getHost() + ":" + node.getPort() + "/" + node.getSvcName();
+    }
+
+    /**
+     * 从结果集中提取单个值，处理SHOW命令的特殊情况；
+     * 指标的结果占用从 firstColumn 开始的 columnCount 列（合并查询中每个指标占一列）
+     */
+    private Object extractSingleValue(ResultSet rs, int firstColumn, int columnCount) throws SQLException {
         // 检查是否是SHOW命令（通常有Variable_name和Value两列）
         if (columnCount == 2) {
-            String col1Name = metaData.getColumnLabel(1).toLowerCase();
-            String col2Name = metaData.getColumnLabel(2).toLowerCase();
+            ResultSetMetaData metaData = rs.getMetaData();
+            String col1Name = metaData.getColumnLabel(firstColumn).toLowerCase();
+            String col2Name = metaData.getColumnLabel(firstColumn + 1).toLowerCase();
             
             // 如果是SHOW STATUS/VARIABLES格式，返回Value列
             if ((col1Name.contains("variable") && col2Name.contains("value")) ||
                 (col1Name.contains("name") && col2Name.contains("value"))) {
-                return rs.getObject(2); // 返回Value列
+                return rs.getObject(firstColumn + 1); // 返回Value列
             }
         }
         
         // 默认返回第一列
-        return rs.getObject(1);
+        return rs.getObject(firstColumn);
     }
     
     /**
      * 执行多值查询
+     * 结果按列式存储（列名只保存一份，数值列使用基本类型数组），getMultiValues() 仍可按行读取；
+     * 按 fetch_size/max_rows/streaming 控制抓取，超出 max_rows 的结果会被截断并标记
      */
     private void executeMultiValueQuery(Connection conn, MetricConfig metric, MetricResult result) 
             throws SQLException {
         
-        List<Map<String, Object>> values = new ArrayList<>();
+        FetchOptions options = resolveFetchOptions(metric, result.getDbType());
+        ColumnarRows rows;
+        boolean truncated = false;
         
-        try (PreparedStatement stmt = conn.prepareStatement(metric.getSql())) {
-            stmt.setQueryTimeout(queryTimeout);
+        // PostgreSQL 仅在非自动提交事务内使用游标分批读取
+        boolean restoreAutoCommit = options.streaming && isPostgres(result.getDbType()) && conn.getAutoCommit();
+        if (restoreAutoCommit) {
+            conn.setAutoCommit(false);
+        }
+        
+        ExecutionDeadline current = deadline;
+        try (PreparedStatement stmt = conn.prepareStatement(metric.getSql());
+             ExecutionDeadline.Registration ignored = current.register(stmt, conn);
+             ExecutionDeadline.Registration cancellable = TASK_CANCELLATION.get().register(stmt, conn)) {
+            stmt.setQueryTimeout(current.queryTimeoutSeconds(queryTimeout));
+            options.applyTo(stmt);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 ResultSetMetaData metaData = rs.getMetaData();
@@ -354,26 +953,110 @@ public class QueryExecutor {
                 
                 // 获取列名映射
                 List<String> columnNames = getColumnNames(metric, metaData, columnCount);
+                ColumnarRows.Builder builder = new ColumnarRows.Builder(columnNames);
                 
                 while (rs.next()) {
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    
+                    if (options.maxRows > 0 && builder.getRowCount() >= options.maxRows) {
+                        truncated = true;
+                        break;
+                    }
                     for (int i = 1; i <= columnCount; i++) {
-                        String columnName = columnNames.get(i - 1);
-                        Object value = rs.getObject(i);
                         // 不对结果集做字段脱敏，保持原值输出；列名按配置/推断的 columnNames 统一
-                        row.put(columnName, value);
+                        builder.set(i - 1, rs.getObject(i));
                     }
-                    
-                    values.add(row);
+                    builder.endRow();
                 }
+                rows = builder.build();
                 // 将列名写入结果，供后续报表使用
                 result.setColumns(columnNames);
             }
+        } finally {
+            if (restoreAutoCommit) {
+                try {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.warn("恢复自动提交失败: {}", e.getMessage());
+                }
+            }
         }
         
-        result.setMultiValues(values);
-        logger.debug("多值指标收集成功: {} - {} 行数据", metric.getName(), values.size());
+        result.setColumnarRows(rows);
+        result.setTruncated(truncated);
+        if (truncated) {
+            logger.warn("多值指标结果已截断: {} - 仅保留前 {} 行 (max_rows)", metric.getName(), options.maxRows);
+        }
+        logger.debug("多值指标收集成功: {} - {} 行数据", metric.getName(), rows.size());
+    }
+    
+    /**
+     * 解析结果集抓取参数：指标 execution_strategy 显式配置优先，否则按驱动取默认值
+     * - oracle/dm：fetchSize 默认 500（驱动默认 10）
+     * - mysql：默认整体缓冲；streaming=true 时逐行流式读取（fetchSize=Integer.MIN_VALUE，忽略 fetch_size）；
+     *   显式配置的 fetch_size 原样交给驱动，仅在连接串含 useCursorFetch=true 时按批读取，否则驱动仍整体缓冲
+     * - postgresql：streaming=true 时在事务内按 fetchSize 游标读取，否则整体缓冲
+     * - maxRows 默认 0（不限制），超出显式配置的 max_rows 时截断并标记
+     */
+    static FetchOptions resolveFetchOptions(MetricConfig metric, String dbType) {
+        MetricConfig.ExecutionStrategy strategy = metric != null ? metric.getExecutionStrategy() : null;
+        Integer fetchSize = strategy != null ? strategy.getFetchSize() : null;
+        Integer maxRows = strategy != null ? strategy.getMaxRows() : null;
+        boolean streaming = strategy != null && Boolean.TRUE.equals(strategy.getStreaming());
+
+        int effectiveFetchSize;
+        if (isMySql(dbType)) {
+            if (streaming) {
+                if (fetchSize != null && fetchSize > 0) {
+                    logger.debug("MySQL 流式读取逐行抓取，忽略 fetch_size={}: {}", fetchSize, metric.getName());
+                }
+                effectiveFetchSize = Integer.MIN_VALUE;
+            } else {
+                effectiveFetchSize = (fetchSize != null && fetchSize > 0) ? fetchSize : 0;
+            }
+        } else {
+            effectiveFetchSize = (fetchSize != null && fetchSize > 0) ? fetchSize : DEFAULT_FETCH_SIZE;
+        }
+        int effectiveMaxRows = (maxRows != null && maxRows >= 0) ? maxRows : DEFAULT_MULTI_MAX_ROWS;
+        return new FetchOptions(effectiveFetchSize, effectiveMaxRows, streaming);
+    }
+    
+    private static boolean isMySql(String dbType) {
+        return dbType != null && dbType.toLowerCase(Locale.ROOT).contains("mysql");
+    }
+    
+    private static boolean isPostgres(String dbType) {
+        if (dbType == null) {
+            return false;
+        }
+        String t = dbType.toLowerCase(Locale.ROOT);
+        return t.contains("postgres") || "pg".equals(t);
+    }
+    
+    /**
+     * 结果集抓取参数
+     */
+    static final class FetchOptions {
+        final int fetchSize;   // 0 表示使用驱动默认值
+        final int maxRows;     // 0 表示不限制
+        final boolean streaming;
+        
+        FetchOptions(int fetchSize, int maxRows, boolean streaming) {
+            this.fetchSize = fetchSize;
+            this.maxRows = maxRows;
+            this.streaming = streaming;
+        }
+        
+        /**
+         * maxRows 多取一行用于判断是否截断
+         */
+        void applyTo(Statement stmt) throws SQLException {
+            if (fetchSize != 0) {
+                stmt.setFetchSize(fetchSize);
+            }
+            if (maxRows > 0 && maxRows < Integer.MAX_VALUE) {
+                stmt.setMaxRows(maxRows + 1);
+            }
+        }
     }
     
     /**
@@ -405,7 +1088,7 @@ public class QueryExecutor {
     }
     
     /**
-     * 检查阈值
+     * 检查阈值（每条阈值配置只编译一次，多节点、多轮执行共用）
      */
     private void checkThreshold(MetricConfig metric, MetricResult result) {
         MetricConfig.Threshold threshold = metric.getThreshold();
@@ -414,10 +1097,11 @@ public class QueryExecutor {
         }
         
         try {
+            ThresholdEngine.MetricThresholds compiled = compiledThresholds.computeIfAbsent(threshold, ThresholdEngine::compile);
             if ("SINGLE".equals(metric.getType())) {
-                checkSingleValueThreshold(threshold, result);
+                checkSingleValueThreshold(compiled, result);
             } else if ("MULTI".equals(metric.getType())) {
-                checkMultiValueThreshold(threshold, result);
+                checkMultiValueThreshold(compiled, result);
             }
         } catch (Exception e) {
             logger.warn("阈值检查失败: {} - {}", metric.getName(), e.getMessage());
@@ -427,94 +1111,93 @@ public class QueryExecutor {
     /**
      * 检查单值阈值
      */
-    private void checkSingleValueThreshold(MetricConfig.Threshold threshold, MetricResult result) {
+    private void checkSingleValueThreshold(ThresholdEngine.MetricThresholds threshold, MetricResult result) {
         Object value = result.getValue();
         if (value == null) {
             return;
         }
         
-        boolean exceedsThreshold = compareValue(value, threshold.getOperator(), threshold.getValue());
-        
-        if (exceedsThreshold) {
-            result.setThresholdLevel(threshold.getLevel());
-            logger.info("指标超过阈值: {} {} {} (实际值: {})", 
-                       result.getMetricName(), threshold.getOperator(), threshold.getValue(), value);
+        ThresholdEngine.Rule hit = threshold.matchSingle(value);
+        if (hit != null) {
+            result.setThresholdLevel(hit.getLevel());
+            logger.info("指标超过阈值: {} {} (实际值: {})", result.getMetricName(), hit, value);
         }
     }
     
     /**
      * 检查多值阈值
      */
-    private void checkMultiValueThreshold(MetricConfig.Threshold threshold, MetricResult result) {
+    private void checkMultiValueThreshold(ThresholdEngine.MetricThresholds threshold, MetricResult result) {
         List<Map<String, Object>> values = result.getMultiValues();
         if (values == null || values.isEmpty()) {
             return;
         }
         
-        // 对于多值指标，检查每一行数据
-        for (Map<String, Object> row : values) {
+        // 对于多值指标，检查每一行数据（列式存储为只读视图，命中行通过 flagRow 标记）；
+        // 结果级别取所有命中规则中最高的级别，同级取首个命中
+        ColumnarRows columnar = result.getColumnarRows();
+        ThresholdEngine.Rule worst = null;
+        for (int rowIndex = 0; rowIndex < values.size(); rowIndex++) {
+            Map<String, Object> row = values.get(rowIndex);
+            boolean rowExceeded = false;
             for (Map.Entry<String, Object> entry : row.entrySet()) {
-                String columnName = entry.getKey();
-                Object value = entry.getValue();
-                
-                // 检查是否有针对特定列的阈值配置
-                if (threshold.getValue() instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> thresholdMap = (Map<String, Object>) threshold.getValue();
-                    
-                    if (thresholdMap.containsKey(columnName)) {
-                        Object thresholdValue = thresholdMap.get(columnName);
-                        boolean exceedsThreshold = compareValue(value, threshold.getOperator(), thresholdValue);
-                        
-                        if (exceedsThreshold) {
-                            result.setThresholdLevel(threshold.getLevel());
-                            row.put("_threshold_exceeded", true);
-                            logger.info("多值指标超过阈值: {} - {} {} {} (实际值: {})", 
-                                       result.getMetricName(), columnName, threshold.getOperator(), 
-                                       thresholdValue, value);
-                        }
+                // 仅对配置了该列的阈值生效
+                ThresholdEngine.Rule hit = threshold.matchColumn(entry.getKey(), entry.getValue());
+                if (hit != null) {
+                    if (worst == null
+                            || ThresholdEngine.Level.max(worst.getSeverity(), hit.getSeverity()) != worst.getSeverity()) {
+                        worst = hit;
                     }
+                    rowExceeded = true;
+                    logger.info("多值指标超过阈值: {} - {} {} (实际值: {})",
+                               result.getMetricName(), entry.getKey(), hit, entry.getValue());
                 }
             }
+            if (rowExceeded) {
+                if (columnar != null) {
+                    columnar.flagRow(rowIndex);
+                } else {
+                    row.put(ColumnarRows.THRESHOLD_FLAG, true);
+                }
+            }
+        }
+        if (worst != null) {
+            result.setThresholdLevel(worst.getLevel());
         }
     }
     
+    private boolean isDeadlineReached() {
+        return deadline.isExpired() || TASK_CANCELLATION.get().isExpired();
+    }
+
     /**
-     * 比较值
+     * 超过本轮截止时间的任务直接失败，不再连接数据库
      */
-    private boolean compareValue(Object actualValue, String operator, Object thresholdValue) {
-        if (actualValue == null || thresholdValue == null) {
-            return false;
-        }
-        
-        try {
-            double actual = Double.parseDouble(actualValue.toString());
-            double threshold = Double.parseDouble(thresholdValue.toString());
-            
-            switch (operator) {
-                case ">":
-                    return actual > threshold;
-                case ">=":
-                    return actual >= threshold;
-                case "<":
-                    return actual < threshold;
-                case "<=":
-                    return actual <= threshold;
-                case "=":
-                case "==":
-                    return Math.abs(actual - threshold) < 0.0001;
-                case "!=":
-                    return Math.abs(actual - threshold) >= 0.0001;
-                default:
-                    logger.warn("不支持的比较操作符: {}", operator);
-                    return false;
-            }
-        } catch (NumberFormatException e) {
-            // 对于非数值类型，使用字符串比较
-            return actualValue.toString().equals(thresholdValue.toString());
+    private MetricResult createDeadlineResult(String dbType, String systemName, MetricConfig metric) {
+        MetricResult result = createErrorResult(dbType, systemName, metric, "已超过本轮执行截止时间");
+        result.setTimedOut(true);
+        return result;
+    }
+
+    /**
+     * 创建错误结果；查询超时（SQLTimeoutException）单独标记，供并发控制识别数据库过载，
+     * 连接类异常（SQLState 08 或连接池取连接超时）标记为连接失败，供节点熔断判断
+     */
+    private MetricResult createErrorResult(String dbType, String systemName, MetricConfig metric, Exception e) {
+        MetricResult result = createErrorResult(dbType, systemName, metric, e.getMessage());
+        result.setTimedOut(e instanceof SQLTimeoutException);
+        result.setConnectionError(isConnectionFailure(e));
+        return result;
+    }
+
+    private static boolean isConnectionFailure(Exception e) {
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException) {
+            return true;
         }
+        String sqlState = e instanceof SQLException ? ((SQLException) e).getSQLState() : null;
+        return sqlState != null && sqlState.startsWith("08");
     }
-    
+
     /**
      * 创建错误结果
      */
@@ -597,6 +1280,9 @@ public class QueryExecutor {
      * 关闭执行器
      */
     public void shutdown() {
+        if (!ownsExecutor) {
+            return;
+        }
         logger.info("关闭查询执行器...");
         
         executorService.shutdown();
@@ -628,6 +1314,15 @@ public class QueryExecutor {
                 tpe.getPoolSize()
             );
         }
+        if (executorService instanceof SemaphoreBoundedExecutor) {
+            SemaphoreBoundedExecutor sbe = (SemaphoreBoundedExecutor) executorService;
+            return new ExecutorStats(
+                sbe.getActiveCount(),
+                sbe.getCompletedTaskCount(),
+                sbe.getTaskCount(),
+                sbe.getMaxConcurrency()
+            );
+        }
         
         return new ExecutorStats(0, 0, 0, 0);
     }
@@ -0,0 +1,82 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.MetricResult;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 指标结果计数统计
+ * 作为接收器挂在流式管道上时只保留计数，不持有结果本身
+ */
+public class ResultStatistics implements MetricResultSink {
+
+    private long total;
+    private long success;
+    private long truncated;
+    private long cached;
+    private final Map<String, Long> countByDbType = new LinkedHashMap<>();
+
+    public static ResultStatistics of(List<MetricResult> results) {
+        ResultStatistics stats = new ResultStatistics();
+        if (results != null) {
+            results.forEach(stats::accept);
+        }
+        return stats;
+    }
+
+    @Override
+    public synchronized void accept(MetricResult result) {
+        if (result == null) {
+            return;
+        }
+        total++;
+        if (result.isSuccess()) {
+            success++;
+        }
+        if (result.isTruncated()) {
+            truncated++;
+        }
+        if (result.isCached()) {
+            cached++;
+        }
+        String key = result.getDbType() != null ? result.getDbType() : "unknown";
+        countByDbType.merge(key, 1L, Long::sum);
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized long getSuccessCount() {
+        return success;
+    }
+
+    public synchronized long getFailureCount() {
+        return total - success;
+    }
+
+    /**
+     * 因 max_rows 被截断的多值结果数
+     */
+    public synchronized long getTruncatedCount() {
+        return truncated;
+    }
+
+    /**
+     * 复用缓存（未重新查询）的结果数
+     */
+    public synchronized long getCachedCount() {
+        return cached;
+    }
+
+    public synchronized Map<String, Long> getCountByDbType() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(countByDbType));
+    }
+
+    public synchronized boolean isEmpty() {
+        return total == 0;
+    }
+}
@@ -0,0 +1,141 @@
+package com.dbcli.executor;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 信号量限流执行器
+ * 任务立即交给底层执行器（通常为每任务一个虚拟线程），在任务线程内获取许可后才真正执行，
+ * 因此并发度由许可数而非线程池大小决定，排队等待的任务只占用廉价的虚拟线程。
+ */
+public class SemaphoreBoundedExecutor extends AbstractExecutorService {
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final AdjustableSemaphore permits;
+    private volatile int maxConcurrency;
+    private final AtomicInteger activeCount = new AtomicInteger(0);
+    private final AtomicLong taskCount = new AtomicLong(0);
+    private final AtomicLong completedTaskCount = new AtomicLong(0);
+
+    public SemaphoreBoundedExecutor(String name, ExecutorService delegate, int maxConcurrency) {
+        this.name = name;
+        this.delegate = delegate;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new AdjustableSemaphore(this.maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        // 先计入已提交再交给底层执行器，保证已完成数不会超过已提交数；被拒绝时撤回计数并抛出
+        taskCount.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                boolean acquired = false;
+                try {
+                    permits.acquire();
+                    acquired = true;
+                    activeCount.incrementAndGet();
+                    command.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (acquired) {
+                        activeCount.decrementAndGet();
+                        permits.release();
+                    }
+                    // 每个任务只在此处计入一次已完成（含等待许可时被中断）
+                    completedTaskCount.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            taskCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 运行中调整并发上限：调高立即放出许可，调低时已在执行的任务不受影响，后续任务按新上限获取许可
+     */
+    public synchronized void setMaxConcurrency(int newMaxConcurrency) {
+        int target = Math.max(1, newMaxConcurrency);
+        int delta = target - maxConcurrency;
+        if (delta > 0) {
+            permits.release(delta);
+        } else if (delta < 0) {
+            permits.reduce(-delta);
+        }
+        maxConcurrency = target;
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * 已提交但尚未获得许可的任务数
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public long getTaskCount() {
+        return taskCount.get();
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTaskCount.get();
+    }
+
+    /**
+     * 公平信号量，开放 reducePermits 以支持下调上限（可用许可可暂时为负）
+     */
+    private static final class AdjustableSemaphore extends Semaphore {
+        AdjustableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
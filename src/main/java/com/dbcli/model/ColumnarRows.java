@@ -0,0 +1,457 @@
+package com.dbcli.model;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 多值指标的列式存储
+ * - 列名每个结果只保存一份，不再在每行 Map 中重复
+ * - 整数列存 long[]，浮点列存 double[]，可精确表示的 BigDecimal 存未缩放 long + scale，
+ *   字符串列存入去重字符串池的下标，其余类型（时间、LOB 等）按对象保存
+ * - 列类型由首个非空值决定，遇到不兼容的值时该列整体退化为对象存储
+ * - asRowMaps() 提供只读的 List&lt;Map&gt; 行视图，键顺序与取值与原 LinkedHashMap 行一致
+ */
+public final class ColumnarRows {
+
+    /** 阈值标记键（与历史行为一致，命中阈值的行在视图中追加该键） */
+    public static final String THRESHOLD_FLAG = "_threshold_exceeded";
+
+    private static final byte KIND_EMPTY = 0;
+    private static final byte KIND_LONG = 1;
+    private static final byte KIND_DOUBLE = 2;
+    private static final byte KIND_DECIMAL = 3;
+    private static final byte KIND_STRING = 4;
+    private static final byte KIND_OBJECT = 5;
+
+    private static final byte BOX_LONG = 0;
+    private static final byte BOX_INTEGER = 1;
+    private static final byte BOX_SHORT = 2;
+    private static final byte BOX_BYTE = 3;
+    private static final byte BOX_DOUBLE = 0;
+    private static final byte BOX_FLOAT = 1;
+
+    private final List<String> columnNames;
+    // 去重后的键（首次出现顺序）及其取值列（同名列以最后一列为准，与 LinkedHashMap.put 语义一致）
+    private final String[] keys;
+    private final int[] keyColumns;
+    private final Map<String, Integer> keyIndex;
+    private final Column[] columns;
+    private final String[] stringPool;
+    private final int rowCount;
+    private final BitSet flaggedRows = new BitSet();
+
+    private ColumnarRows(List<String> columnNames, Column[] columns, String[] stringPool, int rowCount) {
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        this.columns = columns;
+        this.stringPool = stringPool;
+        this.rowCount = rowCount;
+
+        Map<String, Integer> index = new LinkedHashMap<>();
+        for (int c = 0; c < columnNames.size(); c++) {
+            index.put(columnNames.get(c), c);
+        }
+        this.keys = index.keySet().toArray(new String[0]);
+        this.keyColumns = new int[keys.length];
+        this.keyIndex = new HashMap<>(index.size() * 2);
+        for (int k = 0; k < keys.length; k++) {
+            keyColumns[k] = index.get(keys[k]);
+            keyIndex.put(keys[k], k);
+        }
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * 按行、列位置取值（装箱为原始 JDBC 类型）
+     */
+    public Object getValue(int row, int column) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + rowCount);
+        }
+        return columns[column].get(row, stringPool);
+    }
+
+    /**
+     * 按列名取值，列不存在时返回 null
+     */
+    public Object getValue(int row, String columnName) {
+        Integer k = keyIndex.get(columnName);
+        return k == null ? null : getValue(row, keyColumns[k]);
+    }
+
+    /**
+     * 标记某行命中阈值
+     */
+    public void flagRow(int row) {
+        flaggedRows.set(row);
+    }
+
+    public boolean isRowFlagged(int row) {
+        return flaggedRows.get(row);
+    }
+
+    /**
+     * 只读行视图，兼容 List&lt;Map&lt;String, Object&gt;&gt; 的消费方
+     */
+    public List<Map<String, Object>> asRowMaps() {
+        return new AbstractList<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> get(int index) {
+                if (index < 0 || index >= rowCount) {
+                    throw new IndexOutOfBoundsException("row " + index + ", size " + rowCount);
+                }
+                return new RowView(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    /**
+     * 单行 Map 视图
+     */
+    private final class RowView extends AbstractMap<String, Object> {
+        private final int row;
+
+        RowView(int row) {
+            this.row = row;
+        }
+
+        private int entryCount() {
+            return keys.length + (flaggedRows.get(row) ? 1 : 0);
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer k = keyIndex.get(key);
+            if (k != null) {
+                return columns[keyColumns[k]].get(row, stringPool);
+            }
+            return THRESHOLD_FLAG.equals(key) && flaggedRows.get(row) ? Boolean.TRUE : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return keyIndex.containsKey(key) || (THRESHOLD_FLAG.equals(key) && flaggedRows.get(row));
+        }
+
+        @Override
+        public int size() {
+            return entryCount();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    final int count = entryCount();
+                    return new Iterator<Entry<String, Object>>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < count;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (next >= count) {
+                                throw new NoSuchElementException();
+                            }
+                            int k = next++;
+                            if (k == keys.length) {
+                                return new SimpleImmutableEntry<>(THRESHOLD_FLAG, Boolean.TRUE);
+                            }
+                            return new SimpleImmutableEntry<>(keys[k], columns[keyColumns[k]].get(row, stringPool));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return entryCount();
+                }
+            };
+        }
+    }
+
+    /**
+     * 逐行构建器：按列追加值，endRow 结束一行
+     */
+    public static final class Builder {
+        private final List<String> columnNames;
+        private final Column[] columns;
+        private final Map<String, Integer> poolIndex = new HashMap<>();
+        private final List<String> pool = new ArrayList<>();
+        private int rowCount;
+        private int capacity;
+
+        public Builder(List<String> columnNames) {
+            this(columnNames, 16);
+        }
+
+        public Builder(List<String> columnNames, int initialCapacity) {
+            this.columnNames = columnNames;
+            this.capacity = Math.max(1, initialCapacity);
+            this.columns = new Column[columnNames.size()];
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = new Column(capacity);
+            }
+        }
+
+        /**
+         * 设置当前行某列的值（列号从 0 开始）
+         */
+        public Builder set(int column, Object value) {
+            if (rowCount >= capacity) {
+                capacity = capacity + (capacity >> 1) + 1;
+                for (Column col : columns) {
+                    col.grow(capacity);
+                }
+            }
+            columns[column].set(rowCount, value, this);
+            return this;
+        }
+
+        public Builder endRow() {
+            rowCount++;
+            return this;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public ColumnarRows build() {
+            for (Column col : columns) {
+                col.trim(rowCount);
+            }
+            return new ColumnarRows(columnNames, columns, pool.toArray(new String[0]), rowCount);
+        }
+
+        private int intern(String s) {
+            Integer ref = poolIndex.get(s);
+            if (ref == null) {
+                ref = pool.size();
+                pool.add(s);
+                poolIndex.put(s, ref);
+            }
+            return ref;
+        }
+
+        private String pooled(int ref) {
+            return pool.get(ref);
+        }
+    }
+
+    /**
+     * 单列存储；present 记录非空单元格，未赋值或为 null 的单元格取值为 null
+     */
+    private static final class Column {
+        private byte kind = KIND_EMPTY;
+        private byte box;
+        private long[] longs;
+        private double[] doubles;
+        private byte[] scales;
+        private int[] refs;
+        private Object[] objects;
+        private final BitSet present = new BitSet();
+        private int capacity;
+
+        Column(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void set(int row, Object value, Builder builder) {
+            if (value == null) {
+                return;
+            }
+            if (kind == KIND_EMPTY) {
+                initKind(value);
+            }
+            if (!store(row, value, builder)) {
+                promoteToObjects(row, builder);
+                objects[row] = value;
+            }
+            present.set(row);
+        }
+
+        Object get(int row, String[] pool) {
+            if (!present.get(row)) {
+                return null;
+            }
+            switch (kind) {
+                case KIND_LONG:
+                    return boxLong(longs[row]);
+                case KIND_DOUBLE:
+                    return box == BOX_FLOAT ? (Object) (float) doubles[row] : (Object) doubles[row];
+                case KIND_DECIMAL:
+                    return BigDecimal.valueOf(longs[row], scales[row]);
+                case KIND_STRING:
+                    return pool[refs[row]];
+                case KIND_OBJECT:
+                    return objects[row];
+                default:
+                    return null;
+            }
+        }
+
+        private void initKind(Object value) {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                kind = KIND_LONG;
+                box = value instanceof Integer ? BOX_INTEGER
+                        : value instanceof Short ? BOX_SHORT
+                        : value instanceof Byte ? BOX_BYTE : BOX_LONG;
+                longs = new long[capacity];
+            } else if (value instanceof Double || value instanceof Float) {
+                kind = KIND_DOUBLE;
+                box = value instanceof Float ? BOX_FLOAT : BOX_DOUBLE;
+                doubles = new double[capacity];
+            } else if (value instanceof BigDecimal) {
+                kind = KIND_DECIMAL;
+                longs = new long[capacity];
+                scales = new byte[capacity];
+            } else if (value instanceof String) {
+                kind = KIND_STRING;
+                refs = new int[capacity];
+            } else {
+                kind = KIND_OBJECT;
+                objects = new Object[capacity];
+            }
+        }
+
+        /**
+         * 按当前列类型写入，类型不兼容时返回 false
+         */
+        private boolean store(int row, Object value, Builder builder) {
+            switch (kind) {
+                case KIND_LONG:
+                    if (!sameLongBox(value)) {
+                        return false;
+                    }
+                    longs[row] = ((Number) value).longValue();
+                    return true;
+                case KIND_DOUBLE:
+                    if (box == BOX_FLOAT ? !(value instanceof Float) : !(value instanceof Double)) {
+                        return false;
+                    }
+                    doubles[row] = ((Number) value).doubleValue();
+                    return true;
+                case KIND_DECIMAL: {
+                    if (!(value instanceof BigDecimal)) {
+                        return false;
+                    }
+                    BigDecimal d = (BigDecimal) value;
+                    int scale = d.scale();
+                    if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE || d.unscaledValue().bitLength() > 63) {
+                        return false;
+                    }
+                    longs[row] = d.unscaledValue().longValue();
+                    scales[row] = (byte) scale;
+                    return true;
+                }
+                case KIND_STRING:
+                    if (!(value instanceof String)) {
+                        return false;
+                    }
+                    refs[row] = builder.intern((String) value);
+                    return true;
+                case KIND_OBJECT:
+                    objects[row] = value;
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private boolean sameLongBox(Object value) {
+            switch (box) {
+                case BOX_INTEGER:
+                    return value instanceof Integer;
+                case BOX_SHORT:
+                    return value instanceof Short;
+                case BOX_BYTE:
+                    return value instanceof Byte;
+                default:
+                    return value instanceof Long;
+            }
+        }
+
+        private Object boxLong(long v) {
+            switch (box) {
+                case BOX_INTEGER:
+                    return (int) v;
+                case BOX_SHORT:
+                    return (short) v;
+                case BOX_BYTE:
+                    return (byte) v;
+                default:
+                    return v;
+            }
+        }
+
+        private void promoteToObjects(int upToRow, Builder builder) {
+            Object[] materialized = new Object[capacity];
+            for (int r = 0; r < upToRow; r++) {
+                if (present.get(r)) {
+                    materialized[r] = materialize(r, builder);
+                }
+            }
+            kind = KIND_OBJECT;
+            objects = materialized;
+            longs = null;
+            doubles = null;
+            scales = null;
+            refs = null;
+        }
+
+        private Object materialize(int row, Builder builder) {
+            if (kind == KIND_STRING) {
+                return builder.pooled(refs[row]);
+            }
+            return get(row, null);
+        }
+
+        void grow(int newCapacity) {
+            capacity = newCapacity;
+            if (longs != null) longs = Arrays.copyOf(longs, newCapacity);
+            if (doubles != null) doubles = Arrays.copyOf(doubles, newCapacity);
+            if (scales != null) scales = Arrays.copyOf(scales, newCapacity);
+            if (refs != null) refs = Arrays.copyOf(refs, newCapacity);
+            if (objects != null) objects = Arrays.copyOf(objects, newCapacity);
+        }
+
+        void trim(int rows) {
+            if (rows < capacity) {
+                grow(rows);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.dbcli.model;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -13,6 +14,8 @@ public class MetricConfig {
     private List<String> columns;
     private ExecutionStrategy executionStrategy;
     private Threshold threshold;
+    private Integer cacheTtl; // 结果缓存有效期（秒），为空或 0 表示每次都重新采集
+    private Lookup lookup;    // 单值指标从节点目录快照取值（此时 sql 可省略）
 
     // Getters and Setters
     public String getType() {
@@ -71,6 +74,22 @@ public class MetricConfig {
         this.threshold = threshold;
     }
 
+    public Integer getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Integer cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public Lookup getLookup() {
+        return lookup;
+    }
+
+    public void setLookup(Lookup lookup) {
+        this.lookup = lookup;
+    }
+
     public Threshold getThresholds() {
         return threshold;
     }
@@ -81,6 +100,11 @@ public class MetricConfig {
     public static class ExecutionStrategy {
         private String mode;
         private RetryPolicy retryPolicy;
+        // 结果集抓取控制（未配置时由 QueryExecutor 按驱动取默认值）
+        // fetch_size：MySQL 仅在连接串含 useCursorFetch=true 时生效，streaming=true 时忽略
+        private Integer fetchSize;
+        private Integer maxRows;   // 未配置或 0 表示不限制
+        private Boolean streaming; // 流式读取（MySQL 逐行读取 / PostgreSQL 游标读取）
 
         public String getMode() {
             return mode;
@@ -98,6 +122,30 @@ public class MetricConfig {
             this.retryPolicy = retryPolicy;
         }
 
+        public Integer getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(Integer fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Integer getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(Integer maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public Boolean getStreaming() {
+            return streaming;
+        }
+
+        public void setStreaming(Boolean streaming) {
+            this.streaming = streaming;
+        }
+
         public boolean isEnabled() {
             return true; // 默认启用
         }
@@ -147,11 +195,15 @@ public class MetricConfig {
 
     /**
      * 阈值配置
+     * - 旧写法：level/operator/value（value 可为按列阈值 Map），column 限定生效列
+     * - 新写法：rules 多级规则，按顺序匹配，规则未指定 column 时继承父级 column
      */
     public static class Threshold {
         private String level;
         private String operator;
         private Object value;
+        private String column;
+        private List<Rule> rules = new ArrayList<>();
 
         public String getLevel() {
             return level;
@@ -176,5 +228,96 @@ public class MetricConfig {
         public void setValue(Object value) {
             this.value = value;
         }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public void setColumn(String column) {
+            this.column = column;
+        }
+
+        public List<Rule> getRules() {
+            return rules;
+        }
+
+        public void setRules(List<Rule> rules) {
+            this.rules = rules != null ? rules : new ArrayList<>();
+        }
+
+        /**
+         * 阈值规则
+         */
+        public static class Rule {
+            private String level;
+            private String operator;
+            private Object value;
+            private String column;
+
+            public String getLevel() {
+                return level;
+            }
+
+            public void setLevel(String level) {
+                this.level = level;
+            }
+
+            public String getOperator() {
+                return operator;
+            }
+
+            public void setOperator(String operator) {
+                this.operator = operator;
+            }
+
+            public Object getValue() {
+                return value;
+            }
+
+            public void setValue(Object value) {
+                this.value = value;
+            }
+
+            public String getColumn() {
+                return column;
+            }
+
+            public void setColumn(String column) {
+                this.column = column;
+            }
+        }
+    }
+
+    /**
+     * 目录快照查找：source 为内置来源（mysql_status/mysql_variables/oracle_sysstat/oracle_parameter/
+     * pg_settings/dm_sysstat/dm_parameter）或返回 (名称, 值) 两列的 SQL，key 为名称
+     */
+    public static class Lookup {
+        private String source;
+        private String key;
+
+        public Lookup() {
+        }
+
+        public Lookup(String source, String key) {
+            this.source = source;
+            this.key = key;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
     }
-}
\ No newline at end of file
+}
@@ -16,6 +16,7 @@ public class MetricResult {
     private String metricType;
     private Object value;
     private List<Map<String, Object>> multiValues;
+    private ColumnarRows columnarRows; // 多值数据的列式存储（设置后 multiValues 为其只读视图）
     private LocalDateTime executeTime;
     private LocalDateTime collectTime;
     private boolean success;
@@ -24,6 +25,10 @@ public class MetricResult {
     private String thresholdLevel; // high, medium, low
     private String unit; // 指标单位
     private String nodeRole; // primary, standby, master, slave等
+    private boolean truncated; // 多值结果是否因 max_rows 被截断
+    private boolean timedOut; // 是否因查询超时失败
+    private boolean connectionError; // 是否因无法连接节点失败
+    private boolean cached; // 是否复用缓存结果（采集时间为原采集时间）
 
     // Constructors
     public MetricResult() {}
@@ -98,11 +103,27 @@ public class MetricResult {
     }
 
     public List<Map<String, Object>> getMultiValues() {
+        if (columnarRows != null) {
+            return columnarRows.asRowMaps();
+        }
         return multiValues;
     }
 
     public void setMultiValues(List<Map<String, Object>> multiValues) {
         this.multiValues = multiValues;
+        this.columnarRows = null;
+    }
+
+    public ColumnarRows getColumnarRows() {
+        return columnarRows;
+    }
+
+    /**
+     * 以列式存储设置多值数据，getMultiValues() 返回其只读行视图
+     */
+    public void setColumnarRows(ColumnarRows columnarRows) {
+        this.columnarRows = columnarRows;
+        this.multiValues = null;
     }
 
     public LocalDateTime getExecuteTime() {
@@ -161,6 +182,38 @@ public class MetricResult {
         this.nodeRole = nodeRole;
     }
 
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    public boolean isConnectionError() {
+        return connectionError;
+    }
+
+    public void setConnectionError(boolean connectionError) {
+        this.connectionError = connectionError;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
     public String getUnit() {
         return unit;
     }
@@ -314,6 +367,7 @@ public class MetricResult {
      * 获取多值结果
      */
     public List<Map<String, Object>> getMultipleValues() {
-        return multiValues != null ? multiValues : rows;
+        List<Map<String, Object>> values = getMultiValues();
+        return values != null ? values : rows;
     }
 }
@@ -0,0 +1,93 @@
+package com.dbcli.service;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Arrays;
+
+/**
+ * 列宽估算
+ * - 写入单元格时记录每列的最大显示宽度（中日韩等全角字符按 2 个字符计，多行文本取最长一行），写完后一次性设置列宽
+ * - 代替 autoSizeColumn：后者需对每个单元格做 AWT 字体排版，流式工作表还须跟踪全部列，大报告中耗时最多
+ * - 每个实例只对应一个工作表，不做同步
+ */
+final class ColumnWidthEstimator {
+
+    /** Excel 列宽单位：1/256 个字符宽 */
+    static final int CHAR_UNIT = 256;
+    /** Excel 允许的最大列宽 */
+    static final int EXCEL_MAX_WIDTH = 255 * CHAR_UNIT;
+    /** 单元格左右留白（字符数） */
+    private static final int PADDING_CHARS = 2;
+
+    private int[] maxWidths = new int[16];
+
+    /**
+     * 记录单元格文本
+     */
+    void record(int column, String text) {
+        if (column < 0 || text == null || text.isEmpty()) {
+            return;
+        }
+        int width = displayWidth(text);
+        if (column >= maxWidths.length) {
+            maxWidths = Arrays.copyOf(maxWidths, Math.max(column + 1, maxWidths.length * 2));
+        }
+        if (width > maxWidths[column]) {
+            maxWidths[column] = width;
+        }
+    }
+
+    /**
+     * 列中已记录的最大显示宽度（字符数）
+     */
+    int getMaxWidth(int column) {
+        return column >= 0 && column < maxWidths.length ? maxWidths[column] : 0;
+    }
+
+    /**
+     * 列宽（单位 1/256 字符，含留白，未做上下限约束）
+     */
+    int columnWidthUnits(int column) {
+        return (getMaxWidth(column) + PADDING_CHARS) * CHAR_UNIT;
+    }
+
+    /**
+     * 按记录的宽度设置前 columnCount 列的列宽，并限制在 [minWidth, maxWidth]（单位 1/256 字符）
+     */
+    void apply(Sheet sheet, int columnCount, int minWidth, int maxWidth) {
+        for (int i = 0; i < columnCount; i++) {
+            int width = columnWidthUnits(i);
+            sheet.setColumnWidth(i, Math.min(Math.max(width, minWidth), Math.min(maxWidth, EXCEL_MAX_WIDTH)));
+        }
+    }
+
+    /**
+     * 文本显示宽度：全角字符计 2，其余计 1；多行文本取最长一行
+     */
+    static int displayWidth(String text) {
+        int max = 0;
+        int line = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (cp == '\n') {
+                max = Math.max(max, line);
+                line = 0;
+            } else if (cp != '\r') {
+                line += isWide(cp) ? 2 : 1;
+            }
+        }
+        return Math.max(max, line);
+    }
+
+    private static boolean isWide(int cp) {
+        return (cp >= 0x1100 && cp <= 0x115F)      // 谚文字母
+                || (cp >= 0x2E80 && cp <= 0xA4CF)  // 中日韩部首、标点、假名、统一汉字、彝文
+                || (cp >= 0xAC00 && cp <= 0xD7A3)  // 谚文音节
+                || (cp >= 0xF900 && cp <= 0xFAFF)  // 兼容汉字
+                || (cp >= 0xFE30 && cp <= 0xFE4F)  // 兼容形式
+                || (cp >= 0xFF00 && cp <= 0xFF60)  // 全角 ASCII
+                || (cp >= 0xFFE0 && cp <= 0xFFE6)  // 全角符号
+                || (cp >= 0x20000 && cp <= 0x3FFFD); // 扩展汉字
+    }
+}
@@ -0,0 +1,180 @@
+package com.dbcli.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 跨运行持久化的节点连通性缓存
+ * - 键为确定性加密的连接标识（与黑名单一致），文件中不出现明文地址
+ * - 成功结果在 successTtl 内有效，可跳过预检查
+ * - 失败结果按连续失败次数指数退避：failureTtl * 2^(n-1)，上限 maxBackoff；退避期内直接视为失败
+ * - 值格式：S或F|上次探测时间|连续失败次数|下次探测时间
+ */
+public class ConnectionProbeCache {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionProbeCache.class);
+
+    // 超过该时长未再探测的条目在保存时清理
+    private static final long RETENTION_MS = 7L * 24 * 60 * 60 * 1000;
+
+    public enum Decision {
+        /** 需要实际探测 */
+        PROBE,
+        /** 近期验证成功，跳过探测 */
+        CACHED_SUCCESS,
+        /** 处于失败退避期，跳过探测并视为失败 */
+        CACHED_FAILURE
+    }
+
+    private final Path file;
+    private final long successTtlMs;
+    private final long failureTtlMs;
+    private final long maxBackoffMs;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public ConnectionProbeCache(Path file, long successTtlMs, long failureTtlMs, long maxBackoffMs) {
+        this.file = file;
+        this.successTtlMs = Math.max(0, successTtlMs);
+        this.failureTtlMs = Math.max(0, failureTtlMs);
+        this.maxBackoffMs = Math.max(this.failureTtlMs, maxBackoffMs);
+    }
+
+    /**
+     * 从文件加载缓存，旧格式或损坏的条目忽略
+     */
+    public void load() {
+        entries.clear();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        Properties props = new Properties();
+        try (InputStream is = Files.newInputStream(file)) {
+            props.load(is);
+        } catch (IOException e) {
+            logger.warn("加载连接缓存失败: {}", e.getMessage());
+            return;
+        }
+        for (String key : props.stringPropertyNames()) {
+            Entry entry = Entry.parse(props.getProperty(key));
+            if (entry != null) {
+                entries.put(key, entry);
+            }
+        }
+        logger.debug("加载连接缓存: {} 条记录", entries.size());
+    }
+
+    public void save() {
+        if (file == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> now - e.getValue().checkedAt > RETENTION_MS);
+        Properties props = new Properties();
+        entries.forEach((k, v) -> props.setProperty(k, v.format()));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (OutputStream os = Files.newOutputStream(file)) {
+                props.store(os, "Database Connection Cache - " + new Date());
+            }
+            logger.debug("保存连接缓存: {} 条记录", props.size());
+        } catch (IOException e) {
+            logger.warn("保存连接缓存失败: {}", e.getMessage());
+        }
+    }
+
+    public Decision check(String key, long now) {
+        Entry entry = key != null ? entries.get(key) : null;
+        if (entry == null) {
+            return Decision.PROBE;
+        }
+        if (entry.success) {
+            return now - entry.checkedAt < successTtlMs ? Decision.CACHED_SUCCESS : Decision.PROBE;
+        }
+        return now < entry.nextProbeAt ? Decision.CACHED_FAILURE : Decision.PROBE;
+    }
+
+    public void recordSuccess(String key, long now) {
+        if (key != null) {
+            entries.put(key, new Entry(true, now, 0, now + successTtlMs));
+        }
+    }
+
+    public void recordFailure(String key, long now) {
+        if (key == null) {
+            return;
+        }
+        Entry previous = entries.get(key);
+        int failures = (previous != null && !previous.success) ? previous.failures + 1 : 1;
+        entries.put(key, new Entry(false, now, failures, now + backoffFor(failures)));
+    }
+
+    /**
+     * 第 n 次连续失败后的退避时长
+     */
+    long backoffFor(int failures) {
+        long backoff = failureTtlMs;
+        for (int i = 1; i < failures && backoff < maxBackoffMs; i++) {
+            backoff *= 2;
+        }
+        return Math.min(backoff, maxBackoffMs);
+    }
+
+    public int getConsecutiveFailures(String key) {
+        Entry entry = key != null ? entries.get(key) : null;
+        return entry != null && !entry.success ? entry.failures : 0;
+    }
+
+    public long getNextProbeAt(String key) {
+        Entry entry = key != null ? entries.get(key) : null;
+        return entry != null ? entry.nextProbeAt : 0L;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        final boolean success;
+        final long checkedAt;
+        final int failures;
+        final long nextProbeAt;
+
+        Entry(boolean success, long checkedAt, int failures, long nextProbeAt) {
+            this.success = success;
+            this.checkedAt = checkedAt;
+            this.failures = failures;
+            this.nextProbeAt = nextProbeAt;
+        }
+
+        String format() {
+            return (success ? "S" : "F") + "|" + checkedAt + "|" + failures + "|" + nextProbeAt;
+        }
+
+        static Entry parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            String[] parts = value.split("\\|");
+            if (parts.length != 4 || !("S".equals(parts[0]) || "F".equals(parts[0]))) {
+                return null;
+            }
+            try {
+                return new Entry("S".equals(parts[0]), Long.parseLong(parts[1]),
+                        Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
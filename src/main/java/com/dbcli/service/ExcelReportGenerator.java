@@ -1,22 +1,20 @@
 package com.dbcli.service;
 
+import com.dbcli.executor.MetricResultSink;
 import com.dbcli.model.MetricResult;
 import com.dbcli.util.FileUtil;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.yaml.snakeyaml.Yaml;
 
-import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -32,10 +30,41 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
     // 列宽边界（Excel宽度单位为1/256字符）
     private static final int MAX_COL_WIDTH = 12000; // ≈ 47 字符
     private static final int MIN_COL_WIDTH = 3000;  // ≈ 12 字符
+    // 流式写入时内存中保留的行数，超出部分刷写到临时文件
+    private static final int STREAMING_ROW_WINDOW = 500;
+    private static final String SUMMARY_SHEET_NAME = "执行摘要";
 
-    // 阈值缓存：dbType -> (metricName/description -> 阈值定义)
-    private Map<String, Map<String, ThresholdSpec>> thresholdsCache = new HashMap<>();
+    // 编译后的指标阈值（同一指标目录在各报告生成器间共享）
+    private ThresholdEngine thresholdEngine = ThresholdEngine.empty();
     private boolean thresholdsLoaded = false;
+    // 并行填充工作表的线程数，<= 1 时逐表生成
+    private int sheetThreads = 0;
+    // 是否跳过 POI 对象模型，直接写出 OOXML 部件
+    private boolean nativeWriter = false;
+
+    /**
+     * 并行生成工作表：工作表与表头在当前线程创建，各表数据行由线程池同时写入各自的 SXSSF 临时文件，
+     * 最后由 workbook.write 统一组装为一个 xlsx
+     */
+    public void setSheetThreads(int sheetThreads) {
+        this.sheetThreads = Math.max(0, sheetThreads);
+    }
+
+    public int getSheetThreads() {
+        return sheetThreads;
+    }
+
+    /**
+     * 原生写出：不构建 POI 工作簿，工作表逐个写出为 XML 部件（内联字符串、预定义样式表），
+     * 内存占用与行数无关，适合超大报告；此模式下逐表生成，不使用 sheetThreads
+     */
+    public void setNativeWriter(boolean nativeWriter) {
+        this.nativeWriter = nativeWriter;
+    }
+
+    public boolean isNativeWriter() {
+        return nativeWriter;
+    }
 
     public void generate(List<MetricResult> results, String outputPath, String metricsPath) throws IOException {
         java.nio.file.Path outPath = java.nio.file.Paths.get(outputPath);
@@ -47,7 +76,13 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
         String date = java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
         java.nio.file.Path filePath = outPath.resolve("db_metrics_report_" + date + ".xlsx").normalize();
 
-        try (Workbook workbook = new XSSFWorkbook()) {
+        if (nativeWriter) {
+            generateNative(results, filePath);
+            return;
+        }
+
+        boolean parallel = sheetThreads > 1;
+        try (Workbook workbook = parallel ? new SXSSFWorkbook(STREAMING_ROW_WINDOW) : new XSSFWorkbook()) {
             // 创建样式
             CellStyle headerStyle = createHeaderStyle(workbook);
             CellStyle normalStyle = createNormalStyle(workbook);
@@ -56,33 +91,142 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
             CellStyle summaryHeaderStyle = createSummaryHeaderStyle(workbook);
             CellStyle summaryStyle = createSummaryStyle(workbook);
 
+            Function<String, ExcelSheetTarget<CellStyle>> openSheet = poiSheets(workbook);
+
             // 创建摘要工作表
-            createSummarySheet(workbook, results, summaryHeaderStyle, summaryStyle, highRiskStyle, mediumRiskStyle);
+            createSummarySheet(openSheet.apply(SUMMARY_SHEET_NAME), SummaryStats.of(results),
+                    summaryHeaderStyle, summaryStyle, highRiskStyle, mediumRiskStyle, workbook.createCellStyle());
 
             // 按数据库类型分组
             Map<String, List<MetricResult>> resultsByDbType = results.stream()
                     .collect(Collectors.groupingBy(MetricResult::getDbType));
 
+            // 工作表按顺序创建（工作簿结构不支持并发修改），数据填充任务收集后统一执行
+            List<Runnable> fills = new ArrayList<>();
             for (Map.Entry<String, List<MetricResult>> entry : resultsByDbType.entrySet()) {
                 String dbType = entry.getKey() == null ? "unknown" : entry.getKey().toUpperCase();
                 List<MetricResult> dbResults = entry.getValue();
 
                 // 创建单值指标工作表
-                createSingleValueSheet(workbook, dbType, dbResults, headerStyle, normalStyle, highRiskStyle, mediumRiskStyle);
+                createSingleValueSheet(openSheet, dbType, dbResults, headerStyle, normalStyle, highRiskStyle, mediumRiskStyle,
+                        fills::add);
 
                 // 创建多值指标工作表
-                createMultiValueSheets(workbook, dbType, dbResults, headerStyle, normalStyle, highRiskStyle, mediumRiskStyle);
+                createMultiValueSheets(openSheet, dbType, dbResults, headerStyle, normalStyle, highRiskStyle, mediumRiskStyle,
+                        fills::add);
             }
+            fillSheets(fills, parallel ? sheetThreads : 1);
 
             // 保存文件
             try (FileOutputStream fos = new FileOutputStream(filePath.toFile())) {
                 workbook.write(fos);
+            } finally {
+                if (workbook instanceof SXSSFWorkbook) {
+                    ((SXSSFWorkbook) workbook).dispose();
+                }
             }
 
             logger.info("Excel报告生成完成: {}", filePath.toString());
         }
     }
 
+    /**
+     * 原生写出：与 POI 路径共用同一套布局与阈值着色，样式取写出器预定义的样式序号；
+     * 工作表按摘要、各数据库类型的单值/多值顺序逐个写完
+     */
+    private void generateNative(List<MetricResult> results, java.nio.file.Path filePath) throws IOException {
+        OoxmlWorkbookWriter writer = new OoxmlWorkbookWriter(filePath, MIN_COL_WIDTH, MAX_COL_WIDTH);
+        boolean written = false;
+        try {
+            Function<String, ExcelSheetTarget<Integer>> openSheet = name -> {
+                try {
+                    return writer.startSheet(name);
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            };
+
+            createSummarySheet(openSheet.apply(SUMMARY_SHEET_NAME), SummaryStats.of(results),
+                    OoxmlWorkbookWriter.STYLE_SUMMARY_HEADER, OoxmlWorkbookWriter.STYLE_SUMMARY,
+                    OoxmlWorkbookWriter.STYLE_HIGH_RISK, OoxmlWorkbookWriter.STYLE_MEDIUM_RISK,
+                    OoxmlWorkbookWriter.STYLE_DEFAULT);
+
+            Map<String, List<MetricResult>> resultsByDbType = results.stream()
+                    .collect(Collectors.groupingBy(MetricResult::getDbType));
+            for (Map.Entry<String, List<MetricResult>> entry : resultsByDbType.entrySet()) {
+                String dbType = entry.getKey() == null ? "unknown" : entry.getKey().toUpperCase();
+                createSingleValueSheet(openSheet, dbType, entry.getValue(), OoxmlWorkbookWriter.STYLE_HEADER,
+                        OoxmlWorkbookWriter.STYLE_NORMAL, OoxmlWorkbookWriter.STYLE_HIGH_RISK,
+                        OoxmlWorkbookWriter.STYLE_MEDIUM_RISK, Runnable::run);
+                createMultiValueSheets(openSheet, dbType, entry.getValue(), OoxmlWorkbookWriter.STYLE_HEADER,
+                        OoxmlWorkbookWriter.STYLE_NORMAL, OoxmlWorkbookWriter.STYLE_HIGH_RISK,
+                        OoxmlWorkbookWriter.STYLE_MEDIUM_RISK, Runnable::run);
+            }
+            writer.close();
+            written = true;
+        } catch (java.io.UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (!written) {
+                // 中途失败时不保留只含部分工作表的文件
+                writer.abort();
+            }
+        }
+        logger.info("Excel报告生成完成（原生写出）: {}", filePath.toString());
+    }
+
+    /**
+     * 执行各工作表的数据填充：单线程时按创建顺序执行，否则每个工作表一个任务并行执行。
+     * 各任务只写入自己的工作表，共享的样式与阈值在此之前已准备好且只读
+     */
+    private void fillSheets(List<Runnable> fills, int threads) throws IOException {
+        if (threads <= 1 || fills.size() <= 1) {
+            fills.forEach(Runnable::run);
+            return;
+        }
+        int poolSize = Math.min(threads, fills.size());
+        java.util.concurrent.atomic.AtomicInteger seq = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "excel-sheet-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.currentTimeMillis();
+        try {
+            List<java.util.concurrent.Future<?>> futures = new ArrayList<>(fills.size());
+            for (Runnable fill : fills) {
+                futures.add(pool.submit(fill));
+            }
+            for (java.util.concurrent.Future<?> future : futures) {
+                future.get();
+            }
+        } catch (java.util.concurrent.ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new IOException("并行生成工作表失败: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("并行生成工作表被中断", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.info("并行生成 {} 个工作表完成，线程数: {}，耗时: {}ms", fills.size(), poolSize,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 打开流式报告接收器：多值指标结果到达即写入对应工作表并释放，
+     * 单值指标（每节点一行、列需合并）与摘要计数在 complete 时落盘。
+     */
+    public MetricResultSink openSink(String outputPath, String metricsPath) throws IOException {
+        java.nio.file.Path outPath = java.nio.file.Paths.get(outputPath);
+        FileUtil.createDirectoryIfNotExists(outPath.toString());
+
+        ensureThresholdsLoaded(metricsPath != null && !metricsPath.trim().isEmpty() ? metricsPath.trim() : "metrics");
+
+        String date = java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
+        return new StreamingWorkbookSink(outPath.resolve("db_metrics_report_" + date + ".xlsx").normalize());
+    }
+
     @Override
     public void generateReport(List<MetricResult> results, String outputPath) throws Exception {
         generateReport(results, null, outputPath);
@@ -118,9 +262,10 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
         return "Excel报告生成器，支持阈值高亮和多工作表";
     }
 
-    private void createSingleValueSheet(Workbook workbook, String dbType, List<MetricResult> results,
-                                        CellStyle headerStyle, CellStyle normalStyle,
-                                        CellStyle highRiskStyle, CellStyle mediumRiskStyle) {
+    private <S> void createSingleValueSheet(Function<String, ExcelSheetTarget<S>> openSheet, String dbType,
+                                            List<MetricResult> results, S headerStyle, S normalStyle,
+                                            S highRiskStyle, S mediumRiskStyle,
+                                            java.util.function.Consumer<Runnable> fill) {
 
         List<MetricResult> singleResults = results.stream()
                 .filter(r -> "SINGLE".equals(r.getMetricType()) && r.isSuccess())
@@ -130,49 +275,38 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
             return;
         }
 
-        Sheet sheet = workbook.createSheet(dbType);
+        ExcelSheetTarget<S> sheet = openSheet.apply(dbType);
+        fill.accept(() -> fillSingleValueSheet(sheet, singleResults, headerStyle, normalStyle, highRiskStyle,
+                mediumRiskStyle, dbType));
+    }
 
+    private <S> void fillSingleValueSheet(ExcelSheetTarget<S> sheet, List<MetricResult> singleResults,
+                                          S headerStyle, S normalStyle,
+                                          S highRiskStyle, S mediumRiskStyle, String dbType) {
         // 现在所有单值指标都有columns和multiValues，统一使用columns方式处理
-        createSingleValueSheetWithColumns(sheet, singleResults, headerStyle, normalStyle, highRiskStyle, mediumRiskStyle, dbType);
+        int lastColIndex = createSingleValueSheetWithColumns(sheet, singleResults, headerStyle, normalStyle,
+                highRiskStyle, mediumRiskStyle, dbType);
 
-        // 列宽自适应 + 边界 - 修复版本
-        Row headerRow = sheet.getRow(0);
-        if (headerRow != null) {
-            int lastColIndex = headerRow.getLastCellNum();
-            for (int i = 0; i < lastColIndex; i++) {
-                try {
-                    sheet.autoSizeColumn(i);
-                    int w = sheet.getColumnWidth(i);
-                    if (w > MAX_COL_WIDTH) {
-                        sheet.setColumnWidth(i, MAX_COL_WIDTH);
-                    } else if (w < MIN_COL_WIDTH) {
-                        sheet.setColumnWidth(i, MIN_COL_WIDTH);
-                    }
-                    logger.debug("列 {} 宽度调整为: {}", i, sheet.getColumnWidth(i));
-                } catch (Exception e) {
-                    logger.warn("调整列 {} 宽度失败: {}", i, e.getMessage());
-                    // 设置默认宽度
-                    sheet.setColumnWidth(i, 4000);
-                }
-            }
+        // 列宽自适应 + 边界（列数取自表头写入结果：流式工作表的表头行可能已刷盘）
+        sheet.finish(lastColIndex);
+        if (lastColIndex > 0) {
             logger.info("Excel列宽自适应完成，共调整 {} 列", lastColIndex);
         }
     }
 
     /**
-     * 创建支持columns的单值指标工作表
+     * 创建支持columns的单值指标工作表，返回表头列数
      */
-    private void createSingleValueSheetWithColumns(Sheet sheet, List<MetricResult> singleResults,
-                                                   CellStyle headerStyle, CellStyle normalStyle,
-                                                   CellStyle highRiskStyle, CellStyle mediumRiskStyle, String dbType) {
+    private <S> int createSingleValueSheetWithColumns(ExcelSheetTarget<S> sheet, List<MetricResult> singleResults,
+                                                      S headerStyle, S normalStyle,
+                                                      S highRiskStyle, S mediumRiskStyle, String dbType) {
         
         // 创建表头
-        Row headerRow = sheet.createRow(0);
         int colIndex = 0;
 
-        createCell(headerRow, colIndex++, "系统名称", headerStyle);
-        createCell(headerRow, colIndex++, "数据库名称", headerStyle);
-        createCell(headerRow, colIndex++, "节点IP", headerStyle);
+        sheet.cell(0, colIndex++, "系统名称", headerStyle);
+        sheet.cell(0, colIndex++, "数据库名称", headerStyle);
+        sheet.cell(0, colIndex++, "节点IP", headerStyle);
 
         // 收集所有columns定义的列名
         Set<String> allColumns = new LinkedHashSet<>();
@@ -198,10 +332,11 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
 
         // 添加所有列名到表头
         for (String columnName : allColumns) {
-            createCell(headerRow, colIndex++, columnName, headerStyle);
+            sheet.cell(0, colIndex++, columnName, headerStyle);
         }
 
-        createCell(headerRow, colIndex++, "执行时间", headerStyle);
+        sheet.cell(0, colIndex++, "执行时间", headerStyle);
+        int headerColumns = colIndex;
 
         // 按系统、数据库、节点分组
         Map<String, List<MetricResult>> groupedResults = singleResults.stream()
@@ -212,17 +347,17 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
             String[] keys = entry.getKey().split("\\|");
             List<MetricResult> groupResults = entry.getValue();
 
-            Row dataRow = sheet.createRow(rowIndex++);
+            int dataRow = rowIndex++;
             colIndex = 0;
 
-            createCell(dataRow, colIndex++, keys[0], normalStyle); // 系统名称
-            createCell(dataRow, colIndex++, keys[1], normalStyle); // 数据库名称
-            createCell(dataRow, colIndex++, keys[2], normalStyle); // 节点IP
+            sheet.cell(dataRow, colIndex++, keys[0], normalStyle); // 系统名称
+            sheet.cell(dataRow, colIndex++, keys[1], normalStyle); // 数据库名称
+            sheet.cell(dataRow, colIndex++, keys[2], normalStyle); // 节点IP
 
             // 处理每个columns列的数据
             for (String columnName : allColumns) {
                 String cellValue = "";
-                CellStyle cellStyle = normalStyle;
+                S cellStyle = normalStyle;
                 
                 // 查找包含此列的指标结果
                 for (MetricResult result : groupResults) {
@@ -250,13 +385,14 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
                     }
                 }
                 
-                createCell(dataRow, colIndex++, cellValue, cellStyle);
+                sheet.cell(dataRow, colIndex++, cellValue, cellStyle);
             }
 
             // 执行时间
-            String executeTime = groupResults.get(0).getExecuteTime().format(TIME_FORMATTER);
-            createCell(dataRow, colIndex++, executeTime, normalStyle);
+            String executeTime = formatExecuteTime(groupResults);
+            sheet.cell(dataRow, colIndex++, executeTime, normalStyle);
         }
+        return headerColumns;
     }
 
     /**
@@ -324,14 +460,15 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
             }
 
             // 执行时间
-            String executeTime = groupResults.get(0).getExecuteTime().format(TIME_FORMATTER);
+            String executeTime = formatExecuteTime(groupResults);
             createCell(dataRow, colIndex++, executeTime, normalStyle);
         }
     }
 
-    private void createMultiValueSheets(Workbook workbook, String dbType, List<MetricResult> results,
-                                        CellStyle headerStyle, CellStyle normalStyle,
-                                        CellStyle highRiskStyle, CellStyle mediumRiskStyle) {
+    private <S> void createMultiValueSheets(Function<String, ExcelSheetTarget<S>> openSheet, String dbType,
+                                            List<MetricResult> results, S headerStyle, S normalStyle,
+                                            S highRiskStyle, S mediumRiskStyle,
+                                            java.util.function.Consumer<Runnable> fill) {
 
         List<MetricResult> multiResults = results.stream()
                 .filter(r -> "MULTI".equals(r.getMetricType()) && r.isSuccess())
@@ -347,10 +484,6 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
             if (metricResults.isEmpty()) continue;
 
             String description = metricResults.get(0).getMetricDescription();
-            String sheetName = (dbType + "-" + description);
-            if (sheetName.length() > 31) sheetName = sheetName.substring(0, 28) + "...";
-
-            Sheet sheet = workbook.createSheet(sheetName);
 
             // 计算列名（优先使用指标定义的 columns，其次回退扫描数据行的 key）
             List<String> columnNames = null;
@@ -372,153 +505,172 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
                 columnNames = new ArrayList<>(set);
             }
 
-            // 表头
-            Row headerRow = sheet.createRow(0);
-            int colIndex = 0;
-            createCell(headerRow, colIndex++, "系统名称", headerStyle);
-            createCell(headerRow, colIndex++, "数据库名称", headerStyle);
-            createCell(headerRow, colIndex++, "节点IP", headerStyle);
-            for (String columnName : columnNames) createCell(headerRow, colIndex++, columnName, headerStyle);
-            createCell(headerRow, colIndex++, "执行时间", headerStyle);
-
-            // 数据
-            int rowIndex = 1;
-            for (MetricResult result : metricResults) {
-                if (result.getMultiValues() == null) continue;
-
-                for (Map<String, Object> dataRowMap : result.getMultiValues()) {
-                    Row excelRow = sheet.createRow(rowIndex++);
-                    colIndex = 0;
-
-                    createCell(excelRow, colIndex++, result.getSystemName(), normalStyle);
-                    createCell(excelRow, colIndex++, result.getDatabaseName(), normalStyle);
-                    createCell(excelRow, colIndex++, result.getNodeIp(), normalStyle);
-
-                    for (String columnName : columnNames) {
-                        Object value = dataRowMap.get(columnName);
-                        CellStyle cellStyle = determineMultiValueStyle(dbType, metricName, description, columnName, value,
-                                normalStyle, highRiskStyle, mediumRiskStyle);
-                        createCell(excelRow, colIndex++, value != null ? value.toString() : "", cellStyle);
-                    }
+            ExcelSheetTarget<S> sheet = openSheet.apply(multiValueSheetName(dbType, description));
+            writeMultiValueHeader(sheet, columnNames, headerStyle);
+            List<String> sheetColumns = columnNames;
 
-                    String executeTime = result.getExecuteTime().format(TIME_FORMATTER);
-                    createCell(excelRow, colIndex++, executeTime, normalStyle);
+            fill.accept(() -> {
+                // 数据
+                int rowIndex = 1;
+                for (MetricResult result : metricResults) {
+                    rowIndex = appendMultiValueRows(sheet, rowIndex, dbType, metricName, description, sheetColumns, result,
+                            normalStyle, highRiskStyle, mediumRiskStyle);
                 }
-            }
 
-            // 列宽自适应 + 边界
-            for (int i = 0; i < colIndex; i++) {
-                sheet.autoSizeColumn(i);
-                int w = sheet.getColumnWidth(i);
-                if (w > MAX_COL_WIDTH) sheet.setColumnWidth(i, MAX_COL_WIDTH);
-                else if (w < MIN_COL_WIDTH) sheet.setColumnWidth(i, MIN_COL_WIDTH);
-            }
+                // 列宽自适应 + 边界
+                sheet.finish(sheetColumns.size() + 4);
+            });
         }
     }
 
-    // 计算单值样式（支持 threshold.rules；无阈值时不高亮）
-    private CellStyle determineValueStyle(String dbType, MetricResult result, Object value,
-                                          CellStyle normalStyle, CellStyle highRiskStyle, CellStyle mediumRiskStyle) {
-        ThresholdSpec spec = findThresholdSpec(dbType, result.getMetricName(), result.getMetricDescription());
-        if (spec == null) {
-            return normalStyle;
-        }
+    /**
+     * 多值指标工作表名称（超过 31 字符时截断）
+     */
+    private static String multiValueSheetName(String dbType, String description) {
+        String sheetName = (dbType + "-" + description);
+        if (sheetName.length() > 31) sheetName = sheetName.substring(0, 28) + "...";
+        return sheetName;
+    }
 
-        // 1) rules 优先：按顺序匹配，命中即着色
-        if (spec.rules != null && !spec.rules.isEmpty()) {
-            Double v = parseNumber(value);
-            if (v != null) {
-                for (ThresholdSpec.Rule r : spec.rules) {
-                    Double th = parseNumber(r.value);
-                    if (th != null && compare(v, r.operator, th)) {
-                        return chooseStyleByLevel(r.level, highRiskStyle, mediumRiskStyle, normalStyle);
-                    }
-                }
+    /**
+     * 写入多值指标工作表表头
+     */
+    private <S> void writeMultiValueHeader(ExcelSheetTarget<S> sheet, List<String> columnNames, S headerStyle) {
+        int colIndex = 0;
+        sheet.cell(0, colIndex++, "系统名称", headerStyle);
+        sheet.cell(0, colIndex++, "数据库名称", headerStyle);
+        sheet.cell(0, colIndex++, "节点IP", headerStyle);
+        for (String columnName : columnNames) sheet.cell(0, colIndex++, columnName, headerStyle);
+        sheet.cell(0, colIndex, "执行时间", headerStyle);
+    }
+
+    /**
+     * 执行时间列：优先取本次实际采集的结果时间；复用缓存的结果显示原采集时间并标注
+     */
+    static String formatExecuteTime(List<MetricResult> results) {
+        MetricResult shown = null;
+        int cached = 0;
+        for (MetricResult r : results) {
+            if (r.isCached()) {
+                cached++;
+            } else if (shown == null) {
+                shown = r;
             }
-            return normalStyle;
         }
+        if (shown == null && !results.isEmpty()) {
+            shown = results.get(0);
+        }
+        String time = shown != null && shown.getExecuteTime() != null ? shown.getExecuteTime().format(TIME_FORMATTER) : "";
+        if (cached == 0) {
+            return time;
+        }
+        return time + (cached == results.size() ? "（缓存）" : "（部分缓存）");
+    }
 
-        // 2) 兼容旧写法：仅标量阈值适用于单值
-        if (!(spec.value instanceof Map)) {
-            Double v = parseNumber(value);
-            Double th = parseNumber(spec.value);
-            if (v != null && th != null && compare(v, spec.operator, th)) {
-                return chooseStyleByLevel(spec.level, highRiskStyle, mediumRiskStyle, normalStyle);
+    /**
+     * 追加一个多值指标结果的全部数据行，返回下一个可用行号
+     */
+    private <S> int appendMultiValueRows(ExcelSheetTarget<S> sheet, int rowIndex, String dbType, String metricName,
+                                         String description, List<String> columnNames, MetricResult result,
+                                         S normalStyle, S highRiskStyle, S mediumRiskStyle) {
+        if (result.getMultiValues() == null) return rowIndex;
+
+        String executeTime = formatExecuteTime(Collections.singletonList(result));
+        ThresholdEngine.MetricThresholds thresholds = thresholdEngine.find(dbType, metricName, description);
+        for (Map<String, Object> dataRowMap : result.getMultiValues()) {
+            int excelRow = rowIndex++;
+            int colIndex = 0;
+
+            sheet.cell(excelRow, colIndex++, result.getSystemName(), normalStyle);
+            sheet.cell(excelRow, colIndex++, result.getDatabaseName(), normalStyle);
+            sheet.cell(excelRow, colIndex++, result.getNodeIp(), normalStyle);
+
+            for (String columnName : columnNames) {
+                Object value = dataRowMap.get(columnName);
+                S cellStyle = determineMultiValueStyle(thresholds, columnName, value,
+                        normalStyle, highRiskStyle, mediumRiskStyle);
+                sheet.cell(excelRow, colIndex++, value != null ? value.toString() : "", cellStyle);
             }
+
+            sheet.cell(excelRow, colIndex, executeTime, normalStyle);
         }
-        return normalStyle;
+        return rowIndex;
     }
 
-    // 计算多值样式（支持 threshold.rules；无阈值时不高亮）
-    private CellStyle determineMultiValueStyle(String dbType, String metricName, String metricDescription,
-                                               String columnName, Object value,
-                                               CellStyle normalStyle, CellStyle highRiskStyle, CellStyle mediumRiskStyle) {
-        ThresholdSpec spec = findThresholdSpec(dbType, metricName, metricDescription);
-        if (spec == null) {
-            return normalStyle;
+    private static Function<String, ExcelSheetTarget<CellStyle>> poiSheets(Workbook workbook) {
+        return name -> new PoiSheetTarget(workbook.createSheet(name));
+    }
+
+    /**
+     * POI 工作表写入目标：写入单元格时估算列宽，finish 时按估算值设置列宽（带上下限）
+     */
+    private static final class PoiSheetTarget implements ExcelSheetTarget<CellStyle> {
+        private final Sheet sheet;
+        private final ColumnWidthEstimator widths = new ColumnWidthEstimator();
+        private Row row;
+
+        PoiSheetTarget(Sheet sheet) {
+            this.sheet = sheet;
         }
-        String colKey = normKey(columnName);
-
-        // 1) 优先 rules：仅对匹配列生效，按顺序匹配（命中即着色）
-        if (spec.rules != null && !spec.rules.isEmpty()) {
-            for (ThresholdSpec.Rule r : spec.rules) {
-                String effCol = (r.column != null) ? r.column : spec.column;
-                if (effCol == null) {
-                    // 未指定列则不对任意列生效
-                    continue;
-                }
-                if (normKey(effCol).equals(colKey)) {
-                    Double v = parseNumber(value);
-                    Double th = parseNumber(r.value);
-                    if (v != null && th != null && compare(v, r.operator, th)) {
-                        return chooseStyleByLevel(r.level, highRiskStyle, mediumRiskStyle, normalStyle);
-                    }
-                    // 不要提前返回，继续检查后续规则（例如 high 未命中，继续匹配 medium）
-                    continue;
-                }
-            }
-            return normalStyle;
+
+        @Override
+        public void cell(int rowIndex, int column, String value, CellStyle style) {
+            writeCell(rowIndex, column, value, style);
+            widths.record(column, value);
         }
 
-        // 2) 兼容旧写法：value 为 Map（逐列阈值）
-        if (spec.value instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<Object, Object> map = (Map<Object, Object>) spec.value;
-            Double th = null;
-            for (Map.Entry<Object, Object> e : map.entrySet()) {
-                if (e.getKey() == null) continue;
-                String k = normKey(e.getKey().toString());
-                if (k.equals(colKey)) {
-                    th = parseNumber(e.getValue());
-                    break;
-                }
-            }
-            if (th != null) {
-                Double v = parseNumber(value);
-                if (v != null && compare(v, spec.operator, th)) {
-                    return chooseStyleByLevel(spec.level, highRiskStyle, mediumRiskStyle, normalStyle);
-                }
-                return normalStyle;
-            }
+        @Override
+        public void mergedCell(int rowIndex, int firstColumn, int lastColumn, String value, CellStyle style) {
+            writeCell(rowIndex, firstColumn, value, style);
+            sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(rowIndex, rowIndex, firstColumn, lastColumn));
+        }
+
+        @Override
+        public void finish(int columnCount) {
+            widths.apply(sheet, columnCount, MIN_COL_WIDTH, MAX_COL_WIDTH);
         }
 
-        // 3) 兼容旧写法：column + 单值
-        if (spec.column != null && normKey(spec.column).equals(colKey)) {
-            Double v = parseNumber(value);
-            Double th = parseNumber(spec.value);
-            if (v != null && th != null && compare(v, spec.operator, th)) {
-                return chooseStyleByLevel(spec.level, highRiskStyle, mediumRiskStyle, normalStyle);
+        private void writeCell(int rowIndex, int column, String value, CellStyle style) {
+            if (row == null || row.getRowNum() != rowIndex) {
+                row = sheet.createRow(rowIndex);
             }
+            Cell cell = row.createCell(column);
+            cell.setCellValue(value);
+            cell.setCellStyle(style);
+        }
+    }
+
+    // 计算单值样式（支持 threshold.rules；无阈值时不高亮）
+    private <S> S determineValueStyle(String dbType, MetricResult result, Object value,
+                                      S normalStyle, S highRiskStyle, S mediumRiskStyle) {
+        ThresholdEngine.MetricThresholds thresholds = thresholdEngine.find(dbType, result.getMetricName(),
+                result.getMetricDescription());
+        if (thresholds == null) {
             return normalStyle;
         }
+        return styleFor(thresholds.matchSingle(value), highRiskStyle, mediumRiskStyle, normalStyle);
+    }
 
-        // 存在阈值但不匹配当前列，不高亮
-        return normalStyle;
+    // 计算多值样式（支持 threshold.rules；无阈值时不高亮）
+    private <S> S determineMultiValueStyle(String dbType, String metricName, String metricDescription,
+                                           String columnName, Object value,
+                                           S normalStyle, S highRiskStyle, S mediumRiskStyle) {
+        return determineMultiValueStyle(thresholdEngine.find(dbType, metricName, metricDescription), columnName, value,
+                normalStyle, highRiskStyle, mediumRiskStyle);
+    }
+
+    // 按已查到的指标阈值计算多值样式：仅对配置了该列的规则生效，按顺序命中即着色
+    private <S> S determineMultiValueStyle(ThresholdEngine.MetricThresholds thresholds, String columnName, Object value,
+                                           S normalStyle, S highRiskStyle, S mediumRiskStyle) {
+        if (thresholds == null) {
+            return normalStyle;
+        }
+        return styleFor(thresholds.matchColumn(columnName, value), highRiskStyle, mediumRiskStyle, normalStyle);
     }
 
     // 启发式（保留原逻辑，作为兜底）
-    private CellStyle heuristicSingle(Object value, MetricResult result,
-                                      CellStyle normalStyle, CellStyle highRiskStyle, CellStyle mediumRiskStyle) {
+    private <S> S heuristicSingle(Object value, MetricResult result,
+                                      S normalStyle, S highRiskStyle, S mediumRiskStyle) {
         String level = result.getThresholdLevel();
         if ("high".equalsIgnoreCase(level)) return highRiskStyle;
         if ("medium".equalsIgnoreCase(level)) return mediumRiskStyle;
@@ -540,8 +692,8 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
         return normalStyle;
     }
 
-    private CellStyle heuristicMulti(Object value, String columnName,
-                                     CellStyle normalStyle, CellStyle highRiskStyle, CellStyle mediumRiskStyle) {
+    private <S> S heuristicMulti(Object value, String columnName,
+                                     S normalStyle, S highRiskStyle, S mediumRiskStyle) {
         if (value instanceof Number) {
             double numValue = ((Number) value).doubleValue();
             String lower = columnName.toLowerCase();
@@ -661,376 +813,369 @@ public class ExcelReportGenerator implements ReportGeneratorInterface {
     /**
      * 创建摘要工作表
      */
-    private void createSummarySheet(Workbook workbook, List<MetricResult> results,
-                                    CellStyle summaryHeaderStyle, CellStyle summaryStyle,
-                                    CellStyle highRiskStyle, CellStyle mediumRiskStyle) {
-        Sheet sheet = workbook.createSheet("执行摘要");
-
+    private <S> void createSummarySheet(ExcelSheetTarget<S> sheet, SummaryStats stats,
+                                        S summaryHeaderStyle, S summaryStyle,
+                                        S highRiskStyle, S mediumRiskStyle, S plainStyle) {
         int rowIndex = 0;
 
-        // 标题
-        Row titleRow = sheet.createRow(rowIndex++);
-        createCell(titleRow, 0, "数据库指标收集报告摘要", summaryHeaderStyle);
-        sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, 5));
+        // 标题（合并单元格，不参与列宽估算）
+        sheet.mergedCell(rowIndex++, 0, 5, "数据库指标收集报告摘要", summaryHeaderStyle);
 
         rowIndex++; // 空行
 
         // 基本统计信息
-        createSummarySection(sheet, rowIndex, "基本统计", results, summaryHeaderStyle, summaryStyle);
+        createSummarySection(sheet, rowIndex, "基本统计", stats, summaryHeaderStyle, summaryStyle, plainStyle);
         rowIndex += 8;
 
         // 按数据库类型统计
-        createDbTypeSection(sheet, rowIndex, "按数据库类型统计", results, summaryHeaderStyle, summaryStyle);
+        createDbTypeSection(sheet, rowIndex, "按数据库类型统计", stats, summaryHeaderStyle, summaryStyle);
         rowIndex += 10;
 
         // 按系统统计
-        createSystemSection(sheet, rowIndex, "按系统统计", results, summaryHeaderStyle, summaryStyle);
+        createSystemSection(sheet, rowIndex, "按系统统计", stats, summaryHeaderStyle, summaryStyle);
         rowIndex += 15;
 
         // 风险指标统计
-        createRiskSection(sheet, rowIndex, "风险指标统计", results, summaryHeaderStyle, summaryStyle, highRiskStyle, mediumRiskStyle);
+        createRiskSection(sheet, rowIndex, "风险指标统计", stats, summaryHeaderStyle, summaryStyle, highRiskStyle, mediumRiskStyle);
 
         // 列宽自适应 + 边界
-        for (int i = 0; i < 6; i++) {
-            sheet.autoSizeColumn(i);
-            int w = sheet.getColumnWidth(i);
-            if (w > MAX_COL_WIDTH) sheet.setColumnWidth(i, MAX_COL_WIDTH);
-            else if (w < MIN_COL_WIDTH) sheet.setColumnWidth(i, MIN_COL_WIDTH);
-        }
+        sheet.finish(6);
     }
 
-    private void createSummarySection(Sheet sheet, int startRow, String title, List<MetricResult> results,
-                                      CellStyle headerStyle, CellStyle normalStyle) {
-        Row titleRow = sheet.createRow(startRow);
-        createCell(titleRow, 0, title, headerStyle);
+    private <S> void createSummarySection(ExcelSheetTarget<S> sheet, int startRow, String title, SummaryStats stats,
+                                          S headerStyle, S normalStyle, S plainStyle) {
+        int titleRow = startRow;
+        sheet.cell(titleRow, 0, title, headerStyle);
 
-        long totalMetrics = results.size();
-        long successCount = results.stream().mapToLong(r -> r.isSuccess() ? 1 : 0).sum();
+        long totalMetrics = stats.total;
+        long successCount = stats.success;
         long failedCount = totalMetrics - successCount;
-        long thresholdExceeded = results.stream().mapToLong(r -> r.getThresholdLevel() != null ? 1 : 0).sum();
+        long thresholdExceeded = stats.thresholdExceeded;
 
-        String executeTime = results.isEmpty() ? "N/A" :
-                results.get(0).getExecuteTime().format(TIME_FORMATTER);
+        String executeTime = stats.executeTime != null ? stats.executeTime : "N/A";
 
-        Row[] dataRows = new Row[6];
+        int[] dataRows = new int[6];
         for (int i = 0; i < 6; i++) {
-            dataRows[i] = sheet.createRow(startRow + 1 + i);
+            dataRows[i] = startRow + 1 + i;
         }
 
-        createCell(dataRows[0], 0, "执行时间:", normalStyle);
-        createCell(dataRows[0], 1, executeTime, normalStyle);
+        sheet.cell(dataRows[0], 0, "执行时间:", normalStyle);
+        sheet.cell(dataRows[0], 1, executeTime, normalStyle);
 
-        createCell(dataRows[1], 0, "总指标数:", normalStyle);
-        createCell(dataRows[1], 1, String.valueOf(totalMetrics), normalStyle);
+        sheet.cell(dataRows[1], 0, "总指标数:", normalStyle);
+        sheet.cell(dataRows[1], 1, String.valueOf(totalMetrics), normalStyle);
 
-        createCell(dataRows[2], 0, "成功数:", normalStyle);
-        createCell(dataRows[2], 1, String.valueOf(successCount), normalStyle);
+        sheet.cell(dataRows[2], 0, "成功数:", normalStyle);
+        sheet.cell(dataRows[2], 1, String.valueOf(successCount), normalStyle);
 
-        createCell(dataRows[3], 0, "失败数:", normalStyle);
-        createCell(dataRows[3], 1, String.valueOf(failedCount), failedCount > 0 ? sheet.getWorkbook().createCellStyle() : normalStyle);
+        sheet.cell(dataRows[3], 0, "失败数:", normalStyle);
+        sheet.cell(dataRows[3], 1, String.valueOf(failedCount), failedCount > 0 ? plainStyle : normalStyle);
 
-        createCell(dataRows[4], 0, "超阈值数:", normalStyle);
-        createCell(dataRows[4], 1, String.valueOf(thresholdExceeded), thresholdExceeded > 0 ? sheet.getWorkbook().createCellStyle() : normalStyle);
+        sheet.cell(dataRows[4], 0, "超阈值数:", normalStyle);
+        sheet.cell(dataRows[4], 1, String.valueOf(thresholdExceeded), thresholdExceeded > 0 ? plainStyle : normalStyle);
 
-        createCell(dataRows[5], 0, "成功率:", normalStyle);
+        sheet.cell(dataRows[5], 0, "成功率:", normalStyle);
         String successRate = totalMetrics > 0 ? String.format("%.2f%%", (double) successCount / totalMetrics * 100) : "0%";
-        createCell(dataRows[5], 1, successRate, normalStyle);
+        sheet.cell(dataRows[5], 1, successRate, normalStyle);
     }
 
-    private void createDbTypeSection(Sheet sheet, int startRow, String title, List<MetricResult> results,
-                                     CellStyle headerStyle, CellStyle normalStyle) {
-        Row titleRow = sheet.createRow(startRow);
-        createCell(titleRow, 0, title, headerStyle);
-
-        Map<String, Long> dbTypeStats = results.stream()
-                .collect(Collectors.groupingBy(MetricResult::getDbType, Collectors.counting()));
+    private <S> void createDbTypeSection(ExcelSheetTarget<S> sheet, int startRow, String title, SummaryStats stats,
+                                         S headerStyle, S normalStyle) {
+        int titleRow = startRow;
+        sheet.cell(titleRow, 0, title, headerStyle);
 
-        Row headerRow = sheet.createRow(startRow + 1);
-        createCell(headerRow, 0, "数据库类型", headerStyle);
-        createCell(headerRow, 1, "指标数量", headerStyle);
-        createCell(headerRow, 2, "成功数", headerStyle);
-        createCell(headerRow, 3, "失败数", headerStyle);
+        int headerRow = startRow + 1;
+        sheet.cell(headerRow, 0, "数据库类型", headerStyle);
+        sheet.cell(headerRow, 1, "指标数量", headerStyle);
+        sheet.cell(headerRow, 2, "成功数", headerStyle);
+        sheet.cell(headerRow, 3, "失败数", headerStyle);
 
         int rowIndex = startRow + 2;
-        for (Map.Entry<String, Long> entry : dbTypeStats.entrySet()) {
+        for (Map.Entry<String, long[]> entry : stats.byDbType.entrySet()) {
             String dbType = entry.getKey();
-            long total = entry.getValue();
-
-            long success = results.stream().filter(r -> Objects.equals(dbType, r.getDbType()) && r.isSuccess()).count();
+            long total = entry.getValue()[0];
+            long success = entry.getValue()[1];
             long failed = total - success;
 
-            Row dataRow = sheet.createRow(rowIndex++);
-            createCell(dataRow, 0, dbType != null ? dbType.toUpperCase() : "UNKNOWN", normalStyle);
-            createCell(dataRow, 1, String.valueOf(total), normalStyle);
-            createCell(dataRow, 2, String.valueOf(success), normalStyle);
-            createCell(dataRow, 3, String.valueOf(failed), normalStyle);
+            int dataRow = rowIndex++;
+            sheet.cell(dataRow, 0, dbType != null ? dbType.toUpperCase() : "UNKNOWN", normalStyle);
+            sheet.cell(dataRow, 1, String.valueOf(total), normalStyle);
+            sheet.cell(dataRow, 2, String.valueOf(success), normalStyle);
+            sheet.cell(dataRow, 3, String.valueOf(failed), normalStyle);
         }
     }
 
-    private void createSystemSection(Sheet sheet, int startRow, String title, List<MetricResult> results,
-                                     CellStyle headerStyle, CellStyle normalStyle) {
-        Row titleRow = sheet.createRow(startRow);
-        createCell(titleRow, 0, title, headerStyle);
-
-        Map<String, Long> systemStats = results.stream()
-                .collect(Collectors.groupingBy(MetricResult::getSystemName, Collectors.counting()));
+    private <S> void createSystemSection(ExcelSheetTarget<S> sheet, int startRow, String title, SummaryStats stats,
+                                         S headerStyle, S normalStyle) {
+        int titleRow = startRow;
+        sheet.cell(titleRow, 0, title, headerStyle);
 
-        Row headerRow = sheet.createRow(startRow + 1);
-        createCell(headerRow, 0, "系统名称", headerStyle);
-        createCell(headerRow, 1, "指标数量", headerStyle);
-        createCell(headerRow, 2, "成功数", headerStyle);
-        createCell(headerRow, 3, "超阈值数", headerStyle);
+        int headerRow = startRow + 1;
+        sheet.cell(headerRow, 0, "系统名称", headerStyle);
+        sheet.cell(headerRow, 1, "指标数量", headerStyle);
+        sheet.cell(headerRow, 2, "成功数", headerStyle);
+        sheet.cell(headerRow, 3, "超阈值数", headerStyle);
 
         int rowIndex = startRow + 2;
-        for (Map.Entry<String, Long> entry : systemStats.entrySet()) {
-            String systemName = entry.getKey();
-            long total = entry.getValue();
-
-            long success = results.stream().filter(r -> Objects.equals(systemName, r.getSystemName()) && r.isSuccess()).count();
-            long thresholdExceeded = results.stream().filter(r -> Objects.equals(systemName, r.getSystemName()) && r.getThresholdLevel() != null).count();
-
-            Row dataRow = sheet.createRow(rowIndex++);
-            createCell(dataRow, 0, systemName, normalStyle);
-            createCell(dataRow, 1, String.valueOf(total), normalStyle);
-            createCell(dataRow, 2, String.valueOf(success), normalStyle);
-            createCell(dataRow, 3, String.valueOf(thresholdExceeded), normalStyle);
+        for (Map.Entry<String, long[]> entry : stats.bySystem.entrySet()) {
+            int dataRow = rowIndex++;
+            sheet.cell(dataRow, 0, entry.getKey(), normalStyle);
+            sheet.cell(dataRow, 1, String.valueOf(entry.getValue()[0]), normalStyle);
+            sheet.cell(dataRow, 2, String.valueOf(entry.getValue()[1]), normalStyle);
+            sheet.cell(dataRow, 3, String.valueOf(entry.getValue()[2]), normalStyle);
         }
     }
 
-    private void createRiskSection(Sheet sheet, int startRow, String title, List<MetricResult> results,
-                                   CellStyle headerStyle, CellStyle normalStyle,
-                                   CellStyle highRiskStyle, CellStyle mediumRiskStyle) {
-        Row titleRow = sheet.createRow(startRow);
-        createCell(titleRow, 0, title, headerStyle);
+    private <S> void createRiskSection(ExcelSheetTarget<S> sheet, int startRow, String title, SummaryStats stats,
+                                       S headerStyle, S normalStyle,
+                                       S highRiskStyle, S mediumRiskStyle) {
+        int titleRow = startRow;
+        sheet.cell(titleRow, 0, title, headerStyle);
 
-        List<MetricResult> riskResults = results.stream().filter(r -> r.getThresholdLevel() != null).collect(Collectors.toList());
-        if (riskResults.isEmpty()) {
-            Row noRiskRow = sheet.createRow(startRow + 1);
-            createCell(noRiskRow, 0, "未发现超过阈值的指标", normalStyle);
+        if (stats.risks.isEmpty()) {
+            int noRiskRow = startRow + 1;
+            sheet.cell(noRiskRow, 0, "未发现超过阈值的指标", normalStyle);
             return;
         }
 
-        Row headerRow = sheet.createRow(startRow + 1);
-        createCell(headerRow, 0, "系统名称", headerStyle);
-        createCell(headerRow, 1, "指标名称", headerStyle);
-        createCell(headerRow, 2, "指标值", headerStyle);
-        createCell(headerRow, 3, "风险级别", headerStyle);
-        createCell(headerRow, 4, "节点IP", headerStyle);
+        int headerRow = startRow + 1;
+        sheet.cell(headerRow, 0, "系统名称", headerStyle);
+        sheet.cell(headerRow, 1, "指标名称", headerStyle);
+        sheet.cell(headerRow, 2, "指标值", headerStyle);
+        sheet.cell(headerRow, 3, "风险级别", headerStyle);
+        sheet.cell(headerRow, 4, "节点IP", headerStyle);
 
         int rowIndex = startRow + 2;
-        for (MetricResult result : riskResults) {
-            Row dataRow = sheet.createRow(rowIndex++);
-            createCell(dataRow, 0, result.getSystemName(), normalStyle);
-            createCell(dataRow, 1, result.getMetricName(), normalStyle);
-            String value = result.getValue() != null ? result.getValue().toString() : "N/A";
-            createCell(dataRow, 2, value, normalStyle);
-            String level = result.getThresholdLevel();
-            CellStyle levelStyle = "high".equalsIgnoreCase(level) ? highRiskStyle :
+        for (String[] risk : stats.risks) {
+            int dataRow = rowIndex++;
+            sheet.cell(dataRow, 0, risk[0], normalStyle);
+            sheet.cell(dataRow, 1, risk[1], normalStyle);
+            sheet.cell(dataRow, 2, risk[2], normalStyle);
+            String level = risk[3];
+            S levelStyle = "high".equalsIgnoreCase(level) ? highRiskStyle :
                     "medium".equalsIgnoreCase(level) ? mediumRiskStyle : normalStyle;
-            createCell(dataRow, 3, level != null ? level.toUpperCase() : "UNKNOWN", levelStyle);
-            createCell(dataRow, 4, result.getNodeIp(), normalStyle);
+            sheet.cell(dataRow, 3, level != null ? level.toUpperCase() : "UNKNOWN", levelStyle);
+            sheet.cell(dataRow, 4, risk[4], normalStyle);
         }
     }
 
-    /* ========================== 阈值加载与比较 ========================== */
-
-    private void ensureThresholdsLoaded(String metricsDir) {
-        if (thresholdsLoaded) return;
-        try {
-            thresholdsCache = loadThresholdsFromDir(metricsDir);
-            thresholdsLoaded = true;
-            logger.info("已加载阈值配置条目（按库类型/指标映射）: {}", thresholdsCache.values().stream().mapToInt(Map::size).sum());
-        } catch (Exception e) {
-            logger.warn("加载指标阈值配置失败（将使用启发式规则）: {}", e.getMessage());
-            thresholdsCache = new HashMap<>();
+    /**
+     * 摘要统计：逐条累加，只保留计数与超阈值条目的展示字段，不持有结果对象
+     */
+    private static class SummaryStats {
+        long total;
+        long success;
+        long thresholdExceeded;
+        String executeTime;
+        // dbType -> [总数, 成功数]
+        final Map<String, long[]> byDbType = new LinkedHashMap<>();
+        // systemName -> [总数, 成功数, 超阈值数]
+        final Map<String, long[]> bySystem = new LinkedHashMap<>();
+        // [系统名称, 指标名称, 指标值, 风险级别, 节点IP]
+        final List<String[]> risks = new ArrayList<>();
+
+        static SummaryStats of(List<MetricResult> results) {
+            SummaryStats stats = new SummaryStats();
+            results.forEach(stats::add);
+            return stats;
         }
-    }
 
-    private ThresholdSpec findThresholdSpec(String dbType, String metricName, String metricDescription) {
-        if (dbType == null) return null;
-        String key = dbTypeKey(dbType);
-        Map<String, ThresholdSpec> byMetric = thresholdsCache.get(key);
-        if (byMetric == null) return null;
-        if (metricName != null) {
-            ThresholdSpec s = byMetric.get(normKey(metricName));
-            if (s != null) return s;
-        }
-        if (metricDescription != null) {
-            return byMetric.get(normKey(metricDescription));
+        void add(MetricResult r) {
+            total++;
+            boolean exceeded = r.getThresholdLevel() != null;
+            if (r.isSuccess()) success++;
+            if (exceeded) thresholdExceeded++;
+            if (executeTime == null && r.getExecuteTime() != null) {
+                executeTime = r.getExecuteTime().format(TIME_FORMATTER);
+            }
+
+            long[] db = byDbType.computeIfAbsent(r.getDbType(), k -> new long[2]);
+            db[0]++;
+            if (r.isSuccess()) db[1]++;
+
+            long[] sys = bySystem.computeIfAbsent(r.getSystemName(), k -> new long[3]);
+            sys[0]++;
+            if (r.isSuccess()) sys[1]++;
+            if (exceeded) sys[2]++;
+
+            if (exceeded) {
+                risks.add(new String[]{r.getSystemName(), r.getMetricName(),
+                        r.getValue() != null ? r.getValue().toString() : "N/A", r.getThresholdLevel(), r.getNodeIp()});
+            }
         }
-        return null;
     }
 
-    private Map<String, Map<String, ThresholdSpec>> loadThresholdsFromDir(String metricsDir) throws IOException {
-        Map<String, Map<String, ThresholdSpec>> result = new HashMap<>();
-        Path dir = Paths.get(metricsDir);
-        if (!Files.exists(dir) || !Files.isDirectory(dir)) {
-            logger.warn("阈值加载：指标目录不存在或不是目录: {}", metricsDir);
-            return result;
+    /**
+     * 流式工作簿接收器（SXSSF）
+     * - 多值指标：首个结果到达时建表，之后逐条追加行，超出行窗口的数据刷写到临时文件，结果随即释放
+     * - 单值指标：每节点一行且需合并各指标列，暂存后在 complete 时成表
+     * - 摘要：逐条累加计数，complete 时写入并置为首个工作表，其余工作表按数据库类型整理顺序
+     */
+    private class StreamingWorkbookSink implements MetricResultSink {
+        private final java.nio.file.Path filePath;
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(STREAMING_ROW_WINDOW);
+        private final CellStyle headerStyle = createHeaderStyle(workbook);
+        private final CellStyle normalStyle = createNormalStyle(workbook);
+        private final CellStyle highRiskStyle = createHighRiskStyle(workbook);
+        private final CellStyle mediumRiskStyle = createMediumRiskStyle(workbook);
+        private final SummaryStats summary = new SummaryStats();
+        // dbType -> 单值指标结果（仅成功项）
+        private final Map<String, List<MetricResult>> singleByDbType = new LinkedHashMap<>();
+        // dbType -> (metricName -> 多值工作表写入状态)
+        private final Map<String, Map<String, MultiSheetState>> multiByDbType = new LinkedHashMap<>();
+        private Exception failure;
+        // 已开始写出报告文件（此前同名文件可能是之前的完整报告，不能删除）
+        private boolean outputStarted;
+        // 工作簿已释放（complete 结束或 abort 后）
+        private boolean released;
+
+        StreamingWorkbookSink(java.nio.file.Path filePath) {
+            this.filePath = filePath;
         }
 
-        File[] files = dir.toFile().listFiles((d, name) -> name.endsWith("-metrics.yml") || name.endsWith("-metrics.yaml"));
-        if (files == null) return result;
-
-        for (File f : files) {
-            String type = inferDbTypeFromFilename(f.getName());
-            String dbKey = dbTypeKey(type);
-            result.computeIfAbsent(dbKey, k -> new HashMap<>());
-
-            try (InputStream is = Files.newInputStream(f.toPath())) {
-                Yaml yaml = new Yaml();
-                Object data = yaml.load(is);
-                if (data == null) continue;
-
-                List<Map<String, Object>> metricsList = new ArrayList<>();
-                if (data instanceof Map) {
-                    Object metricsObj = ((Map<?, ?>) data).get("metrics");
-                    if (metricsObj instanceof List) {
-                        //noinspection unchecked
-                        metricsList.addAll((List<Map<String, Object>>) metricsObj);
+        @Override
+        public synchronized void accept(MetricResult result) {
+            if (result == null || failure != null || released) {
+                return;
+            }
+            try {
+                summary.add(result);
+                if (result.getDbType() == null || !result.isSuccess()) {
+                    return;
+                }
+                String dbType = result.getDbType().toUpperCase();
+                singleByDbType.computeIfAbsent(dbType, k -> new ArrayList<>());
+                Map<String, MultiSheetState> multiSheets = multiByDbType.computeIfAbsent(dbType, k -> new LinkedHashMap<>());
+
+                if ("SINGLE".equals(result.getMetricType())) {
+                    singleByDbType.get(dbType).add(result);
+                } else if ("MULTI".equals(result.getMetricType())) {
+                    MultiSheetState state = multiSheets.get(result.getMetricName());
+                    if (state == null) {
+                        state = new MultiSheetState(result.getMetricDescription(), resolveColumns(result));
+                        state.sheet = new PoiSheetTarget(workbook.createSheet(multiValueSheetName(dbType, state.description)));
+                        writeMultiValueHeader(state.sheet, state.columnNames, headerStyle);
+                        multiSheets.put(result.getMetricName(), state);
                     }
-                } else if (data instanceof List) {
-                    //noinspection unchecked
-                    metricsList.addAll((List<Map<String, Object>>) data);
+                    state.nextRow = appendMultiValueRows(state.sheet, state.nextRow, dbType, result.getMetricName(),
+                            state.description, state.columnNames, result, normalStyle, highRiskStyle, mediumRiskStyle);
+                }
+            } catch (Exception e) {
+                failure = e;
+                logger.error("流式写入Excel失败: {}", e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public synchronized void complete() throws IOException {
+            if (released) {
+                throw new IOException("Excel报告接收器已释放: " + filePath);
+            }
+            boolean written = false;
+            try {
+                if (failure != null) {
+                    throw new IOException("流式写入Excel失败: " + failure.getMessage(), failure);
                 }
 
-                for (Map<String, Object> m : metricsList) {
-                    String name = asString(m.get("name"));
-                    String desc = asString(m.get("description"));
-                    Object thrObj = m.get("threshold");
-                    if (!(thrObj instanceof Map)) continue;
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> thr = (Map<String, Object>) thrObj;
-
-                    ThresholdSpec spec = new ThresholdSpec();
-                    Object rulesObj = thr.get("rules");
-                    if (rulesObj instanceof List) {
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> rulesList = (List<Map<String, Object>>) rulesObj;
-                        for (Map<String, Object> r : rulesList) {
-                            ThresholdSpec.Rule rule = new ThresholdSpec.Rule();
-                            rule.level = asString(r.get("level"));
-                            rule.operator = asString(r.get("operator"));
-                            rule.value = r.get("value");
-                            String ruleColumn = asString(r.get("column"));
-                            rule.column = (ruleColumn != null) ? ruleColumn : asString(thr.get("column")); // 继承父级column
-                            spec.rules.add(rule);
-                        }
-                    } else {
-                        // 兼容旧写法：单阈值或 value 为 Map、column+value
-                        spec.level = asString(thr.get("level"));
-                        spec.operator = asString(thr.get("operator"));
-                        spec.column = asString(thr.get("column"));
-                        spec.value = thr.get("value");
+                Function<String, ExcelSheetTarget<CellStyle>> openSheet = poiSheets(workbook);
+                createSummarySheet(openSheet.apply(SUMMARY_SHEET_NAME), summary, createSummaryHeaderStyle(workbook),
+                        createSummaryStyle(workbook), highRiskStyle, mediumRiskStyle, workbook.createCellStyle());
+                workbook.setSheetOrder(SUMMARY_SHEET_NAME, 0);
+
+                int position = 1;
+                for (Map.Entry<String, List<MetricResult>> entry : singleByDbType.entrySet()) {
+                    String dbType = entry.getKey();
+                    createSingleValueSheet(openSheet, dbType, entry.getValue(), headerStyle, normalStyle, highRiskStyle, mediumRiskStyle,
+                            Runnable::run);
+                    if (workbook.getSheet(dbType) != null) {
+                        workbook.setSheetOrder(dbType, position++);
+                    }
+                    for (MultiSheetState state : multiByDbType.get(dbType).values()) {
+                        state.sheet.finish(state.columnNames.size() + 4);
+                        workbook.setSheetOrder(state.sheet.sheet.getSheetName(), position++);
                     }
+                }
+                workbook.setActiveSheet(0);
 
-                    // 指标名与描述都建立映射（规避名称/描述二选一的情况）
-                    if (name != null) result.get(dbKey).put(normKey(name), spec);
-                    if (desc != null) result.get(dbKey).put(normKey(desc), spec);
+                outputStarted = true;
+                try (FileOutputStream fos = new FileOutputStream(filePath.toFile())) {
+                    workbook.write(fos);
                 }
-            } catch (Exception ex) {
-                logger.warn("解析指标阈值文件失败：{}，原因：{}", f.getName(), ex.getMessage());
+                written = true;
+                logger.info("Excel报告生成完成（流式）: {}，结果数: {}", filePath.toString(), summary.total);
+            } finally {
+                release(!written);
             }
         }
 
-        return result;
-    }
-
-    private String asString(Object o) {
-        return o == null ? null : String.valueOf(o);
-    }
+        @Override
+        public synchronized void abort() {
+            if (!released) {
+                logger.info("放弃流式Excel报告: {}", filePath);
+                release(true);
+            }
+        }
 
-    private String dbTypeKey(String type) {
-        if (type == null) return "unknown";
-        String t = type.toLowerCase(Locale.ROOT).trim();
-        switch (t) {
-            case "pg":
-            case "postgres":
-            case "postgresql":
-                return "postgresql";
-            case "dameng":
-            case "dm":
-                return "dm";
-            case "oracle":
-            case "mysql":
-                return t;
-            default:
-                return t;
+        /**
+         * 释放工作簿及其临时文件；incomplete 时删除已部分写出的报告文件
+         */
+        private void release(boolean incomplete) {
+            released = true;
+            workbook.dispose();
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                logger.warn("关闭流式工作簿失败: {}", e.getMessage());
+            }
+            if (incomplete && outputStarted) {
+                try {
+                    Files.deleteIfExists(filePath);
+                } catch (IOException e) {
+                    logger.warn("删除未完成的Excel报告失败: {} - {}", filePath, e.getMessage());
+                }
+            }
         }
-    }
 
-    private String inferDbTypeFromFilename(String filename) {
-        String low = filename.toLowerCase(Locale.ROOT);
-        if (low.startsWith("oracle-")) return "oracle";
-        if (low.startsWith("mysql-")) return "mysql";
-        if (low.startsWith("pg-") || low.startsWith("postgresql-")) return "postgresql";
-        if (low.startsWith("dm-") || low.startsWith("dameng-")) return "dm";
-        return "unknown";
+        /**
+         * 流式模式下列名只能由首个结果决定：优先 columns 定义，否则取该结果数据行中出现的 key
+         */
+        private List<String> resolveColumns(MetricResult result) {
+            if (result.getColumns() != null && !result.getColumns().isEmpty()) {
+                return new ArrayList<>(result.getColumns());
+            }
+            LinkedHashSet<String> set = new LinkedHashSet<>();
+            if (result.getMultiValues() != null) {
+                for (Map<String, Object> row : result.getMultiValues()) {
+                    set.addAll(row.keySet());
+                }
+            }
+            return new ArrayList<>(set);
+        }
     }
 
-    private String normKey(String s) {
-        if (s == null) return "";
-        String normalized = s.toLowerCase(Locale.ROOT);
-        // 保留所有字母与数字（包含中文等 Unicode 字符），仅移除空白与标点等非字母数字字符
-        normalized = normalized.replaceAll("[^\\p{L}\\p{N}]", "");
-        return normalized;
-    }
+    private static class MultiSheetState {
+        final String description;
+        final List<String> columnNames;
+        PoiSheetTarget sheet;
+        int nextRow = 1;
 
-    private Double parseNumber(Object v) {
-        if (v == null) return null;
-        try {
-            String s = v.toString().trim();
-            // 移除末尾%与千分位逗号等
-            s = s.replace("%", "").replace(",", "");
-            return Double.parseDouble(s);
-        } catch (Exception ignore) {
-            return null;
+        MultiSheetState(String description, List<String> columnNames) {
+            this.description = description;
+            this.columnNames = columnNames;
         }
     }
 
-    private boolean compare(double v, String op, double th) {
-        String o = (op == null) ? ">" : op.trim();
-        switch (o) {
-            case ">":
-                return v > th;
-            case ">=":
-                return v >= th;
-            case "<":
-                return v < th;
-            case "<=":
-                return v <= th;
-            case "==":
-            case "=":
-                return v == th;
-            case "!=":
-                return v != th;
-            default:
-                // 未知操作符按 ">" 处理
-                return v > th;
-        }
-    }
+    /* ========================== 阈值加载与比较 ========================== */
 
-    private CellStyle chooseStyleByLevel(String level, CellStyle high, CellStyle medium, CellStyle normal) {
-        if (level == null) return high; // 未指定时倾向高亮
-        String lv = level.toLowerCase(Locale.ROOT);
-        if ("high".equals(lv)) return high;
-        if ("medium".equals(lv)) return medium;
-        return high; // 其他值默认按 high
+    private void ensureThresholdsLoaded(String metricsDir) {
+        if (thresholdsLoaded) return;
+        thresholdEngine = ThresholdEngine.forMetricsDir(metricsDir);
+        thresholdsLoaded = true;
+        logger.info("已加载阈值配置条目（按库类型/指标映射）: {}", thresholdEngine.size());
     }
 
-    /* ========================== 内部阈值结构 ========================== */
-    private static class ThresholdSpec {
-        String level;      // 兼容旧写法：单阈值的级别
-        String operator;   // 兼容旧写法：单阈值操作符
-        Object value;      // 兼容旧写法：数字或 Map[column->数字]
-        String column;     // 兼容旧写法：仅对某列生效
-        List<Rule> rules = new ArrayList<>(); // 新写法：多级阈值规则列表
-
-        static class Rule {
-            String level;    // high/medium/low
-            String operator; // >, >=, <, <=, ==, !=
-            Object value;    // 数值或可解析为数值的字符串（支持百分号）
-            String column;   // 可选；为空则依赖父级 column 或仅用于单值
-        }
+    private <S> S styleFor(ThresholdEngine.Rule hit, S high, S medium, S normal) {
+        if (hit == null) return normal;
+        return hit.getSeverity() == ThresholdEngine.Level.MEDIUM ? medium : high;
     }
-}
\ No newline at end of file
+}
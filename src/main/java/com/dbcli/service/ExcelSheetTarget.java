@@ -0,0 +1,24 @@
+package com.dbcli.service;
+
+/**
+ * 工作表写入目标
+ * - 布局代码按行号递增、行内按列号递增写入单元格，POI 工作表与原生 OOXML 写出器共用同一套布局
+ * - S 为样式类型：POI 为 CellStyle，原生写出器为样式表中的序号
+ */
+interface ExcelSheetTarget<S> {
+
+    /**
+     * 写入单元格，value 为 null 或空串时写入仅带样式的空单元格
+     */
+    void cell(int row, int column, String value, S style);
+
+    /**
+     * 写入跨 [firstColumn, lastColumn] 的合并单元格（不参与列宽估算）
+     */
+    void mergedCell(int row, int firstColumn, int lastColumn, String value, S style);
+
+    /**
+     * 写完工作表：按估算宽度设置前 columnCount 列的列宽
+     */
+    void finish(int columnCount);
+}
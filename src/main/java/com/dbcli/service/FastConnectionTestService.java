@@ -26,11 +26,19 @@ public class FastConnectionTestService {
     private static final java.time.format.DateTimeFormatter TS_FMT =
             java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final long CACHE_EXPIRY_MS = 5 * 60 * 1000; // 5分钟缓存
+    // 预检查缓存默认值：成功 90 分钟内有效（覆盖每小时一次的定时任务）；失败 5 分钟起指数退避，最长 4 小时
+    public static final long DEFAULT_SUCCESS_TTL_MS = 90L * 60 * 1000;
+    public static final long DEFAULT_FAILURE_TTL_MS = 5L * 60 * 1000;
+    public static final long DEFAULT_MAX_BACKOFF_MS = 4L * 60 * 60 * 1000;
 
     private final ConnectionFactory connectionFactory;
     private final ExecutorService executor;
     private final Set<String> failedEncryptedHosts = ConcurrentHashMap.newKeySet();
     private final ConcurrentMap<String, CacheEntry> greyList = new ConcurrentHashMap<>();
+    private long successTtlMs = DEFAULT_SUCCESS_TTL_MS;
+    private long failureTtlMs = DEFAULT_FAILURE_TTL_MS;
+    private Path probeCacheFile = Paths.get(CACHE_FILE);
+    private boolean warmUpPool = false;
 
     public FastConnectionTestService(ConnectionFactory connectionFactory) {
         this(connectionFactory, 10);
@@ -315,12 +323,46 @@ public class FastConnectionTestService {
         return new HashSet<>(failedEncryptedHosts);
     }
     
+    /**
+     * 配置连通性缓存的有效期：成功结果的 TTL 与失败退避的起始时长
+     */
+    public void configureProbeCache(long successTtlMs, long failureTtlMs) {
+        this.successTtlMs = successTtlMs;
+        this.failureTtlMs = failureTtlMs;
+    }
+
+    /**
+     * 预热模式：通过执行阶段共用的连接池探测，成功的节点留下一个已校验的空闲连接
+     */
+    public void setWarmUpPool(boolean warmUpPool) {
+        this.warmUpPool = warmUpPool;
+    }
+
+    void setProbeCacheFile(Path probeCacheFile) {
+        this.probeCacheFile = probeCacheFile;
+    }
+
     public boolean testConnectionsWithNames(Map<String, Map<String, DatabaseConfig>> namedConfigs) {
+        return testConnectionsWithNames(namedConfigs, false);
+    }
+
+    /**
+     * 带名称的连接测试
+     * @param useCache 为 true 时跳过近期验证成功的节点，并对持续失败且处于退避期的节点直接按失败处理；
+     *                 无论是否启用，实际探测的结果都会写入持久化缓存
+     */
+    public boolean testConnectionsWithNames(Map<String, Map<String, DatabaseConfig>> namedConfigs, boolean useCache) {
         logger.info("开始带名称的数据库连接测试...");
         LogManager.setOperation("connection_test");
         failedEncryptedHosts.clear();
 
+        ConnectionProbeCache probeCache = new ConnectionProbeCache(probeCacheFile, successTtlMs, failureTtlMs,
+                Math.max(failureTtlMs, DEFAULT_MAX_BACKOFF_MS));
+        probeCache.load();
+        long startedAt = System.currentTimeMillis();
+
         List<Future<Boolean>> futures = new ArrayList<>();
+        List<ConnectionProbeCache.Decision> decisions = new ArrayList<>();
         List<String> systems = new ArrayList<>();
         List<String> dbTypes = new ArrayList<>();
         List<DatabaseConfig> cfgs = new ArrayList<>();
@@ -339,18 +381,25 @@ public class FastConnectionTestService {
                     continue;
                 }
 
+                List<DatabaseNode> targets = new ArrayList<>();
                 if (cfg.getNodes() != null && !cfg.getNodes().isEmpty()) {
                     for (DatabaseNode n : cfg.getNodes()) {
-                        DatabaseNode testNode = (n != null ? n : createDefaultNode(cfg));
-                        futures.add(executor.submit(() -> connectionFactory.testConnection(systemName, testNode, cfg, dbTypeNorm)));
-                        systems.add(systemName);
-                        dbTypes.add(dbTypeNorm);
-                        cfgs.add(cfg);
-                        nodes.add(testNode);
+                        targets.add(n != null ? n : createDefaultNode(cfg));
                     }
                 } else {
-                    DatabaseNode testNode = createDefaultNode(cfg);
-                    futures.add(executor.submit(() -> connectionFactory.testConnection(systemName, testNode, cfg, dbTypeNorm)));
+                    targets.add(createDefaultNode(cfg));
+                }
+
+                for (DatabaseNode testNode : targets) {
+                    ConnectionProbeCache.Decision decision = useCache
+                            ? probeCache.check(probeKey(dbTypeNorm, cfg, testNode), startedAt)
+                            : ConnectionProbeCache.Decision.PROBE;
+                    futures.add(decision == ConnectionProbeCache.Decision.PROBE
+                            ? executor.submit(() -> warmUpPool
+                                    ? connectionFactory.warmUpConnection(systemName, testNode, cfg, dbTypeNorm)
+                                    : connectionFactory.testConnection(systemName, testNode, cfg, dbTypeNorm))
+                            : null);
+                    decisions.add(decision);
                     systems.add(systemName);
                     dbTypes.add(dbTypeNorm);
                     cfgs.add(cfg);
@@ -360,7 +409,7 @@ public class FastConnectionTestService {
         }
 
         int total = futures.size();
-        int ok = 0, fail = 0;
+        int ok = 0, fail = 0, cached = 0;
         // 去重集合：错误清单键(system|maskedJdbc) 与 黑名单密文
         Set<String> errKeys = java.util.Collections.newSetFromMap(new ConcurrentHashMap<>());
         Set<String> encIds = java.util.Collections.newSetFromMap(new ConcurrentHashMap<>());
@@ -375,19 +424,32 @@ public class FastConnectionTestService {
             String jdbc = connectionFactory.buildConnectionString(dbType, cfg, node);
             String maskedJdbc = DataMaskUtil.maskJdbcUrl(jdbc);
 
+            String cacheKey = probeKey(dbType, cfg, node);
             boolean success = false;
-            try {
-                success = f.get(15, TimeUnit.SECONDS);
-            } catch (Exception ex) {
-                success = false;
-                logger.debug("连接测试任务异常 [{}-{}]: {}", system, node != null ? node.getHost() : "unknown", ex.getMessage());
+            boolean fromCache = (f == null);
+            if (fromCache) {
+                cached++;
+                success = decisions.get(i) == ConnectionProbeCache.Decision.CACHED_SUCCESS;
+            } else {
+                try {
+                    success = f.get(15, TimeUnit.SECONDS);
+                } catch (Exception ex) {
+                    success = false;
+                    logger.debug("连接测试任务异常 [{}-{}]: {}", system, node != null ? node.getHost() : "unknown", ex.getMessage());
+                }
+                long now = System.currentTimeMillis();
+                if (success) {
+                    probeCache.recordSuccess(cacheKey, now);
+                } else {
+                    probeCache.recordFailure(cacheKey, now);
+                }
             }
 
             if (success) {
                 ok++;
                 LogManager.setDbContext(dbType, system, null);
                 try {
-                    logger.info("✓ {} [{}]", maskedJdbc, system);
+                    logger.info("✓ {}{} [{}]", fromCache ? "[缓存] " : "", maskedJdbc, system);
                 } finally {
                     LogManager.clearDbContext();
                 }
@@ -395,7 +457,13 @@ public class FastConnectionTestService {
                 fail++;
                 LogManager.setDbContext(dbType, system, null);
                 try {
-                    logger.warn("✗ {} [{}]", maskedJdbc, system);
+                    if (fromCache) {
+                        logger.warn("✗ [缓存] {} [{}] 连续失败 {} 次，{} 前不再探测", maskedJdbc, system,
+                                probeCache.getConsecutiveFailures(cacheKey),
+                                new java.sql.Timestamp(probeCache.getNextProbeAt(cacheKey)).toLocalDateTime().format(TS_FMT));
+                    } else {
+                        logger.warn("✗ {} [{}]", maskedJdbc, system);
+                    }
                 } finally {
                     LogManager.clearDbContext();
                 }
@@ -416,12 +484,16 @@ public class FastConnectionTestService {
 
         // 持久化失败清单与黑名单（去重追加）
         persistErrorAndBlacklist(errKeys, encIds);
+        probeCache.save();
 
         double rate = total > 0 ? (ok * 100.0 / total) : 0.0;
         logger.info("=== 数据库连接测试完成 ===");
         logger.info("总连接数: {}", total);
         logger.info("成功连接: {}", ok);
         logger.info("失败连接: {}", fail);
+        if (useCache) {
+            logger.info("命中缓存（未探测）: {}", cached);
+        }
         logger.info("成功率: {}%", String.format("%.1f", rate));
         if (fail > 0) {
             logger.warn("发现 {} 个连接失败，详情请查看: {}", fail, ERROR_FILE);
@@ -430,6 +502,17 @@ public class FastConnectionTestService {
         return fail == 0;
     }
 
+    /**
+     * 连通性缓存键：与黑名单一致的确定性加密标识（dbType|jdbc）
+     */
+    private String probeKey(String dbType, DatabaseConfig cfg, DatabaseNode node) {
+        try {
+            return EncryptionUtil.encryptDeterministic(dbType + "|" + connectionFactory.buildConnectionString(dbType, cfg, node));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private void persistErrorAndBlacklist(Set<String> errorKeys, Set<String> encIds) {
         try {
             // 确保目录存在
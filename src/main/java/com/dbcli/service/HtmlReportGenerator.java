@@ -3,12 +3,9 @@ package com.dbcli.service;
 import com.dbcli.model.MetricResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.yaml.snakeyaml.Yaml;
 
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -22,8 +19,8 @@ import java.util.*;
 public class HtmlReportGenerator implements ReportGeneratorInterface {
     private static final Logger logger = LoggerFactory.getLogger(HtmlReportGenerator.class);
 
-    // 阈值缓存：dbType -> (metricName/description -> 阈值定义)
-    private Map<String, Map<String, ThresholdSpec>> thresholdsCache = new HashMap<>();
+    // 编译后的指标阈值（同一指标目录在各报告生成器间共享）
+    private ThresholdEngine thresholdEngine = ThresholdEngine.empty();
     private boolean thresholdsLoaded = false;
 
     public void generate(List<MetricResult> results, String outputPath, String metricsPath) throws IOException {
@@ -76,11 +73,10 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
             }
 
             // 生成单文件（标签页）报告：每个“单值/多值工作表”作为一个 HTML Sheet
-            String indexHtml = renderTabbedReport(singleByType, multiGrouped);
             try (java.io.BufferedWriter writer = java.nio.file.Files.newBufferedWriter(
                     java.nio.file.Paths.get(indexPath),
                     java.nio.charset.StandardCharsets.UTF_8)) {
-                writer.write(indexHtml);
+                renderTabbedReport(singleByType, multiGrouped, writer);
             }
             logger.info("HTML标签页报告生成完成: {}", indexPath);
         } catch (Exception e) {
@@ -762,7 +758,7 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
             String descWithVal = (r.getMetricDescription() != null ? r.getMetricDescription() : (r.getMetricName() != null ? r.getMetricName() : "未命名指标"))
                     + "：" + (displayVal != null ? displayVal.toString() : "");
 
-            String execTime = formatTime(r.getExecuteTime(), fmt);
+            String execTime = formatExecuteTime(Collections.singletonList(r), fmt);
             html.append("<tr>")
                     .append("<td>").append(escapeHtml(nullToEmpty(r.getSystemName()))).append("</td>")
                     .append("<td>").append(escapeHtml(nullToEmpty(r.getDatabaseName()))).append("</td>")
@@ -865,7 +861,7 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
 
             String execTime = "";
             if (!grp.isEmpty()) {
-                execTime = formatTime(grp.get(0).getExecuteTime(), fmt);
+                execTime = formatExecuteTime(grp, fmt);
             }
 
             html.append("<tr>")
@@ -949,7 +945,7 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
             if ((rows == null || rows.isEmpty()) && r.getRows() != null) rows = r.getRows();
             if (rows == null || rows.isEmpty()) continue;
 
-            String execTime = formatTime(r.getExecuteTime(), fmt);
+            String execTime = formatExecuteTime(Collections.singletonList(r), fmt);
 
             for (java.util.Map<String, Object> row : rows) {
                 html.append("<tr>")
@@ -980,9 +976,10 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
     }
 
     // 生成单文件标签页报告：每个“单值/多值工作表”为一个 Sheet
-    private String renderTabbedReport(Map<String, List<MetricResult>> singleByType,
-                                      Map<String, Map<String, List<MetricResult>>> multiGrouped) {
-        StringBuilder html = new StringBuilder();
+    // 各片段直接写入 out，不在内存中拼装整页，报告规模再大堆占用也保持稳定
+    void renderTabbedReport(Map<String, List<MetricResult>> singleByType,
+                            Map<String, Map<String, List<MetricResult>>> multiGrouped,
+                            Appendable html) throws IOException {
         html.append("<!DOCTYPE html>\n<html lang=\"zh-CN\">\n<head>\n<meta charset=\"UTF-8\">\n")
                 .append("<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n")
                 .append("<title>数据库指标报告</title>\n<style>\n")
@@ -994,10 +991,14 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
         html.append("<div class=\"header\"><h1>数据库指标报告</h1>")
                 .append("<div class=\"subtitle\">生成时间: ").append(escapeHtml(ts)).append("</div></div>\n");
 
-        // 组装 Sheet 元数据：id、标题与内容
+        // 组装 Sheet 元数据：id、标题与内容渲染器（内容在写出时才生成）
+        interface SheetWriter {
+            void writeTo(Appendable out) throws IOException;
+        }
         class SheetDef {
-            String id, title, content;
-            SheetDef(String id, String title, String content) { this.id = id; this.title = title; this.content = content; }
+            String id, title;
+            SheetWriter content;
+            SheetDef(String id, String title, SheetWriter content) { this.id = id; this.title = title; this.content = content; }
         }
         java.util.List<SheetDef> sheets = new java.util.ArrayList<>();
 
@@ -1007,8 +1008,8 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
         for (String type : singleTypes) {
             String id = "sheet-single-" + safeFileName(type);
             String title = type;
-            String content = buildSingleTableSectionForType(type, singleByType.get(type));
-            sheets.add(new SheetDef(id, title, content));
+            java.util.List<MetricResult> typeResults = singleByType.get(type);
+            sheets.add(new SheetDef(id, title, out -> buildSingleTableSectionForType(type, typeResults, out)));
         }
 
         // 多值：每个“类型-指标描述”一个 Sheet（标题同 Excel 工作表名）
@@ -1021,8 +1022,8 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
             for (String desc : descs) {
                 String id = "sheet-multi-" + safeFileName(type + "-" + desc);
                 String title = type + "-" + desc;
-                String content = buildMultiMetricSection(type, desc, m.get(desc));
-                sheets.add(new SheetDef(id, title, content));
+                java.util.List<MetricResult> group = m.get(desc);
+                sheets.add(new SheetDef(id, title, out -> buildMultiMetricSection(type, desc, group, out)));
             }
         }
 
@@ -1036,9 +1037,9 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
 
         // 内容区域
         for (SheetDef s : sheets) {
-            html.append("<div id=\"").append(escapeHtml(s.id)).append("\" class=\"sheet\">\n")
-                    .append(s.content)
-                    .append("\n</div>\n");
+            html.append("<div id=\"").append(escapeHtml(s.id)).append("\" class=\"sheet\">\n");
+            s.content.writeTo(html);
+            html.append("\n</div>\n");
         }
 
         // 脚本（切换标签）
@@ -1057,12 +1058,11 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
                 .append("});\n")
                 .append("</script>\n")
                 .append("</body>\n</html>\n");
-
-        return html.toString();
     }
 
     // 构建单值工作表片段（与 Excel 单值工作表一致：系统名称、数据库名称、节点IP、按列聚合的单值指标列、执行时间）
-    private String buildSingleTableSectionForType(String dbType, java.util.List<MetricResult> results) {
+    private void buildSingleTableSectionForType(String dbType, java.util.List<MetricResult> results,
+                                                Appendable sb) throws IOException {
         String t = dbTypeKey(dbType);
         // 仅保留该类型且成功的 SINGLE 结果
         java.util.List<MetricResult> list = new java.util.ArrayList<>();
@@ -1074,7 +1074,6 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
             list.add(r);
         }
 
-        StringBuilder sb = new StringBuilder();
         sb.append("<div class=\"section\"><div class=\"section-header\"><h2>")
           .append(escapeHtml(t)).append("</h2></div>\n<div class=\"section-content\">\n")
           .append("<table class=\"metric-table\"><thead><tr>")
@@ -1154,7 +1153,7 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
                 }
             }
 
-            String execTime = grp.isEmpty() ? "" : formatTime(grp.get(0).getExecuteTime(), fmt);
+            String execTime = grp.isEmpty() ? "" : formatExecuteTime(grp, fmt);
 
             sb.append("<tr>")
               .append("<td>").append(escapeHtml(sysName)).append("</td>")
@@ -1177,12 +1176,11 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
         }
 
         sb.append("</tbody></table>\n</div></div>");
-        return sb.toString();
     }
 
     // 构建多值工作表片段（与 Excel 多值工作表一致）
-    private String buildMultiMetricSection(String dbType, String metricDesc, java.util.List<MetricResult> group) {
-        StringBuilder sb = new StringBuilder();
+    private void buildMultiMetricSection(String dbType, String metricDesc, java.util.List<MetricResult> group,
+                                         Appendable sb) throws IOException {
         sb.append("<div class=\"section\"><div class=\"section-header\"><h2>")
                 .append(escapeHtml(dbType)).append("-").append(escapeHtml(metricDesc))
                 .append("</h2></div>\n<div class=\"section-content\">\n")
@@ -1220,7 +1218,7 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
             if ((rows == null || rows.isEmpty()) && r.getRows() != null) rows = r.getRows();
             if (rows == null || rows.isEmpty()) continue;
 
-            String execTime = formatTime(r.getExecuteTime(), fmt);
+            String execTime = formatExecuteTime(Collections.singletonList(r), fmt);
             for (java.util.Map<String, Object> row : rows) {
                 sb.append("<tr>")
                   .append("<td>").append(escapeHtml(nullToEmpty(r.getSystemName()))).append("</td>")
@@ -1241,7 +1239,6 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
         }
 
         sb.append("</tbody></table>\n</div></div>");
-        return sb.toString();
     }
 
     private String safeFileName(String s) {
@@ -1251,6 +1248,29 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
         return name;
     }
 
+    /**
+     * 执行时间列：优先取本次实际采集的结果时间；复用缓存的结果显示原采集时间并标注
+     */
+    private String formatExecuteTime(List<MetricResult> results, java.time.format.DateTimeFormatter fmt) {
+        MetricResult shown = null;
+        int cached = 0;
+        for (MetricResult r : results) {
+            if (r.isCached()) {
+                cached++;
+            } else if (shown == null) {
+                shown = r;
+            }
+        }
+        if (shown == null && !results.isEmpty()) {
+            shown = results.get(0);
+        }
+        String time = shown != null ? formatTime(shown.getExecuteTime(), fmt) : "";
+        if (cached == 0) {
+            return time;
+        }
+        return time + (cached == results.size() ? "（缓存）" : "（部分缓存）");
+    }
+
     private String formatTime(java.time.LocalDateTime t, java.time.format.DateTimeFormatter fmt) {
         if (t == null) return "";
         try { return t.format(fmt); } catch (Exception e) { return ""; }
@@ -1357,7 +1377,7 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
 
                 String execTime = "";
                 if (!grp2.isEmpty()) {
-                    execTime = formatTime(grp2.get(0).getExecuteTime(), fmt);
+                    execTime = formatExecuteTime(grp2, fmt);
                 }
 
                 html.append("<tr>")
@@ -1399,195 +1419,36 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
 
     // 评估多值页面的某格单元风险等级，返回 risk-high / risk-medium / ""（无高亮）
     private String evalCellClass(String dbType, String metricName, String metricDesc, String column, Object value) {
-        if (column == null) return "";
-        ThresholdSpec spec = findThresholdSpec(dbType, metricName, metricDesc);
-        if (spec == null) return "";
-        String highest = null;
-
-        // 新写法：rules 优先（多值页需严格匹配列名；与 Excel 行为一致：命中第一条规则即返回）
-        if (spec.rules != null && !spec.rules.isEmpty()) {
-            for (ThresholdSpec.Rule r : spec.rules) {
-                String effCol = (r.column != null) ? r.column : spec.column;
-                // 多值列必须指定列名才生效；未指定列名的规则在多值表格中忽略（与 Excel 一致）
-                if (effCol == null) continue;
-                if (!normKey(effCol).equals(normKey(column))) continue;
-
-                Double v = parseNumber(value);
-                Double th = parseNumber(r.value);
-                if (v != null && th != null && compare(v, r.operator, th)) {
-                    String lvl = safeLevel(r.level);
-                    if ("high".equalsIgnoreCase(lvl)) return "risk-high";
-                    if ("medium".equalsIgnoreCase(lvl)) return "risk-medium";
-                    return "risk-high"; // 其他值默认视为 high（与 Excel 的 chooseStyleByLevel 一致）
-                }
-            }
-            // 无任何规则命中则不高亮
-            return "";
-        } else {
-            // 兼容旧写法：column + 单值 或按列 Map
-            if (spec.column != null) {
-                if (normKey(spec.column).equals(normKey(column))) {
-                    Double v = parseNumber(value);
-                    Double th = parseNumber(spec.value);
-                    if (v != null && th != null && compare(v, spec.operator, th)) {
-                        highest = maxLevel(highest, spec.level);
-                    }
-                }
-            } else if (spec.value instanceof java.util.Map) {
-                @SuppressWarnings("unchecked")
-                java.util.Map<Object, Object> map = (java.util.Map<Object, Object>) spec.value;
-                Object tv = findByKeyNormalized(map, column);
-                if (tv != null) {
-                    Double v = parseNumber(value);
-                    Double th = parseNumber(tv);
-                    if (v != null && th != null && compare(v, spec.operator, th)) {
-                        highest = maxLevel(highest, spec.level);
-                    }
-                }
-            }
-        }
-
-        if ("high".equalsIgnoreCase(highest)) return "risk-high";
-        if ("medium".equalsIgnoreCase(highest)) return "risk-medium";
-        return "";
+        ThresholdEngine.MetricThresholds thresholds = thresholdEngine.find(dbType, metricName, metricDesc);
+        // 多值列必须指定列名才生效；未指定列名的规则在多值表格中忽略（与 Excel 一致）
+        return thresholds != null ? classFor(thresholds.matchColumn(column, value)) : "";
     }
 
     // 计算单值指标单元格的高亮 CSS 类（与 Excel determineValueStyle 对齐）
     private String determineValueClass(String dbType, MetricResult result, Object value) {
-        ThresholdSpec spec = findThresholdSpec(dbType, result.getMetricName(), result.getMetricDescription());
-        if (spec == null) {
-            return "";
-        }
-
-        // 1) rules 优先：按顺序匹配，命中即返回对应级别类
-        if (spec.rules != null && !spec.rules.isEmpty()) {
-            Double v = parseNumber(value);
-            if (v != null) {
-                for (ThresholdSpec.Rule r : spec.rules) {
-                    Double th = parseNumber(r.value);
-                    if (th != null && compare(v, r.operator, th)) {
-                        return chooseClassByLevel(r.level);
-                    }
-                }
-            }
-            return "";
-        }
-
-        // 2) 兼容旧写法：仅标量阈值适用于单值
-        if (!(spec.value instanceof java.util.Map)) {
-            Double v = parseNumber(value);
-            Double th = parseNumber(spec.value);
-            if (v != null && th != null && compare(v, spec.operator, th)) {
-                return chooseClassByLevel(spec.level);
-            }
-        }
-        return "";
+        ThresholdEngine.MetricThresholds thresholds = thresholdEngine.find(dbType, result.getMetricName(),
+                result.getMetricDescription());
+        return thresholds != null ? classFor(thresholds.matchSingle(value)) : "";
     }
 
-    private String chooseClassByLevel(String level) {
-        if (level == null) return "risk-high";
-        String lv = level.toLowerCase(java.util.Locale.ROOT);
-        if ("high".equals(lv)) return "risk-high";
-        if ("medium".equals(lv)) return "risk-medium";
-        return "risk-high";
+    private String classFor(ThresholdEngine.Rule hit) {
+        if (hit == null) return "";
+        return hit.getSeverity() == ThresholdEngine.Level.MEDIUM ? "risk-medium" : "risk-high";
     }
 
     /* ========================== 阈值加载与评估（对齐 Excel） ========================== */
 
     private void ensureThresholdsLoaded(String metricsDir) {
         if (thresholdsLoaded) return;
-        try {
-            thresholdsCache = loadThresholdsFromDir(metricsDir);
-            thresholdsLoaded = true;
-            int total = thresholdsCache.values().stream().mapToInt(Map::size).sum();
-            logger.info("HTML 阈值映射加载完成，条目数: {}", total);
-        } catch (Exception e) {
-            logger.warn("加载 HTML 阈值映射失败，将回退执行层阈值: {}", e.getMessage());
-            thresholdsCache = new HashMap<>();
-        }
-    }
-
-    private Map<String, Map<String, ThresholdSpec>> loadThresholdsFromDir(String metricsDir) throws IOException {
-        Map<String, Map<String, ThresholdSpec>> result = new HashMap<>();
-        Path dir = Paths.get(metricsDir);
-        if (!Files.exists(dir) || !Files.isDirectory(dir)) {
-            logger.warn("阈值加载：指标目录不存在或不是目录: {}", metricsDir);
-            return result;
-        }
-
-        java.io.File[] files = dir.toFile().listFiles((d, name) -> name.endsWith("-metrics.yml") || name.endsWith("-metrics.yaml"));
-        if (files == null) return result;
-
-        for (java.io.File f : files) {
-            String type = inferDbTypeFromFilename(f.getName());
-            String dbKey = dbTypeKey(type);
-            result.computeIfAbsent(dbKey, k -> new HashMap<>());
-
-            try (InputStream is = Files.newInputStream(f.toPath())) {
-                Yaml yaml = new Yaml();
-                Object data = yaml.load(is);
-                if (data == null) continue;
-
-                List<Map<String, Object>> metricsList = new ArrayList<>();
-                if (data instanceof Map) {
-                    Object metricsObj = ((Map<?, ?>) data).get("metrics");
-                    if (metricsObj instanceof List) {
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> ml = (List<Map<String, Object>>) metricsObj;
-                        metricsList.addAll(ml);
-                    }
-                } else if (data instanceof List) {
-                    @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> ml = (List<Map<String, Object>>) data;
-                    metricsList.addAll(ml);
-                }
-
-                for (Map<String, Object> m : metricsList) {
-                    String name = asString(m.get("name"));
-                    String desc = asString(m.get("description"));
-                    Object thrObj = m.get("threshold");
-                    if (!(thrObj instanceof Map)) continue;
-
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> thr = (Map<String, Object>) thrObj;
-
-                    ThresholdSpec spec = new ThresholdSpec();
-                    Object rulesObj = thr.get("rules");
-                    if (rulesObj instanceof List) {
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> rulesList = (List<Map<String, Object>>) rulesObj;
-                        for (Map<String, Object> r : rulesList) {
-                            ThresholdSpec.Rule rule = new ThresholdSpec.Rule();
-                            rule.level = asString(r.get("level"));
-                            rule.operator = asString(r.get("operator"));
-                            rule.value = r.get("value");
-                            String ruleColumn = asString(r.get("column"));
-                            rule.column = (ruleColumn != null) ? ruleColumn : asString(thr.get("column")); // 继承父级column
-                            spec.rules.add(rule);
-                        }
-                    } else {
-                        // 兼容旧写法
-                        spec.level = asString(thr.get("level"));
-                        spec.operator = asString(thr.get("operator"));
-                        spec.column = asString(thr.get("column"));
-                        spec.value = thr.get("value");
-                    }
-
-                    if (name != null) result.get(dbKey).put(normKey(name), spec);
-                    if (desc != null) result.get(dbKey).put(normKey(desc), spec);
-                }
-            } catch (Exception ex) {
-                logger.warn("解析指标阈值文件失败：{}，原因：{}", f.getName(), ex.getMessage());
-            }
-        }
-
-        return result;
+        thresholdEngine = ThresholdEngine.forMetricsDir(metricsDir);
+        thresholdsLoaded = true;
+        logger.info("HTML 阈值映射加载完成，条目数: {}", thresholdEngine.size());
     }
 
     private String evaluateRiskLevel(MetricResult result) {
-        // 查找 spec
-        ThresholdSpec spec = findThresholdSpec(result.getDbType(), result.getMetricName(), result.getMetricDescription());
-        if (spec == null) {
+        ThresholdEngine.MetricThresholds thresholds = thresholdEngine.find(result.getDbType(), result.getMetricName(),
+                result.getMetricDescription());
+        if (thresholds == null) {
             // 回退执行层阈值
             String tl = result.getThresholdLevel();
             return tl != null ? tl.toLowerCase(Locale.ROOT) : null;
@@ -1599,83 +1460,13 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
             return null;
         }
 
-        // 优先按 rules（命中即返回该 rule 的 level；若多条命中，取最高等级：high > medium）
-        String highest = null;
-
-        if (spec.rules != null && !spec.rules.isEmpty()) {
-            // 逐行逐列检查
-            for (Map<String, Object> row : data) {
-                for (Map.Entry<String, Object> e : row.entrySet()) {
-                    String col = e.getKey();
-                    Object val = e.getValue();
-                    for (ThresholdSpec.Rule r : spec.rules) {
-                        String effCol = (r.column != null) ? r.column : spec.column;
-                        // 对单值指标（无列定义）也允许 rules 不带 column
-                        boolean columnMatch = (effCol == null) || normKey(effCol).equals(normKey(col));
-                        if (!columnMatch) continue;
-
-                        Double v = parseNumber(val);
-                        Double th = parseNumber(r.value);
-                        if (v != null && th != null && compare(v, r.operator, th)) {
-                            highest = maxLevel(highest, r.level);
-                            if ("high".equalsIgnoreCase(highest)) {
-                                return "high";
-                            }
-                        }
-                    }
-                }
-            }
-            return highest;
-        }
-
-        // 兼容旧写法：value 为 Map（逐列），或 column + 单值，或单阈值（仅单值适用）
-        // 逐列 Map
-        if (spec.value instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<Object, Object> map = (Map<Object, Object>) spec.value;
-            for (Map<String, Object> row : data) {
-                for (Map.Entry<String, Object> e : row.entrySet()) {
-                    String col = e.getKey();
-                    Object val = e.getValue();
-                    Object tv = findByKeyNormalized(map, col);
-                    if (tv == null) continue;
-
-                    Double v = parseNumber(val);
-                    Double th = parseNumber(tv);
-                    if (v != null && th != null && compare(v, spec.operator, th)) {
-                        highest = maxLevel(highest, spec.level);
-                        if ("high".equalsIgnoreCase(highest)) return "high";
-                    }
-                }
-            }
-            return highest;
-        }
-
-        // column + 单值
-        if (spec.column != null) {
-            for (Map<String, Object> row : data) {
-                Object val = row.get(spec.column);
-                if (val == null) continue;
-                Double v = parseNumber(val);
-                Double th = parseNumber(spec.value);
-                if (v != null && th != null && compare(v, spec.operator, th)) {
-                    highest = maxLevel(highest, spec.level);
-                    if ("high".equalsIgnoreCase(highest)) return "high";
-                }
-            }
-            return highest;
-        }
-
-        // 单值：取第一行第一列（或名为“值”的列）
-        Object single = tryExtractSingleValue(data);
-        if (single != null) {
-            Double v = parseNumber(single);
-            Double th = parseNumber(spec.value);
-            if (v != null && th != null && compare(v, spec.operator, th)) {
-                return safeLevel(spec.level);
-            }
+        // 逐行逐列取命中规则的最高等级（high > medium）；旧写法的单一阈值取第一行第一列（或名为“值”的列）
+        ThresholdEngine.Level highest = thresholds.highestLevel(data);
+        if (highest == null && thresholds.isScalar()) {
+            ThresholdEngine.Rule hit = thresholds.matchSingle(tryExtractSingleValue(data));
+            highest = hit != null ? hit.getSeverity() : null;
         }
-        return highest;
+        return highest != null ? highest.key() : null;
     }
 
     private List<Map<String, Object>> normalizeData(MetricResult result) {
@@ -1723,25 +1514,6 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
         return null;
     }
 
-    private ThresholdSpec findThresholdSpec(String dbType, String metricName, String metricDescription) {
-        if (dbType == null) return null;
-        String key = dbTypeKey(dbType);
-        Map<String, ThresholdSpec> byMetric = thresholdsCache.get(key);
-        if (byMetric == null) return null;
-        if (metricName != null) {
-            ThresholdSpec s = byMetric.get(normKey(metricName));
-            if (s != null) return s;
-        }
-        if (metricDescription != null) {
-            return byMetric.get(normKey(metricDescription));
-        }
-        return null;
-    }
-
-    private String asString(Object o) {
-        return o == null ? null : String.valueOf(o);
-    }
-
     private String dbTypeKey(String type) {
         if (type == null) return "unknown";
         String t = type.toLowerCase(Locale.ROOT).trim();
@@ -1761,97 +1533,6 @@ public class HtmlReportGenerator implements ReportGeneratorInterface {
         }
     }
 
-    private String inferDbTypeFromFilename(String filename) {
-        String low = filename.toLowerCase(Locale.ROOT);
-        if (low.startsWith("oracle-")) return "oracle";
-        if (low.startsWith("mysql-")) return "mysql";
-        if (low.startsWith("pg-") || low.startsWith("postgresql-")) return "postgresql";
-        if (low.startsWith("dm-") || low.startsWith("dameng-")) return "dm";
-        return "unknown";
-    }
-
-    private String normKey(String s) {
-        if (s == null) return "";
-        String normalized = s.toLowerCase(Locale.ROOT);
-        normalized = normalized.replaceAll("[^\\p{L}\\p{N}]", "");
-        return normalized;
-    }
-
-    private Double parseNumber(Object v) {
-        if (v == null) return null;
-        try {
-            String s = v.toString().trim();
-            s = s.replace("%", "").replace(",", "");
-            return Double.parseDouble(s);
-        } catch (Exception ignore) {
-            return null;
-        }
-    }
-
-    private boolean compare(double v, String op, double th) {
-        String o = (op == null) ? ">" : op.trim();
-        switch (o) {
-            case ">":
-                return v > th;
-            case ">=":
-                return v >= th;
-            case "<":
-                return v < th;
-            case "<=":
-                return v <= th;
-            case "==":
-            case "=":
-                return v == th;
-            case "!=":
-                return v != th;
-            default:
-                return v > th;
-        }
-    }
-
-    private String maxLevel(String a, String b) {
-        String la = safeLevel(a);
-        String lb = safeLevel(b);
-        if ("high".equals(la) || "high".equals(lb)) return "high";
-        if ("medium".equals(la) || "medium".equals(lb)) return "medium";
-        if (la != null) return la;
-        return lb;
-    }
-
-    private String safeLevel(String level) {
-        if (level == null) return "high";
-        String lv = level.toLowerCase(Locale.ROOT);
-        if ("high".equals(lv) || "medium".equals(lv)) return lv;
-        return "high";
-    }
-
-    /* ========================== 内部阈值结构 ========================== */
-    private static class ThresholdSpec {
-        String level;      // 兼容旧写法：单阈值的级别
-        String operator;   // 兼容旧写法：单阈值操作符
-        Object value;      // 兼容旧写法：数字或 Map[column->数字]
-        String column;     // 兼容旧写法：仅对某列生效
-        List<Rule> rules = new ArrayList<>(); // 新写法：多级阈值规则列表
-
-        static class Rule {
-            String level;    // high/medium/low
-            String operator; // >, >=, <, <=, ==, !=
-            Object value;    // 数值或可解析为数值的字符串（支持百分号）
-            String column;   // 可选；为空则依赖父级 column 或仅用于单值
-        }
-    }
-
-    private Object findByKeyNormalized(Map<Object, Object> map, String key) {
-        String k = normKey(key);
-        for (Map.Entry<Object, Object> e : map.entrySet()) {
-            if (e.getKey() == null) continue;
-            if (normKey(e.getKey().toString()).equals(k)) {
-                return e.getValue();
-            }
-        }
-        return null;
-    }
-
     @Override
     public void generateReport(List<MetricResult> results, String outputPath) throws Exception {
         generateReport(results, null, outputPath);
@@ -0,0 +1,433 @@
+package com.dbcli.service;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.util.WorkbookUtil;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 原生 OOXML 写出器
+ * - 不构建 POI 对象模型，直接写出 xlsx 的各个 zip 部件：工作表 XML、样式表、内联字符串（不使用共享字符串表）
+ * - 样式表预先定义，与 ExcelReportGenerator 的表头/正常/高风险/中风险/摘要样式一致，单元格按序号引用
+ * - 工作表数据行边写边落到临时文件，结束时补上列宽并拷入 zip；内存占用与行数无关
+ * - 超出 Excel 行列数或单元格文本长度上限时与 POI 一致抛出 IllegalArgumentException；
+ *   写出失败时调用 abort 删除未完成的文件，不写出看似完整的工作簿
+ * - 同一时间只写一个工作表，非线程安全
+ */
+final class OoxmlWorkbookWriter implements Closeable {
+
+    static final int STYLE_DEFAULT = 0;
+    static final int STYLE_HEADER = 1;
+    static final int STYLE_NORMAL = 2;
+    static final int STYLE_HIGH_RISK = 3;
+    static final int STYLE_MEDIUM_RISK = 4;
+    static final int STYLE_SUMMARY_HEADER = 5;
+    static final int STYLE_SUMMARY = 6;
+
+    private static final String STYLES_XML =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<fonts count=\"4\">"
+            + "<font><sz val=\"11\"/><color theme=\"1\"/><name val=\"Calibri\"/><family val=\"2\"/><scheme val=\"minor\"/></font>"
+            + "<font><b/><sz val=\"11\"/><color indexed=\"9\"/><name val=\"Calibri\"/><family val=\"2\"/><scheme val=\"minor\"/></font>"
+            + "<font><b/><sz val=\"11\"/><color theme=\"1\"/><name val=\"Calibri\"/><family val=\"2\"/><scheme val=\"minor\"/></font>"
+            + "<font><b/><sz val=\"12\"/><color indexed=\"9\"/><name val=\"Calibri\"/><family val=\"2\"/><scheme val=\"minor\"/></font>"
+            + "</fonts>"
+            + "<fills count=\"6\">"
+            + "<fill><patternFill patternType=\"none\"/></fill>"
+            + "<fill><patternFill patternType=\"gray125\"/></fill>"
+            + "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"18\"/><bgColor indexed=\"64\"/></patternFill></fill>"
+            + "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"10\"/><bgColor indexed=\"64\"/></patternFill></fill>"
+            + "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"13\"/><bgColor indexed=\"64\"/></patternFill></fill>"
+            + "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"58\"/><bgColor indexed=\"64\"/></patternFill></fill>"
+            + "</fills>"
+            + "<borders count=\"2\">"
+            + "<border><left/><right/><top/><bottom/><diagonal/></border>"
+            + "<border><left style=\"thin\"/><right style=\"thin\"/><top style=\"thin\"/><bottom style=\"thin\"/><diagonal/></border>"
+            + "</borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+            + "<cellXfs count=\"7\">"
+            + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + xf(1, 2, "center")
+            + xf(0, 0, null)
+            + xf(1, 3, null)
+            + xf(2, 4, null)
+            + xf(3, 5, "center")
+            + xf(0, 0, "center")
+            + "</cellXfs>"
+            + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+            + "</styleSheet>";
+
+    private static final SpreadsheetVersion LIMITS = SpreadsheetVersion.EXCEL2007;
+
+    private final Path file;
+    private final ZipOutputStream zip;
+    private final int minColumnWidth;
+    private final int maxColumnWidth;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final Set<String> sheetNameKeys = new HashSet<>();
+    private SheetWriter current;
+    private boolean closed;
+
+    /**
+     * @param minColumnWidth 列宽下限（单位 1/256 字符）
+     * @param maxColumnWidth 列宽上限（单位 1/256 字符）
+     */
+    OoxmlWorkbookWriter(Path file, int minColumnWidth, int maxColumnWidth) throws IOException {
+        this.file = file;
+        this.zip = new ZipOutputStream(Files.newOutputStream(file));
+        this.minColumnWidth = minColumnWidth;
+        this.maxColumnWidth = Math.min(maxColumnWidth, ColumnWidthEstimator.EXCEL_MAX_WIDTH);
+    }
+
+    /**
+     * 开始新的工作表（上一个工作表须已 finish）
+     */
+    SheetWriter startSheet(String name) throws IOException {
+        if (current != null) {
+            throw new IllegalStateException("工作表未完成: " + current.name);
+        }
+        WorkbookUtil.validateSheetName(name);
+        if (!sheetNameKeys.add(name.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("工作表名称重复: " + name);
+        }
+        current = new SheetWriter(name, sheetNames.size() + 1);
+        return current;
+    }
+
+    int getSheetCount() {
+        return sheetNames.size();
+    }
+
+    /**
+     * 写出工作簿级部件并关闭文件；写出失败时删除文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean written = false;
+        try {
+            if (current != null) {
+                current.discard();
+            }
+            writeEntry("[Content_Types].xml", contentTypes());
+            writeEntry("_rels/.rels",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            writeEntry("xl/workbook.xml", workbook());
+            writeEntry("xl/_rels/workbook.xml.rels", workbookRels());
+            writeEntry("xl/styles.xml", STYLES_XML);
+            zip.close();
+            written = true;
+        } finally {
+            if (!written) {
+                abort();
+            }
+        }
+    }
+
+    /**
+     * 放弃写出：丢弃未完成的工作表，关闭并删除文件；可在 close 前后调用
+     */
+    void abort() {
+        closed = true;
+        try {
+            if (current != null) {
+                current.discard();
+            }
+        } catch (IOException ignored) {
+            // 临时文件删除失败不影响放弃流程
+        }
+        try {
+            zip.close();
+        } catch (IOException ignored) {
+            // 文件随后删除
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 尽力删除
+        }
+    }
+
+    /**
+     * 单个工作表：数据行写入临时文件，finish 时加上列宽与合并区域拷入 zip
+     */
+    final class SheetWriter implements ExcelSheetTarget<Integer> {
+        private final String name;
+        private final int index;
+        private final Path tempFile;
+        private final Writer out;
+        private final ColumnWidthEstimator widths = new ColumnWidthEstimator();
+        private final List<String> mergedRegions = new ArrayList<>();
+        private int currentRow = -1;
+        private int lastColumn = -1;
+
+        private SheetWriter(String name, int index) throws IOException {
+            this.name = name;
+            this.index = index;
+            this.tempFile = Files.createTempFile("dbcli-sheet", ".xml");
+            this.out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(tempFile), StandardCharsets.UTF_8),
+                    64 * 1024);
+        }
+
+        @Override
+        public void cell(int row, int column, String value, Integer style) {
+            try {
+                moveTo(row, column);
+                writeCell(row, column, value, style);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+            widths.record(column, value);
+        }
+
+        @Override
+        public void mergedCell(int row, int firstColumn, int lastColumn, String value, Integer style) {
+            try {
+                moveTo(row, firstColumn);
+                writeCell(row, firstColumn, value, style);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+            mergedRegions.add(cellRef(row, firstColumn) + ":" + cellRef(row, lastColumn));
+        }
+
+        @Override
+        public void finish(int columnCount) {
+            try {
+                writeSheet(columnCount);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }
+
+        private void writeSheet(int columnCount) throws IOException {
+            try {
+                if (currentRow >= 0) {
+                    out.write("</row>");
+                }
+                out.close();
+
+                zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + index + ".xml"));
+                // 只 flush 不 close：zip 还要继续写入后续部件
+                Writer head = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+                head.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                        + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                        + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">");
+                if (index == 1) {
+                    head.write("<sheetViews><sheetView tabSelected=\"1\" workbookViewId=\"0\"/></sheetViews>");
+                }
+                head.write("<sheetFormatPr defaultRowHeight=\"15\"/>");
+                if (columnCount > 0) {
+                    head.write("<cols>");
+                    for (int i = 0; i < columnCount; i++) {
+                        int width = Math.min(Math.max(widths.columnWidthUnits(i), minColumnWidth), maxColumnWidth);
+                        head.write("<col min=\"" + (i + 1) + "\" max=\"" + (i + 1) + "\" width=\""
+                                + (width / (double) ColumnWidthEstimator.CHAR_UNIT) + "\" customWidth=\"1\"/>");
+                    }
+                    head.write("</cols>");
+                }
+                head.write("<sheetData>");
+                head.flush();
+                Files.copy(tempFile, zip);
+                StringBuilder tail = new StringBuilder("</sheetData>");
+                if (!mergedRegions.isEmpty()) {
+                    tail.append("<mergeCells count=\"").append(mergedRegions.size()).append("\">");
+                    for (String ref : mergedRegions) {
+                        tail.append("<mergeCell ref=\"").append(ref).append("\"/>");
+                    }
+                    tail.append("</mergeCells>");
+                }
+                tail.append("<pageMargins left=\"0.7\" right=\"0.7\" top=\"0.75\" bottom=\"0.75\" header=\"0.3\" footer=\"0.3\"/>")
+                        .append("</worksheet>");
+                head.write(tail.toString());
+                head.flush();
+                zip.closeEntry();
+                sheetNames.add(name);
+            } finally {
+                current = null;
+                Files.deleteIfExists(tempFile);
+            }
+        }
+
+        private void discard() throws IOException {
+            try {
+                out.close();
+            } finally {
+                current = null;
+                Files.deleteIfExists(tempFile);
+            }
+        }
+
+        private void moveTo(int row, int column) throws IOException {
+            if (row < 0 || row > LIMITS.getLastRowIndex()) {
+                throw new IllegalArgumentException("Invalid row number (" + row + ") outside allowable range (0.."
+                        + LIMITS.getLastRowIndex() + ")");
+            }
+            if (column < 0 || column > LIMITS.getLastColumnIndex()) {
+                throw new IllegalArgumentException("Invalid column index (" + column + ").  Allowable column range for "
+                        + LIMITS.name() + " is (0.." + LIMITS.getLastColumnIndex() + ") or ('A'..'"
+                        + LIMITS.getLastColumnName() + "')");
+            }
+            if (row < currentRow || (row == currentRow && column <= lastColumn)) {
+                throw new IllegalStateException("单元格须按行列递增写入: " + cellRef(row, column));
+            }
+            if (row != currentRow) {
+                if (currentRow >= 0) {
+                    out.write("</row>");
+                }
+                out.write("<row r=\"");
+                out.write(Integer.toString(row + 1));
+                out.write("\">");
+                currentRow = row;
+            }
+            lastColumn = column;
+        }
+
+        private void writeCell(int row, int column, String value, Integer style) throws IOException {
+            if (value != null && value.length() > LIMITS.getMaxTextLength()) {
+                throw new IllegalArgumentException("The maximum length of cell contents (text) is "
+                        + LIMITS.getMaxTextLength() + " characters");
+            }
+            int s = style != null ? style : STYLE_DEFAULT;
+            out.write("<c r=\"");
+            out.write(cellRef(row, column));
+            out.write("\" s=\"");
+            out.write(Integer.toString(s));
+            if (value == null || value.isEmpty()) {
+                out.write("\"/>");
+                return;
+            }
+            out.write("\" t=\"inlineStr\"><is><t");
+            if (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1))) {
+                out.write(" xml:space=\"preserve\"");
+            }
+            out.write('>');
+            escape(out, value);
+            out.write("</t></is></c>");
+        }
+    }
+
+    private static String xf(int fontId, int fillId, String horizontal) {
+        StringBuilder sb = new StringBuilder("<xf numFmtId=\"0\" fontId=\"").append(fontId)
+                .append("\" fillId=\"").append(fillId).append("\" borderId=\"1\" xfId=\"0\"");
+        if (fontId != 0) {
+            sb.append(" applyFont=\"1\"");
+        }
+        if (fillId != 0) {
+            sb.append(" applyFill=\"1\"");
+        }
+        sb.append(" applyBorder=\"1\" applyAlignment=\"1\"><alignment");
+        if (horizontal != null) {
+            sb.append(" horizontal=\"").append(horizontal).append('"');
+        }
+        return sb.append(" vertical=\"top\" wrapText=\"1\"/></xf>").toString();
+    }
+
+    private String contentTypes() {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            sb.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return sb.append("</Types>").toString();
+    }
+
+    private String workbook() throws IOException {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"")
+                .append(" xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">")
+                .append("<bookViews><workbookView activeTab=\"0\"/></bookViews><sheets>");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            sb.append("<sheet name=\"");
+            escape(sb, sheetNames.get(i - 1));
+            sb.append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+        }
+        return sb.append("</sheets></workbook>").toString();
+    }
+
+    private String workbookRels() {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            sb.append("<Relationship Id=\"rId").append(i)
+                    .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"")
+                    .append(" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        sb.append("<Relationship Id=\"rId").append(sheetNames.size() + 1)
+                .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\"")
+                .append(" Target=\"styles.xml\"/>");
+        return sb.append("</Relationships>").toString();
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    /**
+     * 列号（从 0 开始）转 A1 引用
+     */
+    static String cellRef(int row, int column) {
+        StringBuilder letters = new StringBuilder();
+        for (int c = column + 1; c > 0; c = (c - 1) / 26) {
+            letters.append((char) ('A' + (c - 1) % 26));
+        }
+        return letters.reverse().append(row + 1).toString();
+    }
+
+    /**
+     * XML 转义，并丢弃 XML 1.0 不允许的控制字符
+     */
+    static void escape(Appendable out, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '"':
+                    out.append("&quot;");
+                    break;
+                default:
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        if (c != 0xFFFE && c != 0xFFFF) {
+                            out.append(c);
+                        }
+                    }
+            }
+        }
+    }
+}
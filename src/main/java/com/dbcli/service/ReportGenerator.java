@@ -1,7 +1,9 @@
 package com.dbcli.service;
 
+import com.dbcli.executor.MetricResultSink;
 import com.dbcli.model.MetricResult;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -28,4 +30,37 @@ public interface ReportGenerator {
      * @return A string representing the report format.
      */
     String getFormat();
+
+    /**
+     * Opens a push-based sink that receives results one by one as they complete.
+     * The report is written when {@link MetricResultSink#complete()} is called.
+     * <p>
+     * The default implementation buffers all results and delegates to
+     * {@link #generate(List, String, String)}; streaming-capable generators override it
+     * to write (and release) results incrementally.
+     *
+     * @param outputPath  The directory path where the generated report should be saved.
+     * @param metricsPath The path to the directory containing metric definition files.
+     * @return A sink that produces the report on completion.
+     * @throws Exception if the report target cannot be prepared.
+     */
+    default MetricResultSink openSink(String outputPath, String metricsPath) throws Exception {
+        List<MetricResult> buffer = new ArrayList<>();
+        return new MetricResultSink() {
+            @Override
+            public void accept(MetricResult result) {
+                buffer.add(result);
+            }
+
+            @Override
+            public void complete() throws Exception {
+                generate(buffer, outputPath, metricsPath);
+            }
+
+            @Override
+            public void abort() {
+                buffer.clear();
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -9,6 +9,23 @@ import java.util.Locale;
  */
 public class ReportGeneratorFactory {
 
+    private int excelSheetThreads = 0;
+    private boolean excelNativeWriter = false;
+
+    /**
+     * Sets the number of threads used to fill Excel sheets in parallel; 0 or 1 keeps sequential generation.
+     */
+    public void setExcelSheetThreads(int excelSheetThreads) {
+        this.excelSheetThreads = excelSheetThreads;
+    }
+
+    /**
+     * Writes Excel reports as raw OOXML parts instead of building a POI workbook.
+     */
+    public void setExcelNativeWriter(boolean excelNativeWriter) {
+        this.excelNativeWriter = excelNativeWriter;
+    }
+
     /**
      * Creates a list of report generators for the given format.
      *
@@ -20,7 +37,7 @@ public class ReportGeneratorFactory {
         String lowerFormat = format != null ? format.toLowerCase(Locale.ROOT) : "excel";
 
         if ("excel".equals(lowerFormat) || "both".equals(lowerFormat)) {
-            generators.add(new ExcelReportGeneratorAdapter());
+            generators.add(new ExcelReportGeneratorAdapter(excelSheetThreads, excelNativeWriter));
         }
         if ("html".equals(lowerFormat) || "both".equals(lowerFormat)) {
             generators.add(new HtmlReportGeneratorAdapter());
@@ -34,12 +51,22 @@ public class ReportGeneratorFactory {
      */
     private static class ExcelReportGeneratorAdapter implements ReportGenerator {
         private final ExcelReportGenerator generator = new ExcelReportGenerator();
+
+        ExcelReportGeneratorAdapter(int sheetThreads, boolean nativeWriter) {
+            generator.setSheetThreads(sheetThreads);
+            generator.setNativeWriter(nativeWriter);
+        }
         
         @Override
         public void generate(List<com.dbcli.model.MetricResult> results, String outputPath, String metricsPath) throws Exception {
             generator.generate(results, outputPath, metricsPath);
         }
         
+        @Override
+        public com.dbcli.executor.MetricResultSink openSink(String outputPath, String metricsPath) throws Exception {
+            return generator.openSink(outputPath, metricsPath);
+        }
+        
         @Override
         public String getFormat() {
             return "excel";
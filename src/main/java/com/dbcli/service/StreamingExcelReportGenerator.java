@@ -24,6 +24,8 @@ public class StreamingExcelReportGenerator implements ReportGeneratorInterface {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     private final int rowAccessWindowSize;
+    // 各工作表的列宽估算（写入单元格时记录，设置列宽后移除）
+    private final Map<Sheet, ColumnWidthEstimator> columnWidths = new java.util.HashMap<>();
     
     public StreamingExcelReportGenerator() {
         this.rowAccessWindowSize = DEFAULT_ROW_ACCESS_WINDOW_SIZE;
@@ -67,6 +69,7 @@ public class StreamingExcelReportGenerator implements ReportGeneratorInterface {
             
             // 清理临时文件
             workbook.dispose();
+            workbook.forEach(columnWidths::remove);
             
             long duration = System.currentTimeMillis() - startTime;
             logger.info("流式Excel报告生成完成，耗时: {}ms, 文件大小: {} KB", 
@@ -225,14 +228,8 @@ public class StreamingExcelReportGenerator implements ReportGeneratorInterface {
             }
         }
         
-        // 自动调整列宽（仅对前几列，避免性能问题）
-        // 对于SXSSFSheet，需要先跟踪列
-        if (sheet instanceof org.apache.poi.xssf.streaming.SXSSFSheet) {
-            ((org.apache.poi.xssf.streaming.SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
-        }
-        for (int i = 0; i < Math.min(colIndex, 6); i++) {
-            sheet.autoSizeColumn(i);
-        }
+        // 按写入时估算的宽度调整列宽
+        applyColumnWidths(sheet, colIndex);
     }
     
     /**
@@ -248,9 +245,7 @@ public class StreamingExcelReportGenerator implements ReportGeneratorInterface {
                            "指标值", "单位", "阈值状态", "收集时间", "执行状态", "错误信息"};
         
         for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
+            setCellValue(headerRow, i, headers[i], headerStyle);
         }
         
         // 批量写入数据
@@ -291,14 +286,8 @@ public class StreamingExcelReportGenerator implements ReportGeneratorInterface {
             }
         }
         
-        // 自动调整列宽（仅对前几列，避免性能问题）
-        // 对于SXSSFSheet，需要先跟踪列
-        if (sheet instanceof org.apache.poi.xssf.streaming.SXSSFSheet) {
-            ((org.apache.poi.xssf.streaming.SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
-        }
-        for (int i = 0; i < Math.min(headers.length, 6); i++) {
-            sheet.autoSizeColumn(i);
-        }
+        // 按写入时估算的宽度调整列宽
+        applyColumnWidths(sheet, headers.length);
     }
     
     /**
@@ -446,8 +435,7 @@ public class StreamingExcelReportGenerator implements ReportGeneratorInterface {
         }
         
         // 自动调整列宽
-        sheet.autoSizeColumn(0);
-        sheet.autoSizeColumn(1);
+        applyColumnWidths(sheet, 2);
         
         logger.info("汇总工作表生成完成");
     }
@@ -514,9 +502,21 @@ public class StreamingExcelReportGenerator implements ReportGeneratorInterface {
             } else {
                 cell.setCellValue(value.toString());
             }
+            columnWidths.computeIfAbsent(row.getSheet(), s -> new ColumnWidthEstimator())
+                    .record(columnIndex, value.toString());
         }
         cell.setCellStyle(style);
     }
+
+    /**
+     * 按写入时估算的最大显示宽度设置列宽，不再逐单元格做字体排版
+     */
+    private void applyColumnWidths(Sheet sheet, int columnCount) {
+        ColumnWidthEstimator widths = columnWidths.remove(sheet);
+        if (widths != null) {
+            widths.apply(sheet, columnCount, 0, ColumnWidthEstimator.EXCEL_MAX_WIDTH);
+        }
+    }
     
     @Override
     public String getReportFormat() {
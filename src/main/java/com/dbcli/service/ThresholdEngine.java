@@ -0,0 +1,446 @@
+package com.dbcli.service;
+
+import com.dbcli.config.ConfigLoader;
+import com.dbcli.model.MetricConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 阈值引擎
+ * - 每条 MetricConfig.Threshold 只编译一次：操作符解析为枚举，阈值预先解析为数值，规则按规范化后的列名建立索引
+ * - 按 (数据库类型, 指标名称/描述, 列名) 查找，原始名称到编译结果的映射带缓存，逐单元格判断只需一次哈希查找
+ * - 同一指标目录的编译结果由各报告生成器共享，目录内文件变化后重新编译；编译结果只读，可多线程共享
+ */
+public final class ThresholdEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ThresholdEngine.class);
+
+    private static final MetricThresholds NONE = new MetricThresholds();
+    // 指标目录 -> 已编译的阈值（附目录内文件签名）
+    private static final Map<Path, Compiled> SHARED = new ConcurrentHashMap<>();
+
+    // dbType -> (规范化的指标名称/描述 -> 编译后的阈值)
+    private final Map<String, Map<String, MetricThresholds>> byDbType;
+    // (dbType, 指标名称, 指标描述) 原始值 -> 编译后的阈值（未配置时为 NONE）
+    private final Map<List<String>, MetricThresholds> lookups = new ConcurrentHashMap<>();
+
+    private ThresholdEngine(Map<String, Map<String, MetricThresholds>> byDbType) {
+        this.byDbType = byDbType;
+    }
+
+    /**
+     * 风险级别：medium 以外的级别（含未指定）均按 high 处理
+     */
+    public enum Level {
+        HIGH, MEDIUM;
+
+        static Level of(String level) {
+            return level != null && "medium".equalsIgnoreCase(level) ? MEDIUM : HIGH;
+        }
+
+        public static Level max(Level a, Level b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            return a == HIGH || b == HIGH ? HIGH : MEDIUM;
+        }
+
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private enum Operator {
+        GT(">"), GE(">="), LT("<"), LE("<="), EQ("=="), NE("!=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Operator of(String op) {
+            String o = op == null ? ">" : op.trim();
+            switch (o) {
+                case ">=":
+                    return GE;
+                case "<":
+                    return LT;
+                case "<=":
+                    return LE;
+                case "==":
+                case "=":
+                    return EQ;
+                case "!=":
+                    return NE;
+                default:
+                    // 未知操作符按 ">" 处理
+                    return GT;
+            }
+        }
+
+        boolean test(double v, double th) {
+            switch (this) {
+                case GE:
+                    return v >= th;
+                case LT:
+                    return v < th;
+                case LE:
+                    return v <= th;
+                case EQ:
+                    return v == th;
+                case NE:
+                    return v != th;
+                default:
+                    return v > th;
+            }
+        }
+    }
+
+    /**
+     * 编译后的单条阈值规则
+     */
+    public static final class Rule {
+        private final String level;
+        private final Level severity;
+        private final Operator operator;
+        // 数值阈值；不可解析为数值时为 NaN，此时 ==/!= 按文本比较，其余操作符不命中
+        private final double number;
+        private final String text;
+
+        private Rule(String level, String operator, Object value) {
+            this.level = level;
+            this.severity = Level.of(level);
+            this.operator = Operator.of(operator);
+            this.number = toNumber(value);
+            this.text = value != null ? value.toString().trim() : null;
+        }
+
+        /**
+         * 配置中的原始级别
+         */
+        public String getLevel() {
+            return level;
+        }
+
+        public Level getSeverity() {
+            return severity;
+        }
+
+        private boolean test(double v, Object value) {
+            if (!Double.isNaN(number)) {
+                return !Double.isNaN(v) && operator.test(v, number);
+            }
+            if (text == null || value == null || (operator != Operator.EQ && operator != Operator.NE)) {
+                return false;
+            }
+            return text.equals(value.toString().trim()) == (operator == Operator.EQ);
+        }
+
+        @Override
+        public String toString() {
+            return operator.symbol + " " + text;
+        }
+    }
+
+    /**
+     * 一个指标编译后的阈值
+     */
+    public static final class MetricThresholds {
+        // 单值判断使用的规则：rules 写法的全部规则，或旧写法的标量阈值
+        private final List<Rule> singleRules = new ArrayList<>();
+        // 未指定列的规则（整体风险评估时对所有列生效）
+        private final List<Rule> anyColumnRules = new ArrayList<>();
+        // 规范化列名 -> 规则（保持配置顺序）
+        private final Map<String, List<Rule>> columnRules = new HashMap<>();
+        // 原始列名 -> 规则，避免逐单元格规范化列名
+        private final Map<String, List<Rule>> columnCache = new ConcurrentHashMap<>();
+        // 旧写法：未指定列的单一标量阈值
+        private boolean scalar;
+
+        private MetricThresholds() {
+        }
+
+        private static MetricThresholds compile(MetricConfig.Threshold threshold) {
+            MetricThresholds compiled = new MetricThresholds();
+            if (threshold.getRules() != null && !threshold.getRules().isEmpty()) {
+                // 新写法：规则按顺序匹配，未指定 column 时继承父级 column
+                for (MetricConfig.Threshold.Rule r : threshold.getRules()) {
+                    Rule rule = new Rule(r.getLevel(), r.getOperator(), r.getValue());
+                    compiled.singleRules.add(rule);
+                    String column = r.getColumn() != null ? r.getColumn() : threshold.getColumn();
+                    if (column == null) {
+                        compiled.anyColumnRules.add(rule);
+                    } else {
+                        compiled.columnRules.computeIfAbsent(normKey(column), k -> new ArrayList<>()).add(rule);
+                    }
+                }
+            } else if (threshold.getValue() instanceof Map) {
+                // 旧写法：value 为按列阈值 Map
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) threshold.getValue()).entrySet()) {
+                    if (e.getKey() != null) {
+                        compiled.columnRules.putIfAbsent(normKey(e.getKey().toString()), Collections.singletonList(
+                                new Rule(threshold.getLevel(), threshold.getOperator(), e.getValue())));
+                    }
+                }
+            } else {
+                // 旧写法：单一阈值，指定 column 时同时作用于该列
+                Rule rule = new Rule(threshold.getLevel(), threshold.getOperator(), threshold.getValue());
+                compiled.singleRules.add(rule);
+                if (threshold.getColumn() != null) {
+                    compiled.columnRules.put(normKey(threshold.getColumn()), Collections.singletonList(rule));
+                } else {
+                    compiled.scalar = true;
+                }
+            }
+            return compiled;
+        }
+
+        /**
+         * 单值判断：返回首个命中的规则，未命中返回 null
+         */
+        public Rule matchSingle(Object value) {
+            return firstMatch(singleRules, value);
+        }
+
+        /**
+         * 多值单元格判断：仅匹配指定了该列的规则，返回首个命中的规则，未命中返回 null
+         */
+        public Rule matchColumn(String column, Object value) {
+            return column == null ? null : firstMatch(rulesFor(column), value);
+        }
+
+        /**
+         * 整体风险：逐行逐列取命中规则的最高级别（未指定列的规则对所有列生效），未命中返回 null
+         */
+        public Level highestLevel(List<Map<String, Object>> rows) {
+            Level highest = null;
+            for (Map<String, Object> row : rows) {
+                for (Map.Entry<String, Object> e : row.entrySet()) {
+                    List<Rule> rules = e.getKey() != null ? rulesFor(e.getKey()) : Collections.emptyList();
+                    if (rules.isEmpty() && anyColumnRules.isEmpty()) {
+                        continue;
+                    }
+                    double v = toNumber(e.getValue());
+                    highest = Level.max(highest, highestMatch(anyColumnRules, v, e.getValue()));
+                    highest = Level.max(highest, highestMatch(rules, v, e.getValue()));
+                    if (highest == Level.HIGH) {
+                        return highest;
+                    }
+                }
+            }
+            return highest;
+        }
+
+        /**
+         * 是否为旧写法的单一标量阈值（仅作用于单值，不对应任何列）
+         */
+        public boolean isScalar() {
+            return scalar;
+        }
+
+        private List<Rule> rulesFor(String column) {
+            List<Rule> rules = columnCache.get(column);
+            if (rules == null) {
+                rules = columnRules.getOrDefault(normKey(column), Collections.emptyList());
+                columnCache.put(column, rules);
+            }
+            return rules;
+        }
+
+        private static Rule firstMatch(List<Rule> rules, Object value) {
+            if (rules.isEmpty()) {
+                return null;
+            }
+            double v = toNumber(value);
+            for (Rule rule : rules) {
+                if (rule.test(v, value)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+
+        private static Level highestMatch(List<Rule> rules, double v, Object value) {
+            Level highest = null;
+            for (Rule rule : rules) {
+                if (rule.test(v, value)) {
+                    highest = Level.max(highest, rule.severity);
+                }
+            }
+            return highest;
+        }
+    }
+
+    /**
+     * 不含任何阈值的引擎
+     */
+    public static ThresholdEngine empty() {
+        return new ThresholdEngine(Collections.emptyMap());
+    }
+
+    /**
+     * 编译单个指标的阈值配置（执行层按指标配置直接使用，不区分数据库类型）
+     */
+    public static MetricThresholds compile(MetricConfig.Threshold threshold) {
+        return MetricThresholds.compile(threshold);
+    }
+
+    /**
+     * 取指标目录对应的阈值引擎：目录下 *-metrics.yml 未变化时复用已编译的结果
+     */
+    public static ThresholdEngine forMetricsDir(String metricsDir) {
+        Path dir = Paths.get(metricsDir).toAbsolutePath().normalize();
+        if (!Files.isDirectory(dir)) {
+            logger.warn("阈值加载：指标目录不存在或不是目录: {}", metricsDir);
+            return empty();
+        }
+        File[] files = dir.toFile().listFiles((d, name) -> name.endsWith("-metrics.yml") || name.endsWith("-metrics.yaml"));
+        if (files == null) {
+            return empty();
+        }
+        Arrays.sort(files);
+        StringBuilder signature = new StringBuilder();
+        for (File f : files) {
+            signature.append(f.getName()).append(':').append(f.lastModified()).append(':').append(f.length()).append(';');
+        }
+        Compiled compiled = SHARED.get(dir);
+        if (compiled == null || !compiled.signature.equals(signature.toString())) {
+            compiled = new Compiled(signature.toString(), load(files));
+            SHARED.put(dir, compiled);
+        }
+        return compiled.engine;
+    }
+
+    private static ThresholdEngine load(File[] files) {
+        Map<String, Map<String, MetricThresholds>> result = new HashMap<>();
+        for (File f : files) {
+            Map<String, MetricThresholds> byMetric = result.computeIfAbsent(
+                    dbTypeKey(inferDbTypeFromFilename(f.getName())), k -> new HashMap<>());
+            try (InputStream is = Files.newInputStream(f.toPath())) {
+                Object data = new Yaml().load(is);
+                List<?> metricsList = Collections.emptyList();
+                if (data instanceof Map && ((Map<?, ?>) data).get("metrics") instanceof List) {
+                    metricsList = (List<?>) ((Map<?, ?>) data).get("metrics");
+                } else if (data instanceof List) {
+                    metricsList = (List<?>) data;
+                }
+
+                for (Object metricObj : metricsList) {
+                    if (!(metricObj instanceof Map)) continue;
+                    Map<?, ?> m = (Map<?, ?>) metricObj;
+                    Object thrObj = m.get("threshold");
+                    if (!(thrObj instanceof Map)) continue;
+
+                    MetricThresholds compiled = compile(ConfigLoader.parseThreshold((Map<?, ?>) thrObj));
+                    // 指标名与描述都建立映射（规避名称/描述二选一的情况）
+                    if (m.get("name") != null) byMetric.put(normKey(String.valueOf(m.get("name"))), compiled);
+                    if (m.get("description") != null) byMetric.put(normKey(String.valueOf(m.get("description"))), compiled);
+                }
+            } catch (Exception ex) {
+                logger.warn("解析指标阈值文件失败：{}，原因：{}", f.getName(), ex.getMessage());
+            }
+        }
+        return new ThresholdEngine(result);
+    }
+
+    /**
+     * 查找指标的阈值：先按指标名称，再按描述；未配置返回 null
+     */
+    public MetricThresholds find(String dbType, String metricName, String metricDescription) {
+        if (dbType == null) return null;
+        MetricThresholds found = lookups.computeIfAbsent(Arrays.asList(dbType, metricName, metricDescription), k -> {
+            Map<String, MetricThresholds> byMetric = byDbType.get(dbTypeKey(dbType));
+            if (byMetric == null) return NONE;
+            MetricThresholds t = metricName != null ? byMetric.get(normKey(metricName)) : null;
+            if (t == null && metricDescription != null) {
+                t = byMetric.get(normKey(metricDescription));
+            }
+            return t != null ? t : NONE;
+        });
+        return found == NONE ? null : found;
+    }
+
+    /**
+     * 已编译的映射条目数（指标名称与描述各计一条）
+     */
+    public int size() {
+        return byDbType.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * 解析数值：Number 直接取值，字符串忽略首尾空白、百分号与千分位逗号；不可解析返回 NaN
+     */
+    static double toNumber(Object v) {
+        if (v == null) return Double.NaN;
+        if (v instanceof Number) return ((Number) v).doubleValue();
+        String s = v.toString().trim();
+        if (s.isEmpty()) return Double.NaN;
+        // 先按字符过滤，普通文本不走异常路径
+        boolean strip = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '%' || c == ',') {
+                strip = true;
+            } else if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return Double.NaN;
+            }
+        }
+        if (strip) {
+            s = s.replace("%", "").replace(",", "");
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String normKey(String s) {
+        if (s == null) return "";
+        // 保留所有字母与数字（包含中文等 Unicode 字符），仅移除空白与标点等非字母数字字符
+        return s.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]", "");
+    }
+
+    private static String dbTypeKey(String type) {
+        if (type == null) return "unknown";
+        String t = type.toLowerCase(Locale.ROOT).trim();
+        switch (t) {
+            case "pg":
+            case "postgres":
+            case "postgresql":
+                return "postgresql";
+            case "dameng":
+            case "dm":
+                return "dm";
+            default:
+                return t;
+        }
+    }
+
+    private static String inferDbTypeFromFilename(String filename) {
+        String low = filename.toLowerCase(Locale.ROOT);
+        if (low.startsWith("oracle-")) return "oracle";
+        if (low.startsWith("mysql-")) return "mysql";
+        if (low.startsWith("pg-") || low.startsWith("postgresql-")) return "postgresql";
+        if (low.startsWith("dm-") || low.startsWith("dameng-")) return "dm";
+        return "unknown";
+    }
+
+    private static final class Compiled {
+        final String signature;
+        final ThresholdEngine engine;
+
+        Compiled(String signature, ThresholdEngine engine) {
+            this.signature = signature;
+            this.engine = engine;
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.dbcli.model.DatabaseConfig;
 import com.dbcli.service.EncryptionService;
 import com.dbcli.service.FastConnectionTestService;
 import com.dbcli.database.ConnectionFactory;
+import com.dbcli.database.DataSourceRegistry;
+import com.dbcli.database.DatabaseManager;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpExchange;
@@ -44,6 +46,9 @@ public class EnhancedWebServer {
     private static final long CONNECTION_TEST_COOLDOWN = 10 * 60 * 1000; // 10分钟
     private long lastConnectionTestTime = 0;
     
+    // 报告生成共用的数据库管理器：跨请求复用连接池，空闲或超出数量上限的数据源自动回收
+    private final DatabaseManager sharedDatabaseManager = new DatabaseManager();
+    
     public EnhancedWebServer(AppConfig config) {
         this.port = config.getWebPort() > 0 ? config.getWebPort() : 8080;
         this.config = config;
@@ -68,6 +73,8 @@ public class EnhancedWebServer {
         server.createContext("/reports/", new StaticFileHandler());
         
         server.setExecutor(Executors.newFixedThreadPool(4));
+        sharedDatabaseManager.getConnectionFactory().configureEviction(
+            DataSourceRegistry.DEFAULT_IDLE_TTL_MS, DataSourceRegistry.DEFAULT_MAX_DATA_SOURCES);
         server.start();
         
         running = true;
@@ -77,6 +84,7 @@ public class EnhancedWebServer {
     public void stop() {
         if (server != null && running) {
             server.stop(2);
+            sharedDatabaseManager.shutdown();
             running = false;
             logger.info("Web管理服务器已停止");
         }
@@ -325,7 +333,7 @@ public class EnhancedWebServer {
                 }
                 
                 // 生成报告
-                DbCliRunner runner = new DbCliRunner(reportConfig);
+                DbCliRunner runner = new DbCliRunner(reportConfig, sharedDatabaseManager);
                 boolean success = runner.run();
                 
                 if (success) {
@@ -453,10 +461,13 @@ public class EnhancedWebServer {
                 return;
             }
             
+            ConnectionFactory connectionFactory = sharedDatabaseManager.getConnectionFactory();
             String response = String.format(
-                "{\"status\": \"running\", \"port\": %d, \"timestamp\": \"%s\"}",
+                "{\"status\": \"running\", \"port\": %d, \"timestamp\": \"%s\", \"dataSources\": %d, \"evictedDataSources\": %d}",
                 port,
-                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                connectionFactory.getDataSourceCount(),
+                connectionFactory.getPoolMonitor().getEvictionCount()
             );
             sendResponse(exchange, 200, response, "application/json");
         }
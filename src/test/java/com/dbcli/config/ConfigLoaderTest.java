@@ -59,4 +59,14 @@ public class ConfigLoaderTest {
         // 由于需要节点配置，这个测试会失败，但验证了验证逻辑
         assertFalse(configLoader.validateDatabaseConfig(validConfig), "没有节点的配置应该验证失败");
     }
+
+    @Test
+    public void testParseDurationSeconds() {
+        assertEquals(30, ConfigLoader.parseDurationSeconds(30));
+        assertEquals(45, ConfigLoader.parseDurationSeconds("45"));
+        assertEquals(600, ConfigLoader.parseDurationSeconds("10m"));
+        assertEquals(6 * 3600, ConfigLoader.parseDurationSeconds("6h"));
+        assertEquals(86400, ConfigLoader.parseDurationSeconds("1d"));
+        assertNull(ConfigLoader.parseDurationSeconds("soon"), "无法解析的时长应返回null");
+    }
 }
@@ -0,0 +1,55 @@
+package com.dbcli.core;
+
+import com.dbcli.config.AppConfig;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 长驻采集模式测试
+ */
+public class DaemonRunnerTest {
+
+    @Test
+    void testNextDelayStaysWithinJitterBound() {
+        for (int i = 0; i < 1000; i++) {
+            long delay = DaemonRunner.nextDelayMillis(60_000L);
+            assertTrue(delay >= 60_000L && delay <= 66_000L, "抖动超出范围: " + delay);
+        }
+        assertEquals(5L, DaemonRunner.nextDelayMillis(5L));
+    }
+
+    @Test
+    void testCyclesReuseRunnerAndApplyReloadBetweenCycles() {
+        AppConfig config = new AppConfig();
+        config.setDaemon(true);
+        config.setDaemonIntervalSeconds(1);
+        DbCliRunner runner = mock(DbCliRunner.class);
+        AtomicReference<DaemonRunner> daemon = new AtomicReference<>();
+
+        // 第一轮期间指标目录发生变化，第二轮结束后停止
+        when(runner.runCycle())
+                .thenAnswer(inv -> {
+                    daemon.get().markChanged(false, true);
+                    return true;
+                })
+                .thenAnswer(inv -> {
+                    daemon.get().stop();
+                    return true;
+                });
+        daemon.set(new DaemonRunner(config, runner));
+
+        assertTrue(daemon.get().run());
+
+        InOrder order = inOrder(runner);
+        order.verify(runner).runCycle();
+        order.verify(runner).reloadConfigurations(false, true);
+        order.verify(runner).runCycle();
+        order.verify(runner).close();
+        verifyNoMoreInteractions(runner);
+    }
+}
@@ -1,6 +1,9 @@
 package com.dbcli.core;
 
+import com.dbcli.config.AppConfig;
 import com.dbcli.config.ConfigurationValidator;
+import com.dbcli.database.DatabaseManager;
+import com.dbcli.executor.ConcurrentMetricsExecutor;
 import com.dbcli.service.EnhancedReportGeneratorFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -105,4 +108,28 @@ public class EnhancedDbCliRunnerTest {
         boolean result = runner.run(configPath, metricsPath, outputPath, "unsupported");
         assertFalse(result, "应该因为不支持的格式而失败");
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testMetricsExecutorUsesConfiguredEngineSettings() {
+        AppConfig config = new AppConfig();
+        config.setExecutorBackend("platform");
+        config.setConcurrency(3);
+        config.setDeadlineSeconds(45);
+        config.setNodeSession(true);
+        config.setBatchSingle(true);
+        EnhancedDbCliRunner configured = new EnhancedDbCliRunner(config);
+        
+        ConcurrentMetricsExecutor executor = (ConcurrentMetricsExecutor) configured.getMetricsExecutor();
+        try {
+            assertEquals("platform", executor.getExecutorBackend());
+            assertEquals(3, executor.getThreadCount());
+            assertEquals(45, executor.getExecutionTimeoutSeconds());
+            assertTrue(executor.isNodeSessionMode());
+            assertTrue(executor.isSingleBatching());
+            assertSame(executor, configured.getMetricsExecutor(), "执行器应只创建一次");
+        } finally {
+            executor.shutdown();
+            configured.getServiceContainer().get(DatabaseManager.class).shutdown();
+        }
+    }
+}
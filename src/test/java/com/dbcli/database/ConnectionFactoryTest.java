@@ -78,4 +78,133 @@ public class ConnectionFactoryTest {
         boolean result = connectionFactory.testConnection("test_system", node, config, "h2");
         assertTrue(result, "Connection test should pass with H2 database");
     }
+
+    @Test
+    public void testWarmUpConnectionReusesPool() throws Exception {
+        config.setType("h2");
+        node.setSvcName("warmupdb");
+        try {
+            assertTrue(connectionFactory.warmUpConnection("test_system", node, config, "h2"), "Warm-up should pass with H2 database");
+            assertEquals(1, connectionFactory.getDataSourceCount());
+
+            // 执行阶段获取连接应复用预热时创建的数据源
+            try (java.sql.Connection conn = connectionFactory.getConnection("test_system", node, config, "h2")) {
+                assertTrue(conn.isValid(1));
+            }
+            assertEquals(1, connectionFactory.getDataSourceCount());
+        } finally {
+            connectionFactory.closeAll();
+        }
+    }
+
+    @Test
+    public void testWarmUpFailureKeepsNoDataSource() {
+        config.setType("mysql");
+        node.setHost("127.0.0.1");
+        node.setPort(1);
+        node.setSvcName("nodb");
+
+        assertFalse(connectionFactory.warmUpConnection("test_system", node, config, "mysql"));
+        assertEquals(0, connectionFactory.getDataSourceCount());
+    }
+
+    @Test
+    public void testConnectionBudgetSharesAndEvictsPools() throws Exception {
+        ConnectionBudget budget = new ConnectionBudget(2);
+        connectionFactory.setConnectionBudget(budget);
+        config.setType("h2");
+        config.setConnectionTimeout(500L);
+        node.setSvcName("budgetdb1");
+        DatabaseNode other = new DatabaseNode();
+        other.setHost("localhost");
+        other.setPort(1521);
+        other.setSvcName("budgetdb2");
+        try {
+            connectionFactory.holdEviction();
+            connectionFactory.retainPool("test_system", node);
+            connectionFactory.retainPool("test_system", other);
+
+            java.sql.Connection first = connectionFactory.getConnection("test_system", node, config, "h2");
+            java.sql.Connection second = connectionFactory.getConnection("test_system", other, config, "h2");
+            assertEquals(2, budget.getLeasedConnections());
+            assertEquals(1, budget.shareFor(connectionFactory.getDataSourceCount()));
+
+            // 预算耗尽后按超时失败，归还后可再次获取
+            assertThrows(java.sql.SQLTransientConnectionException.class,
+                    () -> connectionFactory.getConnection("test_system", node, config, "h2"));
+            second.close();
+            try (java.sql.Connection third = connectionFactory.getConnection("test_system", other, config, "h2")) {
+                assertTrue(third.isValid(1));
+            }
+            first.close();
+            assertEquals(0, budget.getLeasedConnections());
+
+            // 派发结束前不回收；结束后节点任务全部完成即关闭其连接池
+            connectionFactory.releasePool("test_system", node);
+            assertEquals(2, connectionFactory.getDataSourceCount());
+            connectionFactory.resumeEviction();
+            assertEquals(1, connectionFactory.getDataSourceCount());
+            connectionFactory.releasePool("test_system", other);
+            assertEquals(0, connectionFactory.getDataSourceCount());
+        } finally {
+            connectionFactory.closeAll();
+            budget.shutdown();
+        }
+    }
+
+    @Test
+    public void testIdleAndLruEvictionOfDataSources() throws Exception {
+        config.setType("h2");
+        node.setSvcName("registrydb1");
+        DatabaseNode other = new DatabaseNode();
+        other.setHost("localhost");
+        other.setPort(1521);
+        other.setSvcName("registrydb2");
+        try {
+            // 空闲回收：有借出连接的数据源不回收
+            connectionFactory.configureEviction(1L, 0);
+            java.sql.Connection conn = connectionFactory.getConnection("test_system", node, config, "h2");
+            Thread.sleep(5);
+            assertEquals(0, connectionFactory.evictIdleDataSources());
+            conn.close();
+            Thread.sleep(5);
+            assertEquals(1, connectionFactory.evictIdleDataSources());
+            assertEquals(0, connectionFactory.getDataSourceCount());
+
+            // LRU：超出数量上限时关闭最久未使用的数据源
+            connectionFactory.configureEviction(0L, 1);
+            connectionFactory.getConnection("test_system", node, config, "h2").close();
+            connectionFactory.getConnection("test_system", other, config, "h2").close();
+            assertEquals(1, connectionFactory.getDataSourceCount());
+            assertTrue(connectionFactory.getDataSourceRegistry().keys().iterator().next().contains("registrydb2"));
+            assertEquals(2, connectionFactory.getPoolMonitor().getEvictionCount());
+            assertTrue(connectionFactory.getPoolMonitor().getRegistrySummary(connectionFactory.getDataSourceRegistry())
+                    .contains("累计回收 2 个"));
+        } finally {
+            connectionFactory.shutdown();
+        }
+    }
+
+    @Test
+    public void testClosedDataSourceIsRecreatedOnBorrow() throws Exception {
+        config.setType("h2");
+        node.setSvcName("recreatedb");
+        try {
+            connectionFactory.getConnection("test_system", node, config, "h2").close();
+            // 模拟回收线程在调用方取得数据源之后关闭了该池
+            String key = connectionFactory.getDataSourceRegistry().keys().iterator().next();
+            com.zaxxer.hikari.HikariDataSource stale = connectionFactory.getDataSourceRegistry().get(key);
+            stale.close();
+
+            try (java.sql.Connection conn = connectionFactory.getConnection("test_system", node, config, "h2")) {
+                assertTrue(conn.isValid(3));
+            }
+            com.zaxxer.hikari.HikariDataSource current = connectionFactory.getDataSourceRegistry().get(key);
+            assertNotSame(stale, current);
+            assertFalse(current.isClosed());
+            assertEquals(1, connectionFactory.getDataSourceCount());
+        } finally {
+            connectionFactory.shutdown();
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package com.dbcli.executor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AIMD 并发控制测试
+ */
+public class AimdConcurrencyControllerTest {
+
+    @Test
+    void testLimitGrowsWhileLatencyFlatAndDropsOnSpike() {
+        List<Integer> applied = new ArrayList<>();
+        AimdConcurrencyController controller = new AimdConcurrencyController("oracle", 4, 1, 8, applied::add);
+
+        fillWindow(controller, 100, false);
+        fillWindow(controller, 100, false);
+        fillWindow(controller, 100, false);
+        assertEquals(7, controller.getLimit());
+        assertEquals(100, controller.getBaselineP95());
+
+        // p95 超过基线两倍：乘性下调
+        fillWindow(controller, 500, false);
+        assertEquals(4, controller.getLimit());
+        assertEquals(500, controller.getLastP95());
+        // 过载窗口不抬高基线
+        assertEquals(100, controller.getBaselineP95());
+        assertEquals(List.of(5, 6, 7, 4), applied);
+    }
+
+    @Test
+    void testTimeoutsCutLimitOncePerWindowAndRespectBounds() {
+        AimdConcurrencyController controller = new AimdConcurrencyController("mysql", 10, 2, 10, null);
+
+        fillWindow(controller, 50, false);
+        assertEquals(10, controller.getLimit(), "上限不应超过最大值");
+
+        // 同一窗口内多次超时只下调一次
+        for (int i = 0; i < AimdConcurrencyController.WINDOW_SIZE; i++) {
+            controller.record(50, i % 4 == 0);
+        }
+        assertEquals(7, controller.getLimit());
+        assertEquals(5, controller.getTotalTimeouts());
+
+        for (int round = 0; round < 5; round++) {
+            controller.record(50, true);
+            controller.tick();
+        }
+        assertEquals(2, controller.getLimit(), "上限不应低于最小值");
+    }
+
+    @Test
+    void testTickNeedsMinimumSamples() {
+        AimdConcurrencyController controller = new AimdConcurrencyController("pg", 3, 1, 6, null);
+        for (int i = 0; i < AimdConcurrencyController.MIN_SAMPLES - 1; i++) {
+            controller.record(10, false);
+        }
+        controller.tick();
+        assertEquals(3, controller.getLimit());
+
+        controller.record(10, false);
+        controller.tick();
+        assertEquals(4, controller.getLimit());
+        assertEquals(10, AimdConcurrencyController.percentile95(new long[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, 10));
+    }
+
+    private static void fillWindow(AimdConcurrencyController controller, long latencyMs, boolean timedOut) {
+        for (int i = 0; i < AimdConcurrencyController.WINDOW_SIZE; i++) {
+            controller.record(latencyMs, timedOut);
+        }
+    }
+}
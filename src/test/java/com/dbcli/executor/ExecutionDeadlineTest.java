@@ -0,0 +1,54 @@
+package com.dbcli.executor;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 运行级截止时间测试（H2 内存库）
+ */
+public class ExecutionDeadlineTest {
+
+    @Test
+    void testQueryTimeoutCappedByRemainingTime() throws Exception {
+        ExecutionDeadline deadline = ExecutionDeadline.after(3, TimeUnit.SECONDS);
+        try {
+            assertFalse(deadline.isExpired());
+            assertTrue(deadline.queryTimeoutSeconds(30) <= 3);
+            assertEquals(2, deadline.queryTimeoutSeconds(2));
+        } finally {
+            deadline.close();
+        }
+        assertTrue(deadline.isExpired());
+        assertEquals(30, ExecutionDeadline.NONE.queryTimeoutSeconds(30));
+
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:deadline_expired", "sa", "");
+             PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+            assertThrows(SQLTimeoutException.class, () -> deadline.register(stmt, conn));
+        }
+    }
+
+    @Test
+    void testExpiryCancelsInFlightStatement() throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:deadline_cancel", "sa", "");
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000000000) A WHERE MOD(A.X, 7) = 3")) {
+            ExecutionDeadline deadline = ExecutionDeadline.after(500, TimeUnit.MILLISECONDS);
+            long start = System.currentTimeMillis();
+            try (ExecutionDeadline.Registration ignored = deadline.register(stmt, conn)) {
+                assertEquals(1, deadline.getInFlightCount());
+                assertThrows(SQLException.class, stmt::executeQuery);
+            }
+            assertEquals(0, deadline.getInFlightCount());
+            assertTrue(System.currentTimeMillis() - start < 10_000, "语句应在截止时间后被及时取消");
+            deadline.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.MetricResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按主机公平派发测试
+ */
+public class HostFairDispatcherTest {
+
+    @Test
+    void testRoundRobinAcrossHostsWithinCap() {
+        List<String> submitted = new ArrayList<>();
+        List<CompletableFuture<MetricResult>> running = new ArrayList<>();
+        List<ConcurrentMetricsExecutor.PlannedTask> plan = new ArrayList<>();
+        // 主机 a 有 4 个任务排在最前，b/c 各 1 个
+        for (String host : new String[]{"a", "a", "a", "a", "b", "c"}) {
+            plan.add(new ConcurrentMetricsExecutor.PlannedTask(0, "oracle|sys", host, 1, () -> {
+                submitted.add(host);
+                CompletableFuture<MetricResult> f = new CompletableFuture<>();
+                running.add(f);
+                return Collections.singletonList(f);
+            }));
+        }
+        List<CompletableFuture<MetricResult>> collected = new ArrayList<>();
+
+        int count = new HostFairDispatcher(2, 0).dispatch(plan, collected::add);
+
+        assertEquals(6, count);
+        assertEquals(6, collected.size());
+        // 轮询：a, b, c 各一个后 a 再补一个，达到每主机上限
+        assertEquals(List.of("a", "b", "c", "a"), submitted);
+
+        MetricResult result = new MetricResult();
+        running.get(0).complete(result);
+        assertEquals(List.of("a", "b", "c", "a", "a"), submitted);
+        // 占位 Future 按计划顺序交给调用方，由实际结果完成
+        assertSame(result, collected.get(0).join());
+        assertFalse(collected.get(3).isDone());
+    }
+
+    @Test
+    void testPerHostCapUnderConcurrentExecution() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+        List<Integer> observed = new CopyOnWriteArrayList<>();
+        List<ConcurrentMetricsExecutor.PlannedTask> plan = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String host = "h" + (i % 4);
+            plan.add(new ConcurrentMetricsExecutor.PlannedTask(0, "mysql|" + host, host, 1,
+                    () -> Collections.singletonList(CompletableFuture.supplyAsync(() -> {
+                        int now = active.computeIfAbsent(host, k -> new AtomicInteger()).incrementAndGet();
+                        observed.add(now);
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        active.get(host).decrementAndGet();
+                        return new MetricResult();
+                    }, pool))));
+        }
+        List<CompletableFuture<MetricResult>> collected = new ArrayList<>();
+        try {
+            new HostFairDispatcher(2, 0).dispatch(plan, collected::add);
+            CompletableFuture.allOf(collected.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(40, observed.size());
+        assertTrue(observed.stream().allMatch(n -> n <= 2), "单主机并发超过上限: " + observed);
+    }
+
+    @Test
+    void testManyAlreadyCompletedTasksDoNotRecurse() {
+        // 缓存命中与熔断结果均为已完成的 Future，完成回调在提交线程上立即执行
+        int tasks = 20000;
+        List<ConcurrentMetricsExecutor.PlannedTask> plan = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            String host = "h" + (i % 10);
+            plan.add(new ConcurrentMetricsExecutor.PlannedTask(0, "oracle|" + host, host, 1,
+                    () -> Collections.singletonList(CompletableFuture.completedFuture(new MetricResult()))));
+        }
+        List<CompletableFuture<MetricResult>> collected = new ArrayList<>();
+
+        assertEquals(tasks, new HostFairDispatcher(1, 0).dispatch(plan, collected::add));
+
+        assertEquals(tasks, collected.size());
+        assertTrue(collected.stream().allMatch(f -> f.isDone() && !f.isCompletedExceptionally()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.MetricResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 指标耗时历史与最长优先调度测试
+ */
+public class MetricLatencyHistoryTest {
+
+    @Test
+    void testEstimateFallsBackToMetricAverageThenDefault(@TempDir Path tempDir) {
+        MetricLatencyHistory history = new MetricLatencyHistory(tempDir.resolve("latency.properties"));
+
+        assertEquals(MetricLatencyHistory.DEFAULT_ESTIMATE_MS, history.estimate("oracle", "sys_a", "tablespace"));
+
+        history.record("oracle", "sys_a", "tablespace", 1000);
+        history.record("oracle", "sys_a", "tablespace", 2000);
+        // 指数加权平均：1000 + 0.3 * (2000 - 1000)
+        assertEquals(1300, history.estimate("oracle", "sys_a", "tablespace"));
+        assertTrue(history.hasHistory("oracle", "sys_a", "tablespace"));
+
+        // 其他系统无历史时回退到同类型同指标的平均值
+        assertFalse(history.hasHistory("oracle", "sys_b", "tablespace"));
+        assertEquals(1300, history.estimate("oracle", "sys_b", "tablespace"));
+        assertEquals(MetricLatencyHistory.DEFAULT_ESTIMATE_MS, history.estimate("mysql", "sys_a", "tablespace"));
+
+        // 未设置耗时的结果不记录
+        MetricResult result = new MetricResult();
+        result.setDbType("oracle");
+        result.setSystemName("sys_c");
+        result.setMetricName("sessions");
+        history.accept(result);
+        assertFalse(history.hasHistory("oracle", "sys_c", "sessions"));
+        result.setExecutionTime(40L);
+        history.accept(result);
+        assertEquals(40, history.estimate("oracle", "sys_c", "sessions"));
+    }
+
+    @Test
+    void testPersistenceRoundTrip(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("logs").resolve("latency.properties");
+        MetricLatencyHistory history = new MetricLatencyHistory(file);
+        history.record("oracle", "sys_a", "awr", 9000);
+        history.record("oracle", "sys_b", "awr", 3000);
+        history.save();
+
+        MetricLatencyHistory reloaded = new MetricLatencyHistory(file);
+        reloaded.load();
+        assertEquals(2, reloaded.size());
+        assertEquals(9000, reloaded.estimate("oracle", "sys_a", "awr"));
+        // 加载后按跨系统平均回退
+        assertEquals(6000, reloaded.estimate("oracle", "sys_new", "awr"));
+    }
+
+    @Test
+    void testLongestExpectedTaskDispatchedFirst() {
+        List<ConcurrentMetricsExecutor.PlannedTask> plan = new ArrayList<>();
+        long[] costs = {100, 5000, 100, 800, 5000};
+        for (long cost : costs) {
+            plan.add(new ConcurrentMetricsExecutor.PlannedTask(cost, null, null, 0, Collections::emptyList));
+        }
+        List<ConcurrentMetricsExecutor.PlannedTask> original = new ArrayList<>(plan);
+
+        ConcurrentMetricsExecutor.orderByExpectedCost(plan);
+
+        assertEquals(List.of(5000L, 5000L, 800L, 100L, 100L),
+                plan.stream().map(t -> t.expectedCostMs).collect(Collectors.toList()));
+        // 预计耗时相同的任务保持原顺序
+        assertSame(original.get(1), plan.get(0));
+        assertSame(original.get(4), plan.get(1));
+        assertSame(original.get(0), plan.get(3));
+        assertSame(original.get(2), plan.get(4));
+    }
+}
@@ -0,0 +1,103 @@
+package com.dbcli.executor;
+
+import com.dbcli.model.DatabaseNode;
+import com.dbcli.model.MetricConfig;
+import com.dbcli.model.MetricResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 指标结果缓存测试
+ */
+public class MetricResultCacheTest {
+
+    @Test
+    void testResultSurvivesRestartAndKeepsOriginalTime(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("cache.json");
+        DatabaseNode node = node("10.0.0.1");
+        MetricConfig metric = metric("表空间", "SELECT 1 FROM DUAL", 600);
+        LocalDateTime collected = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+        MetricResultCache cache = new MetricResultCache(file);
+        cache.load();
+        assertNull(cache.get("oracle", "sys_a", node, metric));
+
+        MetricResult result = new MetricResult("sys_a", "oracle", "***.***.0.1", "表空间", "desc", "MULTI", "oracle");
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("NAME", "USERS");
+        row.put("USED", 42);
+        result.setColumns(List.of("NAME", "USED"));
+        result.setMultiValues(List.of(row));
+        result.setExecuteTime(collected);
+        result.setSuccess(true);
+        cache.put("oracle", "sys_a", node, metric, result);
+
+        // 失败结果不缓存
+        MetricResult failed = new MetricResult("sys_a", "oracle", "***.***.0.2", "表空间", "desc", "MULTI", "oracle");
+        failed.setSuccess(false);
+        cache.put("oracle", "sys_a", node("10.0.0.2"), metric, failed);
+        cache.save();
+        assertTrue(Files.exists(file));
+        // 文件中不出现明文地址
+        String content = new String(Files.readAllBytes(file), java.nio.charset.StandardCharsets.UTF_8);
+        assertFalse(content.contains("10.0.0.1"));
+
+        MetricResultCache reloaded = new MetricResultCache(file);
+        reloaded.load();
+        assertEquals(1, reloaded.size());
+        MetricResult hit = reloaded.get("oracle", "sys_a", node, metric);
+        assertNotNull(hit);
+        assertTrue(hit.isCached());
+        assertTrue(hit.isSuccess());
+        assertEquals(collected, hit.getExecuteTime());
+        assertNull(hit.getExecutionTime(), "缓存结果不应计入耗时历史");
+        assertEquals(List.of("NAME", "USED"), hit.getColumns());
+        assertEquals("USERS", hit.getMultiValues().get(0).get("NAME"));
+        assertEquals(42, ((Number) hit.getMultiValues().get(0).get("USED")).intValue());
+    }
+
+    @Test
+    void testEntryInvalidatedBySqlChangeOrMissingTtl(@TempDir Path tempDir) {
+        MetricResultCache cache = new MetricResultCache(tempDir.resolve("cache.json"));
+        DatabaseNode node = node("10.0.0.1");
+        MetricConfig metric = metric("会话数", "SELECT COUNT(*) FROM V$SESSION", 600);
+
+        MetricResult result = new MetricResult("sys_a", "oracle", "***.***.0.1", "会话数", "desc", "SINGLE", "oracle");
+        result.setValue(12);
+        result.setSuccess(true);
+        cache.put("oracle", "sys_a", node, metric, result);
+        assertNotNull(cache.get("oracle", "sys_a", node, metric));
+        assertNull(cache.get("oracle", "sys_b", node, metric));
+
+        // 修改 SQL 后旧结果失效
+        assertNull(cache.get("oracle", "sys_a", node, metric("会话数", "SELECT COUNT(*) FROM GV$SESSION", 600)));
+        // 未配置 cache_ttl 的指标不读不写
+        MetricConfig uncached = metric("会话数", "SELECT COUNT(*) FROM V$SESSION", 0);
+        assertNull(cache.get("oracle", "sys_a", node, uncached));
+    }
+
+    private static DatabaseNode node(String host) {
+        DatabaseNode node = new DatabaseNode();
+        node.setHost(host);
+        node.setPort(1521);
+        node.setSvcName("orcl");
+        return node;
+    }
+
+    private static MetricConfig metric(String name, String sql, int ttl) {
+        MetricConfig metric = new MetricConfig();
+        metric.setName(name);
+        metric.setSql(sql);
+        metric.setCacheTtl(ttl);
+        return metric;
+    }
+}
@@ -218,6 +218,24 @@ public class PerformanceOptimizationTest {
         assertTrue(circuitBreaker.getFailureCount() >= 2);
     }
     
+    @Test
+    void testCircuitBreakerHalfOpenRecovery() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test-node", 2, 0, 100);
+        
+        circuitBreaker.recordFailure();
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordFailure();
+        assertFalse(circuitBreaker.allowRequest(), "熔断期内应拒绝请求");
+        
+        Thread.sleep(150);
+        assertTrue(circuitBreaker.allowRequest(), "熔断等待结束后应放行试探请求");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        
+        circuitBreaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getFailureCount());
+    }
+    
     @Test
     void testTaskCancellation() throws Exception {
         logger.info("测试任务取消");
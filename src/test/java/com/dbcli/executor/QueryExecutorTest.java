@@ -0,0 +1,357 @@
+package com.dbcli.executor;
+
+import com.dbcli.database.DatabaseManager;
+import com.dbcli.model.DatabaseConfig;
+import com.dbcli.model.DatabaseNode;
+import com.dbcli.model.MetricConfig;
+import com.dbcli.model.MetricResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryExecutor 测试（基于 H2 内存库）
+ */
+public class QueryExecutorTest {
+
+    private DatabaseManager databaseManager;
+    private QueryExecutor queryExecutor;
+    private DatabaseNode node;
+
+    @BeforeEach
+    void setUp() {
+        node = new DatabaseNode();
+        node.setHost("127.0.0.1");
+        node.setPort(1);
+        node.setSvcName("query_executor_test");
+        node.setRole("master");
+
+        DatabaseConfig config = new DatabaseConfig();
+        config.setEnable(true);
+        config.setType("h2");
+        config.setPort(1);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaxPoolSize(4);
+        config.setNodes(Collections.singletonList(node));
+
+        Map<String, DatabaseConfig> configs = new HashMap<>();
+        configs.put("h2sys", config);
+
+        databaseManager = new DatabaseManager();
+        databaseManager.initialize(configs);
+        queryExecutor = new QueryExecutor(databaseManager, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryExecutor.shutdown();
+        databaseManager.shutdown();
+    }
+
+    @Test
+    void testNodeSessionRunsAllMetricsOnOneConnection() throws Exception {
+        List<MetricConfig> metrics = Arrays.asList(
+                metric("session_id_1", "SINGLE", "SELECT SESSION_ID()"),
+                metric("session_id_2", "SINGLE", "SELECT SESSION_ID()"),
+                metric("rows", "MULTI", "SELECT X AS N FROM SYSTEM_RANGE(1, 3)"));
+
+        List<CompletableFuture<MetricResult>> futures =
+                queryExecutor.executeMetricsAsyncForNodeSession("h2", "h2sys", metrics, node);
+        List<MetricResult> results = queryExecutor.waitForResults(futures, 30);
+
+        assertEquals(3, results.size());
+        results.forEach(r -> assertTrue(r.isSuccess(), r.getMetricName() + ": " + r.getErrorMessage()));
+        assertEquals(results.get(0).getValue(), results.get(1).getValue(), "会话内的指标应复用同一连接");
+        assertEquals(3, results.get(2).getMultiValues().size());
+        assertEquals("master", results.get(2).getNodeRole());
+    }
+
+    @Test
+    void testSingleBatchingMergesScalarsAndFallsBackPerMetric() throws Exception {
+        queryExecutor.setSingleBatching(true);
+        List<MetricConfig> metrics = Arrays.asList(
+                metric("one", "SINGLE", "SELECT 1"),
+                metric("count", "SINGLE", "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 5); "),
+                metric("empty", "SINGLE", "SELECT X FROM SYSTEM_RANGE(1, 3) WHERE X > 10 -- 无结果"),
+                metric("rows", "MULTI", "SELECT X AS N FROM SYSTEM_RANGE(1, 2)"));
+
+        List<MetricResult> results = queryExecutor.waitForResults(
+                queryExecutor.executeMetricsAsyncForNodeSession("h2", "h2sys", metrics, node), 30);
+        results.forEach(r -> assertTrue(r.isSuccess(), r.getMetricName() + ": " + r.getErrorMessage()));
+        assertEquals(1, ((Number) results.get(0).getValue()).intValue());
+        assertEquals(5, ((Number) results.get(1).getValue()).intValue());
+        assertNull(results.get(2).getValue());
+        assertEquals(2, results.get(3).getMultiValues().size());
+        assertEquals(3, queryExecutor.getBatchedMetricCount());
+
+        // 多行子查询使合并语句失败：拆分后单独仍失败的指标逐条执行并不再参与合并
+        List<MetricConfig> mixed = Arrays.asList(
+                metric("first_row", "SINGLE", "SELECT X FROM SYSTEM_RANGE(7, 9)"),
+                metric("two", "SINGLE", "SELECT 2"));
+        for (int round = 0; round < 2; round++) {
+            List<MetricResult> fallback = queryExecutor.waitForResults(
+                    queryExecutor.executeMetricsAsyncForNodeSession("h2", "h2sys", mixed, node), 30);
+            assertEquals(7, ((Number) fallback.get(0).getValue()).intValue());
+            assertEquals(2, ((Number) fallback.get(1).getValue()).intValue());
+        }
+        // 首轮拆分后 two 单独合并成功；次轮仅剩一个可合并指标，不再合并
+        assertEquals(4, queryExecutor.getBatchedMetricCount());
+    }
+
+    @Test
+    void testFailedSingleBatchOnlyMarksTheFailingMetric() throws Exception {
+        queryExecutor.setSingleBatching(true);
+        List<MetricConfig> metrics = Arrays.asList(
+                metric("a", "SINGLE", "SELECT 1"),
+                metric("b", "SINGLE", "SELECT 'b'"),
+                metric("bad", "SINGLE", "SELECT X FROM SYSTEM_RANGE(7, 9)"),
+                metric("d", "SINGLE", "SELECT CAST(4.5 AS DECIMAL(5, 2))"),
+                metric("e", "SINGLE", "SELECT NULL"));
+
+        List<MetricResult> batched = queryExecutor.waitForResults(
+                queryExecutor.executeMetricsAsyncForNodeSession("h2", "h2sys", metrics, node), 30);
+        assertEquals(4, queryExecutor.getBatchedMetricCount());
+
+        // 其余指标仍参与合并，只有单独失败的指标被排除
+        queryExecutor.waitForResults(queryExecutor.executeMetricsAsyncForNodeSession("h2", "h2sys", metrics, node), 30);
+        assertEquals(8, queryExecutor.getBatchedMetricCount());
+
+        // 合并与逐条执行的取值一致
+        QueryExecutor plain = new QueryExecutor(databaseManager, 2);
+        try {
+            List<MetricResult> unbatched = plain.waitForResults(
+                    plain.executeMetricsAsyncForNodeSession("h2", "h2sys", metrics, node), 30);
+            assertEquals(0, plain.getBatchedMetricCount());
+            for (int i = 0; i < metrics.size(); i++) {
+                assertTrue(batched.get(i).isSuccess(), batched.get(i).getMetricName());
+                assertEquals(unbatched.get(i).getValue(), batched.get(i).getValue(), metrics.get(i).getName());
+            }
+        } finally {
+            plain.shutdown();
+        }
+    }
+
+    @Test
+    void testSingleBatchSqlPerDialect() {
+        List<MetricConfig> metrics = Arrays.asList(
+                metric("a", "SINGLE", "select count(*) from v$session;"),
+                metric("b", "SINGLE", "SELECT 1"));
+        assertEquals("SELECT (select count(*) from v$session\n) AS M0, (SELECT 1\n) AS M1 FROM DUAL",
+                QueryExecutor.buildSingleBatchSql("oracle", metrics));
+        assertFalse(QueryExecutor.buildSingleBatchSql("mysql", metrics).contains("DUAL"));
+        assertFalse(QueryExecutor.isBatchableSingle(metric("show", "SINGLE", "SHOW GLOBAL STATUS LIKE 'Threads_connected'")));
+        assertFalse(QueryExecutor.isBatchableSingle(metric("multi", "MULTI", "SELECT 1")));
+    }
+
+    @Test
+    void testLookupMetricsShareOneCatalogSnapshotPerNode() throws Exception {
+        CatalogSnapshots snapshots = new CatalogSnapshots();
+        queryExecutor.setCatalogSnapshots(snapshots);
+        String source = "SELECT 'Threads_connected', 12 UNION ALL SELECT 'Uptime', 3600";
+        MetricConfig threads = metric("threads", "SINGLE", null);
+        threads.setLookup(new MetricConfig.Lookup(source, "threads_connected"));
+        MetricConfig uptime = metric("uptime", "SINGLE", null);
+        uptime.setLookup(new MetricConfig.Lookup(source, "Uptime"));
+        MetricConfig missing = metric("missing", "SINGLE", null);
+        missing.setLookup(new MetricConfig.Lookup(source, "no_such_key"));
+        // 快照来源不可用时回退到配置的 SQL
+        MetricConfig fallback = metric("fallback", "SINGLE", "SELECT 3");
+        fallback.setLookup(new MetricConfig.Lookup("SELECT * FROM NO_SUCH_VIEW", "x"));
+
+        List<MetricResult> results = queryExecutor.waitForResults(queryExecutor.executeMetricsAsyncForNodeSession(
+                "h2", "h2sys", Arrays.asList(threads, uptime, missing, fallback), node), 30);
+        results.forEach(r -> assertTrue(r.isSuccess(), r.getMetricName() + ": " + r.getErrorMessage()));
+        assertEquals(12, ((Number) results.get(0).getValue()).intValue());
+        assertEquals(3600, ((Number) results.get(1).getValue()).intValue());
+        assertNull(results.get(2).getValue());
+        assertEquals(3, ((Number) results.get(3).getValue()).intValue());
+        assertEquals(2, snapshots.getFetchCount(), "同一来源每节点只读取一次");
+
+        assertEquals("mysql_status", CatalogSnapshots.deriveLookup("SHOW GLOBAL STATUS LIKE 'Threads_connected'", "mysql").getSource());
+        assertEquals("mysql_session_variables", CatalogSnapshots.deriveLookup("show variables like 'lower_case_table_names'", "mysql").getSource());
+        assertEquals("open cursors current", CatalogSnapshots.deriveLookup(
+                "SELECT value FROM v$sysstat WHERE name = 'open cursors current'", "oracle").getKey());
+        assertNull(CatalogSnapshots.deriveLookup("SHOW GLOBAL STATUS LIKE 'Com_%'", "mysql"));
+        assertNull(CatalogSnapshots.deriveLookup("SHOW GLOBAL STATUS LIKE 'Uptime'", "oracle"));
+    }
+
+    @Test
+    void testNodeSessionContinuesAfterFailedMetric() throws Exception {
+        List<MetricConfig> metrics = Arrays.asList(
+                metric("broken", "SINGLE", "SELECT * FROM NOT_EXISTS_TABLE"),
+                metric("ok", "SINGLE", "SELECT 42"));
+
+        List<MetricResult> results = queryExecutor.waitForResults(
+                queryExecutor.executeMetricsAsyncForNodeSession("h2", "h2sys", metrics, node), 30);
+
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).isSuccess());
+        assertNotNull(results.get(0).getErrorMessage());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(42, ((Number) results.get(1).getValue()).intValue());
+    }
+
+    @Test
+    void testMultiValueThresholdKeepsHighestLevel() throws Exception {
+        // HIGH 命中第 3 行的 A 列，之后同一行及各行的 B 列命中 MEDIUM，结果级别应保持 high
+        MetricConfig.Threshold threshold = new MetricConfig.Threshold();
+        threshold.setRules(Arrays.asList(
+                rule("high", "A", ">", 2),
+                rule("medium", "B", ">", 5)));
+        MetricConfig mixed = metric("mixed", "MULTI", "SELECT X AS A, X * 10 AS B FROM SYSTEM_RANGE(1, 3)");
+        mixed.setThreshold(threshold);
+        MetricConfig.Threshold mediumOnly = new MetricConfig.Threshold();
+        mediumOnly.setRules(Collections.singletonList(rule("medium", "B", ">", 5)));
+        MetricConfig medium = metric("medium", "MULTI", "SELECT X AS A, X * 10 AS B FROM SYSTEM_RANGE(1, 3)");
+        medium.setThreshold(mediumOnly);
+
+        List<MetricResult> results = queryExecutor.waitForResults(Arrays.asList(
+                queryExecutor.executeMetricAsyncForNode("h2", "h2sys", mixed, node),
+                queryExecutor.executeMetricAsyncForNode("h2", "h2sys", medium, node)), 30);
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("high", results.get(0).getThresholdLevel());
+        assertEquals("medium", results.get(1).getThresholdLevel());
+    }
+
+    @Test
+    void testMaxRowsTruncatesMultiValueResult() throws Exception {
+        MetricConfig limited = metric("limited", "MULTI", "SELECT X AS N FROM SYSTEM_RANGE(1, 50)");
+        MetricConfig.ExecutionStrategy strategy = new MetricConfig.ExecutionStrategy();
+        strategy.setMaxRows(10);
+        limited.setExecutionStrategy(strategy);
+        MetricConfig exact = metric("exact", "MULTI", "SELECT X AS N FROM SYSTEM_RANGE(1, 10)");
+        exact.setExecutionStrategy(strategy);
+        // 未配置 max_rows 的指标不截断
+        MetricConfig unlimited = metric("unlimited", "MULTI", "SELECT X AS N FROM SYSTEM_RANGE(1, 12000)");
+
+        List<MetricResult> results = queryExecutor.waitForResults(Arrays.asList(
+                queryExecutor.executeMetricAsyncForNode("h2", "h2sys", limited, node),
+                queryExecutor.executeMetricAsyncForNode("h2", "h2sys", exact, node),
+                queryExecutor.executeMetricAsyncForNode("h2", "h2sys", unlimited, node)), 30);
+
+        assertEquals(10, results.get(0).getMultiValues().size());
+        assertTrue(results.get(0).isTruncated());
+        assertEquals(10, results.get(1).getMultiValues().size());
+        assertFalse(results.get(1).isTruncated());
+        assertEquals(12000, results.get(2).getMultiValues().size());
+        assertFalse(results.get(2).isTruncated());
+    }
+
+    @Test
+    void testFetchOptionDefaultsPerDriver() {
+        MetricConfig plain = metric("plain", "MULTI", "SELECT 1");
+        QueryExecutor.FetchOptions oracle = QueryExecutor.resolveFetchOptions(plain, "oracle");
+        assertEquals(QueryExecutor.DEFAULT_FETCH_SIZE, oracle.fetchSize);
+        assertEquals(0, oracle.maxRows);
+
+        assertEquals(0, QueryExecutor.resolveFetchOptions(plain, "mysql").fetchSize);
+
+        MetricConfig.ExecutionStrategy strategy = new MetricConfig.ExecutionStrategy();
+        strategy.setFetchSize(200);
+        plain.setExecutionStrategy(strategy);
+        assertEquals(200, QueryExecutor.resolveFetchOptions(plain, "mysql").fetchSize);
+
+        strategy.setStreaming(true);
+        strategy.setMaxRows(0);
+        plain.setExecutionStrategy(strategy);
+        QueryExecutor.FetchOptions mysqlStreaming = QueryExecutor.resolveFetchOptions(plain, "mysql");
+        assertEquals(Integer.MIN_VALUE, mysqlStreaming.fetchSize);
+        assertEquals(0, mysqlStreaming.maxRows);
+    }
+
+    @Test
+    void testHedgedRequestFallsBackToFasterNode() throws Exception {
+        DatabaseNode slow = h2Node("hedge_primary", "master");
+        DatabaseNode fast = h2Node("hedge_standby", "standby");
+        try (Connection primaryDb = DriverManager.getConnection(h2Url("hedge_primary"), "sa", "");
+             Connection standbyDb = DriverManager.getConnection(h2Url("hedge_standby"), "sa", "");
+             Statement primaryStmt = primaryDb.createStatement();
+             Statement standbyStmt = standbyDb.createStatement()) {
+            // 主节点上的视图是一个长时间运行的查询，备节点立即返回
+            primaryStmt.execute("CREATE OR REPLACE VIEW HEDGE_V AS SELECT COUNT(*) AS C "
+                    + "FROM SYSTEM_RANGE(1, 100000000000) A WHERE MOD(A.X, 7) = 3");
+            standbyStmt.execute("CREATE OR REPLACE VIEW HEDGE_V AS SELECT 42 AS C");
+
+            DatabaseConfig config = new DatabaseConfig();
+            config.setEnable(true);
+            config.setType("h2");
+            config.setPort(1);
+            config.setUsername("sa");
+            config.setPassword("");
+            config.setNodes(Arrays.asList(slow, fast));
+            Map<String, DatabaseConfig> configs = new HashMap<>();
+            configs.put("hedgesys", config);
+            DatabaseManager manager = new DatabaseManager();
+            manager.initialize(configs);
+            QueryExecutor executor = new QueryExecutor(manager, 4);
+            HedgingPolicy policy = new HedgingPolicy();
+            try {
+                long start = System.currentTimeMillis();
+                AtomicReference<DatabaseNode> answeredBy = new AtomicReference<>();
+                MetricResult result = executor.executeMetricHedgedAsync("h2", "hedgesys",
+                        metric("hedged", "SINGLE", "SELECT C FROM HEDGE_V"), slow, fast, policy,
+                        (node, r) -> answeredBy.set(node))
+                        .get(20, TimeUnit.SECONDS);
+
+                assertTrue(result.isSuccess(), result.getErrorMessage());
+                assertEquals(42, ((Number) result.getValue()).intValue());
+                assertEquals("standby", result.getNodeRole());
+                assertTrue(System.currentTimeMillis() - start < 10_000);
+                assertEquals(1, policy.getHedgedCount());
+                assertEquals(1, policy.getBackupWins());
+                assertSame(fast, answeredBy.get(), "结果应记在实际返回的节点下");
+            } finally {
+                executor.shutdown();
+                manager.shutdown();
+            }
+        }
+        assertFalse(HedgingPolicy.isReadOnly(metric("w", "SINGLE", "UPDATE T SET A = 1")));
+    }
+
+    private static DatabaseNode h2Node(String svcName, String role) {
+        DatabaseNode n = new DatabaseNode();
+        n.setHost("127.0.0.1");
+        n.setPort(1);
+        n.setSvcName(svcName);
+        n.setRole(role);
+        return n;
+    }
+
+    private static String h2Url(String svcName) {
+        return "jdbc:h2:mem:" + svcName + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    }
+
+    private static MetricConfig.Threshold.Rule rule(String level, String column, String operator, Object value) {
+        MetricConfig.Threshold.Rule rule = new MetricConfig.Threshold.Rule();
+        rule.setLevel(level);
+        rule.setColumn(column);
+        rule.setOperator(operator);
+        rule.setValue(value);
+        return rule;
+    }
+
+    private MetricConfig metric(String name, String type, String sql) {
+        MetricConfig config = new MetricConfig();
+        config.setName(name);
+        config.setType(type);
+        config.setSql(sql);
+        config.setDescription(name);
+        return config;
+    }
+}
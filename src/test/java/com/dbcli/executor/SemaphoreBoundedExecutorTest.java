@@ -0,0 +1,159 @@
+package com.dbcli.executor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 信号量限流执行器与执行器后端选择测试
+ */
+public class SemaphoreBoundedExecutorTest {
+
+    @Test
+    void testConcurrencyIsBoundedByPermits() throws Exception {
+        SemaphoreBoundedExecutor executor =
+                new SemaphoreBoundedExecutor("test", Executors.newCachedThreadPool(), 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(maxRunning.get() <= 3, "并发数不应超过许可数: " + maxRunning.get());
+        assertEquals(20, executor.getTaskCount());
+        assertEquals(executor.getTaskCount(), executor.getCompletedTaskCount());
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test
+    void testTasksInterruptedWhileWaitingAreCompletedOnce() throws Exception {
+        SemaphoreBoundedExecutor executor =
+                new SemaphoreBoundedExecutor("test", Executors.newCachedThreadPool(), 1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> { });
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getWaitingCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // 中断正在执行与等待许可的任务：每个任务恰好计入一次已完成
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(4, executor.getTaskCount());
+        assertEquals(executor.getTaskCount(), executor.getCompletedTaskCount());
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test
+    void testMaxConcurrencyAdjustableAtRuntime() throws Exception {
+        SemaphoreBoundedExecutor executor =
+                new SemaphoreBoundedExecutor("test", Executors.newCachedThreadPool(), 4);
+        executor.setMaxConcurrency(1);
+        assertEquals(1, executor.getMaxConcurrency());
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(1, maxRunning.get(), "下调后并发数应受新上限约束");
+
+        executor.setMaxConcurrency(3);
+        assertEquals(3, executor.getMaxConcurrency());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPlatformBackendUsesFixedPool() {
+        assertFalse(ExecutorBackends.useVirtualThreads("platform"));
+
+        ExecutorService executor = ExecutorBackends.newExecutor("test", 4, "platform");
+        assertTrue(executor instanceof ThreadPoolExecutor);
+        assertEquals(4, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testBackendIsChosenPerPoolManager() {
+        AdaptiveThreadPoolManager platform = new AdaptiveThreadPoolManager(2, "platform");
+        AdaptiveThreadPoolManager auto = new AdaptiveThreadPoolManager(2, "auto");
+        try {
+            assertTrue(platform.getExecutor("mysql") instanceof ThreadPoolExecutor);
+            assertEquals(ExecutorBackends.isVirtualThreadAvailable(),
+                    auto.getExecutor("mysql") instanceof SemaphoreBoundedExecutor);
+        } finally {
+            platform.shutdown();
+            auto.shutdown();
+        }
+    }
+
+    @Test
+    void testRejectedTaskIsNotCounted() {
+        ExecutorService delegate = Executors.newSingleThreadExecutor();
+        delegate.shutdown();
+        SemaphoreBoundedExecutor executor = new SemaphoreBoundedExecutor("test", delegate, 2);
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+        assertEquals(0, executor.getTaskCount());
+        assertEquals(0, executor.getCompletedTaskCount());
+    }
+
+    @Test
+    void testVirtualBackendFallsBackWhenUnavailable() {
+        boolean available = ExecutorBackends.isVirtualThreadAvailable();
+        assertEquals(Runtime.version().feature() >= 21, available);
+        assertEquals(available, ExecutorBackends.useVirtualThreads("virtual"));
+        assertEquals(available, ExecutorBackends.useVirtualThreads("auto"));
+    }
+}
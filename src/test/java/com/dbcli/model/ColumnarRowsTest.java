@@ -0,0 +1,99 @@
+package com.dbcli.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarRowsTest {
+
+    @Test
+    public void testRowViewMatchesLinkedHashMapRows() {
+        List<String> columns = Arrays.asList("ID", "NAME", "SIZE_MB", "RATIO", "USED", "CREATED", "FLAG");
+        Object[][] data = {
+                {1, "USERS", new BigDecimal("1024.50"), 0.75d, 10L, Timestamp.valueOf("2024-01-01 00:00:00"), (short) 1},
+                {2, "SYSTEM", new BigDecimal("2048"), null, null, null, (short) 0},
+                {3, "USERS", new BigDecimal("12345678901234567890.1"), 1.5d, 3L, Timestamp.valueOf("2024-02-01 00:00:00"), null},
+        };
+
+        ColumnarRows.Builder builder = new ColumnarRows.Builder(columns, 1);
+        List<Map<String, Object>> expected = new ArrayList<>();
+        for (Object[] values : data) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int c = 0; c < columns.size(); c++) {
+                builder.set(c, values[c]);
+                row.put(columns.get(c), values[c]);
+            }
+            builder.endRow();
+            expected.add(row);
+        }
+        ColumnarRows rows = builder.build();
+
+        assertEquals(3, rows.size());
+        assertEquals(expected, rows.asRowMaps());
+        for (int r = 0; r < expected.size(); r++) {
+            assertEquals(new ArrayList<>(expected.get(r).keySet()), new ArrayList<>(rows.asRowMaps().get(r).keySet()));
+        }
+        // 装箱类型与原始 JDBC 类型一致
+        assertTrue(rows.getValue(0, "ID") instanceof Integer);
+        assertTrue(rows.getValue(0, "FLAG") instanceof Short);
+        assertEquals("1024.50", rows.getValue(0, "SIZE_MB").toString());
+        assertEquals("12345678901234567890.1", rows.getValue(2, "SIZE_MB").toString());
+        assertSame(rows.getValue(0, "NAME"), rows.getValue(2, "NAME"), "重复字符串应来自同一字符串池条目");
+    }
+
+    @Test
+    public void testMixedTypesFallBackToObjects() {
+        ColumnarRows.Builder builder = new ColumnarRows.Builder(Arrays.asList("V"));
+        builder.set(0, 1).endRow();
+        builder.set(0, "text").endRow();
+        builder.set(0, BigInteger.TEN).endRow();
+        ColumnarRows rows = builder.build();
+
+        assertEquals(1, rows.getValue(0, 0));
+        assertEquals("text", rows.getValue(1, 0));
+        assertEquals(BigInteger.TEN, rows.getValue(2, 0));
+    }
+
+    @Test
+    public void testDuplicateColumnNamesAndThresholdFlag() {
+        ColumnarRows.Builder builder = new ColumnarRows.Builder(Arrays.asList("A", "B", "A"));
+        builder.set(0, 1L).set(1, 2L).set(2, 3L).endRow();
+        ColumnarRows rows = builder.build();
+
+        Map<String, Object> row = rows.asRowMaps().get(0);
+        assertEquals(Arrays.asList("A", "B"), new ArrayList<>(row.keySet()));
+        assertEquals(3L, row.get("A"));
+        assertFalse(row.containsKey(ColumnarRows.THRESHOLD_FLAG));
+
+        rows.flagRow(0);
+        row = rows.asRowMaps().get(0);
+        assertEquals(Boolean.TRUE, row.get(ColumnarRows.THRESHOLD_FLAG));
+        assertEquals(3, row.size());
+        assertThrows(UnsupportedOperationException.class, () -> rows.asRowMaps().get(0).put("X", 1));
+    }
+
+    @Test
+    public void testMetricResultExposesColumnarRowsAsMultiValues() {
+        MetricResult result = new MetricResult();
+        ColumnarRows.Builder builder = new ColumnarRows.Builder(Arrays.asList("N"));
+        builder.set(0, 7L).endRow();
+        result.setColumnarRows(builder.build());
+
+        assertEquals(1, result.getMultiValues().size());
+        assertEquals(7L, result.getMultiValues().get(0).get("N"));
+        assertEquals(result.getMultiValues(), result.getMultipleValues());
+
+        result.setMultiValues(new ArrayList<>());
+        assertNull(result.getColumnarRows());
+        assertTrue(result.getMultiValues().isEmpty());
+    }
+}
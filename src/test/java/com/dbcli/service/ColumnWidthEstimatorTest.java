@@ -0,0 +1,45 @@
+package com.dbcli.service;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列宽估算测试
+ */
+public class ColumnWidthEstimatorTest {
+
+    @Test
+    void testDisplayWidthCountsFullWidthCharactersDouble() {
+        assertEquals(9, ColumnWidthEstimator.displayWidth("127.0.0.1"));
+        assertEquals(8, ColumnWidthEstimator.displayWidth("系统名称"));
+        assertEquals(11, ColumnWidthEstimator.displayWidth("表空间USERS"));
+        assertEquals(8, ColumnWidthEstimator.displayWidth("（缓存）"));
+        assertEquals(6, ColumnWidthEstimator.displayWidth("ab\r\n数据库\nxyz"));
+        assertEquals(2, ColumnWidthEstimator.displayWidth(new String(Character.toChars(0x20000))));
+    }
+
+    @Test
+    void testApplyUsesWidestCellWithinBounds() throws Exception {
+        ColumnWidthEstimator widths = new ColumnWidthEstimator();
+        widths.record(0, "节点IP");
+        widths.record(0, "10.0.0.1");
+        widths.record(1, "x");
+        widths.record(40, "far column");
+        widths.record(2, "很长的错误信息".repeat(20));
+        assertEquals(8, widths.getMaxWidth(0));
+        assertEquals(10, widths.getMaxWidth(40));
+        assertEquals(0, widths.getMaxWidth(3));
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("s");
+            widths.apply(sheet, 4, 2000, 12000);
+            assertEquals(10 * ColumnWidthEstimator.CHAR_UNIT, sheet.getColumnWidth(0));
+            assertEquals(2000, sheet.getColumnWidth(1));
+            assertEquals(12000, sheet.getColumnWidth(2));
+            assertEquals(2000, sheet.getColumnWidth(3));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dbcli.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 连通性缓存测试
+ */
+public class ConnectionProbeCacheTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void testSuccessSkippedWithinTtl(@TempDir Path tempDir) {
+        ConnectionProbeCache cache = new ConnectionProbeCache(tempDir.resolve("cache.properties"), 90 * MINUTE, 5 * MINUTE, 240 * MINUTE);
+        long now = 1_000_000L;
+
+        assertEquals(ConnectionProbeCache.Decision.PROBE, cache.check("k", now));
+        cache.recordSuccess("k", now);
+        assertEquals(ConnectionProbeCache.Decision.CACHED_SUCCESS, cache.check("k", now + 89 * MINUTE));
+        assertEquals(ConnectionProbeCache.Decision.PROBE, cache.check("k", now + 90 * MINUTE));
+        assertEquals(ConnectionProbeCache.Decision.PROBE, cache.check(null, now));
+    }
+
+    @Test
+    void testFailureBackoffDoublesUntilCap(@TempDir Path tempDir) {
+        ConnectionProbeCache cache = new ConnectionProbeCache(tempDir.resolve("cache.properties"), 90 * MINUTE, 5 * MINUTE, 60 * MINUTE);
+        long now = 0L;
+
+        cache.recordFailure("k", now);
+        assertEquals(1, cache.getConsecutiveFailures("k"));
+        assertEquals(ConnectionProbeCache.Decision.CACHED_FAILURE, cache.check("k", now + 4 * MINUTE));
+        assertEquals(ConnectionProbeCache.Decision.PROBE, cache.check("k", now + 5 * MINUTE));
+
+        assertEquals(10 * MINUTE, cache.backoffFor(2));
+        assertEquals(40 * MINUTE, cache.backoffFor(4));
+        assertEquals(60 * MINUTE, cache.backoffFor(5));
+        assertEquals(60 * MINUTE, cache.backoffFor(100));
+
+        cache.recordFailure("k", now);
+        cache.recordFailure("k", now);
+        assertEquals(3, cache.getConsecutiveFailures("k"));
+        assertEquals(now + 20 * MINUTE, cache.getNextProbeAt("k"));
+
+        // 一次成功即重置退避
+        cache.recordSuccess("k", now);
+        assertEquals(0, cache.getConsecutiveFailures("k"));
+        cache.recordFailure("k", now);
+        assertEquals(now + 5 * MINUTE, cache.getNextProbeAt("k"));
+    }
+
+    @Test
+    void testPersistenceRoundTrip(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("logs").resolve("cache.properties");
+        long now = System.currentTimeMillis();
+        ConnectionProbeCache cache = new ConnectionProbeCache(file, 90 * MINUTE, 5 * MINUTE, 240 * MINUTE);
+        cache.recordSuccess("ok", now);
+        cache.recordFailure("bad", now);
+        cache.recordFailure("bad", now);
+        cache.save();
+        assertTrue(Files.exists(file));
+
+        // 旧格式条目（纯时间戳）加载时忽略
+        Files.write(file, "legacy=12345\n".getBytes(), java.nio.file.StandardOpenOption.APPEND);
+
+        ConnectionProbeCache reloaded = new ConnectionProbeCache(file, 90 * MINUTE, 5 * MINUTE, 240 * MINUTE);
+        reloaded.load();
+        assertEquals(2, reloaded.size());
+        assertEquals(ConnectionProbeCache.Decision.CACHED_SUCCESS, reloaded.check("ok", now + MINUTE));
+        assertEquals(ConnectionProbeCache.Decision.CACHED_FAILURE, reloaded.check("bad", now + 9 * MINUTE));
+        assertEquals(2, reloaded.getConsecutiveFailures("bad"));
+        assertEquals(ConnectionProbeCache.Decision.PROBE, reloaded.check("legacy", now));
+    }
+}
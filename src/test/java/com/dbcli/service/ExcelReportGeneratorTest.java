@@ -0,0 +1,228 @@
+package com.dbcli.service;
+
+import com.dbcli.executor.MetricResultSink;
+import com.dbcli.model.MetricResult;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.dbcli.service.ReportTestData.multiResult;
+import static com.dbcli.service.ReportTestData.singleResult;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Excel报告流式接收器测试
+ */
+public class ExcelReportGeneratorTest {
+
+    @Test
+    void testStreamingSinkWritesAllSheets(@TempDir Path tempDir) throws Exception {
+        ExcelReportGenerator generator = new ExcelReportGenerator();
+        MetricResultSink sink = generator.openSink(tempDir.toString(), tempDir.toString());
+
+        // 多值结果先于单值结果到达，且按节点交错推送
+        for (int node = 1; node <= 3; node++) {
+            sink.accept(multiResult("10.0.0." + node, 600));
+            sink.accept(singleResult("10.0.0." + node, node * 10));
+        }
+        MetricResult failed = singleResult("10.0.0.9", 0);
+        failed.setSuccess(false);
+        sink.accept(failed);
+        sink.complete();
+
+        File[] files = tempDir.toFile().listFiles((dir, name) -> name.endsWith(".xlsx"));
+        assertNotNull(files);
+        assertEquals(1, files.length);
+
+        try (FileInputStream in = new FileInputStream(files[0]); Workbook workbook = new XSSFWorkbook(in)) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            assertEquals("执行摘要", workbook.getSheetName(0));
+            assertEquals("MYSQL", workbook.getSheetName(1));
+            assertEquals("MYSQL-会话列表", workbook.getSheetName(2));
+
+            Sheet summary = workbook.getSheetAt(0);
+            assertEquals("7", summary.getRow(4).getCell(1).getStringCellValue());
+            assertEquals("1", summary.getRow(6).getCell(1).getStringCellValue());
+
+            Sheet single = workbook.getSheetAt(1);
+            assertEquals(3, single.getLastRowNum());
+
+            // 超出行窗口的数据已刷写到临时文件，仍应完整写出
+            Sheet multi = workbook.getSheetAt(2);
+            assertEquals(1800, multi.getLastRowNum());
+            assertEquals("节点IP", multi.getRow(0).getCell(2).getStringCellValue());
+            assertEquals("SID", multi.getRow(0).getCell(3).getStringCellValue());
+            assertEquals("10.0.0.3", multi.getRow(1800).getCell(2).getStringCellValue());
+        }
+    }
+
+    @Test
+    void testAbortedSinkReleasesWorkbookWithoutOutput(@TempDir Path tempDir) throws Exception {
+        ExcelReportGenerator generator = new ExcelReportGenerator();
+        // 同名的既有报告不属于本次输出，放弃时不能删除
+        MetricResultSink first = generator.openSink(tempDir.toString(), tempDir.toString());
+        first.accept(singleResult("10.0.0.1", 10));
+        first.complete();
+        File[] existing = tempDir.toFile().listFiles((dir, name) -> name.endsWith(".xlsx"));
+        assertNotNull(existing);
+        assertEquals(1, existing.length);
+        long size = existing[0].length();
+
+        MetricResultSink sink = generator.openSink(tempDir.toString(), tempDir.toString());
+        sink.accept(multiResult("10.0.0.2", 600));
+        sink.abort();
+        sink.abort();
+        sink.accept(singleResult("10.0.0.2", 20));
+        assertThrows(java.io.IOException.class, sink::complete);
+
+        assertTrue(existing[0].exists());
+        assertEquals(size, existing[0].length());
+        first.abort();
+        assertTrue(existing[0].exists());
+    }
+
+    @Test
+    void testNativeWriterFailureLeavesNoFile(@TempDir Path tempDir) {
+        ExcelReportGenerator generator = new ExcelReportGenerator();
+        generator.setNativeWriter(true);
+        MetricResult oversized = multiResult("10.0.0.1", 1);
+        oversized.getMultiValues().get(0).put("USER", "x".repeat(40000));
+        List<MetricResult> results = Arrays.asList(singleResult("10.0.0.1", 10), oversized);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> generator.generate(results, tempDir.toString(), tempDir.toString()));
+        File[] files = tempDir.toFile().listFiles((dir, name) -> name.endsWith(".xlsx"));
+        assertNotNull(files);
+        assertEquals(0, files.length);
+    }
+
+    @Test
+    void testParallelSheetsMatchSequentialOutput(@TempDir Path tempDir) throws Exception {
+        List<MetricResult> results = new ArrayList<>();
+        for (int node = 1; node <= 3; node++) {
+            results.add(singleResult("10.0.0." + node, node * 10));
+            results.add(multiResult("10.0.0." + node, 700));
+            MetricResult locks = multiResult("10.0.0." + node, 5);
+            locks.setMetricName("locks");
+            locks.setMetricDescription("锁等待");
+            results.add(locks);
+        }
+
+        Path sequentialDir = tempDir.resolve("sequential");
+        new ExcelReportGenerator().generate(results, sequentialDir.toString(), tempDir.toString());
+        ExcelReportGenerator parallel = new ExcelReportGenerator();
+        parallel.setSheetThreads(4);
+        Path parallelDir = tempDir.resolve("parallel");
+        parallel.generate(results, parallelDir.toString(), tempDir.toString());
+
+        try (Workbook expected = openReport(sequentialDir); Workbook actual = openReport(parallelDir)) {
+            assertEquals(4, actual.getNumberOfSheets());
+            assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+            for (int i = 0; i < expected.getNumberOfSheets(); i++) {
+                Sheet e = expected.getSheetAt(i);
+                Sheet a = actual.getSheetAt(i);
+                assertEquals(e.getSheetName(), a.getSheetName());
+                assertEquals(e.getLastRowNum(), a.getLastRowNum(), e.getSheetName());
+                for (int r = 0; r <= e.getLastRowNum(); r++) {
+                    if (e.getRow(r) == null) {
+                        continue;
+                    }
+                    for (int c = 0; c < e.getRow(r).getLastCellNum(); c++) {
+                        assertEquals(String.valueOf(e.getRow(r).getCell(c)), String.valueOf(a.getRow(r).getCell(c)),
+                                e.getSheetName() + "!" + r + ":" + c);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testNativeWriterMatchesPoiOutput(@TempDir Path tempDir) throws Exception {
+        Files.write(tempDir.resolve("mysql-metrics.yml"), Arrays.asList(
+                "metrics:",
+                "  - name: connections",
+                "    threshold:",
+                "      rules:",
+                "        - {level: high, operator: '>', value: 25}",
+                "  - name: sessions",
+                "    threshold:",
+                "      rules:",
+                "        - {level: medium, operator: '>=', value: 3, column: SID}"), StandardCharsets.UTF_8);
+        List<MetricResult> results = new ArrayList<>();
+        for (int node = 1; node <= 3; node++) {
+            results.add(singleResult("10.0.0." + node, node * 10));
+            results.add(multiResult("10.0.0." + node, 5));
+        }
+        MetricResult escaped = multiResult("10.0.0.4", 1);
+        escaped.getMultiValues().get(0).put("USER", " <a&b> \n第二行 ");
+        results.add(escaped);
+        MetricResult failed = singleResult("10.0.0.9", 0);
+        failed.setSuccess(false);
+        results.add(failed);
+
+        Path poiDir = tempDir.resolve("poi");
+        new ExcelReportGenerator().generate(results, poiDir.toString(), tempDir.toString());
+        ExcelReportGenerator nativeGenerator = new ExcelReportGenerator();
+        nativeGenerator.setNativeWriter(true);
+        Path nativeDir = tempDir.resolve("native");
+        nativeGenerator.generate(results, nativeDir.toString(), tempDir.toString());
+
+        try (Workbook expected = openReport(poiDir); Workbook actual = openReport(nativeDir)) {
+            assertEquals(3, actual.getNumberOfSheets());
+            assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+            Set<Short> fills = new HashSet<>();
+            for (int i = 0; i < expected.getNumberOfSheets(); i++) {
+                Sheet e = expected.getSheetAt(i);
+                Sheet a = actual.getSheetAt(i);
+                assertEquals(e.getSheetName(), a.getSheetName());
+                assertEquals(e.getLastRowNum(), a.getLastRowNum(), e.getSheetName());
+                assertEquals(e.getNumMergedRegions(), a.getNumMergedRegions(), e.getSheetName());
+                for (int r = 0; r <= e.getLastRowNum(); r++) {
+                    if (e.getRow(r) == null) {
+                        assertNull(a.getRow(r));
+                        continue;
+                    }
+                    assertEquals(e.getRow(r).getLastCellNum(), a.getRow(r).getLastCellNum(), e.getSheetName() + "!" + r);
+                    for (int c = 0; c < e.getRow(r).getLastCellNum(); c++) {
+                        String at = e.getSheetName() + "!" + r + ":" + c;
+                        Cell ec = e.getRow(r).getCell(c);
+                        Cell ac = a.getRow(r).getCell(c);
+                        assertEquals(String.valueOf(ec), String.valueOf(ac), at);
+                        assertEquals(ec.getCellStyle().getFillForegroundColor(), ac.getCellStyle().getFillForegroundColor(), at);
+                        assertEquals(ec.getCellStyle().getFillPattern(), ac.getCellStyle().getFillPattern(), at);
+                        assertEquals(expected.getFontAt(ec.getCellStyle().getFontIndex()).getBold(),
+                                actual.getFontAt(ac.getCellStyle().getFontIndex()).getBold(), at);
+                        fills.add(ac.getCellStyle().getFillForegroundColor());
+                    }
+                }
+                for (int c = 0; c < e.getRow(0).getLastCellNum(); c++) {
+                    assertEquals(e.getColumnWidth(c), a.getColumnWidth(c), e.getSheetName() + " 列宽 " + c);
+                }
+            }
+            // 表头、高风险、中风险三种底色都应出现
+            assertTrue(fills.containsAll(Arrays.asList(IndexedColors.DARK_BLUE.getIndex(),
+                    IndexedColors.RED.getIndex(), IndexedColors.YELLOW.getIndex())), fills.toString());
+            assertEquals(" <a&b> \n第二行 ", actual.getSheet("MYSQL-会话列表").getRow(16).getCell(4).getStringCellValue());
+        }
+    }
+
+    private Workbook openReport(Path dir) throws Exception {
+        File[] files = dir.toFile().listFiles((d, name) -> name.endsWith(".xlsx"));
+        assertNotNull(files);
+        assertEquals(1, files.length);
+        try (FileInputStream in = new FileInputStream(files[0])) {
+            return new XSSFWorkbook(in);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.dbcli.service;
+
+import com.dbcli.model.MetricResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.dbcli.service.ReportTestData.multiResult;
+import static com.dbcli.service.ReportTestData.singleResult;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HTML报告流式渲染测试
+ */
+public class HtmlReportGeneratorTest {
+
+    @Test
+    void testTabbedReportStreamsSectionsToWriter() throws Exception {
+        Map<String, List<MetricResult>> singleByType = new HashMap<>();
+        Map<String, Map<String, List<MetricResult>>> multiGrouped = new HashMap<>();
+        for (int node = 1; node <= 3; node++) {
+            singleByType.computeIfAbsent("mysql", k -> new ArrayList<>()).add(singleResult("10.0.0." + node, node));
+            multiGrouped.computeIfAbsent("mysql", k -> new HashMap<>())
+                    .computeIfAbsent("会话列表", k -> new ArrayList<>()).add(multiResult("10.0.0." + node, 5000));
+        }
+
+        // 记录单次写入的最大长度：流式渲染时不应出现整页或整节的大字符串
+        class RecordingAppendable implements Appendable {
+            final StringBuilder content = new StringBuilder();
+            int maxWrite;
+
+            @Override
+            public Appendable append(CharSequence csq) {
+                maxWrite = Math.max(maxWrite, csq.length());
+                content.append(csq);
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        }
+        RecordingAppendable out = new RecordingAppendable();
+        new HtmlReportGenerator().renderTabbedReport(singleByType, multiGrouped, out);
+
+        String html = out.content.toString();
+        assertTrue(html.length() > 1_000_000, "报告应足够大以验证流式写出: " + html.length());
+        assertTrue(out.maxWrite < 16 * 1024, "单次写入过大: " + out.maxWrite);
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.endsWith("</html>\n"));
+        assertTrue(html.contains("data-target=\"sheet-single-mysql\""));
+        assertTrue(html.contains("<div id=\"sheet-multi-mysql-会话列表\" class=\"sheet\">"));
+        assertTrue(html.contains("<td>u4999</td>"));
+    }
+
+    @Test
+    void testGenerateWritesTabbedFile(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("report.html");
+        new HtmlReportGenerator().generate(
+                Arrays.asList(singleResult("10.0.0.1", 42), multiResult("10.0.0.1", 2)),
+                file.toString(), tempDir.toString());
+
+        String html = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertTrue(html.contains("<th>连接数</th>"));
+        assertTrue(html.contains("<td>42</td>"));
+        assertTrue(html.contains("<td>u1</td>"));
+    }
+}
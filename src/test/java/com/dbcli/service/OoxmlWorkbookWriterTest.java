@@ -0,0 +1,100 @@
+package com.dbcli.service;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 原生OOXML写出器测试
+ */
+public class OoxmlWorkbookWriterTest {
+
+    @Test
+    void testCellRef() {
+        assertEquals("A1", OoxmlWorkbookWriter.cellRef(0, 0));
+        assertEquals("Z3", OoxmlWorkbookWriter.cellRef(2, 25));
+        assertEquals("AA1", OoxmlWorkbookWriter.cellRef(0, 26));
+        assertEquals("XFD1048576", OoxmlWorkbookWriter.cellRef(1048575, 16383));
+    }
+
+    @Test
+    void testWrittenWorkbookOpensWithPoi(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("native.xlsx");
+        try (OoxmlWorkbookWriter writer = new OoxmlWorkbookWriter(file, 3000, 12000)) {
+            OoxmlWorkbookWriter.SheetWriter first = writer.startSheet("摘要");
+            first.mergedCell(0, 0, 3, "标题", OoxmlWorkbookWriter.STYLE_SUMMARY_HEADER);
+            first.cell(2, 0, "a\u0001<b>&\"c\"", OoxmlWorkbookWriter.STYLE_NORMAL);
+            first.cell(2, 2, null, OoxmlWorkbookWriter.STYLE_HIGH_RISK);
+            assertThrows(IllegalStateException.class, () -> writer.startSheet("other"));
+            assertThrows(IllegalStateException.class, () -> first.cell(2, 1, "x", OoxmlWorkbookWriter.STYLE_NORMAL));
+            first.finish(4);
+
+            assertThrows(IllegalArgumentException.class, () -> writer.startSheet("摘要"));
+            OoxmlWorkbookWriter.SheetWriter second = writer.startSheet("data");
+            second.cell(0, 0, "x".repeat(100), OoxmlWorkbookWriter.STYLE_HEADER);
+            second.finish(2);
+            assertEquals(2, writer.getSheetCount());
+        }
+
+        try (FileInputStream in = new FileInputStream(file.toFile()); Workbook workbook = new XSSFWorkbook(in)) {
+            assertEquals(2, workbook.getNumberOfSheets());
+            Sheet summary = workbook.getSheet("摘要");
+            assertEquals("标题", summary.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(1, summary.getNumMergedRegions());
+            assertEquals("A1:D1", summary.getMergedRegion(0).formatAsString());
+            assertNull(summary.getRow(1));
+            assertEquals("a<b>&\"c\"", summary.getRow(2).getCell(0).getStringCellValue());
+            assertEquals("", summary.getRow(2).getCell(2).getStringCellValue());
+            assertEquals(3000, summary.getColumnWidth(1));
+
+            Sheet data = workbook.getSheet("data");
+            assertEquals(12000, data.getColumnWidth(0));
+            assertTrue(workbook.getFontAt(data.getRow(0).getCell(0).getCellStyle().getFontIndex()).getBold());
+        }
+    }
+
+    @Test
+    void testExcelLimitsAreEnforced(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("limits.xlsx");
+        try (OoxmlWorkbookWriter writer = new OoxmlWorkbookWriter(file, 3000, 12000)) {
+            OoxmlWorkbookWriter.SheetWriter sheet = writer.startSheet("data");
+            sheet.cell(0, 0, "x".repeat(32767), OoxmlWorkbookWriter.STYLE_NORMAL);
+            assertThrows(IllegalArgumentException.class,
+                    () -> sheet.cell(1, 0, "x".repeat(32768), OoxmlWorkbookWriter.STYLE_NORMAL));
+            assertThrows(IllegalArgumentException.class,
+                    () -> sheet.cell(2, 16384, "x", OoxmlWorkbookWriter.STYLE_NORMAL));
+            sheet.cell(1048575, 0, "last", OoxmlWorkbookWriter.STYLE_NORMAL);
+            assertThrows(IllegalArgumentException.class,
+                    () -> sheet.cell(1048576, 0, "x", OoxmlWorkbookWriter.STYLE_NORMAL));
+            sheet.finish(1);
+        }
+
+        try (FileInputStream in = new FileInputStream(file.toFile()); Workbook workbook = new XSSFWorkbook(in)) {
+            Sheet data = workbook.getSheet("data");
+            assertEquals(32767, data.getRow(0).getCell(0).getStringCellValue().length());
+            assertEquals("last", data.getRow(1048575).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    void testAbortDeletesPartialFile(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("partial.xlsx");
+        OoxmlWorkbookWriter writer = new OoxmlWorkbookWriter(file, 3000, 12000);
+        OoxmlWorkbookWriter.SheetWriter first = writer.startSheet("first");
+        first.cell(0, 0, "a", OoxmlWorkbookWriter.STYLE_NORMAL);
+        first.finish(1);
+        writer.startSheet("second").cell(0, 0, "b", OoxmlWorkbookWriter.STYLE_NORMAL);
+        writer.abort();
+        assertFalse(Files.exists(file));
+        writer.close();
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,62 @@
+package com.dbcli.service;
+
+import com.dbcli.model.MetricResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报告生成器测试共用的指标结果
+ */
+final class ReportTestData {
+
+    private ReportTestData() {
+    }
+
+    /**
+     * 单值指标结果：connections（连接数）
+     */
+    static MetricResult singleResult(String nodeIp, int value) {
+        MetricResult result = baseResult(nodeIp);
+        result.setMetricName("connections");
+        result.setMetricDescription("连接数");
+        result.setMetricType("SINGLE");
+        result.setValue(value);
+        return result;
+    }
+
+    /**
+     * 多值指标结果：sessions（会话列表），列为 SID/USER
+     */
+    static MetricResult multiResult(String nodeIp, int rows) {
+        MetricResult result = baseResult(nodeIp);
+        result.setMetricName("sessions");
+        result.setMetricDescription("会话列表");
+        result.setMetricType("MULTI");
+        result.setColumns(Arrays.asList("SID", "USER"));
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("SID", i);
+            row.put("USER", "u" + i);
+            data.add(row);
+        }
+        result.setMultiValues(data);
+        return result;
+    }
+
+    private static MetricResult baseResult(String nodeIp) {
+        MetricResult result = new MetricResult();
+        result.setSystemName("sys");
+        result.setDatabaseName("db");
+        result.setNodeIp(nodeIp);
+        result.setDbType("mysql");
+        result.setExecuteTime(LocalDateTime.now());
+        result.setSuccess(true);
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.dbcli.service;
+
+import com.dbcli.model.MetricConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 阈值引擎测试
+ */
+public class ThresholdEngineTest {
+
+    @Test
+    void testRulesMatchInOrderAndInheritColumn(@TempDir Path tempDir) throws Exception {
+        write(tempDir.resolve("dm-metrics.yml"),
+                "- name: tablespace_usage",
+                "  description: 表空间使用率",
+                "  threshold:",
+                "    column: \"使用率\"",
+                "    rules:",
+                "      - {level: high, operator: '>', value: 80}",
+                "      - {level: medium, operator: '>', value: 60}",
+                "      - {level: medium, column: \"账号状态\", operator: '!=', value: OPEN}");
+        ThresholdEngine engine = ThresholdEngine.forMetricsDir(tempDir.toString());
+
+        ThresholdEngine.MetricThresholds t = engine.find("DAMENG", "unknown", "表空间 使用率");
+        assertNotNull(t);
+        assertSame(t, engine.find("dm", "TABLESPACE_USAGE", null));
+        assertNull(engine.find("mysql", "tablespace_usage", null));
+
+        assertEquals(ThresholdEngine.Level.HIGH, t.matchColumn("使用率", "85.5%").getSeverity());
+        assertEquals(ThresholdEngine.Level.MEDIUM, t.matchColumn("使用率", 70).getSeverity());
+        assertNull(t.matchColumn("使用率", "50"));
+        assertNull(t.matchColumn("使用率", "n/a"));
+        assertNull(t.matchColumn("其他列", 99));
+        assertEquals("medium", t.matchColumn("账号状态", "LOCKED").getLevel());
+        assertNull(t.matchColumn("账号状态", " OPEN "));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(Collections.singletonMap("使用率", "65"));
+        assertEquals(ThresholdEngine.Level.MEDIUM, t.highestLevel(rows));
+        rows.add(Collections.singletonMap("使用率", "1,000"));
+        assertEquals(ThresholdEngine.Level.HIGH, t.highestLevel(rows));
+    }
+
+    @Test
+    void testLegacyThresholdForms() {
+        MetricConfig.Threshold byColumn = new MetricConfig.Threshold();
+        byColumn.setLevel("medium");
+        byColumn.setOperator(">=");
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("ACTIVE_SESSIONS", 100);
+        byColumn.setValue(columns);
+        ThresholdEngine.MetricThresholds map = ThresholdEngine.compile(byColumn);
+        assertEquals("medium", map.matchColumn("active sessions", 100).getLevel());
+        assertNull(map.matchColumn("active sessions", 99));
+        assertNull(map.matchSingle(500));
+        assertFalse(map.isScalar());
+
+        MetricConfig.Threshold scalar = new MetricConfig.Threshold();
+        scalar.setLevel("low");
+        scalar.setValue("90");
+        ThresholdEngine.MetricThresholds single = ThresholdEngine.compile(scalar);
+        assertTrue(single.isScalar());
+        ThresholdEngine.Rule hit = single.matchSingle(91);
+        assertEquals(ThresholdEngine.Level.HIGH, hit.getSeverity());
+        assertEquals("low", hit.getLevel());
+        assertNull(single.matchSingle(90));
+        assertNull(single.matchColumn("VALUE", 95));
+    }
+
+    @Test
+    void testCompiledEngineSharedUntilFilesChange(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("mysql-metrics.yml");
+        write(file, "metrics:", "  - name: connections", "    threshold: {level: high, operator: '>', value: 10}");
+        ThresholdEngine first = ThresholdEngine.forMetricsDir(tempDir.toString());
+        assertSame(first, ThresholdEngine.forMetricsDir(tempDir.toString()));
+        assertEquals(1, first.size());
+        assertNotNull(first.find("mysql", "connections", null).matchSingle(11));
+
+        write(file, "metrics:", "  - name: connections", "    threshold: {level: high, operator: '>', value: 100}");
+        file.toFile().setLastModified(file.toFile().lastModified() + 2000);
+        ThresholdEngine reloaded = ThresholdEngine.forMetricsDir(tempDir.toString());
+        assertNotSame(first, reloaded);
+        assertNull(reloaded.find("mysql", "connections", null).matchSingle(11));
+
+        assertEquals(0, ThresholdEngine.forMetricsDir(tempDir.resolve("missing").toString()).size());
+    }
+
+    @Test
+    void testToNumber() {
+        assertEquals(12.5, ThresholdEngine.toNumber("12.5%"));
+        assertEquals(1234567.0, ThresholdEngine.toNumber(" 1,234,567 "));
+        assertEquals(3.0, ThresholdEngine.toNumber(3L));
+        assertTrue(Double.isNaN(ThresholdEngine.toNumber("OPEN")));
+        assertTrue(Double.isNaN(ThresholdEngine.toNumber("-")));
+        assertTrue(Double.isNaN(ThresholdEngine.toNumber(null)));
+    }
+
+    private void write(Path file, String... lines) throws Exception {
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+}